@@ -0,0 +1,10 @@
+package com.joelcode.personalinvestmentportfoliotracker.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+// Registers the transport settings shared by the FinnHub and MarketAux clients
+@Configuration
+@EnableConfigurationProperties(MarketDataHttpProperties.class)
+public class MarketDataHttpConfig {
+}
@@ -0,0 +1,40 @@
+package com.joelcode.personalinvestmentportfoliotracker.config;
+
+import com.joelcode.personalinvestmentportfoliotracker.services.http.MarketDataEndpoint;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Settings for the market data HTTP transport, bound from market-data.http
+ *
+ * Each endpoint type has its own connect timeout, read timeout (until the response headers
+ * arrive) and overall deadline (permit wait, connection wait, request and body together).
+ * Endpoint types without an entry use the defaults below.
+ */
+@ConfigurationProperties(prefix = "market-data.http")
+public record MarketDataHttpProperties(
+        @DefaultValue("8") int maxConnectionsPerHost,
+        @DefaultValue("true") boolean gzip,
+        @DefaultValue Map<String, Timeouts> endpoints) {
+
+    private static final Timeouts DEFAULT_TIMEOUTS = new Timeouts(2000, 5000, 8000);
+
+    public Timeouts timeouts(MarketDataEndpoint endpoint) {
+        return endpoints == null ? DEFAULT_TIMEOUTS : endpoints.getOrDefault(endpoint.key(), DEFAULT_TIMEOUTS);
+    }
+
+    public record Timeouts(
+            @DefaultValue("2000") long connectTimeoutMs,
+            @DefaultValue("5000") long readTimeoutMs,
+            @DefaultValue("8000") long deadlineMs) {
+
+        public Duration connectTimeout() { return Duration.ofMillis(connectTimeoutMs); }
+
+        public Duration readTimeout() { return Duration.ofMillis(readTimeoutMs); }
+
+        public Duration deadline() { return Duration.ofMillis(deadlineMs); }
+    }
+}
@@ -1,6 +1,8 @@
 package com.joelcode.personalinvestmentportfoliotracker.config;
 
+import com.joelcode.personalinvestmentportfoliotracker.services.websocket.PriceTickThrottle;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -17,6 +19,12 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final PriceTickThrottle priceTickThrottle;
+
+    public WebSocketConfig(PriceTickThrottle priceTickThrottle) {
+        this.priceTickThrottle = priceTickThrottle;
+    }
+
     // Creates the client container which contains the message and sets prefixes to tell the container where to go in the server
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
@@ -31,6 +39,13 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     }
 
 
+    // Caps how many price ticks each session receives per second
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(priceTickThrottle);
+    }
+
+
     // Creates the STOMP endpoints that the message broker will route to
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
@@ -10,6 +10,7 @@ import com.joelcode.personalinvestmentportfoliotracker.dto.auth.RegistrationRequ
 import com.joelcode.personalinvestmentportfoliotracker.dto.auth.RefreshTokenRequest;
 import com.joelcode.personalinvestmentportfoliotracker.dto.user.UserDTO;
 import com.joelcode.personalinvestmentportfoliotracker.entities.User;
+import com.joelcode.personalinvestmentportfoliotracker.jwt.JwtPrincipalCache;
 import com.joelcode.personalinvestmentportfoliotracker.jwt.JwtTokenProvider;
 import com.joelcode.personalinvestmentportfoliotracker.model.CustomUserDetails;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.UserRepository;
@@ -43,6 +44,7 @@ public class AuthController {
     private final JwtTokenProvider jwtTokenProvider;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final JwtPrincipalCache jwtPrincipalCache;
 
     // In-memory store for password reset tokens (userId -> resetToken)
     private static final Map<UUID, String> resetTokens = new HashMap<>();
@@ -51,11 +53,13 @@ public class AuthController {
     public AuthController(AuthenticationManager authenticationManager,
                           JwtTokenProvider jwtTokenProvider,
                           UserRepository userRepository,
-                          PasswordEncoder passwordEncoder) {
+                          PasswordEncoder passwordEncoder,
+                          JwtPrincipalCache jwtPrincipalCache) {
         this.authenticationManager = authenticationManager;
         this.jwtTokenProvider = jwtTokenProvider;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.jwtPrincipalCache = jwtPrincipalCache;
     }
 
     //Login to existing account - POST /api/auth/login
@@ -218,6 +222,7 @@ public class AuthController {
 
         dbUser.setPassword(passwordEncoder.encode(request.getNewPassword()));
         userRepository.save(dbUser);
+        jwtPrincipalCache.evict(dbUser.getUserId());
 
         return ResponseEntity.ok(Map.of("message", "Password changed successfully"));
     }
@@ -262,6 +267,7 @@ public class AuthController {
         // Update user password
         user.setPassword(passwordEncoder.encode(request.getNewPassword()));
         userRepository.save(user);
+        jwtPrincipalCache.evict(userId);
 
         // Remove used token
         resetTokens.remove(userId);
@@ -1,5 +1,6 @@
 package com.joelcode.personalinvestmentportfoliotracker.controllers;
 
+import com.joelcode.personalinvestmentportfoliotracker.services.websocket.PriceSubscriptionRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.messaging.handler.annotation.MessageMapping;
@@ -14,6 +15,7 @@ import java.util.UUID;
 // WebSocket controller for real-time portfolio updates
 //Client sends to: /app/portfolio/subscribe
 //Server broadcasts to: /topic/portfolio/{accountId}
+//Price ticks go to: /topic/stocks/{code}
 @Controller
 @Profile("!test")
 public class WebSocketController {
@@ -50,7 +52,8 @@ public class WebSocketController {
                 message
         );
     }
-    // Broadcast stock price update to all subscribers, called when stock prices are updated
+    // Broadcast stock price update to the subscribers of that symbol. Unconditional; price changes from the
+    // service layer go through PriceTickPublisher, which skips unwatched symbols and unchanged prices
     public void broadcastStockPriceUpdate(UUID stockId, String stockCode, BigDecimal newPrice) {
         StockPriceUpdateMessage message = new StockPriceUpdateMessage(
                 stockId,
@@ -59,8 +62,8 @@ public class WebSocketController {
                 LocalDateTime.now()
         );
 
-        // Broadcast to all subscribers on this topic
-        messagingTemplate.convertAndSend("/topic/stocks/prices", message);
+        // Broadcast to the per-symbol topic
+        messagingTemplate.convertAndSend(PriceSubscriptionRegistry.topicFor(stockCode), message);
     }
 
     //Send user-specific notification. Only the specific user will receive this message
@@ -2,12 +2,19 @@ package com.joelcode.personalinvestmentportfoliotracker.controllers.entitycontro
 
 import com.joelcode.personalinvestmentportfoliotracker.dto.pricehistory.PriceHistoryDTO;
 import com.joelcode.personalinvestmentportfoliotracker.dto.pricehistory.PriceHistoryCreateRequest;
+import com.joelcode.personalinvestmentportfoliotracker.dto.pricehistory.PriceHistoryIngestResult;
+import com.joelcode.personalinvestmentportfoliotracker.services.pricehistory.PriceBarFormat;
+import com.joelcode.personalinvestmentportfoliotracker.services.pricehistory.PriceHistoryIngestService;
 import com.joelcode.personalinvestmentportfoliotracker.services.pricehistory.PriceHistoryService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -19,6 +26,9 @@ public class PriceHistoryController {
     @Autowired
     public PriceHistoryService priceHistoryService;
 
+    @Autowired
+    public PriceHistoryIngestService priceHistoryIngestService;
+
     // Get all price history records
     @GetMapping
     public ResponseEntity<List<PriceHistoryDTO>> getAllPriceHistory() {
@@ -43,6 +53,13 @@ public class PriceHistoryController {
         return ResponseEntity.ok(created);
     }
 
+    // Bulk upsert price history for many symbols from an NDJSON or CSV body, read as a stream
+    @PostMapping(value = "/bulk", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<PriceHistoryIngestResult> bulkIngestPriceHistory(HttpServletRequest request) throws IOException {
+        PriceBarFormat format = PriceBarFormat.fromContentType(request.getContentType());
+        return ResponseEntity.ok(priceHistoryIngestService.ingest(request.getInputStream(), format));
+    }
+
     // Delete a price history record
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deletePriceHistory(@PathVariable UUID id) {
@@ -56,6 +73,15 @@ public class PriceHistoryController {
         return ResponseEntity.ok(priceHistoryService.getPriceHistoryForStock(stockId));
     }
 
+    // Get price history for a stock between two times, at a granularity chosen from the range
+    @GetMapping("/stock/{stockId}/series")
+    public ResponseEntity<List<PriceHistoryDTO>> getPriceHistorySeries(
+            @PathVariable UUID stockId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(priceHistoryService.getPriceHistoryForStock(stockId, from, to));
+    }
+
     // Get latest price for a specific stock
     @GetMapping("/stock/{stockId}/latest")
     public ResponseEntity<PriceHistoryDTO> getLatestPriceForStock(@PathVariable UUID stockId) {
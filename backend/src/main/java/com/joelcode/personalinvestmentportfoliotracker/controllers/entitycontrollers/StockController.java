@@ -8,6 +8,7 @@ import com.joelcode.personalinvestmentportfoliotracker.dto.stock.StockCreateRequ
 import com.joelcode.personalinvestmentportfoliotracker.dto.stock.StockDTO;
 import com.joelcode.personalinvestmentportfoliotracker.dto.stock.StockUpdateRequest;
 import com.joelcode.personalinvestmentportfoliotracker.services.finnhub.FinnhubApiClient;
+import com.joelcode.personalinvestmentportfoliotracker.services.marketdata.CandleService;
 import com.joelcode.personalinvestmentportfoliotracker.services.stock.StockService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,6 +31,9 @@ public class StockController {
     @Autowired
     public FinnhubApiClient finnhubApiClient;
 
+    @Autowired
+    public CandleService candleService;
+
     // Get all stocks
     @GetMapping
     public ResponseEntity<List<StockDTO>> getAllStocks() {
@@ -139,7 +143,7 @@ public class StockController {
         }
     }
 
-    // Get historical candle data from FinnHub
+    // Get historical candle data, from the local candle store with only missing ranges fetched from FinnHub
     @GetMapping("/finnhub/candles/{symbol}")
     public ResponseEntity<?> getFinnhubCandles(
             @PathVariable String symbol,
@@ -147,7 +151,7 @@ public class StockController {
             @RequestParam long from,
             @RequestParam long to) {
         try {
-            FinnhubCandleDTO candles = finnhubApiClient.getCandles(symbol, resolution, from, to);
+            FinnhubCandleDTO candles = candleService.getCandles(symbol, resolution, from, to);
             return ResponseEntity.ok(candles);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error fetching candles for symbol: " + symbol);
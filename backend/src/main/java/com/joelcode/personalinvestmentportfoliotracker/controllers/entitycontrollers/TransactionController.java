@@ -2,6 +2,7 @@ package com.joelcode.personalinvestmentportfoliotracker.controllers.entitycontro
 
 import com.joelcode.personalinvestmentportfoliotracker.dto.transaction.TransactionCreateRequest;
 import com.joelcode.personalinvestmentportfoliotracker.dto.transaction.TransactionDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.transaction.TransactionFeedDTO;
 import com.joelcode.personalinvestmentportfoliotracker.entities.Transaction;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.TransactionRepository;
 import com.joelcode.personalinvestmentportfoliotracker.services.mapping.TransactionMapper;
@@ -36,6 +37,15 @@ public class TransactionController {
         return ResponseEntity.ok(transactionService.getAllTransactions());
     }
 
+    // Get a cursor-paged feed, newest first, for one account or across all of a user's accounts
+    @GetMapping("/feed")
+    public ResponseEntity<TransactionFeedDTO> getTransactionFeed(@RequestParam(required = false) UUID accountId,
+                                                                 @RequestParam(required = false) UUID userId,
+                                                                 @RequestParam(required = false) String cursor,
+                                                                 @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(transactionService.getTransactionFeed(accountId, userId, cursor, limit));
+    }
+
     // Get a transaction by ID
     @GetMapping("/{id}")
     public ResponseEntity<TransactionDTO> getTransactionById(@PathVariable UUID id) {
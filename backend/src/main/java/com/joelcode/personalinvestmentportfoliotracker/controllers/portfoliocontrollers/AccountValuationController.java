@@ -0,0 +1,33 @@
+package com.joelcode.personalinvestmentportfoliotracker.controllers.portfoliocontrollers;
+
+import com.joelcode.personalinvestmentportfoliotracker.dto.valuation.ValuationDriftDTO;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.AccountValuation;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.AccountValuationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/portfolio/valuation")
+@Profile("!test")
+public class AccountValuationController {
+
+    @Autowired
+    AccountValuationService accountValuationService;
+
+    // Compare every cached account valuation with the ledger
+    @GetMapping("/verify")
+    public ResponseEntity<List<ValuationDriftDTO>> verify() {
+        return ResponseEntity.ok(accountValuationService.verifyAll());
+    }
+
+    // Recompute one account valuation from the ledger
+    @PostMapping("/{accountId}/rebuild")
+    public ResponseEntity<AccountValuation> rebuild(@PathVariable UUID accountId) {
+        return ResponseEntity.ok(accountValuationService.rebuild(accountId));
+    }
+}
@@ -1,13 +1,13 @@
 package com.joelcode.personalinvestmentportfoliotracker.controllers.utilitycontrollers;
 
 import com.joelcode.personalinvestmentportfoliotracker.dto.news.NewsArticleDTO;
-import com.joelcode.personalinvestmentportfoliotracker.services.news.MarketAuxApiClient;
+import com.joelcode.personalinvestmentportfoliotracker.services.news.NewsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 @RestController
@@ -16,8 +16,9 @@ import java.util.List;
 @Profile("!test")
 public class NewsController {
 
+    // Articles come from the local store, refreshed in the background within the MarketAux quota
     @Autowired
-    private MarketAuxApiClient marketAuxApiClient;
+    private NewsService newsService;
 
     // Get all news with optional limit
     @GetMapping
@@ -25,7 +26,7 @@ public class NewsController {
             @RequestParam(value = "limit", defaultValue = "50") int limit
     ) {
         try {
-            List<NewsArticleDTO> news = marketAuxApiClient.getAllNews(limit);
+            List<NewsArticleDTO> news = newsService.getLatestNews(limit);
             return ResponseEntity.ok(news);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
@@ -39,7 +40,7 @@ public class NewsController {
             @RequestParam(value = "limit", defaultValue = "50") int limit
     ) {
         try {
-            List<NewsArticleDTO> news = marketAuxApiClient.getNewsBySector(sector, limit);
+            List<NewsArticleDTO> news = newsService.getNewsBySector(sector, limit);
             return ResponseEntity.ok(news);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(List.of());
@@ -53,36 +54,10 @@ public class NewsController {
             @RequestParam(value = "limit", defaultValue = "50") int limit
     ) {
         try {
-            // Convert sectors to industries for API call
-            List<String> industries = new ArrayList<>();
-            for (String sector : sectors) {
-                String[] sectorIndustries = getSectorIndustries(sector);
-                for (String industry : sectorIndustries) {
-                    if (!industries.contains(industry)) {
-                        industries.add(industry);
-                    }
-                }
-            }
-
-            List<NewsArticleDTO> news = marketAuxApiClient.getNewsByIndustries(
-                    industries.toArray(new String[0]),
-                    limit
-            );
+            List<NewsArticleDTO> news = newsService.getNewsBySectors(Arrays.asList(sectors), limit);
             return ResponseEntity.ok(news);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(List.of());
         }
     }
-
-    private String[] getSectorIndustries(String sector) {
-        return switch (sector) {
-            case "Technology" -> new String[]{"technology", "communication services"};
-            case "Semiconductors" -> new String[]{"technology"};
-            case "FinTech" -> new String[]{"financial", "financial services"};
-            case "Consumer/Tech" -> new String[]{"services", "consumer cyclical", "consumer defensive"};
-            case "Healthcare" -> new String[]{"healthcare"};
-            case "Retail" -> new String[]{"consumer goods", "consumer cyclical", "consumer defensive"};
-            default -> new String[]{};
-        };
-    }
 }
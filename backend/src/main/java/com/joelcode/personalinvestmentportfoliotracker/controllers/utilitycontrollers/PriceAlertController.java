@@ -8,6 +8,7 @@ import com.joelcode.personalinvestmentportfoliotracker.entities.User;
 import com.joelcode.personalinvestmentportfoliotracker.model.CustomUserDetails;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.PriceAlertRepository;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.StockRepository;
+import com.joelcode.personalinvestmentportfoliotracker.services.pricealert.PriceAlertService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
@@ -33,6 +34,9 @@ public class PriceAlertController {
     @Autowired
     private StockRepository stockRepository;
 
+    @Autowired
+    private PriceAlertService priceAlertService;
+
     // GET /api/price-alerts - Get all price alerts for authenticated user
     @GetMapping
     @PreAuthorize("isAuthenticated()")
@@ -88,6 +92,7 @@ public class PriceAlertController {
         // Create new price alert
         PriceAlert alert = new PriceAlert(user, stock, request.getType(), request.getTargetPrice());
         priceAlertRepository.save(alert);
+        priceAlertService.register(alert);
 
         PriceAlertDTO dto = new PriceAlertDTO(
                 alert.getAlertId(),
@@ -123,6 +128,7 @@ public class PriceAlertController {
         }
 
         priceAlertRepository.delete(alert);
+        priceAlertService.unregister(alertId);
         return ResponseEntity.noContent().build();
     }
 }
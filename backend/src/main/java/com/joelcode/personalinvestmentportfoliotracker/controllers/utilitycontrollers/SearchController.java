@@ -1,16 +1,18 @@
 package com.joelcode.personalinvestmentportfoliotracker.controllers.utilitycontrollers;
 
 import com.joelcode.personalinvestmentportfoliotracker.dto.utility.SearchDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.utility.StockSuggestionDTO;
 import com.joelcode.personalinvestmentportfoliotracker.services.utility.SearchService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.UUID;
 
 @RestController
-@RequestMapping("/search")
+@RequestMapping("/api/search")
 @Profile("!test")
 public class SearchController {
 
@@ -26,4 +28,13 @@ public class SearchController {
         SearchDTO results = searchService.search(query, userId);
         return ResponseEntity.ok(results);
     }
+
+    // Typeahead suggestions for stock codes and company names
+    @GetMapping("/suggest")
+    public ResponseEntity<List<StockSuggestionDTO>> suggest(
+            @RequestParam("query") String query,
+            @RequestParam(value = "limit", defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(searchService.suggest(query, limit));
+    }
 }
@@ -7,7 +7,8 @@ import com.joelcode.personalinvestmentportfoliotracker.entities.Watchlist;
 import com.joelcode.personalinvestmentportfoliotracker.model.CustomUserDetails;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.StockRepository;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.WatchlistRepository;
-import com.joelcode.personalinvestmentportfoliotracker.services.finnhub.FinnhubApiClient;
+import com.joelcode.personalinvestmentportfoliotracker.services.marketdata.QuoteService;
+import com.joelcode.personalinvestmentportfoliotracker.services.marketdata.StockQuote;
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -15,7 +16,6 @@ import org.springframework.security.core.Authentication;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -29,13 +29,13 @@ public class WatchlistController {
 
     private final WatchlistRepository watchlistRepository;
     private final StockRepository stockRepository;
-    private final FinnhubApiClient finnhubApiClient;
+    private final QuoteService quoteService;
 
     public WatchlistController(WatchlistRepository watchlistRepository, StockRepository stockRepository,
-                               FinnhubApiClient finnhubApiClient) {
+                               QuoteService quoteService) {
         this.watchlistRepository = watchlistRepository;
         this.stockRepository = stockRepository;
-        this.finnhubApiClient = finnhubApiClient;
+        this.quoteService = quoteService;
     }
 
     // GET /api/watchlist - Get user's watchlist
@@ -45,32 +45,12 @@ public class WatchlistController {
         CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
         User user = userDetails.getUser();
 
-        List<Watchlist> watchlist = watchlistRepository.findByUser_UserId(user.getUserId());
+        // Rows and stocks in one query, then every price in one bounded batch
+        List<Watchlist> watchlist = watchlistRepository.findByUserIdWithStock(user.getUserId());
+        Map<UUID, StockQuote> quotes = quoteService.getQuotes(watchlist.stream().map(Watchlist::getStock).toList());
+
         List<WatchlistItemDTO> items = watchlist.stream()
-                .map(w -> {
-                    Stock stock = w.getStock();
-                    BigDecimal currentPrice = finnhubApiClient.getCurrentPrice(stock.getStockCode());
-                    if (currentPrice == null) {
-                        currentPrice = stock.getStockValue();
-                    }
-                    BigDecimal previousPrice = stock.getStockValue();
-                    BigDecimal change = currentPrice.subtract(previousPrice);
-                    BigDecimal changePercent = previousPrice.compareTo(BigDecimal.ZERO) > 0
-                            ? change.divide(previousPrice, 4, java.math.RoundingMode.HALF_UP).multiply(new BigDecimal(100))
-                            : BigDecimal.ZERO;
-
-                    return new WatchlistItemDTO(
-                            w.getWatchlistId(),
-                            user.getUserId(),
-                            stock.getStockId(),
-                            stock.getStockCode(),
-                            stock.getCompanyName(),
-                            currentPrice,
-                            change,
-                            changePercent,
-                            w.getAddedAt()
-                    );
-                })
+                .map(w -> toDto(w, user, quotes.get(w.getStock().getStockId())))
                 .collect(Collectors.toList());
 
         return ResponseEntity.ok(items);
@@ -101,27 +81,7 @@ public class WatchlistController {
         Watchlist watchlist = new Watchlist(user, stock);
         watchlistRepository.save(watchlist);
 
-        BigDecimal currentPrice = finnhubApiClient.getCurrentPrice(stock.getStockCode());
-        if (currentPrice == null) {
-            currentPrice = stock.getStockValue();
-        }
-        BigDecimal previousPrice = stock.getStockValue();
-        BigDecimal change = currentPrice.subtract(previousPrice);
-        BigDecimal changePercent = previousPrice.compareTo(BigDecimal.ZERO) > 0
-                ? change.divide(previousPrice, 4, java.math.RoundingMode.HALF_UP).multiply(new BigDecimal(100))
-                : BigDecimal.ZERO;
-
-        WatchlistItemDTO dto = new WatchlistItemDTO(
-                watchlist.getWatchlistId(),
-                user.getUserId(),
-                stock.getStockId(),
-                stock.getStockCode(),
-                stock.getCompanyName(),
-                currentPrice,
-                change,
-                changePercent,
-                watchlist.getAddedAt()
-        );
+        WatchlistItemDTO dto = toDto(watchlist, user, quoteService.getQuote(stock));
 
         return ResponseEntity.ok(dto);
     }
@@ -151,4 +111,24 @@ public class WatchlistController {
         boolean inWatchlist = watchlistRepository.existsByUser_UserIdAndStock_StockId(user.getUserId(), stockId);
         return ResponseEntity.ok(Map.of("inWatchlist", inWatchlist));
     }
-}
\ No newline at end of file
+
+    // Helper functions
+
+    private WatchlistItemDTO toDto(Watchlist watchlist, User user, StockQuote quote) {
+        Stock stock = watchlist.getStock();
+        WatchlistItemDTO dto = new WatchlistItemDTO(
+                watchlist.getWatchlistId(),
+                user.getUserId(),
+                stock.getStockId(),
+                stock.getStockCode(),
+                stock.getCompanyName(),
+                quote.price(),
+                quote.change(),
+                quote.changePercent(),
+                watchlist.getAddedAt()
+        );
+        dto.setPreviousClose(quote.previousClose());
+        dto.setStale(quote.stale());
+        return dto;
+    }
+}
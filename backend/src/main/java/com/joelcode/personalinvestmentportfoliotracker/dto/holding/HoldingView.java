@@ -0,0 +1,40 @@
+package com.joelcode.personalinvestmentportfoliotracker.dto.holding;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Read-only row of a holding joined with its stock, loaded in one statement for portfolio reads
+public record HoldingView(UUID holdingId, UUID accountId, UUID stockId, String stockCode, BigDecimal stockValue,
+                          BigDecimal quantity, BigDecimal averageCostBasis, BigDecimal totalCostBasis,
+                          BigDecimal realizedGain, LocalDateTime firstPurchaseDate) {
+
+    // Same rules as the Holding entity calculations
+    public BigDecimal currentValue(BigDecimal currentPrice) {
+        // EDGE CASE: Null checks
+        if (currentPrice == null || quantity == null) {
+            return BigDecimal.ZERO;
+        }
+        return quantity.multiply(currentPrice).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    public BigDecimal unrealizedGain(BigDecimal currentPrice) {
+        // EDGE CASE: Null checks
+        if (currentPrice == null || totalCostBasis == null) {
+            return BigDecimal.ZERO;
+        }
+        return currentValue(currentPrice).subtract(totalCostBasis).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    public BigDecimal unrealizedGainPercent(BigDecimal currentPrice) {
+        // EDGE CASE: Division by zero or missing price
+        if (totalCostBasis == null || totalCostBasis.compareTo(BigDecimal.ZERO) == 0 || currentPrice == null) {
+            return BigDecimal.ZERO;
+        }
+        return unrealizedGain(currentPrice)
+                .divide(totalCostBasis, 4, RoundingMode.HALF_UP)
+                .multiply(BigDecimal.valueOf(100))
+                .setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,31 @@
+package com.joelcode.personalinvestmentportfoliotracker.dto.portfolio;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.UUID;
+
+// Cash and paid dividends of one account from a grouped query; holdings are priced by the callers
+public record AccountTotals(UUID accountId, BigDecimal cashBalance, BigDecimal dividends) {
+
+    // Sums over accounts without dividends come back as null
+    public AccountTotals {
+        cashBalance = safe(cashBalance);
+        dividends = safe(dividends);
+    }
+
+    // Totals across accounts, e.g. every account of a user; the result has no account id
+    public static AccountTotals sum(Collection<AccountTotals> accounts) {
+        BigDecimal cashBalance = BigDecimal.ZERO;
+        BigDecimal dividends = BigDecimal.ZERO;
+
+        for (AccountTotals account : accounts) {
+            cashBalance = cashBalance.add(account.cashBalance);
+            dividends = dividends.add(account.dividends);
+        }
+        return new AccountTotals(null, cashBalance, dividends);
+    }
+
+    private static BigDecimal safe(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
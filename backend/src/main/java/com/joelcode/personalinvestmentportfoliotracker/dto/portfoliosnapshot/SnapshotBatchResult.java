@@ -0,0 +1,42 @@
+package com.joelcode.personalinvestmentportfoliotracker.dto.portfoliosnapshot;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+public class SnapshotBatchResult {
+
+    // Outcome of one run of the batch snapshot job (output)
+    private final LocalDate snapshotDate;
+    private final int created;
+    private final int skipped;
+    private final int failed;
+    private final Duration elapsed;
+
+    // Constructor
+    public SnapshotBatchResult(LocalDate snapshotDate, int created, int skipped, int failed, Duration elapsed) {
+        this.snapshotDate = snapshotDate;
+        this.created = created;
+        this.skipped = skipped;
+        this.failed = failed;
+        this.elapsed = elapsed;
+    }
+
+    // Getters
+    public LocalDate getSnapshotDate() { return snapshotDate; }
+
+    public int getCreated() { return created; }
+
+    public int getSkipped() { return skipped; }
+
+    public int getFailed() { return failed; }
+
+    public Duration getElapsed() { return elapsed; }
+
+    public int getProcessed() { return created + skipped + failed; }
+
+    // Accounts processed per second
+    public double getThroughput() {
+        double seconds = elapsed.toMillis() / 1000.0;
+        return seconds > 0 ? getProcessed() / seconds : getProcessed();
+    }
+}
@@ -0,0 +1,49 @@
+package com.joelcode.personalinvestmentportfoliotracker.dto.pricehistory;
+
+import java.time.Duration;
+import java.util.List;
+
+public class PriceHistoryIngestResult {
+
+    // Outcome of one bulk price history upload (output)
+    private final long rowsRead;
+    private final long rowsWritten;
+    private final long rowsRejected;
+    private final int symbolsUpdated;
+    private final Duration elapsed;
+    private final List<String> errors;
+
+    // Constructor
+    public PriceHistoryIngestResult(long rowsRead, long rowsWritten, long rowsRejected, int symbolsUpdated,
+                                    Duration elapsed, List<String> errors) {
+        this.rowsRead = rowsRead;
+        this.rowsWritten = rowsWritten;
+        this.rowsRejected = rowsRejected;
+        this.symbolsUpdated = symbolsUpdated;
+        this.elapsed = elapsed;
+        this.errors = errors;
+    }
+
+    // Getters
+    public long getRowsRead() { return rowsRead; }
+
+    public long getRowsWritten() { return rowsWritten; }
+
+    public long getRowsRejected() { return rowsRejected; }
+
+    // Rows replaced by a later row for the same stock and date in the same upload
+    public long getRowsSuperseded() { return Math.max(0, rowsRead - rowsWritten - rowsRejected); }
+
+    public int getSymbolsUpdated() { return symbolsUpdated; }
+
+    public Duration getElapsed() { return elapsed; }
+
+    // First few rejection messages, the full count is in rowsRejected
+    public List<String> getErrors() { return errors; }
+
+    // Input rows processed per second
+    public double getRowsPerSecond() {
+        double seconds = elapsed.toMillis() / 1000.0;
+        return seconds > 0 ? rowsRead / seconds : rowsRead;
+    }
+}
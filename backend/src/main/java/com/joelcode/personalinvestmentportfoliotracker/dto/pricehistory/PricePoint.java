@@ -0,0 +1,8 @@
+package com.joelcode.personalinvestmentportfoliotracker.dto.pricehistory;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// One close price of a stock, either a raw price history point or a daily rollup close (start of day)
+public record PricePoint(UUID stockId, LocalDateTime closeDate, BigDecimal closePrice) {}
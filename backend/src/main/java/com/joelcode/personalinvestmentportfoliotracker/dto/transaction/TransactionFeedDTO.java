@@ -0,0 +1,25 @@
+package com.joelcode.personalinvestmentportfoliotracker.dto.transaction;
+
+import java.util.List;
+
+public class TransactionFeedDTO {
+
+    // Transaction feed page response DTO (output)
+    private List<TransactionDTO> transactions;
+    private String nextCursor;  // Pass back to get the next page; null on the last page
+
+    public TransactionFeedDTO() {}
+
+    public TransactionFeedDTO(List<TransactionDTO> transactions, String nextCursor) {
+        this.transactions = transactions;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<TransactionDTO> getTransactions() {return transactions;}
+
+    public void setTransactions(List<TransactionDTO> transactions) {this.transactions = transactions;}
+
+    public String getNextCursor() {return nextCursor;}
+
+    public void setNextCursor(String nextCursor) {this.nextCursor = nextCursor;}
+}
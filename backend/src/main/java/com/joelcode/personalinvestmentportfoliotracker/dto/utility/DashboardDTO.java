@@ -5,6 +5,7 @@ import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.PortfolioPe
 import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.AllocationBreakdownDTO;
 import com.joelcode.personalinvestmentportfoliotracker.dto.transaction.TransactionDTO;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class DashboardDTO {
@@ -14,6 +15,7 @@ public class DashboardDTO {
     private PortfolioPerformanceDTO portfolioPerformance;
     private List<AllocationBreakdownDTO> allocations;
     private List<TransactionDTO> recentTransactions;
+    private List<String> unavailableSections = new ArrayList<>();  // Sections left empty because they failed or ran late
 
     public DashboardDTO() {}
 
@@ -42,4 +44,8 @@ public class DashboardDTO {
     public List<TransactionDTO> getRecentTransactions() {return recentTransactions;}
 
     public void setRecentTransactions(List<TransactionDTO> recentTransactions) {this.recentTransactions = recentTransactions;}
+
+    public List<String> getUnavailableSections() {return unavailableSections;}
+
+    public void setUnavailableSections(List<String> unavailableSections) {this.unavailableSections = unavailableSections;}
 }
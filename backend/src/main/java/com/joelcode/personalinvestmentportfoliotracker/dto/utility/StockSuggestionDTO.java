@@ -0,0 +1,31 @@
+package com.joelcode.personalinvestmentportfoliotracker.dto.utility;
+
+import java.util.UUID;
+
+public class StockSuggestionDTO {
+
+    // Typeahead suggestion DTO (output)
+    private UUID stockId;
+    private String stockCode;
+    private String companyName;
+    private String matchType;
+
+    // Constructor
+    public StockSuggestionDTO(UUID stockId, String stockCode, String companyName, String matchType) {
+        this.stockId = stockId;
+        this.stockCode = stockCode;
+        this.companyName = companyName;
+        this.matchType = matchType;
+    }
+
+    public StockSuggestionDTO() {}
+
+    // Getters
+    public UUID getStockId() {return stockId;}
+
+    public String getStockCode() {return stockCode;}
+
+    public String getCompanyName() {return companyName;}
+
+    public String getMatchType() {return matchType;}
+}
@@ -0,0 +1,24 @@
+package com.joelcode.personalinvestmentportfoliotracker.dto.valuation;
+
+import java.util.List;
+import java.util.UUID;
+
+public class ValuationDriftDTO {
+
+    // Result of checking a cached account valuation against the ledger (output)
+    private final UUID accountId;
+    private final List<String> differences;
+
+    // Constructor
+    public ValuationDriftDTO(UUID accountId, List<String> differences) {
+        this.accountId = accountId;
+        this.differences = differences;
+    }
+
+    // Getters
+    public UUID getAccountId() { return accountId; }
+
+    public List<String> getDifferences() { return differences; }
+
+    public boolean isDrifted() { return !differences.isEmpty(); }
+}
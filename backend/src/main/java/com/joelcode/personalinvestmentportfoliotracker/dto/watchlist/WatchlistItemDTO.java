@@ -31,6 +31,13 @@ public class WatchlistItemDTO {
     @JsonProperty("priceChangePercent")
     private BigDecimal priceChangePercent;
 
+    @JsonProperty("previousClose")
+    private BigDecimal previousClose;
+
+    // True when the price could not be refreshed within the request deadline
+    @JsonProperty("stale")
+    private boolean stale;
+
     @JsonProperty("addedAt")
     private LocalDateTime addedAt;
 
@@ -73,6 +80,12 @@ public class WatchlistItemDTO {
     public BigDecimal getPriceChangePercent() { return priceChangePercent; }
     public void setPriceChangePercent(BigDecimal priceChangePercent) { this.priceChangePercent = priceChangePercent; }
 
+    public BigDecimal getPreviousClose() { return previousClose; }
+    public void setPreviousClose(BigDecimal previousClose) { this.previousClose = previousClose; }
+
+    public boolean isStale() { return stale; }
+    public void setStale(boolean stale) { this.stale = stale; }
+
     public LocalDateTime getAddedAt() { return addedAt; }
     public void setAddedAt(LocalDateTime addedAt) { this.addedAt = addedAt; }
 }
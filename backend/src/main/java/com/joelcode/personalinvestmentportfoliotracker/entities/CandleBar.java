@@ -0,0 +1,78 @@
+package com.joelcode.personalinvestmentportfoliotracker.entities;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Entity
+@Table(name = "candle_bars",
+        uniqueConstraints = @UniqueConstraint(name = "uq_candle_bars_series_bucket",
+                columnNames = {"symbol", "resolution", "bucket_start"}))
+public class CandleBar {
+
+    // One OHLCV bar of a symbol at a FinnHub resolution, bucketStart is the bar's epoch second
+
+    public CandleBar() {}
+
+    public CandleBar(String symbol, String resolution, long bucketStart) {
+        this.symbol = symbol;
+        this.resolution = resolution;
+        this.bucketStart = bucketStart;
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID candleId;
+
+    @Column(nullable = false, length = 20)
+    private String symbol;
+
+    @Column(nullable = false, length = 4)
+    private String resolution;
+
+    @Column(nullable = false)
+    private long bucketStart;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal openPrice;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal highPrice;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal lowPrice;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal closePrice;
+
+    @Column(nullable = false)
+    private long volume;
+
+    public UUID getCandleId() { return candleId; }
+    public void setCandleId(UUID candleId) { this.candleId = candleId; }
+
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+
+    public String getResolution() { return resolution; }
+    public void setResolution(String resolution) { this.resolution = resolution; }
+
+    public long getBucketStart() { return bucketStart; }
+    public void setBucketStart(long bucketStart) { this.bucketStart = bucketStart; }
+
+    public BigDecimal getOpenPrice() { return openPrice; }
+    public void setOpenPrice(BigDecimal openPrice) { this.openPrice = openPrice; }
+
+    public BigDecimal getHighPrice() { return highPrice; }
+    public void setHighPrice(BigDecimal highPrice) { this.highPrice = highPrice; }
+
+    public BigDecimal getLowPrice() { return lowPrice; }
+    public void setLowPrice(BigDecimal lowPrice) { this.lowPrice = lowPrice; }
+
+    public BigDecimal getClosePrice() { return closePrice; }
+    public void setClosePrice(BigDecimal closePrice) { this.closePrice = closePrice; }
+
+    public long getVolume() { return volume; }
+    public void setVolume(long volume) { this.volume = volume; }
+}
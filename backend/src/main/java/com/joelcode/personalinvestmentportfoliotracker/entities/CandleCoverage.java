@@ -0,0 +1,52 @@
+package com.joelcode.personalinvestmentportfoliotracker.entities;
+
+import jakarta.persistence.*;
+
+import java.util.UUID;
+
+@Entity
+@Table(name = "candle_coverage")
+public class CandleCoverage {
+
+    // A range of epoch seconds already fetched upstream for one series, whether or not it held any bars
+
+    public CandleCoverage() {}
+
+    public CandleCoverage(String symbol, String resolution, long rangeFrom, long rangeTo) {
+        this.symbol = symbol;
+        this.resolution = resolution;
+        this.rangeFrom = rangeFrom;
+        this.rangeTo = rangeTo;
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID coverageId;
+
+    @Column(nullable = false, length = 20)
+    private String symbol;
+
+    @Column(nullable = false, length = 4)
+    private String resolution;
+
+    @Column(nullable = false)
+    private long rangeFrom;
+
+    @Column(nullable = false)
+    private long rangeTo;
+
+    public UUID getCoverageId() { return coverageId; }
+    public void setCoverageId(UUID coverageId) { this.coverageId = coverageId; }
+
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+
+    public String getResolution() { return resolution; }
+    public void setResolution(String resolution) { this.resolution = resolution; }
+
+    public long getRangeFrom() { return rangeFrom; }
+    public void setRangeFrom(long rangeFrom) { this.rangeFrom = rangeFrom; }
+
+    public long getRangeTo() { return rangeTo; }
+    public void setRangeTo(long rangeTo) { this.rangeTo = rangeTo; }
+}
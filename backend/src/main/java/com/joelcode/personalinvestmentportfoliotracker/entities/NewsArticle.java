@@ -0,0 +1,73 @@
+package com.joelcode.personalinvestmentportfoliotracker.entities;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "news_articles")
+public class NewsArticle {
+
+    public NewsArticle() {}
+
+    public NewsArticle(String url, String sector, String title, String summary, String imageUrl, LocalDateTime publishedAt) {
+        this.url = url;
+        this.sector = sector;
+        this.title = title;
+        this.summary = summary;
+        this.imageUrl = imageUrl;
+        this.publishedAt = publishedAt;
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID articleId;
+
+    @Column(nullable = false, unique = true, length = 2048)
+    private String url;
+
+    @Column(nullable = false, length = 50)
+    private String sector;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String title;
+
+    @Column(columnDefinition = "TEXT")
+    private String summary;
+
+    @Column(length = 2048)
+    private String imageUrl;
+
+    @Column(nullable = false)
+    private LocalDateTime publishedAt;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime fetchedAt;
+
+    public UUID getArticleId() { return articleId; }
+    public void setArticleId(UUID articleId) { this.articleId = articleId; }
+
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+
+    public String getSector() { return sector; }
+    public void setSector(String sector) { this.sector = sector; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getSummary() { return summary; }
+    public void setSummary(String summary) { this.summary = summary; }
+
+    public String getImageUrl() { return imageUrl; }
+    public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+
+    public LocalDateTime getPublishedAt() { return publishedAt; }
+    public void setPublishedAt(LocalDateTime publishedAt) { this.publishedAt = publishedAt; }
+
+    public LocalDateTime getFetchedAt() { return fetchedAt; }
+    public void setFetchedAt(LocalDateTime fetchedAt) { this.fetchedAt = fetchedAt; }
+}
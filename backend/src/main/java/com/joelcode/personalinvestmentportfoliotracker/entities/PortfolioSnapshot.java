@@ -9,7 +9,7 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "portfolio_snapshots")
+@Table(name = "portfolio_snapshots", uniqueConstraints = @UniqueConstraint(columnNames = {"account_id", "snapshotDate"}))
 public class PortfolioSnapshot {
     // This entity is a snapshot of the state of a portfolio at a certain point in time. Storing performance metrics,
     // values, investments etc...
@@ -83,7 +83,7 @@ public class PortfolioSnapshot {
 
 
     // Relationships
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "account_id", nullable = false)
     private Account account;
 
@@ -0,0 +1,73 @@
+package com.joelcode.personalinvestmentportfoliotracker.entities;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Entity
+@Table(name = "price_history_daily",
+        uniqueConstraints = @UniqueConstraint(name = "uq_price_history_daily_stock_date",
+                columnNames = {"stock_id", "trade_date"}))
+public class PriceHistoryDaily {
+
+    // Daily OHLC bar of a stock, rolled up from the raw price history points of that day
+
+    public PriceHistoryDaily() {}
+
+    public PriceHistoryDaily(UUID stockId, LocalDate tradeDate) {
+        this.stockId = stockId;
+        this.tradeDate = tradeDate;
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID dailyId;
+
+    @Column(nullable = false)
+    private UUID stockId;
+
+    @Column(nullable = false)
+    private LocalDate tradeDate;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal openPrice;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal highPrice;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal lowPrice;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal closePrice;
+
+    // Raw points the bar was built from
+    @Column(nullable = false)
+    private int samples;
+
+    public UUID getDailyId() { return dailyId; }
+    public void setDailyId(UUID dailyId) { this.dailyId = dailyId; }
+
+    public UUID getStockId() { return stockId; }
+    public void setStockId(UUID stockId) { this.stockId = stockId; }
+
+    public LocalDate getTradeDate() { return tradeDate; }
+    public void setTradeDate(LocalDate tradeDate) { this.tradeDate = tradeDate; }
+
+    public BigDecimal getOpenPrice() { return openPrice; }
+    public void setOpenPrice(BigDecimal openPrice) { this.openPrice = openPrice; }
+
+    public BigDecimal getHighPrice() { return highPrice; }
+    public void setHighPrice(BigDecimal highPrice) { this.highPrice = highPrice; }
+
+    public BigDecimal getLowPrice() { return lowPrice; }
+    public void setLowPrice(BigDecimal lowPrice) { this.lowPrice = lowPrice; }
+
+    public BigDecimal getClosePrice() { return closePrice; }
+    public void setClosePrice(BigDecimal closePrice) { this.closePrice = closePrice; }
+
+    public int getSamples() { return samples; }
+    public void setSamples(int samples) { this.samples = samples; }
+}
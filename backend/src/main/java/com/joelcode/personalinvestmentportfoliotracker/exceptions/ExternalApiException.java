@@ -0,0 +1,16 @@
+package com.joelcode.personalinvestmentportfoliotracker.exceptions;
+
+// Runtime exception for an external API call answered with an error status
+public class ExternalApiException extends RuntimeException {
+
+    private final int statusCode;
+
+    public ExternalApiException(String message, int statusCode) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
@@ -175,5 +175,13 @@ public class GlobalExceptionHandler {
                 ApiResponse.error(ex.getMessage(), 409)
         );
     }
-}
 
+    // Handle external API rate limit exhaustion
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ApiResponse<Void>> handleRateLimitExceeded(
+            RateLimitExceededException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(
+                ApiResponse.error(ex.getMessage(), 429)
+        );
+    }
+}
@@ -0,0 +1,8 @@
+package com.joelcode.personalinvestmentportfoliotracker.exceptions;
+
+// Runtime exception for an external API call refused by its rate limiter
+public class RateLimitExceededException extends RuntimeException {
+    public RateLimitExceededException(String message) {
+        super(message);
+    }
+}
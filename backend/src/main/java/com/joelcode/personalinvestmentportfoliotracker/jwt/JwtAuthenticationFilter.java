@@ -1,14 +1,10 @@
 package com.joelcode.personalinvestmentportfoliotracker.jwt;
 
-import com.joelcode.personalinvestmentportfoliotracker.entities.User;
 import com.joelcode.personalinvestmentportfoliotracker.model.CustomUserDetails;
-import com.joelcode.personalinvestmentportfoliotracker.repositories.UserRepository;
-import com.joelcode.personalinvestmentportfoliotracker.services.customuserdetails.CustomUserDetailsService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Profile;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -26,14 +22,16 @@ import java.util.UUID;
 @ConditionalOnProperty(name = "jwt.filter.enabled", havingValue = "true", matchIfMissing = false)
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    @Autowired
-    private JwtTokenProvider jwtTokenProvider;
+    // Define key fields
+    private final JwtTokenProvider jwtTokenProvider;
+    private final JwtPrincipalCache jwtPrincipalCache;
 
-    @Autowired
-    private UserRepository userRepository;
 
-    @Autowired
-    private CustomUserDetailsService customUserDetailsService;
+    // Constructor
+    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, JwtPrincipalCache jwtPrincipalCache) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.jwtPrincipalCache = jwtPrincipalCache;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -48,16 +46,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             String jwt = getJwtFromRequest(request);
-            if (StringUtils.hasText(jwt) && jwtTokenProvider.validateToken(jwt)) {
-                UUID userId = jwtTokenProvider.getUserIdFromToken(jwt);
-                User user = userRepository.findById(userId)
-                        .orElseThrow(() -> new ServletException("User not found"));
-
-                CustomUserDetails customUserDetails = customUserDetailsService.loadUserByUsername(user.getUsername());
-                logger.info("JWT: " + jwt);
-                logger.info("Is token valid? " + jwtTokenProvider.validateToken(jwt));
-                logger.info("User from DB: " + user);
-                logger.info("CustomUserDetails: " + customUserDetails);
+            if (StringUtils.hasText(jwt)) {
+                // One verification per token (cached until expiry) and at most one user query per TTL
+                UUID userId = UUID.fromString(jwtTokenProvider.getClaims(jwt).getSubject());
+                CustomUserDetails customUserDetails = jwtPrincipalCache.load(userId);
 
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(customUserDetails, null, customUserDetails.getAuthorities());
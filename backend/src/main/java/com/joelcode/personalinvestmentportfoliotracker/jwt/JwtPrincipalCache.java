@@ -0,0 +1,97 @@
+package com.joelcode.personalinvestmentportfoliotracker.jwt;
+
+import com.joelcode.personalinvestmentportfoliotracker.entities.User;
+import com.joelcode.personalinvestmentportfoliotracker.model.CustomUserDetails;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived cache of authenticated principals keyed by user ID
+ *
+ * The JWT filter used to run two user queries on every request. Principals are now loaded with a
+ * single query and kept for a short TTL, so a burst of requests from one user costs one lookup.
+ * Anything that changes a user's password, role or identity must call evict so the next request
+ * reloads the user instead of authenticating with the old details.
+ */
+@Component
+public class JwtPrincipalCache {
+
+    // Define key fields
+    private final UserRepository userRepository;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+
+    private final Map<UUID, CachedPrincipal> principals;
+
+
+    // Constructor
+    @Autowired
+    public JwtPrincipalCache(UserRepository userRepository,
+                             @Value("${app.jwt.principal-cache.ttl-ms:30000}") long ttlMillis,
+                             @Value("${app.jwt.principal-cache.max-entries:10000}") int maxEntries) {
+        this(userRepository, ttlMillis, maxEntries, System::currentTimeMillis);
+    }
+
+    JwtPrincipalCache(UserRepository userRepository, long ttlMillis, int maxEntries, LongSupplier clock) {
+        this.userRepository = userRepository;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        // Access-ordered, so a put past the limit drops the least recently used principal
+        this.principals = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, CachedPrincipal> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+
+    // Principal for a user, loaded with one query when missing or older than the TTL
+    public CustomUserDetails load(UUID userId) {
+        long now = clock.getAsLong();
+
+        CachedPrincipal cached = principals.get(userId);
+        if (cached != null && now - cached.loadedAt < ttlMillis) {
+            return cached.principal;
+        }
+
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + userId));
+        CustomUserDetails principal = new CustomUserDetails(user);
+        if (ttlMillis > 0) {
+            store(userId, new CachedPrincipal(principal, now));
+        }
+        return principal;
+    }
+
+    // Drop a user so their next request reloads them
+    public void evict(UUID userId) {
+        if (userId != null) {
+            principals.remove(userId);
+        }
+    }
+
+    public int size() {
+        return principals.size();
+    }
+
+
+    // Helper functions
+
+    private void store(UUID userId, CachedPrincipal principal) {
+        // EDGE CASE: Cache is full, the put evicts the least recently used principal
+        principals.put(userId, principal);
+    }
+
+    // Principal together with the time it was loaded
+    private record CachedPrincipal(CustomUserDetails principal, long loadedAt) {}
+}
@@ -8,12 +8,19 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
 
 /**
  * JWT Token Provider - Creates, parses, and validates JWT tokens.
  * Uses JJWT library with explicit algorithm specification to avoid deprecation warnings.
+ *
+ * The signing key and parser are built once. Tokens that pass signature verification are kept
+ * in a bounded cache until they expire, so repeat requests with the same token skip the HMAC
+ * check and claims parsing entirely.
  */
 @Component
 public class JwtTokenProvider {
@@ -24,12 +31,43 @@ public class JwtTokenProvider {
     @Value("${app.jwt.expiration}")
     private int jwtExpirationInMs;
 
+    @Value("${app.jwt.token-cache.max-entries:10000}")
+    private int tokenCacheMaxEntries = 10_000;
+
+    // Built on first use, after the secret has been injected
+    private volatile SecretKey signingKey;
+    private volatile JwtParser jwtParser;
+
+    // Access-ordered, so a put past the limit drops the least recently used token
+    private final Map<String, VerifiedToken> verifiedTokens = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+            return size() > tokenCacheMaxEntries;
+        }
+    });
+
     /**
      * Get the signing key from the secret.
      * Uses HS256 algorithm which requires 256-bit (32 byte) key.
      */
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        SecretKey key = signingKey;
+        if (key == null) {
+            key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+            signingKey = key;
+        }
+        return key;
+    }
+
+    private JwtParser getParser() {
+        JwtParser parser = jwtParser;
+        if (parser == null) {
+            parser = Jwts.parser()
+                    .verifyWith(getSigningKey())
+                    .build();
+            jwtParser = parser;
+        }
+        return parser;
     }
 
     /**
@@ -62,14 +100,27 @@ public class JwtTokenProvider {
     }
 
     /**
-     * Parse and get claims from token
+     * Parse and get claims from token, verifying the signature only the first time a token is seen
      */
     public Claims getClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
+        if (token != null) {
+            VerifiedToken cached = verifiedTokens.get(token);
+            if (cached != null) {
+                if (System.currentTimeMillis() < cached.expiresAt) {
+                    return cached.claims;
+                }
+                // Expired since it was cached, let the parser raise the usual ExpiredJwtException
+                verifiedTokens.remove(token);
+            }
+        }
+
+        Claims claims = getParser()
                 .parseSignedClaims(token)
                 .getPayload();
+        if (claims.getExpiration() != null && tokenCacheMaxEntries > 0) {
+            cacheVerified(token, new VerifiedToken(claims, claims.getExpiration().getTime()));
+        }
+        return claims;
     }
 
     /**
@@ -120,4 +171,12 @@ public class JwtTokenProvider {
             return true;
         }
     }
-}
\ No newline at end of file
+
+    private void cacheVerified(String token, VerifiedToken verified) {
+        // EDGE CASE: Cache is full, the put evicts the least recently used token
+        verifiedTokens.put(token, verified);
+    }
+
+    // Claims of a token whose signature has been checked, with its expiry in epoch millis
+    private record VerifiedToken(Claims claims, long expiresAt) {}
+}
@@ -1,43 +1,118 @@
 package com.joelcode.personalinvestmentportfoliotracker.logging;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.*;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
-import java.time.ZonedDateTime;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
 import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPOutputStream;
 
+/**
+ * Ships log lines to Better Stack in the background
+ *
+ * log used to make one blocking HTTPS request per line on the caller's thread. Lines are now
+ * appended to a bounded lock-free ring buffer and a single drainer thread sends them as gzipped
+ * NDJSON batches, once a batch is full or the flush interval has passed. Failed batches are
+ * retried with exponential backoff; a 4xx other than 429 is not retried. While the drainer is
+ * behind, the oldest lines are dropped to make room and counted. Whatever is still buffered is
+ * sent once on shutdown.
+ */
 @Component
 @ConditionalOnProperty(name = "BETTERSTACK_TOKEN")
 public class BetterStackLogger {
 
-    @Value("${BETTERSTACK_TOKEN}")
-    private String token;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    // Define key fields
+    private final String url;
+    private final HttpHeaders headers;
+    private final RestTemplate restTemplate;
+    private final LogEventRingBuffer buffer;
+    private final int maxBatchSize;
+    private final long flushIntervalNanos;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
 
-    private static final String BETTERSTACK_URL = "https://s1622070.eu-nbg-2.betterstackdata.com";
+    private final Thread drainer;
+    private volatile boolean running = true;
 
-    public void log(String message, String level) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("dt", ZonedDateTime.now().format(DateTimeFormatter.ISO_INSTANT));
-        body.put("message", message);
-        body.put("level", level);
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+
+
+    // Constructor
+    public BetterStackLogger(MeterRegistry meterRegistry,
+                             @Value("${BETTERSTACK_TOKEN}") String token,
+                             @Value("${betterstack.url:https://s1622070.eu-nbg-2.betterstackdata.com}") String url,
+                             @Value("${betterstack.buffer.capacity:8192}") int bufferCapacity,
+                             @Value("${betterstack.batch.max-events:500}") int maxBatchSize,
+                             @Value("${betterstack.batch.flush-interval-ms:1000}") long flushIntervalMillis,
+                             @Value("${betterstack.retry.max-attempts:5}") int maxAttempts,
+                             @Value("${betterstack.retry.initial-backoff-ms:500}") long initialBackoffMillis,
+                             @Value("${betterstack.retry.max-backoff-ms:30000}") long maxBackoffMillis) {
+        this.url = url;
+        this.buffer = new LogEventRingBuffer(bufferCapacity);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMillis));
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
+        // Headers are the same for every batch
+        this.headers = new HttpHeaders();
+        headers.setContentType(NDJSON);
+        headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
         headers.setBearerAuth(token);
 
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(body, headers);
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(5000);
+        requestFactory.setReadTimeout(10000);
+        this.restTemplate = new RestTemplate(requestFactory);
 
-        try {
-            restTemplate.postForEntity(BETTERSTACK_URL, request, String.class);
-        } catch (Exception e) {
-            System.err.println("Failed to send log to Better Stack: " + e.getMessage());
+        this.sentCounter = eventCounter(meterRegistry, "sent");
+        this.failedCounter = eventCounter(meterRegistry, "failed");
+        FunctionCounter.builder("betterstack.log.events", buffer, LogEventRingBuffer::dropped)
+                .description("Log lines by Better Stack shipping outcome")
+                .tag("result", "dropped")
+                .register(meterRegistry);
+        Gauge.builder("betterstack.log.queue.depth", buffer, LogEventRingBuffer::size)
+                .description("Log lines waiting to be shipped to Better Stack")
+                .register(meterRegistry);
+
+        this.drainer = new Thread(this::drainLoop, "betterstack-shipper");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+
+    // Queue a line for the next batch; never blocks the caller
+    public void log(String message, String level) {
+        buffer.offer(new LogEvent(Instant.now(), level, message));
+        // Full batch waiting, send it now rather than at the end of the interval
+        if (buffer.size() >= maxBatchSize) {
+            LockSupport.unpark(drainer);
         }
     }
 
@@ -52,4 +127,97 @@ public class BetterStackLogger {
     public void warn(String message) {
         log(message, "WARN");
     }
+
+    public long droppedCount() {
+        return buffer.dropped();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join(TimeUnit.SECONDS.toMillis(15));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    // Helper functions
+
+    private void drainLoop() {
+        List<LogEvent> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            if (buffer.size() < maxBatchSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+            shipBuffered(batch, true);
+        }
+        // Final flush on shutdown, one attempt per batch
+        shipBuffered(batch, false);
+    }
+
+    private void shipBuffered(List<LogEvent> batch, boolean retry) {
+        while (buffer.drainTo(batch, maxBatchSize) > 0) {
+            try {
+                send(batch, retry);
+            } catch (Exception e) {
+                failedCounter.increment(batch.size());
+                System.err.println("Failed to send logs to Better Stack: " + e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    private void send(List<LogEvent> batch, boolean retry) throws IOException {
+        HttpEntity<byte[]> request = new HttpEntity<>(gzipNdjson(batch), headers);
+        long backoffMillis = initialBackoffMillis;
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                restTemplate.exchange(url, HttpMethod.POST, request, Void.class);
+                sentCounter.increment(batch.size());
+                return;
+            } catch (RestClientException e) {
+                if (!retry || !running || attempt >= maxAttempts || !isRetryable(e)) {
+                    throw e;
+                }
+            }
+            // Back off on the drainer thread only; shutdown cuts the wait short
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(backoffMillis));
+            backoffMillis = Math.min(backoffMillis * 2, maxBackoffMillis);
+        }
+    }
+
+    // EDGE CASE: A 4xx other than 429 means the token or payload was rejected, retrying would not help
+    private static boolean isRetryable(RestClientException e) {
+        return !(e instanceof HttpClientErrorException clientError)
+                || clientError.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    // One JSON object per line, gzipped
+    static byte[] gzipNdjson(List<LogEvent> batch) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes);
+             JsonGenerator generator = JSON_FACTORY.createGenerator(gzip)) {
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            for (LogEvent event : batch) {
+                generator.writeStartObject();
+                generator.writeStringField("dt", DateTimeFormatter.ISO_INSTANT.format(event.timestamp()));
+                generator.writeStringField("message", event.message());
+                generator.writeStringField("level", event.level());
+                generator.writeEndObject();
+            }
+            generator.writeRaw('\n');
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Counter eventCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("betterstack.log.events")
+                .description("Log lines by Better Stack shipping outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
 }
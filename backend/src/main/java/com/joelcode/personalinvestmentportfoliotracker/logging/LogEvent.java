@@ -0,0 +1,6 @@
+package com.joelcode.personalinvestmentportfoliotracker.logging;
+
+import java.time.Instant;
+
+// One log line waiting to be shipped; formatted to JSON on the drainer thread, not the caller's
+record LogEvent(Instant timestamp, String level, String message) {}
@@ -0,0 +1,116 @@
+package com.joelcode.personalinvestmentportfoliotracker.logging;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free ring buffer of log events that drops the oldest event when full
+ *
+ * Any number of threads may offer; the shipper's drainer thread polls. Each slot carries a
+ * sequence number telling producers and consumers whose turn it is, so neither side takes a lock
+ * and offer never blocks the logging thread. When the ring is full, the producer polls the
+ * oldest event out itself and counts it as dropped, so the newest events are always kept.
+ */
+class LogEventRingBuffer {
+
+    // Define key fields
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final AtomicReferenceArray<LogEvent> events;
+    private final AtomicLong enqueuePosition = new AtomicLong();
+    private final AtomicLong dequeuePosition = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+
+    // Constructor, capacity is rounded up to a power of two
+    LogEventRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        this.events = new AtomicReferenceArray<>(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+
+    // Add an event, evicting the oldest ones while the ring is full
+    void offer(LogEvent event) {
+        while (!tryOffer(event)) {
+            if (poll() != null) {
+                dropped.incrementAndGet();
+            }
+        }
+    }
+
+    // Oldest event, or null when the ring is empty
+    LogEvent poll() {
+        long position = dequeuePosition.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (dequeuePosition.compareAndSet(position, position + 1)) {
+                    LogEvent event = events.getAndSet(index, null);
+                    // Hand the slot back to producers for the next lap
+                    sequences.set(index, position + mask + 1);
+                    return event;
+                }
+                position = dequeuePosition.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = dequeuePosition.get();
+            }
+        }
+    }
+
+    // Move up to max events into the batch and return how many were moved
+    int drainTo(List<LogEvent> batch, int max) {
+        int drained = 0;
+        LogEvent event;
+        while (drained < max && (event = poll()) != null) {
+            batch.add(event);
+            drained++;
+        }
+        return drained;
+    }
+
+    int size() {
+        return (int) Math.max(0, enqueuePosition.get() - dequeuePosition.get());
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    long dropped() {
+        return dropped.get();
+    }
+
+
+    // Helper functions
+
+    private boolean tryOffer(LogEvent event) {
+        long position = enqueuePosition.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (enqueuePosition.compareAndSet(position, position + 1)) {
+                    events.set(index, event);
+                    // Publish the slot to the consumer
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = enqueuePosition.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = enqueuePosition.get();
+            }
+        }
+    }
+}
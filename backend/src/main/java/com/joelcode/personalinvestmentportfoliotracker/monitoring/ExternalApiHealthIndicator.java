@@ -2,73 +2,114 @@ package com.joelcode.personalinvestmentportfoliotracker.monitoring;
 
 import com.joelcode.personalinvestmentportfoliotracker.services.finnhub.FinnhubApiClient;
 import com.joelcode.personalinvestmentportfoliotracker.services.news.MarketAuxApiClient;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
 /**
  * Custom Health Indicator for External APIs (FinnHub and MarketAux)
  *
- * This component checks the health of external API dependencies and reports
- * their status through Spring Boot Actuator's health endpoint.
+ * Reports the state ExternalApiHealthTracker has observed from real client traffic, so a health
+ * probe never calls a provider and never waits on one. A provider that has seen no calls for its
+ * probe interval gets one background call to refresh its state; MarketAux has no probe by
+ * default because each call costs one of its 100 daily requests.
  *
  * Usage: Access via /actuator/health endpoint
  */
 @Component("externalApis")
 public class ExternalApiHealthIndicator implements HealthIndicator {
 
+    private static final String FINNHUB = "finnhub";
+    private static final String MARKETAUX = "marketaux";
+
+    private final ExternalApiHealthTracker healthTracker;
     private final FinnhubApiClient finnhubApiClient;
     private final MarketAuxApiClient marketAuxApiClient;
+    private final long finnhubProbeIntervalMillis;
+    private final long marketAuxProbeIntervalMillis;
 
-    public ExternalApiHealthIndicator(FinnhubApiClient finnhubApiClient,
-                                     MarketAuxApiClient marketAuxApiClient) {
+    // Probes use the uncached FinnHub client so they reach the provider
+    public ExternalApiHealthIndicator(ExternalApiHealthTracker healthTracker,
+                                      @Qualifier("finnhubApiClientImpl") FinnhubApiClient finnhubApiClient,
+                                      MarketAuxApiClient marketAuxApiClient,
+                                      @Value("${health.external-apis.probe.finnhub-interval-ms:300000}") long finnhubProbeIntervalMillis,
+                                      @Value("${health.external-apis.probe.marketaux-interval-ms:0}") long marketAuxProbeIntervalMillis) {
+        this.healthTracker = healthTracker;
         this.finnhubApiClient = finnhubApiClient;
         this.marketAuxApiClient = marketAuxApiClient;
+        this.finnhubProbeIntervalMillis = finnhubProbeIntervalMillis;
+        this.marketAuxProbeIntervalMillis = marketAuxProbeIntervalMillis;
     }
 
     @Override
     public Health health() {
-        Health.Builder healthBuilder = new Health.Builder();
+        ProviderHealth finnhub = healthTracker.health(FINNHUB);
+        ProviderHealth marketAux = healthTracker.health(MARKETAUX);
 
-        boolean finnhubHealthy = checkFinnhubHealth();
-        boolean marketAuxHealthy = checkMarketAuxHealth();
+        boolean finnhubHealthy = !ProviderHealth.DOWN.equals(finnhub.status());
+        boolean marketAuxHealthy = !ProviderHealth.DOWN.equals(marketAux.status());
 
-        if (finnhubHealthy && marketAuxHealthy) {
-            healthBuilder.up();
-        } else if (!finnhubHealthy && !marketAuxHealthy) {
+        Health.Builder healthBuilder = new Health.Builder();
+        if (!finnhubHealthy && !marketAuxHealthy) {
             healthBuilder.down();
+        } else if (finnhubHealthy && marketAuxHealthy
+                && !ProviderHealth.DEGRADED.equals(finnhub.status())
+                && !ProviderHealth.DEGRADED.equals(marketAux.status())) {
+            healthBuilder.up();
         } else {
             healthBuilder.status("DEGRADED");
         }
 
         healthBuilder
-            .withDetail("finnhub", finnhubHealthy ? "UP" : "DOWN")
-            .withDetail("marketaux", marketAuxHealthy ? "UP" : "DOWN")
+            .withDetail(FINNHUB, details(finnhub))
+            .withDetail(MARKETAUX, details(marketAux))
             .withDetail("message", getStatusMessage(finnhubHealthy, marketAuxHealthy));
 
         return healthBuilder.build();
     }
 
-    private boolean checkFinnhubHealth() {
+    // Refresh the observed state of providers that have been idle for longer than their probe interval
+    @Scheduled(fixedDelayString = "${health.external-apis.probe.check-interval-ms:60000}",
+            initialDelayString = "${health.external-apis.probe.check-interval-ms:60000}")
+    public void probeIdleProviders() {
+        probeIfIdle(FINNHUB, finnhubProbeIntervalMillis, () -> finnhubApiClient.getQuoteAsync("AAPL"));
+        probeIfIdle(MARKETAUX, marketAuxProbeIntervalMillis, () -> marketAuxApiClient.getAllNewsAsync(1));
+    }
+
+    private void probeIfIdle(String provider, long intervalMillis, Supplier<CompletableFuture<?>> probe) {
+        if (intervalMillis <= 0 || healthTracker.millisSinceLastCall(provider) < intervalMillis) {
+            return;
+        }
         try {
-            // Try to fetch a quote for a known stock (AAPL) with a short timeout
-            finnhubApiClient.getQuote("AAPL");
-            return true;
+            // The transport records the outcome; nothing waits for it here
+            probe.get().exceptionally(e -> null);
         } catch (Exception e) {
-            return false;
+            System.err.println("Health probe for " + provider + " failed: " + e.getMessage());
         }
     }
 
-    private boolean checkMarketAuxHealth() {
-        try {
-            // Try to fetch news with minimal limit
-            marketAuxApiClient.getAllNews(1);
-            return true;
-        } catch (Exception e) {
-            // Log the error for debugging but don't fail the health check completely
-            System.err.println("MarketAux API health check failed: " + e.getMessage());
-            return false;
+    private Map<String, Object> details(ProviderHealth health) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("status", health.status());
+        details.put("samples", health.samples());
+        details.put("failureRate", health.failureRate());
+        details.put("averageLatencyMs", health.averageLatencyMs());
+        if (health.lastSuccessAt() != null) {
+            details.put("lastSuccessAt", health.lastSuccessAt().toString());
+        }
+        if (health.lastFailureAt() != null) {
+            details.put("lastFailureAt", health.lastFailureAt().toString());
+            details.put("lastFailure", health.lastFailure());
         }
+        return details;
     }
 
     private String getStatusMessage(boolean finnhubHealthy, boolean marketAuxHealthy) {
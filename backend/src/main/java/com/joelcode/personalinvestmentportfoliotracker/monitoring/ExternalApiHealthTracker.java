@@ -0,0 +1,153 @@
+package com.joelcode.personalinvestmentportfoliotracker.monitoring;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Passive health of the external market data providers
+ *
+ * The market data transport records the outcome and latency of every real FinnHub and MarketAux
+ * call here. Each provider keeps its last window-size calls with running failure and latency
+ * totals, so recording and reading are both constant time. A provider is DOWN after
+ * down-consecutive-failures failures in a row or when the failure rate reaches
+ * down-failure-rate, and DEGRADED when its last call failed, the failure rate reaches
+ * degraded-failure-rate or the average latency reaches slow-latency-ms. Rates are only judged
+ * once min-samples calls have been seen.
+ */
+@Component
+public class ExternalApiHealthTracker {
+
+    // Define key fields
+    private final int windowSize;
+    private final Thresholds thresholds;
+    private final LongSupplier clock;
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+
+    // Constructor
+    @Autowired
+    public ExternalApiHealthTracker(@Value("${health.external-apis.window-size:50}") int windowSize,
+                                    @Value("${health.external-apis.min-samples:5}") int minSamples,
+                                    @Value("${health.external-apis.degraded-failure-rate:0.2}") double degradedFailureRate,
+                                    @Value("${health.external-apis.down-failure-rate:0.5}") double downFailureRate,
+                                    @Value("${health.external-apis.down-consecutive-failures:5}") int downConsecutiveFailures,
+                                    @Value("${health.external-apis.slow-latency-ms:3000}") long slowLatencyMillis) {
+        this(windowSize, new Thresholds(minSamples, degradedFailureRate, downFailureRate, downConsecutiveFailures,
+                slowLatencyMillis), System::currentTimeMillis);
+    }
+
+    ExternalApiHealthTracker(int windowSize, Thresholds thresholds, LongSupplier clock) {
+        this.windowSize = Math.max(1, windowSize);
+        this.thresholds = thresholds;
+        this.clock = clock;
+    }
+
+
+    // Record one completed call; failure describes what went wrong and is ignored on success
+    public void record(String provider, boolean success, long latencyMillis, String failure) {
+        windows.computeIfAbsent(provider, key -> new Window(windowSize))
+                .record(success, latencyMillis, failure, clock.getAsLong());
+    }
+
+    public ProviderHealth health(String provider) {
+        Window window = windows.get(provider);
+        return window == null
+                ? new ProviderHealth(ProviderHealth.UNKNOWN, 0, 0, 0, 0, null, null, null)
+                : window.health(thresholds);
+    }
+
+    // Time since the provider's last recorded call, or Long.MAX_VALUE if it has never been called
+    public long millisSinceLastCall(String provider) {
+        Window window = windows.get(provider);
+        long last = window == null ? 0 : window.lastCallAt();
+        return last == 0 ? Long.MAX_VALUE : clock.getAsLong() - last;
+    }
+
+
+    // Limits that move a provider from UP to DEGRADED or DOWN
+    record Thresholds(int minSamples, double degradedFailureRate, double downFailureRate,
+                      int downConsecutiveFailures, long slowLatencyMillis) {}
+
+    // Last N calls for one provider, with running totals so nothing is rescanned
+    private static final class Window {
+
+        private final boolean[] failed;
+        private final long[] latencies;
+        private int next = 0;
+        private int size = 0;
+        private int failures = 0;
+        private long latencyTotal = 0;
+
+        private int consecutiveFailures = 0;
+        private long lastCallAt = 0;
+        private long lastSuccessAt = 0;
+        private long lastFailureAt = 0;
+        private String lastFailure;
+
+        Window(int capacity) {
+            this.failed = new boolean[capacity];
+            this.latencies = new long[capacity];
+        }
+
+        synchronized void record(boolean success, long latencyMillis, String failure, long now) {
+            // Drop the oldest call once the window is full
+            if (size == failed.length) {
+                failures -= failed[next] ? 1 : 0;
+                latencyTotal -= latencies[next];
+            } else {
+                size++;
+            }
+            failed[next] = !success;
+            latencies[next] = latencyMillis;
+            failures += success ? 0 : 1;
+            latencyTotal += latencyMillis;
+            next = (next + 1) % failed.length;
+
+            lastCallAt = now;
+            if (success) {
+                lastSuccessAt = now;
+                consecutiveFailures = 0;
+            } else {
+                lastFailureAt = now;
+                lastFailure = failure;
+                consecutiveFailures++;
+            }
+        }
+
+        synchronized ProviderHealth health(Thresholds thresholds) {
+            double failureRate = size == 0 ? 0 : (double) failures / size;
+            long averageLatency = size == 0 ? 0 : latencyTotal / size;
+            boolean judged = size >= thresholds.minSamples();
+
+            String status;
+            if (consecutiveFailures >= thresholds.downConsecutiveFailures()
+                    || (judged && failureRate >= thresholds.downFailureRate())) {
+                status = ProviderHealth.DOWN;
+            } else if (consecutiveFailures > 0
+                    || (judged && failureRate >= thresholds.degradedFailureRate())
+                    || (judged && averageLatency >= thresholds.slowLatencyMillis())) {
+                status = ProviderHealth.DEGRADED;
+            } else {
+                status = ProviderHealth.UP;
+            }
+
+            return new ProviderHealth(status, size, failureRate, averageLatency, consecutiveFailures,
+                    instant(lastSuccessAt), instant(lastFailureAt), lastFailure);
+        }
+
+        synchronized long lastCallAt() {
+            return lastCallAt;
+        }
+
+        private static Instant instant(long epochMillis) {
+            return epochMillis == 0 ? null : Instant.ofEpochMilli(epochMillis);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.joelcode.personalinvestmentportfoliotracker.monitoring;
+
+import java.time.Instant;
+
+/**
+ * Health of one external provider as observed from its recent calls
+ *
+ * status is UP, DEGRADED, DOWN, or UNKNOWN before the first call. Timestamps are null until
+ * a call with that outcome has been seen.
+ */
+public record ProviderHealth(String status,
+                             int samples,
+                             double failureRate,
+                             long averageLatencyMs,
+                             int consecutiveFailures,
+                             Instant lastSuccessAt,
+                             Instant lastFailureAt,
+                             String lastFailure) {
+
+    public static final String UP = "UP";
+    public static final String DEGRADED = "DEGRADED";
+    public static final String DOWN = "DOWN";
+    public static final String UNKNOWN = "UNKNOWN";
+}
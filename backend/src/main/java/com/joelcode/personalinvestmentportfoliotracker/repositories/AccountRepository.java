@@ -1,8 +1,10 @@
 package com.joelcode.personalinvestmentportfoliotracker.repositories;
 
+import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.AccountTotals;
 import com.joelcode.personalinvestmentportfoliotracker.entities.Account;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import org.springframework.data.domain.Pageable;
@@ -42,4 +44,21 @@ public interface AccountRepository extends JpaRepository<Account, UUID> {
     List<Account> findByCashBalanceLessThan(BigDecimal cashBalance);
 
     boolean existsByAccountName(String accountName);
+
+
+    // Cash and paid dividends of every account of a user in one statement
+    @Query("SELECT new com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.AccountTotals(" +
+            "a.accountId, a.cashBalance, " +
+            "(SELECT SUM(dp.totalAmount) FROM DividendPayment dp WHERE dp.account = a AND dp.status = 'PAID')) " +
+            "FROM Account a " +
+            "WHERE a.user.userId = :userId")
+    List<AccountTotals> findTotalsByUserId(@Param("userId") UUID userId);
+
+
+    // Keyset paging over account ids for batch jobs
+    @Query("SELECT a.accountId FROM Account a ORDER BY a.accountId")
+    List<UUID> findAccountIds(Pageable pageable);
+
+    @Query("SELECT a.accountId FROM Account a WHERE a.accountId > :after ORDER BY a.accountId")
+    List<UUID> findAccountIdsAfter(@Param("after") UUID after, Pageable pageable);
 }
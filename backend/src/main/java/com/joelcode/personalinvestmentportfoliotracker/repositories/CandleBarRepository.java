@@ -0,0 +1,16 @@
+package com.joelcode.personalinvestmentportfoliotracker.repositories;
+
+import com.joelcode.personalinvestmentportfoliotracker.entities.CandleBar;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface CandleBarRepository extends JpaRepository<CandleBar, UUID> {
+
+    // Bars of one series with from <= bucketStart <= to, oldest first
+    List<CandleBar> findBySymbolAndResolutionAndBucketStartBetweenOrderByBucketStartAsc(
+            String symbol, String resolution, long from, long to);
+}
@@ -0,0 +1,14 @@
+package com.joelcode.personalinvestmentportfoliotracker.repositories;
+
+import com.joelcode.personalinvestmentportfoliotracker.entities.CandleCoverage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface CandleCoverageRepository extends JpaRepository<CandleCoverage, UUID> {
+
+    List<CandleCoverage> findBySymbolAndResolutionOrderByRangeFromAsc(String symbol, String resolution);
+}
@@ -1,8 +1,10 @@
 package com.joelcode.personalinvestmentportfoliotracker.repositories;
 
+import com.joelcode.personalinvestmentportfoliotracker.dto.holding.HoldingView;
 import com.joelcode.personalinvestmentportfoliotracker.entities.Account;
 import com.joelcode.personalinvestmentportfoliotracker.entities.Holding;
 import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,6 +12,7 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -17,30 +20,66 @@ import java.util.UUID;
 @Repository
 public interface HoldingRepository extends JpaRepository<Holding, UUID> {
 
+    // Holding associations are lazy; finders whose callers read stock details load the stock in the same statement
+    @Override
+    @EntityGraph(attributePaths = "stock")
+    List<Holding> findAll();
+
+
     // Find by account
+    @EntityGraph(attributePaths = "stock")
     List<Holding> findByAccount(Account account);
 
+    @EntityGraph(attributePaths = "stock")
     List<Holding> findByAccountOrderByTotalCostBasisDesc(Account account);
 
+    @EntityGraph(attributePaths = "stock")
     @Query("SELECT h FROM Holding h WHERE h.account.accountId = :accountId")
     List<Holding> findAllByAccountId(@Param("accountId") UUID accountId);
 
 
+    // Read-only projections joining each holding with its stock in one statement
+    @Query("SELECT new com.joelcode.personalinvestmentportfoliotracker.dto.holding.HoldingView(" +
+            "h.holdingId, h.account.accountId, s.stockId, s.stockCode, s.stockValue, h.quantity, " +
+            "h.averageCostBasis, h.totalCostBasis, h.realizedGain, h.firstPurchaseDate) " +
+            "FROM Holding h JOIN h.stock s WHERE h.account.accountId = :accountId")
+    List<HoldingView> findViewsByAccountId(@Param("accountId") UUID accountId);
+
+    @Query("SELECT new com.joelcode.personalinvestmentportfoliotracker.dto.holding.HoldingView(" +
+            "h.holdingId, h.account.accountId, s.stockId, s.stockCode, s.stockValue, h.quantity, " +
+            "h.averageCostBasis, h.totalCostBasis, h.realizedGain, h.firstPurchaseDate) " +
+            "FROM Holding h JOIN h.stock s WHERE h.account.user.userId = :userId")
+    List<HoldingView> findViewsByUserId(@Param("userId") UUID userId);
+
+
     // Find by stock
     List<Holding> findByStock(Stock stock);
 
     List<Holding> findByStock_StockId(UUID stockId);
 
+    @Query("SELECT DISTINCT h.stock FROM Holding h WHERE h.quantity > 0")
+    List<Stock> findDistinctHeldStocks();
+
     Optional<Holding> findByAccountAndStock(Account account, Stock stock);
 
     Optional<Holding> getHoldingByAccount_AccountIdAndStock_StockId(UUID accountId, UUID stockId);
 
+    @EntityGraph(attributePaths = "stock")
     List<Holding> findByAccount_AccountId(UUID accountId);
 
+    @Query("SELECT h FROM Holding h JOIN FETCH h.stock WHERE h.account.accountId IN :accountIds")
+    List<Holding> findByAccountIdsWithStock(@Param("accountIds") Collection<UUID> accountIds);
+
     List<Holding> findByAccount_User_UserIdAndStock_CompanyNameContainingIgnoreCase(UUID userId, String stockNameFragment);
 
     List<Holding> findByStock_CompanyNameContainingIgnoreCase(String name);
 
+    @EntityGraph(attributePaths = "stock")
+    List<Holding> findByAccount_User_UserIdAndStock_StockIdIn(UUID userId, Collection<UUID> stockIds);
+
+    @EntityGraph(attributePaths = "stock")
+    List<Holding> findByStock_StockIdIn(Collection<UUID> stockIds);
+
 
     // Find specific id
     Optional<Holding> findByHoldingId(UUID holdingId);
@@ -0,0 +1,28 @@
+package com.joelcode.personalinvestmentportfoliotracker.repositories;
+
+import com.joelcode.personalinvestmentportfoliotracker.entities.NewsArticle;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface NewsArticleRepository extends JpaRepository<NewsArticle, UUID> {
+
+    List<NewsArticle> findAllByOrderByPublishedAtDesc(Pageable pageable);
+
+    // URLs already stored, so a fetch only inserts articles it has not seen
+    @Query("SELECT a.url FROM NewsArticle a WHERE a.url IN :urls")
+    List<String> findExistingUrls(@Param("urls") Collection<String> urls);
+
+    @Modifying
+    @Query("DELETE FROM NewsArticle a WHERE a.publishedAt < :cutoff")
+    int deletePublishedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
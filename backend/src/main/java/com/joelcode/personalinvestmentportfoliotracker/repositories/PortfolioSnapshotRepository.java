@@ -10,6 +10,7 @@ import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -73,6 +74,15 @@ public interface PortfolioSnapshotRepository extends JpaRepository<PortfolioSnap
     @Query("SELECT AVG(ps.totalValue) FROM PortfolioSnapshot ps WHERE ps.account = :account AND ps.snapshotDate BETWEEN :start AND :end")
     BigDecimal averageTotalValueByAccountAndDateRange(@Param("account") Account account, @Param("start") LocalDate start, @Param("end") LocalDate end);
 
+    // Accounts in the given set that already have a snapshot for the date
+    @Query("SELECT ps.account.accountId FROM PortfolioSnapshot ps WHERE ps.snapshotDate = :date AND ps.account.accountId IN :accountIds")
+    List<UUID> findAccountIdsWithSnapshotOn(@Param("accountIds") Collection<UUID> accountIds, @Param("date") LocalDate date);
+
+    // Most recent snapshot before the date for each account in the given set
+    @Query("SELECT ps FROM PortfolioSnapshot ps WHERE ps.account.accountId IN :accountIds AND ps.snapshotDate = " +
+            "(SELECT MAX(p2.snapshotDate) FROM PortfolioSnapshot p2 WHERE p2.account = ps.account AND p2.snapshotDate < :date)")
+    List<PortfolioSnapshot> findLatestBeforeForAccounts(@Param("accountIds") Collection<UUID> accountIds, @Param("date") LocalDate date);
+
     // Find number of snpashots per account
     @Query("SELECT COUNT(ps) FROM PortfolioSnapshot ps WHERE ps.account = :account")
     Long countByAccount(@Param("account") Account account);
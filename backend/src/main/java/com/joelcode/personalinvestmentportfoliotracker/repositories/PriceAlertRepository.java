@@ -1,9 +1,16 @@
 package com.joelcode.personalinvestmentportfoliotracker.repositories;
 
 import com.joelcode.personalinvestmentportfoliotracker.entities.PriceAlert;
+import com.joelcode.personalinvestmentportfoliotracker.services.pricealert.ActiveAlert;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -17,4 +24,26 @@ public interface PriceAlertRepository extends JpaRepository<PriceAlert, UUID> {
     List<PriceAlert> findByStock_StockId(UUID stockId);
 
     void deleteByUser_UserIdAndAlertId(UUID userUserId, UUID alertId);
+
+    // Untriggered alerts as index entries, keyset-paged by alert id so a full rebuild never uses offsets.
+    // The first page takes no cursor: UUID ordering is database-specific, so there is no safe lowest id.
+    @Query("SELECT new com.joelcode.personalinvestmentportfoliotracker.services.pricealert.ActiveAlert(" +
+            "a.alertId, u.userId, u.username, s.stockId, s.stockCode, a.type, a.targetPrice) " +
+            "FROM PriceAlert a JOIN a.user u JOIN a.stock s " +
+            "WHERE a.isActive = true AND a.triggeredAt IS NULL " +
+            "ORDER BY a.alertId")
+    List<ActiveAlert> findActiveAlerts(Pageable pageable);
+
+    @Query("SELECT new com.joelcode.personalinvestmentportfoliotracker.services.pricealert.ActiveAlert(" +
+            "a.alertId, u.userId, u.username, s.stockId, s.stockCode, a.type, a.targetPrice) " +
+            "FROM PriceAlert a JOIN a.user u JOIN a.stock s " +
+            "WHERE a.isActive = true AND a.triggeredAt IS NULL AND a.alertId > :afterId " +
+            "ORDER BY a.alertId")
+    List<ActiveAlert> findActiveAlertsAfter(@Param("afterId") UUID afterId, Pageable pageable);
+
+    // Mark a batch of alerts as triggered; alerts deleted or deactivated in the meantime are skipped
+    @Modifying
+    @Query("UPDATE PriceAlert a SET a.isActive = false, a.triggeredAt = :triggeredAt " +
+            "WHERE a.alertId IN :alertIds AND a.isActive = true")
+    int markTriggered(@Param("alertIds") Collection<UUID> alertIds, @Param("triggeredAt") LocalDateTime triggeredAt);
 }
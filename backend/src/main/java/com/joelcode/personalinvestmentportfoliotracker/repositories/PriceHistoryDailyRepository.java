@@ -0,0 +1,23 @@
+package com.joelcode.personalinvestmentportfoliotracker.repositories;
+
+import com.joelcode.personalinvestmentportfoliotracker.entities.PriceHistoryDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface PriceHistoryDailyRepository extends JpaRepository<PriceHistoryDaily, UUID> {
+
+    List<PriceHistoryDaily> findByTradeDate(LocalDate tradeDate);
+
+    List<PriceHistoryDaily> findByStockIdAndTradeDateBetweenOrderByTradeDateAsc(UUID stockId, LocalDate from, LocalDate to);
+
+    // Newest day that has been rolled up, where the next rollup run starts
+    @Query("SELECT MAX(d.tradeDate) FROM PriceHistoryDaily d")
+    Optional<LocalDate> findLatestTradeDate();
+}
@@ -1,8 +1,10 @@
 package com.joelcode.personalinvestmentportfoliotracker.repositories;
 
+import com.joelcode.personalinvestmentportfoliotracker.dto.pricehistory.PricePoint;
 import com.joelcode.personalinvestmentportfoliotracker.entities.PriceHistory;
 import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -14,7 +16,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface PriceHistoryRepository extends JpaRepository<PriceHistory, UUID> {
+public interface PriceHistoryRepository extends JpaRepository<PriceHistory, UUID>, PriceHistoryRepositoryCustom {
 
     // By stock
     List<PriceHistory> findByStock(Stock stock);
@@ -55,4 +57,16 @@ public interface PriceHistoryRepository extends JpaRepository<PriceHistory, UUID
 
     List<PriceHistory> findByClosePriceLessThan(BigDecimal closePrice);
 
+
+    // Rollup and retention
+    @Query("SELECT MIN(p.closeDate) FROM PriceHistory p")
+    Optional<LocalDateTime> findEarliestCloseDate();
+
+    @Query("SELECT new com.joelcode.personalinvestmentportfoliotracker.dto.pricehistory.PricePoint(p.stock.stockId, p.closeDate, p.closePrice) " +
+           "FROM PriceHistory p WHERE p.closeDate >= :from AND p.closeDate < :to ORDER BY p.closeDate")
+    List<PricePoint> findPointsBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Query("DELETE FROM PriceHistory p WHERE p.closeDate < :cutoff")
+    int deleteCloseDateBefore(@Param("cutoff") LocalDateTime cutoff);
 }
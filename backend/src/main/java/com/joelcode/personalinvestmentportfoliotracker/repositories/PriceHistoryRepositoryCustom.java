@@ -0,0 +1,15 @@
+package com.joelcode.personalinvestmentportfoliotracker.repositories;
+
+import com.joelcode.personalinvestmentportfoliotracker.dto.pricehistory.PricePoint;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface PriceHistoryRepositoryCustom {
+
+    // Close prices of a stock between two times (inclusive), oldest first. Short recent ranges return raw
+    // points; longer or older ranges return one close per day from the rollups, plus the last raw point
+    // of any day in the range not rolled up yet
+    List<PricePoint> findSeries(UUID stockId, LocalDateTime from, LocalDateTime to);
+}
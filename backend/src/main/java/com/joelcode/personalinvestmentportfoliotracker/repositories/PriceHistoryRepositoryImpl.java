@@ -0,0 +1,100 @@
+package com.joelcode.personalinvestmentportfoliotracker.repositories;
+
+import com.joelcode.personalinvestmentportfoliotracker.dto.pricehistory.PricePoint;
+import com.joelcode.personalinvestmentportfoliotracker.entities.PriceHistoryDaily;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Granularity-aware reads for price history
+ *
+ * Raw points are only kept for the retention window and a year of them is far more than a chart
+ * needs, so findSeries picks the source by range: raw points when the range is short and still
+ * inside the retention window, daily rollups otherwise. Days after the newest rollup (normally
+ * just today, or the whole range before the first rollup run) are filled from the raw table with
+ * each day's last point.
+ */
+public class PriceHistoryRepositoryImpl implements PriceHistoryRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final int intradayMaxDays;
+    private final int rawRetentionDays;
+
+
+    // Constructor
+    public PriceHistoryRepositoryImpl(@Value("${price-history.series.intraday-max-days:7}") int intradayMaxDays,
+                                      @Value("${price-history.retention.raw-days:90}") int rawRetentionDays) {
+        this.intradayMaxDays = intradayMaxDays;
+        this.rawRetentionDays = rawRetentionDays;
+    }
+
+
+    @Override
+    public List<PricePoint> findSeries(UUID stockId, LocalDateTime from, LocalDateTime to) {
+        if (from.isAfter(to)) {
+            return List.of();
+        }
+        LocalDateTime rawCutoff = LocalDate.now().minusDays(rawRetentionDays).atStartOfDay();
+        boolean shortRange = Duration.between(from, to).compareTo(Duration.ofDays(intradayMaxDays)) <= 0;
+        if (shortRange && !from.isBefore(rawCutoff)) {
+            return rawPoints(stockId, from, to);
+        }
+
+        List<PricePoint> series = new ArrayList<>();
+        for (PriceHistoryDaily day : entityManager.createQuery(
+                        "SELECT d FROM PriceHistoryDaily d WHERE d.stockId = :stockId " +
+                        "AND d.tradeDate BETWEEN :from AND :to ORDER BY d.tradeDate", PriceHistoryDaily.class)
+                .setParameter("stockId", stockId)
+                .setParameter("from", from.toLocalDate())
+                .setParameter("to", to.toLocalDate())
+                .getResultList()) {
+            series.add(new PricePoint(stockId, day.getTradeDate().atStartOfDay(), day.getClosePrice()));
+        }
+
+        // Days not rolled up yet come from the raw table, one close per day
+        LocalDateTime unrolledFrom = series.isEmpty()
+                ? from
+                : max(from, series.get(series.size() - 1).closeDate().plusDays(1));
+        if (!unrolledFrom.isAfter(to)) {
+            Map<LocalDate, PricePoint> lastOfDay = new LinkedHashMap<>();
+            for (PricePoint point : rawPoints(stockId, unrolledFrom, to)) {
+                lastOfDay.put(point.closeDate().toLocalDate(), point);
+            }
+            for (PricePoint point : lastOfDay.values()) {
+                series.add(new PricePoint(stockId, point.closeDate().toLocalDate().atStartOfDay(), point.closePrice()));
+            }
+        }
+        return series;
+    }
+
+
+    // Helper functions
+
+    private List<PricePoint> rawPoints(UUID stockId, LocalDateTime from, LocalDateTime to) {
+        return entityManager.createQuery(
+                        "SELECT new com.joelcode.personalinvestmentportfoliotracker.dto.pricehistory.PricePoint(" +
+                        "p.stock.stockId, p.closeDate, p.closePrice) FROM PriceHistory p " +
+                        "WHERE p.stock.stockId = :stockId AND p.closeDate BETWEEN :from AND :to ORDER BY p.closeDate",
+                        PricePoint.class)
+                .setParameter("stockId", stockId)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList();
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
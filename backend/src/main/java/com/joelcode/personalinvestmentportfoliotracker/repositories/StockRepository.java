@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -19,6 +20,8 @@ public interface StockRepository  extends JpaRepository<Stock, UUID> {
 
     Optional<Stock> findByCompanyName(String companyName);
 
+    List<Stock> findByStockCodeIn(Collection<String> stockCodes);
+
 
     // Filter lists of stocks
     List<Stock> findByCompanyNameContainingIgnoreCase(String companyName);
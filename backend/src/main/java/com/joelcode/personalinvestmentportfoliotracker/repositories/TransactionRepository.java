@@ -3,7 +3,10 @@ package com.joelcode.personalinvestmentportfoliotracker.repositories;
 import com.joelcode.personalinvestmentportfoliotracker.entities.Account;
 import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
 import com.joelcode.personalinvestmentportfoliotracker.entities.Transaction;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
@@ -23,6 +26,32 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
 
     List<Transaction> findByAccount_AccountIdOrderByCreatedAtDesc(UUID accountId);
 
+    // Keyset feed, newest first; the transaction id breaks ties between equal timestamps
+    @Query("SELECT t FROM Transaction t WHERE t.account.accountId = :accountId " +
+            "ORDER BY t.createdAt DESC, t.transactionId DESC")
+    List<Transaction> findFeedForAccount(@Param("accountId") UUID accountId, Pageable pageable);
+
+    @Query("SELECT t FROM Transaction t WHERE t.account.accountId = :accountId " +
+            "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.transactionId < :transactionId)) " +
+            "ORDER BY t.createdAt DESC, t.transactionId DESC")
+    List<Transaction> findFeedForAccountAfter(@Param("accountId") UUID accountId,
+                                              @Param("createdAt") LocalDateTime createdAt,
+                                              @Param("transactionId") UUID transactionId,
+                                              Pageable pageable);
+
+    // Same feed merged across every account of a user
+    @Query("SELECT t FROM Transaction t WHERE t.account.user.userId = :userId " +
+            "ORDER BY t.createdAt DESC, t.transactionId DESC")
+    List<Transaction> findFeedForUser(@Param("userId") UUID userId, Pageable pageable);
+
+    @Query("SELECT t FROM Transaction t WHERE t.account.user.userId = :userId " +
+            "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.transactionId < :transactionId)) " +
+            "ORDER BY t.createdAt DESC, t.transactionId DESC")
+    List<Transaction> findFeedForUserAfter(@Param("userId") UUID userId,
+                                           @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("transactionId") UUID transactionId,
+                                           Pageable pageable);
+
 
     // By stock
     List<Transaction> findByStock(Stock stock);
@@ -1,8 +1,11 @@
 package com.joelcode.personalinvestmentportfoliotracker.repositories;
 
+import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
 import com.joelcode.personalinvestmentportfoliotracker.entities.User;
 import com.joelcode.personalinvestmentportfoliotracker.entities.Watchlist;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -21,4 +24,11 @@ public interface WatchlistRepository extends JpaRepository<Watchlist, UUID> {
     void deleteByUser_UserIdAndStock_StockId(UUID userId, UUID stockId);
 
     boolean existsByUser_UserIdAndStock_StockId(UUID userId, UUID stockId);
+
+    // Watchlist rows with their stock in one query, oldest first
+    @Query("SELECT w FROM Watchlist w JOIN FETCH w.stock WHERE w.user.userId = :userId ORDER BY w.addedAt")
+    List<Watchlist> findByUserIdWithStock(@Param("userId") UUID userId);
+
+    @Query("SELECT DISTINCT w.stock FROM Watchlist w")
+    List<Stock> findDistinctWatchedStocks();
 }
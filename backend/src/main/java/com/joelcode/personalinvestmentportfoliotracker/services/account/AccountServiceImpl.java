@@ -11,13 +11,15 @@ import com.joelcode.personalinvestmentportfoliotracker.entities.Transaction;
 import com.joelcode.personalinvestmentportfoliotracker.entities.User;
 import com.joelcode.personalinvestmentportfoliotracker.model.CustomUserDetails;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.AccountRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.HoldingRepository;
 import com.joelcode.personalinvestmentportfoliotracker.services.mapping.AccountMapper;
 import com.joelcode.personalinvestmentportfoliotracker.services.mapping.HoldingMapper;
 import com.joelcode.personalinvestmentportfoliotracker.services.mapping.TransactionMapper;
 import com.joelcode.personalinvestmentportfoliotracker.services.pricehistory.PriceHistoryService;
 import com.joelcode.personalinvestmentportfoliotracker.services.pricehistory.PriceHistoryServiceImpl;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.AccountValuationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.websocket.PortfolioUpdatePublisher;
 import org.springframework.context.annotation.Profile;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
@@ -33,24 +35,30 @@ public class AccountServiceImpl implements AccountService {
 
     // Define key fields
     private final AccountRepository accountRepository;
+    private final HoldingRepository holdingRepository;
     private final AccountValidationService accountValidationService;
     private final TransactionMapper transactionMapper;
     private final HoldingMapper holdingMapper;
     private final PriceHistoryService priceHistoryService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final PortfolioUpdatePublisher portfolioUpdatePublisher;
+    private final AccountValuationService accountValuationService;
 
 
     // Constructor
-    public AccountServiceImpl(AccountRepository accountRepository, AccountValidationService accountValidationService,
+    public AccountServiceImpl(AccountRepository accountRepository, HoldingRepository holdingRepository,
+                              AccountValidationService accountValidationService,
                               TransactionMapper transactionMapper, HoldingMapper holdingMapper,
                               PriceHistoryService priceHistoryService,
-                              SimpMessagingTemplate messagingTemplate) {
+                              PortfolioUpdatePublisher portfolioUpdatePublisher,
+                              AccountValuationService accountValuationService) {
         this.accountRepository = accountRepository;
+        this.holdingRepository = holdingRepository;
         this.accountValidationService = accountValidationService;
         this.transactionMapper = transactionMapper;
         this.holdingMapper = holdingMapper;
         this.priceHistoryService = priceHistoryService;
-        this.messagingTemplate = messagingTemplate;
+        this.portfolioUpdatePublisher = portfolioUpdatePublisher;
+        this.accountValuationService = accountValuationService;
     }
 
 
@@ -86,7 +94,7 @@ public class AccountServiceImpl implements AccountService {
                 BigDecimal.ZERO,
                 LocalDateTime.now()
         );
-        messagingTemplate.convertAndSend("/topic/portfolio/" + account.getAccountId(), updateMessage);
+        portfolioUpdatePublisher.publish("/topic/portfolio/" + account.getAccountId(), updateMessage);
 
         // 7. Return DTO
         return AccountMapper.toDTO(account);
@@ -119,6 +127,7 @@ public class AccountServiceImpl implements AccountService {
         AccountMapper.updateEntity(account, request);
 
         account = accountRepository.save(account);
+        accountValuationService.evict(accountId);
 
         WebSocketController.PortfolioUpdateMessage updateMessage = new WebSocketController.PortfolioUpdateMessage(
                 account.getAccountId(),
@@ -127,7 +136,7 @@ public class AccountServiceImpl implements AccountService {
                 LocalDateTime.now()
         );
 
-        messagingTemplate.convertAndSend(
+        portfolioUpdatePublisher.publish(
                 "/topic/portfolio/" + account.getAccountId(),
                 updateMessage
         );
@@ -141,6 +150,7 @@ public class AccountServiceImpl implements AccountService {
         Account account = accountValidationService.validateAccountExistsById(accountId);
 
         accountRepository.delete(account);
+        accountValuationService.evict(accountId);
     }
 
 
@@ -153,6 +163,7 @@ public class AccountServiceImpl implements AccountService {
         BigDecimal newBalance = currentBalance.add(amount);
         account.setAccountBalance(newBalance);
         accountRepository.save(account);
+        accountValuationService.evict(account.getAccountId());
 
         WebSocketController.PortfolioUpdateMessage updateMessage = new WebSocketController.PortfolioUpdateMessage(
                 account.getAccountId(),
@@ -161,7 +172,7 @@ public class AccountServiceImpl implements AccountService {
                 LocalDateTime.now()
         );
 
-        messagingTemplate.convertAndSend(
+        portfolioUpdatePublisher.publish(
                 "/topic/portfolio/" + account.getAccountId(),
                 updateMessage
         );
@@ -189,13 +200,13 @@ public class AccountServiceImpl implements AccountService {
     @Override
     public List<HoldingDTO> getHoldingsForAccount(UUID accountId) {
         // Validate the account exists
-        Account account = accountValidationService.validateAccountExistsById(accountId);
+        accountValidationService.validateAccountExistsById(accountId);
 
-        // Stream through holdings and map to DTOs with current price
-        List<HoldingDTO> holdingDTOs = account.getHoldings().stream()
+        // Stream through holdings, loaded together with their stocks, and map to DTOs with current price
+        List<HoldingDTO> holdingDTOs = holdingRepository.findViewsByAccountId(accountId).stream()
                 .map(h -> {
-                    BigDecimal currentPrice = priceHistoryService.getCurrentPrice(h.getStock().getStockId());
-                    return HoldingMapper.toDTO(h, currentPrice);
+                    BigDecimal currentPrice = priceHistoryService.getCurrentPrice(h.stockId());
+                    return HoldingMapper.viewToDTO(h, currentPrice);
                 })
                 .collect(Collectors.toList());
 
@@ -7,9 +7,10 @@ import com.joelcode.personalinvestmentportfoliotracker.entities.*;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.*;
 import com.joelcode.personalinvestmentportfoliotracker.services.holding.HoldingCalculationService;
 import com.joelcode.personalinvestmentportfoliotracker.services.mapping.DividendPaymentMapper;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.AccountValuationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.websocket.PortfolioUpdatePublisher;
 import jakarta.transaction.Transactional;
 import org.springframework.context.annotation.Profile;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -29,8 +30,9 @@ public class DividendPaymentServiceImpl implements DividendPaymentService {
     private final StockRepository stockRepository;
     private final HoldingRepository holdingRepository;
     private final DividendPaymentValidationService validationService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final PortfolioUpdatePublisher portfolioUpdatePublisher;
     private final HoldingCalculationService holdingCalculationService;
+    private final AccountValuationService accountValuationService;
 
 
     // Constructor
@@ -40,16 +42,18 @@ public class DividendPaymentServiceImpl implements DividendPaymentService {
                                       StockRepository stockRepository,
                                       HoldingRepository holdingRepository,
                                       DividendPaymentValidationService validationService,
-                                      SimpMessagingTemplate messagingTemplate,
-                                      HoldingCalculationService holdingCalculationService) {
+                                      PortfolioUpdatePublisher portfolioUpdatePublisher,
+                                      HoldingCalculationService holdingCalculationService,
+                                      AccountValuationService accountValuationService) {
         this.paymentRepository = paymentRepository;
         this.dividendRepository = dividendRepository;
         this.accountRepository = accountRepository;
         this.stockRepository = stockRepository;
         this.holdingRepository = holdingRepository;
         this.validationService = validationService;
-        this.messagingTemplate = messagingTemplate;
+        this.portfolioUpdatePublisher = portfolioUpdatePublisher;
         this.holdingCalculationService = holdingCalculationService;
+        this.accountValuationService = accountValuationService;
     }
 
 
@@ -97,9 +101,15 @@ public class DividendPaymentServiceImpl implements DividendPaymentService {
                 request.getShareQuantity().multiply(dividend.getDividendAmountPerShare())
         ));
 
+        // Add the payment to the cached account valuation
+        accountValuationService.recordDividend(account.getAccountId(),
+                request.getShareQuantity().multiply(dividend.getDividendAmountPerShare()),
+                account.getAccountBalance());
+
         // WebSocket notification: user alert
-        messagingTemplate.convertAndSend(
+        portfolioUpdatePublisher.publish(
                 "/topic/dividends",
+                "payment:" + payment.getPaymentId(),
                 new WebSocketController.UserNotification(
                         "New dividend payment for stock " + stock.getStockCode() +
                                 " on " + dividend.getPayDate() +
@@ -110,7 +120,7 @@ public class DividendPaymentServiceImpl implements DividendPaymentService {
         );
 
         // WebSocket notification: portfolio update
-        messagingTemplate.convertAndSend(
+        portfolioUpdatePublisher.publish(
                 "/topic/portfolio/" + account.getAccountId(),
                 new WebSocketController.PortfolioUpdateMessage(
                         account.getAccountId(),
@@ -254,6 +264,9 @@ public class DividendPaymentServiceImpl implements DividendPaymentService {
             );
 
             paymentRepository.save(payment);
+
+            // The new payment changes the account's dividend total; rebuild it on the next read
+            accountValuationService.evict(holding.getAccount().getAccountId());
         }
     }
 
@@ -263,6 +276,9 @@ public class DividendPaymentServiceImpl implements DividendPaymentService {
     public void deleteDividendPayment(UUID paymentId) {
         DividendPayment payment = validationService.validatePaymentExists(paymentId);
         paymentRepository.delete(payment);
+
+        // Drop the cached valuation so its dividend total no longer includes this payment
+        accountValuationService.evict(payment.getAccount().getAccountId());
     }
 
     // Get all payments
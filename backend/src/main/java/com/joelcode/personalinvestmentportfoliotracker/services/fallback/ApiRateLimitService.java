@@ -1,17 +1,20 @@
 package com.joelcode.personalinvestmentportfoliotracker.services.fallback;
 
+import com.joelcode.personalinvestmentportfoliotracker.exceptions.RateLimitExceededException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
-import java.time.LocalDateTime;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * Rate Limit Tracking Service for External APIs
+ * Rate Limit Service for External APIs
  *
- * Tracks API call counts and implements rate limiting to prevent
- * exceeding API quotas for FinnHub and MarketAux.
+ * Holds one token bucket per provider so that calls to FinnHub and MarketAux never exceed
+ * their quotas. Bursts queue in arrival order for up to the configured max wait instead of
+ * failing outright; calls that cannot be served in time fail with RateLimitExceededException.
  *
  * FinnHub Free Tier: 60 API calls/minute
  * MarketAux Free Tier: 100 API calls/day
@@ -19,115 +22,126 @@ import java.util.concurrent.ConcurrentHashMap;
 @Service
 public class ApiRateLimitService {
 
-    // Track API call counts per minute for FinnHub
-    private final Map<String, ApiCallTracker> finnhubCallTrackers = new ConcurrentHashMap<>();
+    // Define key fields
+    private final TokenBucketRateLimiter finnhubLimiter;
+    private final TokenBucketRateLimiter marketAuxLimiter;
+    private final Duration finnhubMaxWait;
+    private final Duration marketAuxMaxWait;
+
+
+    // Constructor
+    public ApiRateLimitService(MeterRegistry meterRegistry,
+                               @Value("${rate-limit.finnhub.permits-per-minute:60}") int finnhubPerMinute,
+                               @Value("${rate-limit.finnhub.burst:10}") int finnhubBurst,
+                               @Value("${rate-limit.finnhub.daily-quota:0}") long finnhubDailyQuota,
+                               @Value("${rate-limit.finnhub.max-wait-ms:2000}") long finnhubMaxWaitMillis,
+                               @Value("${rate-limit.marketaux.permits-per-minute:10}") int marketAuxPerMinute,
+                               @Value("${rate-limit.marketaux.burst:5}") int marketAuxBurst,
+                               @Value("${rate-limit.marketaux.daily-quota:100}") long marketAuxDailyQuota,
+                               @Value("${rate-limit.marketaux.max-wait-ms:0}") long marketAuxMaxWaitMillis) {
+        this.finnhubLimiter = new TokenBucketRateLimiter("finnhub", finnhubPerMinute, finnhubBurst, finnhubDailyQuota);
+        this.marketAuxLimiter = new TokenBucketRateLimiter("marketaux", marketAuxPerMinute, marketAuxBurst, marketAuxDailyQuota);
+        this.finnhubMaxWait = Duration.ofMillis(finnhubMaxWaitMillis);
+        this.marketAuxMaxWait = Duration.ofMillis(marketAuxMaxWaitMillis);
+
+        registerGauges(meterRegistry, finnhubLimiter);
+        registerGauges(meterRegistry, marketAuxLimiter);
+    }
 
-    // Track daily call count for MarketAux
-    private ApiCallTracker marketAuxDailyTracker = new ApiCallTracker(LocalDateTime.now(), 0);
 
-    // Rate limit thresholds
-    private static final int FINNHUB_MINUTE_LIMIT = 60;
-    private static final int MARKETAUX_DAILY_LIMIT = 100;
+    // FinnHub
 
     /**
-     * Check if FinnHub API call can be made without exceeding rate limit
-     * @return true if call is allowed, false if rate limit would be exceeded
+     * Take a FinnHub permit only if one is free right now
+     * @return true if the call may be made
      */
-    public boolean canCallFinnhub() {
-        String currentMinute = getCurrentMinuteKey();
-        ApiCallTracker tracker = finnhubCallTrackers.computeIfAbsent(
-            currentMinute,
-            k -> new ApiCallTracker(LocalDateTime.now(), 0)
-        );
-
-        // Clean up old trackers (older than 2 minutes)
-        cleanupOldFinnhubTrackers();
-
-        return tracker.count < FINNHUB_MINUTE_LIMIT;
+    public boolean tryAcquireFinnhub() {
+        return finnhubLimiter.tryAcquire();
     }
 
     /**
-     * Record a FinnHub API call
+     * Wait for a FinnHub permit, up to the configured max wait
+     * @throws RateLimitExceededException if no permit is free in time
      */
-    public void recordFinnhubCall() {
-        String currentMinute = getCurrentMinuteKey();
-        finnhubCallTrackers.computeIfPresent(currentMinute, (k, v) -> {
-            v.count++;
-            return v;
-        });
+    public void acquireFinnhub() {
+        acquire(finnhubLimiter, finnhubMaxWait);
     }
 
     /**
-     * Check if MarketAux API call can be made without exceeding daily limit
-     * @return true if call is allowed, false if rate limit would be exceeded
+     * Completes once a FinnHub permit is granted, without blocking the caller
      */
-    public boolean canCallMarketAux() {
-        // Reset counter if it's a new day
-        if (isDifferentDay(marketAuxDailyTracker.timestamp)) {
-            marketAuxDailyTracker = new ApiCallTracker(LocalDateTime.now(), 0);
-        }
-
-        return marketAuxDailyTracker.count < MARKETAUX_DAILY_LIMIT;
+    public CompletableFuture<Void> acquireFinnhubAsync() {
+        return finnhubLimiter.acquireAsync(finnhubMaxWait);
     }
 
     /**
-     * Record a MarketAux API call
+     * Get FinnHub permits available without waiting
      */
-    public void recordMarketAuxCall() {
-        marketAuxDailyTracker.count++;
+    public int getRemainingFinnhubCalls() {
+        return finnhubLimiter.availablePermits();
     }
 
+
+    // MarketAux
+
     /**
-     * Get remaining FinnHub calls for current minute
+     * Take a MarketAux permit only if one is free right now
+     * @return true if the call may be made
      */
-    public int getRemainingFinnhubCalls() {
-        String currentMinute = getCurrentMinuteKey();
-        ApiCallTracker tracker = finnhubCallTrackers.get(currentMinute);
-        if (tracker == null) {
-            return FINNHUB_MINUTE_LIMIT;
-        }
-        return Math.max(0, FINNHUB_MINUTE_LIMIT - tracker.count);
+    public boolean tryAcquireMarketAux() {
+        return marketAuxLimiter.tryAcquire();
     }
 
     /**
-     * Get remaining MarketAux calls for current day
+     * Wait for a MarketAux permit, up to the configured max wait
+     * @throws RateLimitExceededException if no permit is free in time or the daily quota is used up
      */
-    public int getRemainingMarketAuxCalls() {
-        if (isDifferentDay(marketAuxDailyTracker.timestamp)) {
-            return MARKETAUX_DAILY_LIMIT;
-        }
-        return Math.max(0, MARKETAUX_DAILY_LIMIT - marketAuxDailyTracker.count);
+    public void acquireMarketAux() {
+        acquire(marketAuxLimiter, marketAuxMaxWait);
     }
 
-    private String getCurrentMinuteKey() {
-        LocalDateTime now = LocalDateTime.now();
-        return String.format("%d-%02d-%02d_%02d:%02d",
-            now.getYear(), now.getMonthValue(), now.getDayOfMonth(),
-            now.getHour(), now.getMinute());
+    /**
+     * Completes once a MarketAux permit is granted, without blocking the caller
+     */
+    public CompletableFuture<Void> acquireMarketAuxAsync() {
+        return marketAuxLimiter.acquireAsync(marketAuxMaxWait);
     }
 
-    private void cleanupOldFinnhubTrackers() {
-        LocalDateTime twoMinutesAgo = LocalDateTime.now().minus(Duration.ofMinutes(2));
-        finnhubCallTrackers.entrySet().removeIf(entry ->
-            entry.getValue().timestamp.isBefore(twoMinutesAgo)
-        );
+    /**
+     * Get remaining MarketAux calls for the current day
+     */
+    public long getRemainingMarketAuxCalls() {
+        return marketAuxLimiter.remainingDailyQuota();
     }
 
-    private boolean isDifferentDay(LocalDateTime timestamp) {
-        LocalDateTime now = LocalDateTime.now();
-        return !timestamp.toLocalDate().equals(now.toLocalDate());
-    }
 
-    /**
-     * Simple tracker for API calls with timestamp
-     */
-    private static class ApiCallTracker {
-        LocalDateTime timestamp;
-        int count;
+    // Helper functions
 
-        ApiCallTracker(LocalDateTime timestamp, int count) {
-            this.timestamp = timestamp;
-            this.count = count;
+    private void acquire(TokenBucketRateLimiter limiter, Duration maxWait) {
+        try {
+            if (!limiter.acquire(maxWait)) {
+                throw limiter.exhausted();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw limiter.exhausted();
         }
     }
+
+    private void registerGauges(MeterRegistry meterRegistry, TokenBucketRateLimiter limiter) {
+        Gauge.builder("external.api.ratelimit.permits.available", limiter, TokenBucketRateLimiter::availablePermits)
+                .description("Permits that can be taken without waiting")
+                .tag("provider", limiter.getName())
+                .register(meterRegistry);
+        Gauge.builder("external.api.ratelimit.wait", limiter, TokenBucketRateLimiter::estimatedWaitMillis)
+                .description("Estimated wait for the next permit in milliseconds")
+                .tag("provider", limiter.getName())
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("external.api.ratelimit.daily.remaining", limiter,
+                        l -> l.remainingDailyQuota() == Long.MAX_VALUE ? Double.NaN : l.remainingDailyQuota())
+                .description("Permits left in today's quota")
+                .tag("provider", limiter.getName())
+                .register(meterRegistry);
+    }
 }
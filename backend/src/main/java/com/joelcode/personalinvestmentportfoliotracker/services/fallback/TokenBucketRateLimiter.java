@@ -0,0 +1,172 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.fallback;
+
+import com.joelcode.personalinvestmentportfoliotracker.exceptions.RateLimitExceededException;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket for a single external API
+ *
+ * Permits refill at a steady rate up to a burst capacity. Each acquire reserves the next free
+ * slot with a single compare-and-set, so callers are served in arrival order and waiting callers
+ * never overrun the rate. An optional daily quota caps the total number of permits per day.
+ */
+public class TokenBucketRateLimiter {
+
+    // Define key fields
+    private final String name;
+    private final long intervalNanos;
+    private final int burst;
+    private final long dailyQuota;
+    private final LongSupplier nanoClock;
+
+    // Time at which the next permit becomes free
+    private final AtomicLong nextFreeNanos;
+
+    // Permits used today, and the day they belong to
+    private final AtomicLong dailyUsed = new AtomicLong();
+    private final AtomicLong dailyEpochDay = new AtomicLong(today());
+
+
+    // Constructor
+    public TokenBucketRateLimiter(String name, int permitsPerMinute, int burst, long dailyQuota) {
+        this(name, permitsPerMinute, burst, dailyQuota, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(String name, int permitsPerMinute, int burst, long dailyQuota, LongSupplier nanoClock) {
+        if (permitsPerMinute <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Rate limiter " + name + " needs a positive rate and burst");
+        }
+        this.name = name;
+        this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / permitsPerMinute;
+        this.burst = burst;
+        this.dailyQuota = dailyQuota;
+        this.nanoClock = nanoClock;
+
+        // Start with a full bucket
+        this.nextFreeNanos = new AtomicLong(nanoClock.getAsLong() - (burst - 1) * intervalNanos);
+    }
+
+
+    // Take a permit only if one is available right now
+    public boolean tryAcquire() {
+        return reserve(0) >= 0;
+    }
+
+    // Wait up to the timeout for a permit, returning false if none is available in time
+    public boolean acquire(Duration timeout) throws InterruptedException {
+        long waitNanos = reserve(timeout.toNanos());
+        if (waitNanos < 0) {
+            return false;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        return true;
+    }
+
+    // Complete once a permit is granted, or fail straight away if none is available within the timeout
+    public CompletableFuture<Void> acquireAsync(Duration timeout) {
+        long waitNanos = reserve(timeout.toNanos());
+        if (waitNanos < 0) {
+            return CompletableFuture.failedFuture(exhausted());
+        }
+        Executor delayed = CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS);
+        return CompletableFuture.runAsync(() -> {}, delayed);
+    }
+
+    // Permits that could be taken right now without waiting
+    public int availablePermits() {
+        long now = nanoClock.getAsLong();
+        long idle = now - nextFreeNanos.get();
+        int tokens = idle < 0 ? 0 : (int) Math.min(burst, idle / intervalNanos + 1);
+        return (int) Math.min(tokens, remainingDailyQuota());
+    }
+
+    // How long a caller arriving now would wait for a permit
+    public long estimatedWaitMillis() {
+        long wait = nextFreeNanos.get() - nanoClock.getAsLong();
+        return wait <= 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(wait);
+    }
+
+    // Permits left for today, or Long.MAX_VALUE when there is no daily quota
+    public long remainingDailyQuota() {
+        if (dailyQuota <= 0) {
+            return Long.MAX_VALUE;
+        }
+        rollDay();
+        return Math.max(0, dailyQuota - dailyUsed.get());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public RateLimitExceededException exhausted() {
+        return new RateLimitExceededException("Rate limit exceeded for " + name);
+    }
+
+
+    // Helper functions
+
+    // Reserve the next free slot if it is within maxWait; returns the wait in nanos, or -1 if refused
+    private long reserve(long maxWaitNanos) {
+        if (!takeDailyPermit()) {
+            return -1;
+        }
+
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long current = nextFreeNanos.get();
+
+            // Unused capacity beyond the burst size is not carried forward
+            long slot = Math.max(current, now - (burst - 1) * intervalNanos);
+            long wait = slot - now;
+            if (wait > maxWaitNanos) {
+                returnDailyPermit();
+                return -1;
+            }
+            if (nextFreeNanos.compareAndSet(current, slot + intervalNanos)) {
+                return Math.max(0, wait);
+            }
+        }
+    }
+
+    private boolean takeDailyPermit() {
+        if (dailyQuota <= 0) {
+            return true;
+        }
+        rollDay();
+        if (dailyUsed.incrementAndGet() > dailyQuota) {
+            dailyUsed.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private void returnDailyPermit() {
+        if (dailyQuota > 0) {
+            dailyUsed.decrementAndGet();
+        }
+    }
+
+    // Reset the daily counter once, atomically, when the date changes
+    private void rollDay() {
+        long day = today();
+        long recorded = dailyEpochDay.get();
+        if (day != recorded && dailyEpochDay.compareAndSet(recorded, day)) {
+            dailyUsed.set(0);
+        }
+    }
+
+    private static long today() {
+        return LocalDate.now(ZoneId.systemDefault()).toEpochDay();
+    }
+}
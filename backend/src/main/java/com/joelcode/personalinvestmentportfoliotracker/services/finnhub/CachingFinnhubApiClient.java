@@ -0,0 +1,223 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.finnhub;
+
+import com.joelcode.personalinvestmentportfoliotracker.dto.finnhub.FinnhubCandleDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.finnhub.FinnhubCompanyProfileDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.finnhub.FinnhubMetricsDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.finnhub.FinnhubQuoteDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Caching decorator in front of the FinnHub client
+ *
+ * Quotes are cached per symbol for a short freshness window. Once a quote goes stale it is still
+ * served for a further grace window while a background refresh runs (stale-while-revalidate).
+ * Concurrent misses for the same symbol share a single upstream request (single-flight). Loads
+ * use the delegate's async API, so neither refreshes nor async callers hold a thread while waiting.
+ *
+ * Profiles, metrics and candles are passed straight through to the underlying client.
+ */
+@Service
+@Primary
+public class CachingFinnhubApiClient implements FinnhubApiClient {
+
+    // Define key fields
+    private final FinnhubApiClient delegate;
+    private final long freshTtlMillis;
+    private final long staleTtlMillis;
+    private final LongSupplier clock;
+
+    private final Map<String, CachedQuote> quotes;
+    private final Map<String, CompletableFuture<FinnhubQuoteDTO>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter hitCounter;
+    private final Counter staleCounter;
+    private final Counter missCounter;
+    private final Counter coalescedCounter;
+
+
+    // Constructor
+    @Autowired
+    public CachingFinnhubApiClient(@Qualifier("finnhubApiClientImpl") FinnhubApiClient delegate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${finnhub.cache.quote.fresh-ttl-ms:15000}") long freshTtlMillis,
+                                   @Value("${finnhub.cache.quote.stale-ttl-ms:60000}") long staleTtlMillis,
+                                   @Value("${finnhub.cache.quote.max-entries:5000}") int maxEntries) {
+        this(delegate, meterRegistry, freshTtlMillis, staleTtlMillis, maxEntries, System::currentTimeMillis);
+    }
+
+    CachingFinnhubApiClient(FinnhubApiClient delegate, MeterRegistry meterRegistry, long freshTtlMillis,
+                            long staleTtlMillis, int maxEntries, LongSupplier clock) {
+        this.delegate = delegate;
+        this.freshTtlMillis = freshTtlMillis;
+        this.staleTtlMillis = staleTtlMillis;
+        this.clock = clock;
+        // Access-ordered, so a put past the limit drops the least recently read symbol
+        this.quotes = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedQuote> eldest) {
+                return size() > maxEntries;
+            }
+        });
+
+        this.hitCounter = quoteCounter(meterRegistry, "hit");
+        this.staleCounter = quoteCounter(meterRegistry, "stale");
+        this.missCounter = quoteCounter(meterRegistry, "miss");
+        this.coalescedCounter = quoteCounter(meterRegistry, "coalesced");
+        Gauge.builder("finnhub.quote.cache.size", quotes, Map::size)
+                .description("Number of symbols held in the FinnHub quote cache")
+                .register(meterRegistry);
+    }
+
+
+    // Interface functions
+
+    @Override
+    public FinnhubQuoteDTO getQuote(String symbol) {
+        try {
+            return getQuoteAsync(symbol).join();
+        } catch (CompletionException e) {
+            // Unwrap so callers see the original failure
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    // Serve a quote from cache, refreshing in the background once it goes stale
+    @Override
+    public CompletableFuture<FinnhubQuoteDTO> getQuoteAsync(String symbol) {
+        String key = symbol.toUpperCase();
+        long now = clock.getAsLong();
+
+        CachedQuote cached = quotes.get(key);
+        if (cached != null) {
+            long age = now - cached.fetchedAt;
+            if (age < freshTtlMillis) {
+                hitCounter.increment();
+                return CompletableFuture.completedFuture(cached.quote);
+            }
+            if (age < freshTtlMillis + staleTtlMillis) {
+                staleCounter.increment();
+                refreshInBackground(key);
+                return CompletableFuture.completedFuture(cached.quote);
+            }
+        }
+
+        missCounter.increment();
+        return load(key);
+    }
+
+    @Override
+    public BigDecimal getCurrentPrice(String symbol) {
+        FinnhubQuoteDTO quote = getQuote(symbol);
+        return quote != null ? quote.getCurrentPrice() : null;
+    }
+
+    @Override
+    public FinnhubCompanyProfileDTO getCompanyProfile(String symbol) {
+        return delegate.getCompanyProfile(symbol);
+    }
+
+    @Override
+    public FinnhubMetricsDTO getMetrics(String symbol) {
+        return delegate.getMetrics(symbol);
+    }
+
+    @Override
+    public FinnhubCandleDTO getCandles(String symbol, String resolution, long from, long to) {
+        return delegate.getCandles(symbol, resolution, from, to);
+    }
+
+    @Override
+    public CompletableFuture<FinnhubCompanyProfileDTO> getCompanyProfileAsync(String symbol) {
+        return delegate.getCompanyProfileAsync(symbol);
+    }
+
+    @Override
+    public CompletableFuture<FinnhubMetricsDTO> getMetricsAsync(String symbol) {
+        return delegate.getMetricsAsync(symbol);
+    }
+
+    @Override
+    public CompletableFuture<FinnhubCandleDTO> getCandlesAsync(String symbol, String resolution, long from, long to) {
+        return delegate.getCandlesAsync(symbol, resolution, from, to);
+    }
+
+    // Drop a symbol so the next read goes upstream
+    public void evict(String symbol) {
+        quotes.remove(symbol.toUpperCase());
+    }
+
+
+    // Helper functions
+
+    private void refreshInBackground(String key) {
+        if (inFlight.containsKey(key)) {
+            return;
+        }
+        load(key).exceptionally(e -> null);
+    }
+
+    // Single-flight: the first caller for a symbol performs the upstream call, later callers join it
+    private CompletableFuture<FinnhubQuoteDTO> load(String key) {
+        CompletableFuture<FinnhubQuoteDTO> future = new CompletableFuture<>();
+        CompletableFuture<FinnhubQuoteDTO> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalescedCounter.increment();
+            return existing;
+        }
+
+        CompletableFuture<FinnhubQuoteDTO> upstream;
+        try {
+            upstream = delegate.getQuoteAsync(key);
+        } catch (RuntimeException e) {
+            upstream = CompletableFuture.failedFuture(e);
+        }
+
+        upstream.whenComplete((quote, error) -> {
+            if (error == null && quote != null) {
+                store(key, quote);
+            }
+            inFlight.remove(key, future);
+            if (error != null) {
+                future.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            } else {
+                future.complete(quote);
+            }
+        });
+        return future;
+    }
+
+    private void store(String key, FinnhubQuoteDTO quote) {
+        // EDGE CASE: Cache is full, the put evicts the least recently used symbol
+        quotes.put(key, new CachedQuote(quote, clock.getAsLong()));
+    }
+
+    private static Counter quoteCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("finnhub.quote.cache.requests")
+                .description("FinnHub quote lookups by cache outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    // Quote together with the time it was fetched
+    private record CachedQuote(FinnhubQuoteDTO quote, long fetchedAt) {}
+}
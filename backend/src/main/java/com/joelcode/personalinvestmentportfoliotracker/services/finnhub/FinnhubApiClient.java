@@ -6,6 +6,7 @@ import com.joelcode.personalinvestmentportfoliotracker.dto.finnhub.FinnhubMetric
 import com.joelcode.personalinvestmentportfoliotracker.dto.finnhub.FinnhubQuoteDTO;
 
 import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
 
 public interface FinnhubApiClient {
 
@@ -18,4 +19,14 @@ public interface FinnhubApiClient {
     FinnhubCandleDTO getCandles(String symbol, String resolution, long from, long to);
 
     BigDecimal getCurrentPrice(String symbol);
+
+    // Non-blocking versions; the rate limit wait and the request both run without holding the caller's thread
+
+    CompletableFuture<FinnhubQuoteDTO> getQuoteAsync(String symbol);
+
+    CompletableFuture<FinnhubCompanyProfileDTO> getCompanyProfileAsync(String symbol);
+
+    CompletableFuture<FinnhubMetricsDTO> getMetricsAsync(String symbol);
+
+    CompletableFuture<FinnhubCandleDTO> getCandlesAsync(String symbol, String resolution, long from, long to);
 }
@@ -4,12 +4,17 @@ import com.joelcode.personalinvestmentportfoliotracker.dto.finnhub.FinnhubCandle
 import com.joelcode.personalinvestmentportfoliotracker.dto.finnhub.FinnhubCompanyProfileDTO;
 import com.joelcode.personalinvestmentportfoliotracker.dto.finnhub.FinnhubMetricsDTO;
 import com.joelcode.personalinvestmentportfoliotracker.dto.finnhub.FinnhubQuoteDTO;
+import com.joelcode.personalinvestmentportfoliotracker.exceptions.RateLimitExceededException;
+import com.joelcode.personalinvestmentportfoliotracker.services.fallback.ApiRateLimitService;
+import com.joelcode.personalinvestmentportfoliotracker.services.http.MarketDataEndpoint;
+import com.joelcode.personalinvestmentportfoliotracker.services.http.MarketDataHttpClient;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 public class FinnhubApiClientImpl implements FinnhubApiClient {
@@ -20,51 +25,32 @@ public class FinnhubApiClientImpl implements FinnhubApiClient {
     @Value("${finnhub.api.base-url}")
     private String baseUrl;
 
-    private final RestTemplate restTemplate;
+    private final MarketDataHttpClient httpClient;
+    private final ApiRateLimitService rateLimitService;
 
-    public FinnhubApiClientImpl(RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
+    public FinnhubApiClientImpl(MarketDataHttpClient httpClient, ApiRateLimitService rateLimitService) {
+        this.httpClient = httpClient;
+        this.rateLimitService = rateLimitService;
     }
 
     @Override
     public FinnhubQuoteDTO getQuote(String symbol) {
-        try {
-            String url = String.format("%s/quote?symbol=%s&token=%s", baseUrl, symbol.toUpperCase(), apiKey);
-            return restTemplate.getForObject(url, FinnhubQuoteDTO.class);
-        } catch (RestClientException e) {
-            throw new RuntimeException("Failed to fetch quote for symbol: " + symbol, e);
-        }
+        return join(getQuoteAsync(symbol));
     }
 
     @Override
     public FinnhubCompanyProfileDTO getCompanyProfile(String symbol) {
-        try {
-            String url = String.format("%s/stock/profile2?symbol=%s&token=%s", baseUrl, symbol.toUpperCase(), apiKey);
-            return restTemplate.getForObject(url, FinnhubCompanyProfileDTO.class);
-        } catch (RestClientException e) {
-            throw new RuntimeException("Failed to fetch company profile for symbol: " + symbol, e);
-        }
+        return join(getCompanyProfileAsync(symbol));
     }
 
     @Override
     public FinnhubMetricsDTO getMetrics(String symbol) {
-        try {
-            String url = String.format("%s/stock/metric?symbol=%s&metric=all&token=%s", baseUrl, symbol.toUpperCase(), apiKey);
-            return restTemplate.getForObject(url, FinnhubMetricsDTO.class);
-        } catch (RestClientException e) {
-            throw new RuntimeException("Failed to fetch metrics for symbol: " + symbol, e);
-        }
+        return join(getMetricsAsync(symbol));
     }
 
     @Override
     public FinnhubCandleDTO getCandles(String symbol, String resolution, long from, long to) {
-        try {
-            String url = String.format("%s/stock/candle?symbol=%s&resolution=%s&from=%d&to=%d&token=%s",
-                    baseUrl, symbol.toUpperCase(), resolution, from, to, apiKey);
-            return restTemplate.getForObject(url, FinnhubCandleDTO.class);
-        } catch (RestClientException e) {
-            throw new RuntimeException("Failed to fetch candles for symbol: " + symbol, e);
-        }
+        return join(getCandlesAsync(symbol, resolution, from, to));
     }
 
     @Override
@@ -72,4 +58,59 @@ public class FinnhubApiClientImpl implements FinnhubApiClient {
         FinnhubQuoteDTO quote = getQuote(symbol);
         return quote != null ? quote.getCurrentPrice() : null;
     }
+
+    @Override
+    public CompletableFuture<FinnhubQuoteDTO> getQuoteAsync(String symbol) {
+        String url = String.format("%s/quote?symbol=%s&token=%s", baseUrl, symbol.toUpperCase(), apiKey);
+        return fetch(MarketDataEndpoint.QUOTE, url, FinnhubQuoteDTO.class, "Failed to fetch quote for symbol: " + symbol);
+    }
+
+    @Override
+    public CompletableFuture<FinnhubCompanyProfileDTO> getCompanyProfileAsync(String symbol) {
+        String url = String.format("%s/stock/profile2?symbol=%s&token=%s", baseUrl, symbol.toUpperCase(), apiKey);
+        return fetch(MarketDataEndpoint.PROFILE, url, FinnhubCompanyProfileDTO.class,
+                "Failed to fetch company profile for symbol: " + symbol);
+    }
+
+    @Override
+    public CompletableFuture<FinnhubMetricsDTO> getMetricsAsync(String symbol) {
+        String url = String.format("%s/stock/metric?symbol=%s&metric=all&token=%s", baseUrl, symbol.toUpperCase(), apiKey);
+        return fetch(MarketDataEndpoint.METRICS, url, FinnhubMetricsDTO.class, "Failed to fetch metrics for symbol: " + symbol);
+    }
+
+    @Override
+    public CompletableFuture<FinnhubCandleDTO> getCandlesAsync(String symbol, String resolution, long from, long to) {
+        String url = String.format("%s/stock/candle?symbol=%s&resolution=%s&from=%d&to=%d&token=%s",
+                baseUrl, symbol.toUpperCase(), resolution, from, to, apiKey);
+        return fetch(MarketDataEndpoint.CANDLES, url, FinnhubCandleDTO.class, "Failed to fetch candles for symbol: " + symbol);
+    }
+
+    // Wait for a permit without holding a thread, so bursts queue instead of overrunning the quota
+    private <T> CompletableFuture<T> fetch(MarketDataEndpoint endpoint, String url, Class<T> type, String failure) {
+        return rateLimitService.acquireFinnhubAsync()
+                .thenCompose(permit -> httpClient.getAsync(endpoint, URI.create(url), type))
+                .handle((result, error) -> {
+                    if (error == null) {
+                        return result;
+                    }
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    // Rate limit refusals pass through unchanged so callers can tell them apart
+                    if (cause instanceof RateLimitExceededException rateLimited) {
+                        throw rateLimited;
+                    }
+                    throw new CompletionException(new RuntimeException(failure, cause));
+                });
+    }
+
+    // Blocking callers get the original exception rather than the CompletionException around it
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
 }
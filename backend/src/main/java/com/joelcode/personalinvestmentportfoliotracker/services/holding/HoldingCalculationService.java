@@ -11,6 +11,8 @@ public interface HoldingCalculationService {
 
     BigDecimal calculateCurrentValue(Holding holding);
 
+    BigDecimal calculateCurrentValue(Holding holding, BigDecimal currentPrice);
+
     BigDecimal calculateTotalCostBasis(UUID accountId);
 
     BigDecimal calculateTotalUnrealizedGain(UUID accountId);
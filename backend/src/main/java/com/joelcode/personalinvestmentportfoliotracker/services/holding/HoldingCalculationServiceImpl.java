@@ -2,13 +2,16 @@ package com.joelcode.personalinvestmentportfoliotracker.services.holding;
 
 import com.joelcode.personalinvestmentportfoliotracker.entities.Holding;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.HoldingRepository;
-import com.joelcode.personalinvestmentportfoliotracker.services.stock.StockService;
+import com.joelcode.personalinvestmentportfoliotracker.services.marketdata.PriceResolver;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.Money;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.Quantity;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -18,15 +21,15 @@ public class HoldingCalculationServiceImpl implements HoldingCalculationService
     // Define key fields
     private final HoldingRepository holdingRepository;
     private final HoldingValidationService holdingValidationService;
-    private final StockService stockService;
+    private final PriceResolver priceResolver;
 
     // Constructor
     public HoldingCalculationServiceImpl(HoldingRepository holdingRepository,
                                          HoldingValidationService holdingValidationService,
-                                         StockService stockService) {
+                                         PriceResolver priceResolver) {
         this.holdingRepository = holdingRepository;
         this.holdingValidationService = holdingValidationService;
-        this.stockService = stockService;
+        this.priceResolver = priceResolver;
     }
 
     // Calculation functions
@@ -42,31 +45,7 @@ public class HoldingCalculationServiceImpl implements HoldingCalculationService
             return BigDecimal.ZERO;
         }
 
-        BigDecimal totalValue = BigDecimal.ZERO;
-
-        for (Holding holding : holdings) {
-            // EDGE CASE: Null stock check
-            if (holding.getStock() == null) {
-                continue;
-            }
-
-            try {
-                BigDecimal currentPrice = stockService.getCurrentPrice(holding.getStock().getStockId());
-
-                // EDGE CASE: Null or negative price
-                if (currentPrice == null || currentPrice.compareTo(BigDecimal.ZERO) < 0) {
-                    currentPrice = BigDecimal.ZERO;
-                }
-
-                BigDecimal currentValue = calculateCurrentValue(holding, currentPrice);
-                totalValue = totalValue.add(currentValue);
-            } catch (Exception e) {
-                // EDGE CASE: Price fetch fails, skip this holding
-                continue;
-            }
-        }
-
-        return totalValue.setScale(2, RoundingMode.HALF_UP);
+        return totalValue(holdings, resolvePrices(holdings));
     }
 
     // Calculate current value
@@ -84,15 +63,16 @@ public class HoldingCalculationServiceImpl implements HoldingCalculationService
             return BigDecimal.ZERO;
         }
 
-        return price.multiply(holding.getQuantity()).setScale(2, RoundingMode.HALF_UP);
+        return currentValue(price, holding.getQuantity());
     }
 
     // Overloaded method for explicit price
+    @Override
     public BigDecimal calculateCurrentValue(Holding holding, BigDecimal currentPrice) {
         if (holding == null || currentPrice == null || holding.getQuantity() == null) {
             return BigDecimal.ZERO;
         }
-        return currentPrice.multiply(holding.getQuantity()).setScale(2, RoundingMode.HALF_UP);
+        return currentValue(currentPrice, holding.getQuantity());
     }
 
     // Calculate total cost basis
@@ -116,6 +96,57 @@ public class HoldingCalculationServiceImpl implements HoldingCalculationService
             return BigDecimal.ZERO;
         }
 
+        return totalUnrealizedGain(holdings, resolvePrices(holdings));
+    }
+
+    // Calculate total realized gain
+    @Override
+    public BigDecimal calculateTotalRealizedGain(UUID accountId) {
+        var account = holdingValidationService.validateAccountExists(accountId);
+        List<Holding> holdings = holdingRepository.findByAccount(account);
+
+        // EDGE CASE: Empty holdings
+        if (holdings == null || holdings.isEmpty()) {
+            return BigDecimal.ZERO;
+        }
+
+        return totalRealizedGain(holdings);
+    }
+
+    // Shared totals, also used by the snapshot batch job so both paths round and guard prices the same way
+
+    // Value of the holdings at the given prices, rounded to cents
+    public static BigDecimal totalValue(List<Holding> holdings, Map<UUID, BigDecimal> prices) {
+        Money totalValue = Money.ZERO;
+
+        for (Holding holding : holdings) {
+            // EDGE CASE: Null stock check
+            if (holding.getStock() == null) {
+                continue;
+            }
+
+            try {
+                BigDecimal currentPrice = prices.get(holding.getStock().getStockId());
+
+                // EDGE CASE: Null or negative price
+                if (currentPrice == null || currentPrice.compareTo(BigDecimal.ZERO) < 0) {
+                    currentPrice = BigDecimal.ZERO;
+                }
+
+                if (holding.getQuantity() != null) {
+                    totalValue = totalValue.plus(marketValue(currentPrice, holding.getQuantity()));
+                }
+            } catch (Exception e) {
+                // EDGE CASE: Price fetch fails, skip this holding
+                continue;
+            }
+        }
+
+        return totalValue.toCents();
+    }
+
+    // Unrealized gain of the holdings at the given prices
+    public static BigDecimal totalUnrealizedGain(List<Holding> holdings, Map<UUID, BigDecimal> prices) {
         BigDecimal totalUnrealizedGain = BigDecimal.ZERO;
 
         for (Holding holding : holdings) {
@@ -125,7 +156,7 @@ public class HoldingCalculationServiceImpl implements HoldingCalculationService
             }
 
             try {
-                BigDecimal currentPrice = stockService.getCurrentPrice(holding.getStock().getStockId());
+                BigDecimal currentPrice = prices.get(holding.getStock().getStockId());
 
                 if (currentPrice == null) {
                     currentPrice = BigDecimal.ZERO;
@@ -146,17 +177,8 @@ public class HoldingCalculationServiceImpl implements HoldingCalculationService
         return totalUnrealizedGain.setScale(2, RoundingMode.HALF_UP);
     }
 
-    // Calculate total realized gain
-    @Override
-    public BigDecimal calculateTotalRealizedGain(UUID accountId) {
-        var account = holdingValidationService.validateAccountExists(accountId);
-        List<Holding> holdings = holdingRepository.findByAccount(account);
-
-        // EDGE CASE: Empty holdings
-        if (holdings == null || holdings.isEmpty()) {
-            return BigDecimal.ZERO;
-        }
-
+    // Realized gain of the holdings
+    public static BigDecimal totalRealizedGain(List<Holding> holdings) {
         BigDecimal totalRealizedGain = BigDecimal.ZERO;
 
         for (Holding holding : holdings) {
@@ -175,4 +197,29 @@ public class HoldingCalculationServiceImpl implements HoldingCalculationService
 
         return totalRealizedGain.setScale(2, RoundingMode.HALF_UP);
     }
+
+    // Price times quantity rounded to cents; fixed-point unless an input has more places than the columns
+    private static Money marketValue(BigDecimal price, BigDecimal quantity) {
+        if (Money.fits(price) && Quantity.fits(quantity)) {
+            return Money.of(price).times(Quantity.of(quantity));
+        }
+        return Money.of(price.multiply(quantity).setScale(2, RoundingMode.HALF_UP));
+    }
+
+    // Same value converted for callers that expect a BigDecimal
+    private BigDecimal currentValue(BigDecimal price, BigDecimal quantity) {
+        if (Money.fits(price) && Quantity.fits(quantity)) {
+            return Money.of(price).times(Quantity.of(quantity)).toCents();
+        }
+        return price.multiply(quantity).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    // Resolve prices for all holdings in one batch
+    private Map<UUID, BigDecimal> resolvePrices(List<Holding> holdings) {
+        List<UUID> stockIds = holdings.stream()
+                .filter(h -> h != null && h.getStock() != null)
+                .map(h -> h.getStock().getStockId())
+                .toList();
+        return priceResolver.resolvePrices(stockIds);
+    }
 }
\ No newline at end of file
@@ -29,4 +29,6 @@ public interface HoldingService {
     void deleteHolding(UUID id);
 
     List<HoldingDTO> getHoldingsForAccount(UUID accountId);
+
+    List<HoldingDTO> getHoldingsForUser(UUID userId);
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.joelcode.personalinvestmentportfoliotracker.controllers.WebSocketCont
 import com.joelcode.personalinvestmentportfoliotracker.dto.holding.HoldingCreateRequest;
 import com.joelcode.personalinvestmentportfoliotracker.dto.holding.HoldingDTO;
 import com.joelcode.personalinvestmentportfoliotracker.dto.holding.HoldingUpdateRequest;
+import com.joelcode.personalinvestmentportfoliotracker.dto.holding.HoldingView;
 import com.joelcode.personalinvestmentportfoliotracker.dto.transaction.TransactionCreateRequest;
 import com.joelcode.personalinvestmentportfoliotracker.entities.Account;
 import com.joelcode.personalinvestmentportfoliotracker.entities.Holding;
@@ -11,15 +12,17 @@ import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.HoldingRepository;
 import com.joelcode.personalinvestmentportfoliotracker.services.account.AccountValidationService;
 import com.joelcode.personalinvestmentportfoliotracker.services.mapping.HoldingMapper;
-import com.joelcode.personalinvestmentportfoliotracker.services.pricehistory.PriceHistoryServiceImpl;
+import com.joelcode.personalinvestmentportfoliotracker.services.marketdata.PriceResolver;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.AccountValuationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.websocket.PortfolioUpdatePublisher;
 import org.springframework.context.annotation.Profile;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -31,23 +34,26 @@ public class HoldingServiceImpl implements HoldingService {
     private final HoldingRepository holdingRepository;
     private final HoldingValidationService holdingValidationService;
     private final AccountValidationService accountValidationService;
-    private final PriceHistoryServiceImpl priceHistoryService;
+    private final PriceResolver priceResolver;
     private final WebSocketController webSocketController;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final PortfolioUpdatePublisher portfolioUpdatePublisher;
+    private final AccountValuationService accountValuationService;
 
     // Constructor
     public HoldingServiceImpl(HoldingRepository holdingRepository,
                               HoldingValidationService holdingValidationService,
                               AccountValidationService accountValidationService,
-                              PriceHistoryServiceImpl priceHistoryService,
+                              PriceResolver priceResolver,
                               WebSocketController webSocketController,
-                              SimpMessagingTemplate messagingTemplate) {
+                              PortfolioUpdatePublisher portfolioUpdatePublisher,
+                              AccountValuationService accountValuationService) {
         this.holdingRepository = holdingRepository;
         this.holdingValidationService = holdingValidationService;
         this.accountValidationService = accountValidationService;
-        this.priceHistoryService = priceHistoryService;
+        this.priceResolver = priceResolver;
         this.webSocketController = webSocketController;
-        this.messagingTemplate = messagingTemplate;
+        this.portfolioUpdatePublisher = portfolioUpdatePublisher;
+        this.accountValuationService = accountValuationService;
     }
 
     // Interface function
@@ -73,6 +79,7 @@ public class HoldingServiceImpl implements HoldingService {
 
         // Save to DB
         holding = holdingRepository.save(holding);
+        accountValuationService.evict(holding.getAccount().getAccountId());
 
         WebSocketController.HoldingUpdateMessage updateMessage = new WebSocketController.HoldingUpdateMessage(
                 holding.getAccount().getAccountId(),
@@ -84,9 +91,10 @@ public class HoldingServiceImpl implements HoldingService {
                 LocalDateTime.now()
         );
 
-        // Broadcast update to all subscribers for this account
-        messagingTemplate.convertAndSend(
+        // Broadcast update to all subscribers for this account once the change commits
+        portfolioUpdatePublisher.publish(
                 "/topic/portfolio/" + holding.getAccount().getAccountId(),
+                "holding:" + holding.getStock().getStockId(),
                 updateMessage
         );
 
@@ -150,6 +158,7 @@ public class HoldingServiceImpl implements HoldingService {
 
         // Save to DB
         holding = holdingRepository.save(holding);
+        accountValuationService.evict(holding.getAccount().getAccountId());
 
         WebSocketController.HoldingUpdateMessage updateMessage = new WebSocketController.HoldingUpdateMessage(
                 holding.getAccount().getAccountId(),
@@ -161,9 +170,10 @@ public class HoldingServiceImpl implements HoldingService {
                 LocalDateTime.now()
         );
 
-        // Broadcast update to all subscribers for this account
-        messagingTemplate.convertAndSend(
+        // Broadcast update to all subscribers for this account once the change commits
+        portfolioUpdatePublisher.publish(
                 "/topic/portfolio/" + holding.getAccount().getAccountId(),
+                "holding:" + holding.getStock().getStockId(),
                 updateMessage
         );
 
@@ -197,9 +207,10 @@ public class HoldingServiceImpl implements HoldingService {
                 LocalDateTime.now()
         );
 
-        // Broadcast update to all subscribers for this account
-        messagingTemplate.convertAndSend(
+        // Broadcast update to all subscribers for this account once the change commits
+        portfolioUpdatePublisher.publish(
                 "/topic/portfolio/" + holding.getAccount().getAccountId(),
+                "holding:" + holding.getStock().getStockId(),
                 updateMessage
         );
 
@@ -255,9 +266,10 @@ public class HoldingServiceImpl implements HoldingService {
                     LocalDateTime.now()
             );
 
-            // Broadcast update to all subscribers for this account
-            messagingTemplate.convertAndSend(
+            // Broadcast update to all subscribers for this account once the change commits
+            portfolioUpdatePublisher.publish(
                     "/topic/portfolio/" + holding.getAccount().getAccountId(),
+                    "holding:" + holding.getStock().getStockId(),
                     updateMessage
             );
 
@@ -285,23 +297,39 @@ public class HoldingServiceImpl implements HoldingService {
     public void deleteHolding(UUID id) {
         Holding holding = holdingValidationService.validateHoldingExists(id);
         holdingRepository.delete(holding);
+        accountValuationService.evict(holding.getAccount().getAccountId());
     }
 
     // Get holdings for account
     @Override
     public List<HoldingDTO> getHoldingsForAccount(UUID accountId) {
         // Validate account exists
-        Account account = accountValidationService.validateAccountExistsById(accountId);
+        accountValidationService.validateAccountExistsById(accountId);
+
+        // Holdings and their stocks in one statement
+        return withCurrentPrices(holdingRepository.findViewsByAccountId(accountId));
+    }
+
+    // Get holdings across every account of a user
+    @Override
+    public List<HoldingDTO> getHoldingsForUser(UUID userId) {
+        return withCurrentPrices(holdingRepository.findViewsByUserId(userId));
+    }
+
+
+    // Helper functions
+
+    private List<HoldingDTO> withCurrentPrices(List<HoldingView> holdings) {
+        // Resolve all holding prices in one batch
+        Map<UUID, BigDecimal> prices = priceResolver.resolvePrices(holdings.stream()
+                .map(HoldingView::stockId)
+                .distinct()
+                .toList());
 
         // Stream through holdings and map to DTOs with current price
-        List<HoldingDTO> holdingDTOs = account.getHoldings().stream()
-                .map(h -> {
-                    BigDecimal currentPrice = priceHistoryService.getCurrentPrice(h.getStock().getStockId());
-                    return HoldingMapper.toDTO(h, currentPrice);
-                })
+        return holdings.stream()
+                .map(h -> HoldingMapper.viewToDTO(h, prices.get(h.stockId())))
                 .collect(Collectors.toList());
-
-        return holdingDTOs;
     }
 
 
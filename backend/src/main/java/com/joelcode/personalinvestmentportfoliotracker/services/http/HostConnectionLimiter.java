@@ -0,0 +1,65 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.http;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Caps the requests open to one host at a time
+ *
+ * The JDK client reuses idle keep-alive connections but opens a new one for every concurrent
+ * request, so the number of connections to a host is bounded by bounding concurrent requests.
+ * A caller over the limit gets a future that completes when a slot frees up, so no thread waits.
+ * Waiters whose future was already completed (their deadline passed) are skipped on release.
+ */
+class HostConnectionLimiter {
+
+    // Define key fields
+    private final int maxActive;
+    private final Queue<CompletableFuture<Void>> waiting = new ArrayDeque<>();
+    private int active = 0;
+
+
+    // Constructor
+    HostConnectionLimiter(int maxActive) {
+        this.maxActive = Math.max(1, maxActive);
+    }
+
+
+    // Completes once the caller holds a slot; every completed acquire must be paired with a release
+    synchronized CompletableFuture<Void> acquire() {
+        if (active < maxActive) {
+            active++;
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> slot = new CompletableFuture<>();
+        waiting.add(slot);
+        return slot;
+    }
+
+    // Hand the slot to the next live waiter, or free it
+    void release() {
+        CompletableFuture<Void> next;
+        synchronized (this) {
+            while ((next = waiting.poll()) != null && next.isDone()) {
+                // Skip waiters that gave up
+            }
+            if (next == null) {
+                active--;
+                return;
+            }
+        }
+        // Complete outside the lock, the waiter's request starts on this thread
+        if (!next.complete(null)) {
+            release();
+        }
+    }
+
+    synchronized int active() {
+        return active;
+    }
+
+    synchronized int pending() {
+        return (int) waiting.stream().filter(slot -> !slot.isDone()).count();
+    }
+}
@@ -0,0 +1,24 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.http;
+
+// Kinds of market data request, each with its own timeouts and latency metrics
+public enum MarketDataEndpoint {
+
+    QUOTE("finnhub", "quote"),
+    CANDLES("finnhub", "candles"),
+    PROFILE("finnhub", "profile"),
+    METRICS("finnhub", "metrics"),
+    NEWS("marketaux", "news");
+
+    private final String provider;
+    private final String key;
+
+    MarketDataEndpoint(String provider, String key) {
+        this.provider = provider;
+        this.key = key;
+    }
+
+    public String provider() { return provider; }
+
+    // Name used under market-data.http.endpoints and in metric tags
+    public String key() { return key; }
+}
@@ -0,0 +1,210 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.joelcode.personalinvestmentportfoliotracker.config.MarketDataHttpProperties;
+import com.joelcode.personalinvestmentportfoliotracker.exceptions.ExternalApiException;
+import com.joelcode.personalinvestmentportfoliotracker.monitoring.ExternalApiHealthTracker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.ToDoubleFunction;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Non-blocking HTTP transport for the FinnHub and MarketAux clients
+ *
+ * Replaces the shared RestTemplate, which opened a new connection per request and applied the
+ * same 10 second timeouts to every call. Requests go through the JDK HttpClient, which keeps
+ * connections alive and reuses them, with at most max-connections-per-host requests open to a
+ * host at once; callers over the limit wait without holding a thread. Responses are requested
+ * gzipped and decoded from JSON off the caller's thread. Each endpoint type has its own connect
+ * timeout, read timeout and overall deadline. Latency is recorded per provider, endpoint and
+ * outcome, and open and waiting requests are reported per host. Every outcome is also passed to
+ * ExternalApiHealthTracker, which the external API health indicator reads.
+ */
+@Component
+public class MarketDataHttpClient {
+
+    // Define key fields
+    private final MarketDataHttpProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ExternalApiHealthTracker healthTracker;
+    private final ExecutorService executor;
+
+    // The JDK client takes its connect timeout at build time, so endpoints with the same one share a client and pool
+    private final Map<Duration, HttpClient> clients = new ConcurrentHashMap<>();
+    private final Map<String, HostConnectionLimiter> limiters = new ConcurrentHashMap<>();
+
+
+    // Constructor
+    public MarketDataHttpClient(MarketDataHttpProperties properties, ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry, ExternalApiHealthTracker healthTracker) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.healthTracker = healthTracker;
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "market-data-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+
+    // GET a JSON resource; completes exceptionally with ExternalApiException on an error status
+    // and TimeoutException once the endpoint's deadline has passed
+    public <T> CompletableFuture<T> getAsync(MarketDataEndpoint endpoint, URI uri, Class<T> type) {
+        MarketDataHttpProperties.Timeouts timeouts = properties.timeouts(endpoint);
+        HostConnectionLimiter limiter = limiterFor(uri);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        long deadlineMillis = timeouts.deadline().toMillis();
+
+        // The slot wait counts towards the deadline; a slot freed after it passes goes to the next waiter
+        CompletableFuture<Void> slot = limiter.acquire().orTimeout(deadlineMillis, TimeUnit.MILLISECONDS);
+
+        return slot
+                .thenCompose(granted -> send(limiter, uri, timeouts))
+                .thenApply(response -> decode(endpoint, response, type))
+                .orTimeout(deadlineMillis, TimeUnit.MILLISECONDS)
+                .whenComplete((result, error) -> {
+                    String outcome = outcome(error);
+                    long latencyNanos = sample.stop(requestTimer(endpoint, outcome));
+                    // A 4xx means the provider answered, so only server errors, timeouts and I/O failures count against it
+                    boolean reachable = !"server_error".equals(outcome) && !"timeout".equals(outcome) && !"error".equals(outcome);
+                    healthTracker.record(endpoint.provider(), reachable, TimeUnit.NANOSECONDS.toMillis(latencyNanos),
+                            error == null ? null : endpoint.key() + ": " + describe(error));
+                });
+    }
+
+
+    // Helper functions
+
+    private CompletableFuture<HttpResponse<byte[]>> send(HostConnectionLimiter limiter, URI uri,
+                                                         MarketDataHttpProperties.Timeouts timeouts) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .GET()
+                .timeout(timeouts.readTimeout())
+                .header("Accept", "application/json");
+        if (properties.gzip()) {
+            request.header("Accept-Encoding", "gzip");
+        }
+
+        try {
+            return clientFor(timeouts.connectTimeout())
+                    .sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray())
+                    .whenComplete((response, error) -> limiter.release());
+        } catch (RuntimeException e) {
+            limiter.release();
+            throw e;
+        }
+    }
+
+    private <T> T decode(MarketDataEndpoint endpoint, HttpResponse<byte[]> response, Class<T> type) {
+        if (response.statusCode() >= 400) {
+            // The URI carries the API key, so it is left out of the message
+            throw new ExternalApiException(endpoint.provider() + " " + endpoint.key()
+                    + " request failed with status " + response.statusCode(), response.statusCode());
+        }
+
+        byte[] body = response.body();
+        if (body == null || body.length == 0) {
+            return null;
+        }
+
+        boolean gzipped = response.headers().firstValue("Content-Encoding")
+                .map(encoding -> encoding.equalsIgnoreCase("gzip"))
+                .orElse(false);
+        try (InputStream input = gzipped
+                ? new GZIPInputStream(new ByteArrayInputStream(body))
+                : new ByteArrayInputStream(body)) {
+            return objectMapper.readValue(input, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unreadable " + endpoint.provider() + " " + endpoint.key() + " response", e);
+        }
+    }
+
+    private HttpClient clientFor(Duration connectTimeout) {
+        return clients.computeIfAbsent(connectTimeout, timeout -> HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(executor)
+                .build());
+    }
+
+    private HostConnectionLimiter limiterFor(URI uri) {
+        String host = uri.getHost() + (uri.getPort() > 0 ? ":" + uri.getPort() : "");
+        return limiters.computeIfAbsent(host, key -> {
+            HostConnectionLimiter limiter = new HostConnectionLimiter(properties.maxConnectionsPerHost());
+            connectionGauge(key, "active", limiter, HostConnectionLimiter::active);
+            connectionGauge(key, "pending", limiter, HostConnectionLimiter::pending);
+            return limiter;
+        });
+    }
+
+    private void connectionGauge(String host, String state, HostConnectionLimiter limiter,
+                                 ToDoubleFunction<HostConnectionLimiter> value) {
+        Gauge.builder("market.data.http.connections", limiter, value)
+                .description("Market data requests open or waiting for a connection, per host")
+                .tag("host", host)
+                .tag("state", state)
+                .register(meterRegistry);
+    }
+
+    private Timer requestTimer(MarketDataEndpoint endpoint, String outcome) {
+        return Timer.builder("market.data.http.requests")
+                .description("Market data request latency by provider, endpoint and outcome")
+                .tag("provider", endpoint.provider())
+                .tag("endpoint", endpoint.key())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static String outcome(Throwable error) {
+        if (error == null) {
+            return "success";
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof TimeoutException || cause instanceof HttpTimeoutException) {
+            return "timeout";
+        }
+        if (cause instanceof ExternalApiException apiError) {
+            return apiError.getStatusCode() >= 500 ? "server_error" : "client_error";
+        }
+        return "error";
+    }
+
+    private static String describe(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof TimeoutException) {
+            return "deadline exceeded";
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
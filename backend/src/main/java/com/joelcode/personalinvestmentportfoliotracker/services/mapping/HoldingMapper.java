@@ -3,6 +3,7 @@ package com.joelcode.personalinvestmentportfoliotracker.services.mapping;
 import com.joelcode.personalinvestmentportfoliotracker.dto.holding.HoldingCreateRequest;
 import com.joelcode.personalinvestmentportfoliotracker.dto.holding.HoldingDTO;
 import com.joelcode.personalinvestmentportfoliotracker.dto.holding.HoldingUpdateRequest;
+import com.joelcode.personalinvestmentportfoliotracker.dto.holding.HoldingView;
 import com.joelcode.personalinvestmentportfoliotracker.entities.Account;
 import com.joelcode.personalinvestmentportfoliotracker.entities.Holding;
 import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
@@ -59,4 +60,24 @@ public class HoldingMapper {
                 holding.getUnrealizedGainPercent(currentPrice)
         );
     }
-}
\ No newline at end of file
+
+    // Convert holding projection to holding response DTO
+    public static HoldingDTO viewToDTO(HoldingView view, BigDecimal currentPrice) {
+        if (view == null) return null;
+        return new HoldingDTO(
+                view.holdingId(),
+                view.accountId(),
+                view.stockId(),
+                view.stockCode(),
+                view.quantity(),
+                view.averageCostBasis(),
+                view.totalCostBasis(),
+                view.realizedGain(),
+                view.firstPurchaseDate(),
+                currentPrice,
+                view.currentValue(currentPrice),
+                view.unrealizedGain(currentPrice),
+                view.unrealizedGainPercent(currentPrice)
+        );
+    }
+}
@@ -0,0 +1,10 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.marketdata;
+
+import com.joelcode.personalinvestmentportfoliotracker.dto.finnhub.FinnhubCandleDTO;
+
+public interface CandleService {
+
+    // OHLCV bars for a symbol at a FinnHub resolution between two epoch seconds (inclusive), served from
+    // the local store and fetching only the parts of the range that have not been fetched before
+    FinnhubCandleDTO getCandles(String symbol, String resolution, long from, long to);
+}
@@ -0,0 +1,315 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.marketdata;
+
+import com.joelcode.personalinvestmentportfoliotracker.dto.finnhub.FinnhubCandleDTO;
+import com.joelcode.personalinvestmentportfoliotracker.entities.CandleBar;
+import com.joelcode.personalinvestmentportfoliotracker.entities.CandleCoverage;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.CandleBarRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.CandleCoverageRepository;
+import com.joelcode.personalinvestmentportfoliotracker.services.finnhub.FinnhubApiClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Candle store behind the chart endpoint
+ *
+ * Bars are kept per symbol, resolution and bucket, together with the ranges already fetched
+ * upstream (a range can be covered and still hold no bars, e.g. weekends). A request subtracts
+ * the covered ranges, fetches only the gaps from FinnHub in parallel, upserts the bars and merges
+ * the gaps into the coverage, then answers from the store. Gaps are fetched under a per-series
+ * lock, so overlapping requests never fetch the same range twice, and identical requests that
+ * arrive together share one load. The most recent bucket of a series is never marked as covered
+ * because its bar is still changing, so it is fetched again on the next request.
+ */
+@Service
+public class CandleServiceImpl implements CandleService {
+
+    // FinnHub resolutions and the length of one bucket in seconds
+    private static final Map<String, Long> BUCKET_SECONDS = Map.of(
+            "1", 60L, "5", 300L, "15", 900L, "30", 1800L, "60", 3600L,
+            "D", 86_400L, "W", 604_800L, "M", 2_678_400L);
+
+    // Define key fields
+    private final FinnhubApiClient finnhubApiClient;
+    private final CandleBarRepository barRepository;
+    private final CandleCoverageRepository coverageRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxGapsPerRequest;
+    private final LongSupplier clock;
+
+    // Loads in progress by request, and one lock per series for gap filling
+    private final Map<CandleRequest, CompletableFuture<FinnhubCandleDTO>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Object> seriesLocks = new ConcurrentHashMap<>();
+
+    private final Counter hitCounter;
+    private final Counter filledCounter;
+    private final Counter coalescedCounter;
+    private final Counter upstreamCounter;
+
+
+    // Constructor
+    @Autowired
+    public CandleServiceImpl(FinnhubApiClient finnhubApiClient,
+                             CandleBarRepository barRepository,
+                             CandleCoverageRepository coverageRepository,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${market-data.candles.max-gaps-per-request:4}") int maxGapsPerRequest) {
+        this(finnhubApiClient, barRepository, coverageRepository, transactionManager, meterRegistry,
+                maxGapsPerRequest, () -> System.currentTimeMillis() / 1000);
+    }
+
+    CandleServiceImpl(FinnhubApiClient finnhubApiClient, CandleBarRepository barRepository,
+                      CandleCoverageRepository coverageRepository, PlatformTransactionManager transactionManager,
+                      MeterRegistry meterRegistry, int maxGapsPerRequest, LongSupplier clock) {
+        this.finnhubApiClient = finnhubApiClient;
+        this.barRepository = barRepository;
+        this.coverageRepository = coverageRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxGapsPerRequest = maxGapsPerRequest;
+        this.clock = clock;
+
+        this.hitCounter = requestCounter(meterRegistry, "hit");
+        this.filledCounter = requestCounter(meterRegistry, "filled");
+        this.coalescedCounter = requestCounter(meterRegistry, "coalesced");
+        this.upstreamCounter = Counter.builder("candles.upstream.fetches")
+                .description("Candle gap ranges fetched from FinnHub")
+                .register(meterRegistry);
+    }
+
+
+    // Interface functions
+
+    @Override
+    public FinnhubCandleDTO getCandles(String symbol, String resolution, long from, long to) {
+        if (symbol == null || symbol.isBlank()) {
+            throw new IllegalArgumentException("Symbol is required");
+        }
+        String bucket = resolution == null ? null : resolution.trim().toUpperCase();
+        if (bucket == null || !BUCKET_SECONDS.containsKey(bucket)) {
+            throw new IllegalArgumentException("Unsupported candle resolution: " + resolution);
+        }
+        if (from > to) {
+            throw new IllegalArgumentException("Candle range starts after it ends: " + from + " > " + to);
+        }
+
+        CandleRequest request = new CandleRequest(symbol.trim().toUpperCase(), bucket, from, to);
+        CompletableFuture<FinnhubCandleDTO> mine = new CompletableFuture<>();
+        CompletableFuture<FinnhubCandleDTO> existing = inFlight.putIfAbsent(request, mine);
+        if (existing != null) {
+            coalescedCounter.increment();
+            return join(existing);
+        }
+
+        try {
+            FinnhubCandleDTO candles = load(request);
+            mine.complete(candles);
+            return candles;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(request, mine);
+        }
+    }
+
+
+    // Helper functions
+
+    private FinnhubCandleDTO load(CandleRequest request) {
+        Object lock = seriesLocks.computeIfAbsent(request.symbol() + "|" + request.resolution(), key -> new Object());
+        synchronized (lock) {
+            List<CandleCoverage> coverage = coverageRepository
+                    .findBySymbolAndResolutionOrderByRangeFromAsc(request.symbol(), request.resolution());
+            List<Range> gaps = gaps(request.from(), request.to(), coverage);
+            if (gaps.isEmpty()) {
+                hitCounter.increment();
+            } else {
+                filledCounter.increment();
+                fill(request, limit(gaps));
+            }
+        }
+        return toDto(barRepository.findBySymbolAndResolutionAndBucketStartBetweenOrderByBucketStartAsc(
+                request.symbol(), request.resolution(), request.from(), request.to()));
+    }
+
+    // Fetch every gap in parallel, then store bars and coverage in one transaction
+    private void fill(CandleRequest request, List<Range> gaps) {
+        List<CompletableFuture<FinnhubCandleDTO>> fetches = new ArrayList<>();
+        for (Range gap : gaps) {
+            upstreamCounter.increment();
+            fetches.add(finnhubApiClient.getCandlesAsync(request.symbol(), request.resolution(), gap.from(), gap.to()));
+        }
+        List<FinnhubCandleDTO> responses = new ArrayList<>();
+        for (CompletableFuture<FinnhubCandleDTO> fetch : fetches) {
+            responses.add(join(fetch));
+        }
+
+        // The newest bucket is still forming, so coverage stops one bucket short of now
+        long settled = clock.getAsLong() - BUCKET_SECONDS.get(request.resolution());
+        transactionTemplate.executeWithoutResult(status -> {
+            for (FinnhubCandleDTO response : responses) {
+                storeBars(request, response);
+            }
+            for (Range gap : gaps) {
+                long coveredTo = Math.min(gap.to(), settled);
+                if (gap.from() <= coveredTo) {
+                    mergeCoverage(request, gap.from(), coveredTo);
+                }
+            }
+        });
+    }
+
+    // Insert new bars and overwrite stored ones for the same bucket
+    private void storeBars(CandleRequest request, FinnhubCandleDTO response) {
+        List<Long> timestamps = response != null ? response.getTimestamps() : null;
+        if (timestamps == null || timestamps.isEmpty()) {
+            return;
+        }
+        int count = minSize(timestamps, response.getOpenPrices(), response.getHighPrices(),
+                response.getLowPrices(), response.getClosePrices());
+        if (count == 0) {
+            return;
+        }
+
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            first = Math.min(first, timestamps.get(i));
+            last = Math.max(last, timestamps.get(i));
+        }
+        Map<Long, CandleBar> stored = new HashMap<>();
+        for (CandleBar bar : barRepository.findBySymbolAndResolutionAndBucketStartBetweenOrderByBucketStartAsc(
+                request.symbol(), request.resolution(), first, last)) {
+            stored.put(bar.getBucketStart(), bar);
+        }
+
+        List<CandleBar> changed = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long bucket = timestamps.get(i);
+            CandleBar bar = stored.computeIfAbsent(bucket,
+                    key -> new CandleBar(request.symbol(), request.resolution(), key));
+            bar.setOpenPrice(response.getOpenPrices().get(i));
+            bar.setHighPrice(response.getHighPrices().get(i));
+            bar.setLowPrice(response.getLowPrices().get(i));
+            bar.setClosePrice(response.getClosePrices().get(i));
+            List<Long> volumes = response.getVolumes();
+            bar.setVolume(volumes != null && i < volumes.size() && volumes.get(i) != null ? volumes.get(i) : 0L);
+            changed.add(bar);
+        }
+        barRepository.saveAll(changed);
+    }
+
+    // Replace the stored ranges that overlap or touch [from, to] with their union
+    private void mergeCoverage(CandleRequest request, long from, long to) {
+        List<CandleCoverage> absorbed = new ArrayList<>();
+        long mergedFrom = from;
+        long mergedTo = to;
+        for (CandleCoverage range : coverageRepository
+                .findBySymbolAndResolutionOrderByRangeFromAsc(request.symbol(), request.resolution())) {
+            if (range.getRangeFrom() <= mergedTo + 1 && range.getRangeTo() >= mergedFrom - 1) {
+                absorbed.add(range);
+                mergedFrom = Math.min(mergedFrom, range.getRangeFrom());
+                mergedTo = Math.max(mergedTo, range.getRangeTo());
+            }
+        }
+        coverageRepository.deleteAll(absorbed);
+        coverageRepository.save(new CandleCoverage(request.symbol(), request.resolution(), mergedFrom, mergedTo));
+    }
+
+    // Parts of [from, to] not inside any covered range; coverage must be sorted by range start
+    static List<Range> gaps(long from, long to, List<CandleCoverage> coverage) {
+        List<Range> gaps = new ArrayList<>();
+        long cursor = from;
+        for (CandleCoverage range : coverage) {
+            if (range.getRangeTo() < cursor) {
+                continue;
+            }
+            if (range.getRangeFrom() > to) {
+                break;
+            }
+            if (range.getRangeFrom() > cursor) {
+                gaps.add(new Range(cursor, range.getRangeFrom() - 1));
+            }
+            cursor = Math.max(cursor, range.getRangeTo() + 1);
+            if (cursor > to) {
+                return gaps;
+            }
+        }
+        gaps.add(new Range(cursor, to));
+        return gaps;
+    }
+
+    // EDGE CASE: Fragmented coverage, fetch one range spanning every gap rather than many small calls
+    private List<Range> limit(List<Range> gaps) {
+        if (gaps.size() <= maxGapsPerRequest) {
+            return gaps;
+        }
+        return List.of(new Range(gaps.get(0).from(), gaps.get(gaps.size() - 1).to()));
+    }
+
+    private static FinnhubCandleDTO toDto(List<CandleBar> bars) {
+        List<BigDecimal> close = new ArrayList<>(bars.size());
+        List<BigDecimal> high = new ArrayList<>(bars.size());
+        List<BigDecimal> low = new ArrayList<>(bars.size());
+        List<BigDecimal> open = new ArrayList<>(bars.size());
+        List<Long> timestamps = new ArrayList<>(bars.size());
+        List<Long> volumes = new ArrayList<>(bars.size());
+        for (CandleBar bar : bars) {
+            close.add(bar.getClosePrice());
+            high.add(bar.getHighPrice());
+            low.add(bar.getLowPrice());
+            open.add(bar.getOpenPrice());
+            timestamps.add(bar.getBucketStart());
+            volumes.add(bar.getVolume());
+        }
+        return new FinnhubCandleDTO(close, high, low, open, timestamps, volumes, bars.isEmpty() ? "no_data" : "ok");
+    }
+
+    private static int minSize(List<?>... columns) {
+        int size = Integer.MAX_VALUE;
+        for (List<?> column : columns) {
+            size = Math.min(size, column == null ? 0 : column.size());
+        }
+        return size;
+    }
+
+    // Blocking callers get the original exception rather than the CompletionException around it
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("candles.requests")
+                .description("Candle requests by how they were served")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    // One chart request, identical requests share a load
+    private record CandleRequest(String symbol, String resolution, long from, long to) {}
+
+    // Inclusive range of epoch seconds
+    record Range(long from, long to) {}
+}
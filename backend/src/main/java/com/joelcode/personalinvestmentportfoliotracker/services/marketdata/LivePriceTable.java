@@ -0,0 +1,80 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.marketdata;
+
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory table of the latest known price per stock
+ *
+ * Written by the market data refresher and the price resolver, read lock-free by the price
+ * endpoints. Also tracks when each stock last had a price history bar written so that at most
+ * one bar per stock is recorded per refresh interval, and the previous close from the latest
+ * quote so daily change can be computed without going upstream. A previous close is kept with
+ * the trading session it was quoted in and only served for that session.
+ */
+@Component
+public class LivePriceTable {
+
+    // Define key fields
+    private final Map<UUID, LivePrice> prices = new ConcurrentHashMap<>();
+    private final Map<UUID, Long> lastBarAt = new ConcurrentHashMap<>();
+    private final Map<UUID, PreviousClose> previousCloses = new ConcurrentHashMap<>();
+
+
+    // Read the latest known price for a stock
+    public Optional<LivePrice> get(UUID stockId) {
+        return Optional.ofNullable(prices.get(stockId));
+    }
+
+    // Record a new price for a stock
+    public void put(UUID stockId, BigDecimal price, long updatedAtMillis) {
+        prices.put(stockId, new LivePrice(price, updatedAtMillis));
+    }
+
+    // Previous close for a stock, only if it was quoted during the given session
+    public Optional<BigDecimal> getPreviousClose(UUID stockId, LocalDate sessionDate) {
+        return Optional.ofNullable(previousCloses.get(stockId))
+                .filter(close -> close.sessionDate().equals(sessionDate))
+                .map(PreviousClose::price);
+    }
+
+    public void putPreviousClose(UUID stockId, BigDecimal previousClose, LocalDate sessionDate) {
+        previousCloses.put(stockId, new PreviousClose(previousClose, sessionDate));
+    }
+
+    public void remove(UUID stockId) {
+        prices.remove(stockId);
+        lastBarAt.remove(stockId);
+        previousCloses.remove(stockId);
+    }
+
+    public int size() {
+        return prices.size();
+    }
+
+    // Claim the right to write a history bar, true only once per interval per stock
+    public boolean tryClaimHistoryBar(UUID stockId, long nowMillis, long intervalMillis) {
+        AtomicBoolean claimed = new AtomicBoolean(false);
+        lastBarAt.compute(stockId, (id, previous) -> {
+            if (previous == null || nowMillis - previous >= intervalMillis) {
+                claimed.set(true);
+                return nowMillis;
+            }
+            return previous;
+        });
+        return claimed.get();
+    }
+
+    // Price together with the time it was observed
+    public record LivePrice(BigDecimal price, long updatedAtMillis) {}
+
+    // Previous close together with the session whose quote reported it
+    private record PreviousClose(BigDecimal price, LocalDate sessionDate) {}
+}
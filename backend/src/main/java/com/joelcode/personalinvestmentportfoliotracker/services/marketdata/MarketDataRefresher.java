@@ -0,0 +1,290 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.marketdata;
+
+import com.joelcode.personalinvestmentportfoliotracker.entities.PriceHistory;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
+import com.joelcode.personalinvestmentportfoliotracker.logging.BetterStackLogger;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.HoldingRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.PriceHistoryRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.StockRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.WatchlistRepository;
+import com.joelcode.personalinvestmentportfoliotracker.services.finnhub.FinnhubApiClient;
+import com.joelcode.personalinvestmentportfoliotracker.services.pricealert.PriceAlertService;
+import com.joelcode.personalinvestmentportfoliotracker.services.websocket.PriceSubscriptionRegistry;
+import com.joelcode.personalinvestmentportfoliotracker.services.websocket.PriceTickPublisher;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background refresh of held and watched stock prices
+ *
+ * Runs on a fixed cadence, fetches the latest price for every stock that is held, watched or has an
+ * active price alert, publishes it to the live price table and writes it back to the database. At
+ * most one price history bar is written per stock per refresh interval, so read traffic never writes.
+ *
+ * Symbols with a live WebSocket listener are also refreshed on a shorter cadence and ticked to
+ * their price topic, so only stocks someone is looking at are polled upstream at high frequency.
+ * Every refreshed price is also checked against the price alert index.
+ *
+ * Prices are written back with a targeted UPDATE of stock_value only. The stocks were loaded
+ * before the upstream fetch, so merging them whole would overwrite edits committed meanwhile.
+ */
+@Service
+@Profile("!test")
+public class MarketDataRefresher {
+
+    private static final String UPDATE_STOCK_VALUE =
+            "UPDATE stock SET stock_value = ?, updated_at = ? WHERE stock_id = ?";
+
+    // Define key fields
+    private final HoldingRepository holdingRepository;
+    private final WatchlistRepository watchlistRepository;
+    private final StockRepository stockRepository;
+    private final PriceHistoryRepository priceHistoryRepository;
+    private final FinnhubApiClient finnhubApiClient;
+    private final LivePriceTable livePriceTable;
+    private final PriceSubscriptionRegistry subscriptionRegistry;
+    private final PriceTickPublisher priceTickPublisher;
+    private final PriceAlertService priceAlertService;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final BetterStackLogger logger;
+    private final long intervalMillis;
+    private final long fetchTimeoutMillis;
+    private final ExecutorService fetchExecutor;
+
+
+    // Constructor
+    @Autowired
+    public MarketDataRefresher(HoldingRepository holdingRepository,
+                               WatchlistRepository watchlistRepository,
+                               StockRepository stockRepository,
+                               PriceHistoryRepository priceHistoryRepository,
+                               FinnhubApiClient finnhubApiClient,
+                               LivePriceTable livePriceTable,
+                               PriceSubscriptionRegistry subscriptionRegistry,
+                               PriceTickPublisher priceTickPublisher,
+                               PriceAlertService priceAlertService,
+                               PlatformTransactionManager transactionManager,
+                               JdbcTemplate jdbcTemplate,
+                               @Autowired(required = false) BetterStackLogger logger,
+                               @Value("${market-data.refresh.interval-ms:30000}") long intervalMillis,
+                               @Value("${market-data.refresh.fetch-timeout-ms:10000}") long fetchTimeoutMillis,
+                               @Value("${market-data.refresh.max-concurrency:4}") int maxConcurrency) {
+        this.holdingRepository = holdingRepository;
+        this.watchlistRepository = watchlistRepository;
+        this.stockRepository = stockRepository;
+        this.priceHistoryRepository = priceHistoryRepository;
+        this.finnhubApiClient = finnhubApiClient;
+        this.livePriceTable = livePriceTable;
+        this.subscriptionRegistry = subscriptionRegistry;
+        this.priceTickPublisher = priceTickPublisher;
+        this.priceAlertService = priceAlertService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jdbcTemplate = jdbcTemplate;
+        this.logger = logger;
+        this.intervalMillis = intervalMillis;
+        this.fetchTimeoutMillis = fetchTimeoutMillis;
+        this.fetchExecutor = Executors.newFixedThreadPool(maxConcurrency, runnable -> {
+            Thread thread = new Thread(runnable, "market-data-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+
+    /**
+     * Scheduled refresh of every held or watched stock
+     * Runs at the configured interval, measured from the end of the previous run
+     */
+    @Scheduled(fixedDelayString = "${market-data.refresh.interval-ms:30000}",
+            initialDelayString = "${market-data.refresh.initial-delay-ms:10000}")
+    public void refreshTrackedPrices() {
+        try {
+            int refreshed = refresh(trackedStocks());
+            if (refreshed > 0) {
+                logInfo("Market data refresh updated " + refreshed + " stock prices");
+            }
+        } catch (Exception e) {
+            logError("Market data refresh failed - " + e.getMessage());
+        }
+    }
+
+    /**
+     * Scheduled refresh of the symbols that currently have live WebSocket listeners
+     * Upstream calls are still bounded by the FinnHub quote cache's freshness window
+     */
+    @Scheduled(fixedDelayString = "${market-data.refresh.live-interval-ms:5000}",
+            initialDelayString = "${market-data.refresh.initial-delay-ms:10000}")
+    public void refreshWatchedPrices() {
+        try {
+            Set<String> watched = subscriptionRegistry.watchedSymbols();
+            if (!watched.isEmpty()) {
+                refresh(stockRepository.findByStockCodeIn(watched));
+            }
+        } catch (Exception e) {
+            logError("Live price refresh failed - " + e.getMessage());
+        }
+    }
+
+    // Refresh the given stocks and return how many prices were updated
+    public int refresh(List<Stock> stocks) {
+        // EDGE CASE: Nothing held or watched
+        if (stocks.isEmpty()) {
+            return 0;
+        }
+
+        Map<Stock, BigDecimal> latest = fetchLatestPrices(stocks);
+        if (latest.isEmpty()) {
+            return 0;
+        }
+
+        // Publish to the live table first so readers see the new price immediately
+        long now = System.currentTimeMillis();
+        latest.forEach((stock, price) -> livePriceTable.put(stock.getStockId(), price, now));
+        latest.forEach((stock, price) -> priceTickPublisher.publish(stock.getStockId(), stock.getStockCode(), price));
+        latest.forEach((stock, price) -> priceAlertService.evaluate(stock.getStockId(), price));
+
+        persist(latest, now);
+        return latest.size();
+    }
+
+
+    // Helper functions
+
+    // Union of held, watched and alerted stocks, de-duplicated by id
+    private List<Stock> trackedStocks() {
+        Map<UUID, Stock> tracked = new LinkedHashMap<>();
+        holdingRepository.findDistinctHeldStocks().forEach(stock -> tracked.putIfAbsent(stock.getStockId(), stock));
+        watchlistRepository.findDistinctWatchedStocks().forEach(stock -> tracked.putIfAbsent(stock.getStockId(), stock));
+
+        Set<UUID> alerted = new HashSet<>(priceAlertService.alertedStockIds());
+        alerted.removeAll(tracked.keySet());
+        if (!alerted.isEmpty()) {
+            stockRepository.findAllById(alerted).forEach(stock -> tracked.putIfAbsent(stock.getStockId(), stock));
+        }
+        return new ArrayList<>(tracked.values());
+    }
+
+    // Fetch prices in parallel; the client queues on the FinnHub rate limit, so stop at the deadline
+    private Map<Stock, BigDecimal> fetchLatestPrices(List<Stock> stocks) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(fetchTimeoutMillis);
+        Map<Stock, CompletableFuture<BigDecimal>> pending = new LinkedHashMap<>();
+        for (Stock stock : stocks) {
+            pending.put(stock, CompletableFuture.supplyAsync(
+                    () -> System.nanoTime() < deadline ? finnhubApiClient.getCurrentPrice(stock.getStockCode()) : null,
+                    fetchExecutor));
+        }
+
+        Map<Stock, BigDecimal> latest = new LinkedHashMap<>();
+        for (Map.Entry<Stock, CompletableFuture<BigDecimal>> entry : pending.entrySet()) {
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                BigDecimal price = entry.getValue().get(remaining, TimeUnit.NANOSECONDS);
+
+                // EDGE CASE: Null or non-positive price, skip this stock
+                if (price != null && price.compareTo(BigDecimal.ZERO) > 0) {
+                    latest.put(entry.getKey(), price);
+                }
+            } catch (Exception e) {
+                entry.getValue().cancel(true);
+            }
+        }
+        return latest;
+    }
+
+    // Update stock values and write one history bar per stock per interval
+    private void persist(Map<Stock, BigDecimal> latest, long nowMillis) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<UUID, BigDecimal> changed = new LinkedHashMap<>();
+        List<PriceHistory> bars = new ArrayList<>();
+
+        latest.forEach((stock, price) -> {
+            if (stock.getStockValue() == null || stock.getStockValue().compareTo(price) != 0) {
+                changed.put(stock.getStockId(), price);
+            }
+            if (livePriceTable.tryClaimHistoryBar(stock.getStockId(), nowMillis, intervalMillis)) {
+                bars.add(new PriceHistory(now, price, stock));
+            }
+        });
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!changed.isEmpty()) {
+                    updateStockValues(changed, now);
+                }
+                if (!bars.isEmpty()) {
+                    priceHistoryRepository.saveAll(bars);
+                }
+            });
+        } catch (Exception e) {
+            // Live prices stay published even if the write-back fails
+            logError("Failed to persist refreshed prices - " + e.getMessage());
+        }
+    }
+
+    // Price and timestamp only, one batched statement for every changed stock
+    private void updateStockValues(Map<UUID, BigDecimal> prices, LocalDateTime now) {
+        List<Map.Entry<UUID, BigDecimal>> rows = new ArrayList<>(prices.entrySet());
+        Timestamp updatedAt = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate(UPDATE_STOCK_VALUE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                statement.setBigDecimal(1, rows.get(i).getValue());
+                statement.setTimestamp(2, updatedAt);
+                statement.setObject(3, rows.get(i).getKey());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetchExecutor.shutdownNow();
+    }
+
+    // Helper methods for logging
+    private void logInfo(String message) {
+        if (logger != null) {
+            logger.info(message);
+        } else {
+            System.out.println("[INFO] " + message);
+        }
+    }
+
+    private void logError(String message) {
+        if (logger != null) {
+            logger.error(message);
+        } else {
+            System.err.println("[ERROR] " + message);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.marketdata;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+public interface PriceResolver {
+
+    Map<UUID, BigDecimal> resolvePrices(Collection<UUID> stockIds);
+}
@@ -0,0 +1,222 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.marketdata;
+
+import com.joelcode.personalinvestmentportfoliotracker.entities.PriceHistory;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.PriceHistoryRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.StockRepository;
+import com.joelcode.personalinvestmentportfoliotracker.services.finnhub.FinnhubApiClient;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch price lookup for valuation
+ *
+ * Loads every requested stock in one query and only goes upstream for the stocks whose stored
+ * price is older than the configured max age. Upstream fetches run in parallel on a small bounded
+ * pool and respect the FinnHub rate limit; refreshed prices are written back in one batch that
+ * updates stock_value only, so edits made to a stock while it was being fetched are kept.
+ * If a fetch fails or the rate limit is exhausted the stored price is returned instead.
+ * Recent prices published by the market data refresher are used without touching upstream.
+ */
+@Service
+public class PriceResolverImpl implements PriceResolver {
+
+    private static final String UPDATE_STOCK_VALUE =
+            "UPDATE stock SET stock_value = ?, updated_at = ? WHERE stock_id = ?";
+
+    // Define key fields
+    private final StockRepository stockRepository;
+    private final PriceHistoryRepository priceHistoryRepository;
+    private final FinnhubApiClient finnhubApiClient;
+    private final LivePriceTable livePriceTable;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final long maxAgeMillis;
+    private final long historyIntervalMillis;
+    private final long fetchTimeoutMillis;
+    private final ExecutorService fetchExecutor;
+
+
+    // Constructor
+    public PriceResolverImpl(StockRepository stockRepository,
+                             PriceHistoryRepository priceHistoryRepository,
+                             FinnhubApiClient finnhubApiClient,
+                             LivePriceTable livePriceTable,
+                             PlatformTransactionManager transactionManager,
+                             JdbcTemplate jdbcTemplate,
+                             @Value("${market-data.resolver.max-age-ms:60000}") long maxAgeMillis,
+                             @Value("${market-data.refresh.interval-ms:30000}") long historyIntervalMillis,
+                             @Value("${market-data.resolver.fetch-timeout-ms:5000}") long fetchTimeoutMillis,
+                             @Value("${market-data.resolver.max-concurrency:4}") int maxConcurrency) {
+        this.stockRepository = stockRepository;
+        this.priceHistoryRepository = priceHistoryRepository;
+        this.finnhubApiClient = finnhubApiClient;
+        this.livePriceTable = livePriceTable;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Own transaction: a failed write-back must not roll back a caller such as a trade, nor hold its locks
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxAgeMillis = maxAgeMillis;
+        this.historyIntervalMillis = historyIntervalMillis;
+        this.fetchTimeoutMillis = fetchTimeoutMillis;
+        this.fetchExecutor = Executors.newFixedThreadPool(maxConcurrency, runnable -> {
+            Thread thread = new Thread(runnable, "price-resolver");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+
+    // Interface functions
+
+    // Resolve the current price of every requested stock
+    @Override
+    public Map<UUID, BigDecimal> resolvePrices(Collection<UUID> stockIds) {
+        // EDGE CASE: Nothing to resolve
+        if (stockIds == null || stockIds.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        // Load all stocks in a single query
+        List<Stock> stocks = stockRepository.findAllById(new HashSet<>(stockIds));
+
+        Map<UUID, BigDecimal> prices = new HashMap<>();
+        List<Stock> staleStocks = new ArrayList<>();
+        LocalDateTime staleBefore = LocalDateTime.now().minus(Duration.ofMillis(maxAgeMillis));
+        long liveAfter = System.currentTimeMillis() - maxAgeMillis;
+
+        for (Stock stock : stocks) {
+            // Prefer a recent price from the live table over the stored value
+            Optional<LivePriceTable.LivePrice> live = livePriceTable.get(stock.getStockId())
+                    .filter(livePrice -> livePrice.updatedAtMillis() >= liveAfter);
+            if (live.isPresent()) {
+                prices.put(stock.getStockId(), live.get().price());
+                continue;
+            }
+
+            prices.put(stock.getStockId(), stock.getStockValue());
+            if (stock.getUpdatedAt() == null || stock.getUpdatedAt().isBefore(staleBefore)) {
+                staleStocks.add(stock);
+            }
+        }
+
+        // Refresh only the stale symbols upstream
+        if (!staleStocks.isEmpty()) {
+            Map<Stock, BigDecimal> refreshed = fetchLatestPrices(staleStocks);
+            if (!refreshed.isEmpty()) {
+                persistRefreshedPrices(refreshed);
+                refreshed.forEach((stock, price) -> prices.put(stock.getStockId(), price));
+            }
+        }
+
+        return prices;
+    }
+
+
+    // Helper functions
+
+    // Fetch prices in parallel; the client queues on the FinnHub rate limit, so stop at the deadline
+    private Map<Stock, BigDecimal> fetchLatestPrices(List<Stock> staleStocks) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(fetchTimeoutMillis);
+        Map<Stock, CompletableFuture<BigDecimal>> pending = new LinkedHashMap<>();
+        for (Stock stock : staleStocks) {
+            pending.put(stock, CompletableFuture.supplyAsync(
+                    () -> System.nanoTime() < deadline ? finnhubApiClient.getCurrentPrice(stock.getStockCode()) : null,
+                    fetchExecutor));
+        }
+
+        Map<Stock, BigDecimal> refreshed = new LinkedHashMap<>();
+        for (Map.Entry<Stock, CompletableFuture<BigDecimal>> entry : pending.entrySet()) {
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                BigDecimal price = entry.getValue().get(remaining, TimeUnit.NANOSECONDS);
+
+                // EDGE CASE: Null or non-positive price, keep stored value
+                if (price != null && price.compareTo(BigDecimal.ZERO) > 0) {
+                    refreshed.put(entry.getKey(), price);
+                }
+            } catch (Exception e) {
+                // Fall back to the stored price for this stock
+                entry.getValue().cancel(true);
+            }
+        }
+        return refreshed;
+    }
+
+    // Publish refreshed prices and write them back in one batched transaction, separate from the caller's
+    private void persistRefreshedPrices(Map<Stock, BigDecimal> refreshed) {
+        LocalDateTime now = LocalDateTime.now();
+        long nowMillis = System.currentTimeMillis();
+        List<PriceHistory> histories = new ArrayList<>();
+        refreshed.forEach((stock, price) -> {
+            livePriceTable.put(stock.getStockId(), price, nowMillis);
+
+            // At most one history bar per stock per refresh interval
+            if (livePriceTable.tryClaimHistoryBar(stock.getStockId(), nowMillis, historyIntervalMillis)) {
+                histories.add(new PriceHistory(now, price, stock));
+            }
+        });
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                updateStockValues(refreshed, now);
+                if (!histories.isEmpty()) {
+                    priceHistoryRepository.saveAll(histories);
+                }
+            });
+        } catch (Exception e) {
+            // Prices are still returned to the caller even if the write-back fails
+            System.err.println("Failed to persist refreshed prices: " + e.getMessage());
+        }
+    }
+
+    // Price and timestamp only; the loaded rows may be stale or still managed by the caller
+    private void updateStockValues(Map<Stock, BigDecimal> refreshed, LocalDateTime now) {
+        List<Map.Entry<Stock, BigDecimal>> rows = new ArrayList<>(refreshed.entrySet());
+        Timestamp updatedAt = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate(UPDATE_STOCK_VALUE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                statement.setBigDecimal(1, rows.get(i).getValue());
+                statement.setTimestamp(2, updatedAt);
+                statement.setObject(3, rows.get(i).getKey().getStockId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetchExecutor.shutdownNow();
+    }
+}
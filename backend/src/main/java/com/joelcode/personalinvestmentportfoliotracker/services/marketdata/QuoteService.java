@@ -0,0 +1,15 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.marketdata;
+
+import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+public interface QuoteService {
+
+    // Quote every stock within the configured deadline; anything not refreshed in time is marked stale
+    Map<UUID, StockQuote> getQuotes(Collection<Stock> stocks);
+
+    StockQuote getQuote(Stock stock);
+}
@@ -0,0 +1,191 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.marketdata;
+
+import com.joelcode.personalinvestmentportfoliotracker.dto.finnhub.FinnhubQuoteDTO;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
+import com.joelcode.personalinvestmentportfoliotracker.services.finnhub.FinnhubApiClient;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Quotes with daily change for list views such as the watchlist
+ *
+ * Serves prices and previous closes from the live price table. Only stocks with no recent price
+ * or no previous close for the current session go upstream, so change is never measured against a
+ * close from an earlier day. Those fetches run in parallel on a small bounded pool, and the
+ * FinnHub client queues them on its rate limit, so a large list is fetched in rate-limited
+ * batches rather than one call at a time. Concurrent requests for the same stock share one fetch,
+ * and when the pool's queue is full the stock is served stale instead of queueing more work.
+ * The caller waits at most the configured deadline. A stock still loading by then gets its last
+ * known price and is marked stale. Its fetch keeps running and fills the table, so the next
+ * request finds it.
+ */
+@Service
+public class QuoteServiceImpl implements QuoteService {
+
+    // Define key fields
+    private final FinnhubApiClient finnhubApiClient;
+    private final LivePriceTable livePriceTable;
+    private final long maxAgeMillis;
+    private final long deadlineMillis;
+    private final ZoneId sessionZone;
+    private final Clock clock;
+    private final ThreadPoolExecutor fetchExecutor;
+
+    // Fetch in progress per stock, shared by every request that needs it
+    private final Map<UUID, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+
+
+    // Constructor
+    @Autowired
+    public QuoteServiceImpl(FinnhubApiClient finnhubApiClient,
+                            LivePriceTable livePriceTable,
+                            @Value("${market-data.quotes.max-age-ms:60000}") long maxAgeMillis,
+                            @Value("${market-data.quotes.deadline-ms:1500}") long deadlineMillis,
+                            @Value("${market-data.quotes.max-concurrency:4}") int maxConcurrency,
+                            @Value("${market-data.quotes.max-queued:200}") int maxQueued,
+                            @Value("${market-data.quotes.session-zone:America/New_York}") String sessionZone) {
+        this(finnhubApiClient, livePriceTable, maxAgeMillis, deadlineMillis, maxConcurrency, maxQueued,
+                ZoneId.of(sessionZone), Clock.systemUTC());
+    }
+
+    QuoteServiceImpl(FinnhubApiClient finnhubApiClient, LivePriceTable livePriceTable, long maxAgeMillis,
+                     long deadlineMillis, int maxConcurrency, int maxQueued, ZoneId sessionZone, Clock clock) {
+        this.finnhubApiClient = finnhubApiClient;
+        this.livePriceTable = livePriceTable;
+        this.maxAgeMillis = maxAgeMillis;
+        this.deadlineMillis = deadlineMillis;
+        this.sessionZone = sessionZone;
+        this.clock = clock;
+        this.fetchExecutor = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxQueued), runnable -> {
+                    Thread thread = new Thread(runnable, "quote-fetch");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+
+    // Interface functions
+
+    @Override
+    public Map<UUID, StockQuote> getQuotes(Collection<Stock> stocks) {
+        Map<UUID, StockQuote> quotes = new LinkedHashMap<>();
+        Map<Stock, CompletableFuture<Boolean>> pending = new LinkedHashMap<>();
+        long freshAfter = clock.millis() - maxAgeMillis;
+        LocalDate session = currentSession();
+
+        for (Stock stock : stocks) {
+            Optional<LivePriceTable.LivePrice> live = livePriceTable.get(stock.getStockId())
+                    .filter(livePrice -> livePrice.updatedAtMillis() >= freshAfter);
+            Optional<BigDecimal> previousClose = livePriceTable.getPreviousClose(stock.getStockId(), session);
+            if (live.isPresent() && previousClose.isPresent()) {
+                quotes.put(stock.getStockId(), StockQuote.of(live.get().price(), previousClose.get(), false));
+            } else {
+                pending.put(stock, fetchShared(stock));
+            }
+        }
+
+        // Wait for upstream fetches until the deadline, never past it
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+        for (Map.Entry<Stock, CompletableFuture<Boolean>> entry : pending.entrySet()) {
+            Stock stock = entry.getKey();
+            boolean refreshed = false;
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                refreshed = entry.getValue().get(remaining, TimeUnit.NANOSECONDS);
+            } catch (Exception e) {
+                // Timed out or failed; the fetch is left running to warm the table
+            }
+            quotes.put(stock.getStockId(), lastKnown(stock, session, !refreshed));
+        }
+        return quotes;
+    }
+
+    @Override
+    public StockQuote getQuote(Stock stock) {
+        return getQuotes(List.of(stock)).get(stock.getStockId());
+    }
+
+
+    // Helper functions
+
+    // Join the stock's fetch in progress or start one; a full queue completes with false right away
+    private CompletableFuture<Boolean> fetchShared(Stock stock) {
+        UUID stockId = stock.getStockId();
+        CompletableFuture<Boolean> created = new CompletableFuture<>();
+        CompletableFuture<Boolean> existing = inFlight.putIfAbsent(stockId, created);
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            fetchExecutor.execute(() -> {
+                try {
+                    created.complete(fetch(stock));
+                } catch (Exception e) {
+                    created.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(stockId, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // EDGE CASE: Too many fetches waiting, serve the last known price
+            inFlight.remove(stockId, created);
+            created.complete(false);
+        }
+        return created;
+    }
+
+    // Fetch one quote and publish it to the live table; false when upstream had nothing usable
+    private boolean fetch(Stock stock) {
+        FinnhubQuoteDTO quote = finnhubApiClient.getQuote(stock.getStockCode());
+
+        // EDGE CASE: Null or non-positive price, keep the last known values
+        if (quote == null || quote.getCurrentPrice() == null || quote.getCurrentPrice().compareTo(BigDecimal.ZERO) <= 0) {
+            return false;
+        }
+        livePriceTable.put(stock.getStockId(), quote.getCurrentPrice(), clock.millis());
+        if (quote.getPreviousClosePrice() != null) {
+            livePriceTable.putPreviousClose(stock.getStockId(), quote.getPreviousClosePrice(), currentSession());
+        }
+        return true;
+    }
+
+    // Latest price from the live table, falling back to the stored stock value
+    private StockQuote lastKnown(Stock stock, LocalDate session, boolean stale) {
+        BigDecimal price = livePriceTable.get(stock.getStockId())
+                .map(LivePriceTable.LivePrice::price)
+                .orElse(stock.getStockValue());
+        BigDecimal previousClose = livePriceTable.getPreviousClose(stock.getStockId(), session).orElse(null);
+        return StockQuote.of(price, previousClose, stale);
+    }
+
+    // Trading day in the exchange's time zone; a previous close is only valid within it
+    private LocalDate currentSession() {
+        return LocalDate.now(clock.withZone(sessionZone));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetchExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,27 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.marketdata;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Price of a stock with its change since the previous close
+ *
+ * Stale quotes were not refreshed within the request deadline and carry the last known price;
+ * change is zero when no previous close is known yet.
+ */
+public record StockQuote(BigDecimal price,
+                         BigDecimal previousClose,
+                         BigDecimal change,
+                         BigDecimal changePercent,
+                         boolean stale) {
+
+    public static StockQuote of(BigDecimal price, BigDecimal previousClose, boolean stale) {
+        // EDGE CASE: No price or previous close to compare against
+        if (price == null || previousClose == null || previousClose.compareTo(BigDecimal.ZERO) <= 0) {
+            return new StockQuote(price, previousClose, BigDecimal.ZERO, BigDecimal.ZERO, stale);
+        }
+        BigDecimal change = price.subtract(previousClose);
+        BigDecimal changePercent = change.divide(previousClose, 4, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100));
+        return new StockQuote(price, previousClose, change, changePercent, stale);
+    }
+}
@@ -3,7 +3,10 @@ package com.joelcode.personalinvestmentportfoliotracker.services.news;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Component
 public class IndustryToSectorMapper {
@@ -35,6 +38,13 @@ public class IndustryToSectorMapper {
         // basic materials, energy, industrial goods, industrials, real estate, utilities
     }
 
+    // Every sector an article can be mapped to, including the default
+    public List<String> sectors() {
+        Set<String> sectors = new LinkedHashSet<>(INDUSTRY_TO_SECTOR_MAPPING.values());
+        sectors.add(DEFAULT_SECTOR);
+        return List.copyOf(sectors);
+    }
+
     public String mapIndustryToSector(String industry) {
         if (industry == null || industry.isBlank()) {
             return DEFAULT_SECTOR;
@@ -3,6 +3,7 @@ package com.joelcode.personalinvestmentportfoliotracker.services.news;
 import com.joelcode.personalinvestmentportfoliotracker.dto.news.NewsArticleDTO;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface MarketAuxApiClient {
 
@@ -11,4 +12,12 @@ public interface MarketAuxApiClient {
     List<NewsArticleDTO> getAllNews(int limit);
 
     List<NewsArticleDTO> getNewsBySector(String sector, int limit);
+
+    // Non-blocking versions; a call the rate limiter refuses completes with RateLimitExceededException
+
+    CompletableFuture<List<NewsArticleDTO>> getNewsByIndustriesAsync(String[] industries, int limit);
+
+    CompletableFuture<List<NewsArticleDTO>> getAllNewsAsync(int limit);
+
+    CompletableFuture<List<NewsArticleDTO>> getNewsBySectorAsync(String sector, int limit);
 }
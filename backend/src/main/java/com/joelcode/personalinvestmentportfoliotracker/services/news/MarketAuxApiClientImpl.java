@@ -3,14 +3,19 @@ package com.joelcode.personalinvestmentportfoliotracker.services.news;
 import com.joelcode.personalinvestmentportfoliotracker.dto.marketaux.MarketAuxArticleDTO;
 import com.joelcode.personalinvestmentportfoliotracker.dto.marketaux.MarketAuxNewsResponseDTO;
 import com.joelcode.personalinvestmentportfoliotracker.dto.news.NewsArticleDTO;
+import com.joelcode.personalinvestmentportfoliotracker.exceptions.RateLimitExceededException;
+import com.joelcode.personalinvestmentportfoliotracker.services.fallback.ApiRateLimitService;
+import com.joelcode.personalinvestmentportfoliotracker.services.http.MarketDataEndpoint;
+import com.joelcode.personalinvestmentportfoliotracker.services.http.MarketDataHttpClient;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 public class MarketAuxApiClientImpl implements MarketAuxApiClient {
@@ -21,54 +26,83 @@ public class MarketAuxApiClientImpl implements MarketAuxApiClient {
     @Value("${marketaux.api.base-url}")
     private String baseUrl;
 
-    private final RestTemplate restTemplate;
+    private final MarketDataHttpClient httpClient;
     private final IndustryToSectorMapper industryMapper;
+    private final ApiRateLimitService rateLimitService;
 
-    public MarketAuxApiClientImpl(RestTemplate restTemplate, IndustryToSectorMapper industryMapper) {
-        this.restTemplate = restTemplate;
+    public MarketAuxApiClientImpl(MarketDataHttpClient httpClient, IndustryToSectorMapper industryMapper, ApiRateLimitService rateLimitService) {
+        this.httpClient = httpClient;
         this.industryMapper = industryMapper;
+        this.rateLimitService = rateLimitService;
     }
 
     @Override
     public List<NewsArticleDTO> getNewsByIndustries(String[] industries, int limit) {
-        try {
-            String industriesParam = String.join(",", industries);
-            String url = UriComponentsBuilder.fromHttpUrl(baseUrl + "/news/all")
-                    .queryParam("industries", industriesParam)
-                    .queryParam("limit", limit)
-                    .queryParam("api_token", apiKey)
-                    .toUriString();
-
-            MarketAuxNewsResponseDTO response = restTemplate.getForObject(url, MarketAuxNewsResponseDTO.class);
-            return mapArticlesToNewsDTO(response);
-        } catch (RestClientException e) {
-            throw new RuntimeException("Failed to fetch news from MarketAux API", e);
-        }
+        return join(getNewsByIndustriesAsync(industries, limit));
     }
 
     @Override
     public List<NewsArticleDTO> getAllNews(int limit) {
-        try {
-            String url = UriComponentsBuilder.fromHttpUrl(baseUrl + "/news/all")
-                    .queryParam("limit", limit)
-                    .queryParam("api_token", apiKey)
-                    .toUriString();
-
-            MarketAuxNewsResponseDTO response = restTemplate.getForObject(url, MarketAuxNewsResponseDTO.class);
-            return mapArticlesToNewsDTO(response);
-        } catch (RestClientException e) {
-            throw new RuntimeException("Failed to fetch news from MarketAux API", e);
-        }
+        return join(getAllNewsAsync(limit));
     }
 
     @Override
     public List<NewsArticleDTO> getNewsBySector(String sector, int limit) {
+        return join(getNewsBySectorAsync(sector, limit));
+    }
+
+    @Override
+    public CompletableFuture<List<NewsArticleDTO>> getNewsByIndustriesAsync(String[] industries, int limit) {
+        String url = UriComponentsBuilder.fromHttpUrl(baseUrl + "/news/all")
+                .queryParam("industries", String.join(",", industries))
+                .queryParam("limit", limit)
+                .queryParam("api_token", apiKey)
+                .toUriString();
+        return fetch(url, "Failed to fetch news from MarketAux API");
+    }
+
+    @Override
+    public CompletableFuture<List<NewsArticleDTO>> getAllNewsAsync(int limit) {
+        String url = UriComponentsBuilder.fromHttpUrl(baseUrl + "/news/all")
+                .queryParam("limit", limit)
+                .queryParam("api_token", apiKey)
+                .toUriString();
+        return fetch(url, "Failed to fetch news from MarketAux API");
+    }
+
+    @Override
+    public CompletableFuture<List<NewsArticleDTO>> getNewsBySectorAsync(String sector, int limit) {
+        // Reverse map sector back to industries for the API call
+        return getNewsByIndustriesAsync(getSectorIndustries(sector), limit);
+    }
+
+    // MarketAux has a small daily quota, so refuse rather than overrun it
+    private CompletableFuture<List<NewsArticleDTO>> fetch(String url, String failure) {
+        return rateLimitService.acquireMarketAuxAsync()
+                .thenCompose(permit -> httpClient.getAsync(MarketDataEndpoint.NEWS, URI.create(url), MarketAuxNewsResponseDTO.class))
+                .thenApply(this::mapArticlesToNewsDTO)
+                .handle((result, error) -> {
+                    if (error == null) {
+                        return result;
+                    }
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    // Rate limit refusals pass through unchanged so callers can stop spending calls
+                    if (cause instanceof RateLimitExceededException rateLimited) {
+                        throw rateLimited;
+                    }
+                    throw new CompletionException(new RuntimeException(failure, cause));
+                });
+    }
+
+    // Blocking callers get the original exception rather than the CompletionException around it
+    private static <T> T join(CompletableFuture<T> future) {
         try {
-            // Reverse map sector back to industries for the API call
-            String[] industries = getSectorIndustries(sector);
-            return getNewsByIndustries(industries, limit);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to fetch news by sector: " + sector, e);
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
         }
     }
 
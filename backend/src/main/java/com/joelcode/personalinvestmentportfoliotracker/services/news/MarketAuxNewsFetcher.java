@@ -0,0 +1,137 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.news;
+
+import com.joelcode.personalinvestmentportfoliotracker.dto.news.NewsArticleDTO;
+import com.joelcode.personalinvestmentportfoliotracker.exceptions.RateLimitExceededException;
+import com.joelcode.personalinvestmentportfoliotracker.services.fallback.ApiRateLimitService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Refreshes the news store from MarketAux within the daily quota
+ *
+ * Each run spends an even share of the calls left for the day, keeping a small reserve, so the
+ * quota lasts until it resets at local midnight instead of running out in the morning. Calls
+ * rotate round-robin through the sectors plus one unfiltered slot, so every sector is refreshed
+ * over the day. A run stops early when the rate limiter refuses a call; the store keeps serving
+ * what it already has.
+ */
+@Component
+@Profile("!test")
+public class MarketAuxNewsFetcher {
+
+    // Define key fields
+    private final MarketAuxApiClient marketAuxApiClient;
+    private final NewsService newsService;
+    private final ApiRateLimitService rateLimitService;
+    private final long intervalMillis;
+    private final int reserveCalls;
+    private final int maxCallsPerRun;
+    private final int articlesPerCall;
+    private final Clock clock;
+
+    // Sectors to fetch in turn; null stands for news across all sectors
+    private final List<String> slots;
+    private int nextSlot = 0;
+
+
+    // Constructor
+    @Autowired
+    public MarketAuxNewsFetcher(MarketAuxApiClient marketAuxApiClient,
+                                NewsService newsService,
+                                ApiRateLimitService rateLimitService,
+                                IndustryToSectorMapper industryMapper,
+                                @Value("${news.refresh.interval-ms:1800000}") long intervalMillis,
+                                @Value("${news.refresh.reserve-calls:5}") int reserveCalls,
+                                @Value("${news.refresh.max-calls-per-run:3}") int maxCallsPerRun,
+                                @Value("${news.refresh.articles-per-call:3}") int articlesPerCall) {
+        this(marketAuxApiClient, newsService, rateLimitService, industryMapper,
+                intervalMillis, reserveCalls, maxCallsPerRun, articlesPerCall, Clock.systemDefaultZone());
+    }
+
+    MarketAuxNewsFetcher(MarketAuxApiClient marketAuxApiClient, NewsService newsService,
+                         ApiRateLimitService rateLimitService, IndustryToSectorMapper industryMapper,
+                         long intervalMillis, int reserveCalls, int maxCallsPerRun, int articlesPerCall, Clock clock) {
+        this.marketAuxApiClient = marketAuxApiClient;
+        this.newsService = newsService;
+        this.rateLimitService = rateLimitService;
+        this.intervalMillis = intervalMillis;
+        this.reserveCalls = reserveCalls;
+        this.maxCallsPerRun = maxCallsPerRun;
+        this.articlesPerCall = articlesPerCall;
+        this.clock = clock;
+
+        // "Other" has no industries to filter on, the unfiltered slot covers it
+        List<String> slots = new ArrayList<>();
+        industryMapper.sectors().stream().filter(sector -> !"Other".equals(sector)).forEach(slots::add);
+        slots.add(null);
+        this.slots = slots;
+    }
+
+
+    @Scheduled(fixedDelayString = "${news.refresh.interval-ms:1800000}",
+            initialDelayString = "${news.refresh.initial-delay-ms:20000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            System.err.println("News refresh failed: " + e.getMessage());
+        }
+    }
+
+    // Spend this run's share of the quota and return how many MarketAux calls were made
+    public synchronized int refresh() {
+        // Never fetch the same slot twice in one run
+        int allowance = Math.min(callsForThisRun(), slots.size());
+        List<NewsArticleDTO> fetched = new ArrayList<>();
+        int calls = 0;
+
+        while (calls < allowance) {
+            String sector = slots.get(nextSlot);
+            try {
+                fetched.addAll(sector == null
+                        ? marketAuxApiClient.getAllNews(articlesPerCall)
+                        : marketAuxApiClient.getNewsBySector(sector, articlesPerCall));
+            } catch (RateLimitExceededException e) {
+                // Out of permits for now; this slot goes first next run
+                break;
+            } catch (Exception e) {
+                System.err.println("Failed to fetch " + (sector == null ? "latest" : sector) + " news: " + e.getMessage());
+            }
+            nextSlot = (nextSlot + 1) % slots.size();
+            calls++;
+        }
+
+        if (!fetched.isEmpty()) {
+            newsService.ingest(fetched);
+        }
+        return calls;
+    }
+
+    // Even share of the calls left above the reserve over the runs left before the quota resets
+    int callsForThisRun() {
+        long spendable = rateLimitService.getRemainingMarketAuxCalls() - reserveCalls;
+        if (spendable <= 0) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now(clock);
+        long untilReset = Duration.between(now, LocalDate.now(clock).plusDays(1).atStartOfDay()).toMillis();
+        long runsLeft = Math.max(1, ceilDiv(untilReset, Math.max(1, intervalMillis)));
+        return (int) Math.min(maxCallsPerRun, ceilDiv(spendable, runsLeft));
+    }
+
+    // Written out rather than Math.ceilDiv, which needs Java 18; spendable can be Long.MAX_VALUE with no quota
+    private static long ceilDiv(long dividend, long divisor) {
+        return dividend / divisor + (dividend % divisor == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,27 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.news;
+
+import com.joelcode.personalinvestmentportfoliotracker.dto.news.NewsArticleDTO;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface NewsService {
+
+    // Newest stored articles across every sector
+    List<NewsArticleDTO> getLatestNews(int limit);
+
+    // Newest stored articles for one sector; unknown sectors return an empty list
+    List<NewsArticleDTO> getNewsBySector(String sector, int limit);
+
+    // Newest stored articles across the given sectors, merged by publish time
+    List<NewsArticleDTO> getNewsBySectors(Collection<String> sectors, int limit);
+
+    // Store articles whose URL has not been seen before and return how many were added
+    int ingest(List<NewsArticleDTO> articles);
+
+    // Reload the in-memory indexes from the article store and return how many articles they hold
+    int reload();
+
+    // Delete articles older than the retention window and return how many were removed
+    int purgeExpired();
+}
@@ -0,0 +1,276 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.news;
+
+import com.joelcode.personalinvestmentportfoliotracker.dto.news.NewsArticleDTO;
+import com.joelcode.personalinvestmentportfoliotracker.entities.NewsArticle;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.NewsArticleRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Serves news from the local article store
+ *
+ * The news endpoints used to call MarketAux on every request, which could spend the whole daily
+ * quota in a few page loads and failed outright once it was gone. Articles are now written to the
+ * news_articles table by the scheduled MarketAuxNewsFetcher, deduplicated by URL, and the newest
+ * are held in memory as one list per sector (as mapped by IndustryToSectorMapper) plus one list
+ * across all sectors. Reads never touch MarketAux or the database, so the last articles fetched
+ * keep being served when the quota runs out.
+ */
+@Service
+@Profile("!test")
+public class NewsServiceImpl implements NewsService {
+
+    private static final Comparator<CachedArticle> NEWEST_FIRST =
+            Comparator.comparing(CachedArticle::publishedAt).reversed();
+
+    // Sector names the frontend uses that are not sectors of their own
+    private static final Map<String, String> SECTOR_ALIASES = Map.of("semiconductors", "technology");
+
+    // Define key fields
+    private final NewsArticleRepository newsArticleRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxArticles;
+    private final int retentionDays;
+
+    // Replaced as a whole on every change, so readers never see a half-built index
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+
+    // Constructor
+    public NewsServiceImpl(NewsArticleRepository newsArticleRepository,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${news.store.max-articles:2000}") int maxArticles,
+                           @Value("${news.store.retention-days:30}") int retentionDays) {
+        this.newsArticleRepository = newsArticleRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxArticles = maxArticles;
+        this.retentionDays = retentionDays;
+
+        Gauge.builder("news.articles.cached", this, service -> service.snapshot.all().size())
+                .description("News articles held in memory for the news endpoints")
+                .register(meterRegistry);
+    }
+
+
+    // Interface functions
+
+    @Override
+    public List<NewsArticleDTO> getLatestNews(int limit) {
+        return toDtos(snapshot.all(), limit);
+    }
+
+    @Override
+    public List<NewsArticleDTO> getNewsBySector(String sector, int limit) {
+        return toDtos(snapshot.bySector().getOrDefault(sectorKey(sector), List.of()), limit);
+    }
+
+    @Override
+    public List<NewsArticleDTO> getNewsBySectors(Collection<String> sectors, int limit) {
+        if (sectors == null || limit <= 0) {
+            return List.of();
+        }
+
+        Snapshot current = snapshot;
+        Set<String> keys = new LinkedHashSet<>();
+        sectors.forEach(sector -> keys.add(sectorKey(sector)));
+
+        // Each sector list is already newest first, so only its first `limit` articles can make the cut
+        List<CachedArticle> merged = new ArrayList<>();
+        for (String key : keys) {
+            List<CachedArticle> articles = current.bySector().getOrDefault(key, List.of());
+            merged.addAll(articles.subList(0, Math.min(limit, articles.size())));
+        }
+        merged.sort(NEWEST_FIRST);
+        return toDtos(merged, limit);
+    }
+
+    @Override
+    public synchronized int ingest(List<NewsArticleDTO> articles) {
+        if (articles == null || articles.isEmpty()) {
+            return 0;
+        }
+
+        // Drop incomplete articles, repeats within the batch and URLs already in memory
+        Snapshot current = snapshot;
+        Map<String, NewsArticleDTO> candidates = new LinkedHashMap<>();
+        for (NewsArticleDTO article : articles) {
+            if (article == null || isBlank(article.getUrl()) || isBlank(article.getTitle())) {
+                continue;
+            }
+            if (!current.urls().contains(article.getUrl())) {
+                candidates.putIfAbsent(article.getUrl(), article);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+
+        List<NewsArticle> saved = transactionTemplate.execute(status -> {
+            // Older articles may have fallen out of memory but still be stored
+            newsArticleRepository.findExistingUrls(candidates.keySet()).forEach(candidates::remove);
+
+            List<NewsArticle> entities = new ArrayList<>(candidates.size());
+            for (NewsArticleDTO article : candidates.values()) {
+                entities.add(new NewsArticle(
+                        article.getUrl(),
+                        isBlank(article.getSector()) ? "Other" : article.getSector(),
+                        article.getTitle(),
+                        article.getSummary(),
+                        article.getImageUrl(),
+                        parsePublishedAt(article.getPublishedAt())));
+            }
+            return entities.isEmpty() ? List.of() : newsArticleRepository.saveAll(entities);
+        });
+
+        if (saved == null || saved.isEmpty()) {
+            return 0;
+        }
+
+        List<CachedArticle> combined = new ArrayList<>(current.all());
+        saved.forEach(article -> combined.add(CachedArticle.of(article)));
+        snapshot = buildSnapshot(combined);
+        return saved.size();
+    }
+
+    @Override
+    public synchronized int reload() {
+        List<NewsArticle> stored = newsArticleRepository.findAllByOrderByPublishedAtDesc(PageRequest.of(0, maxArticles));
+
+        List<CachedArticle> articles = new ArrayList<>(stored.size());
+        stored.forEach(article -> articles.add(CachedArticle.of(article)));
+        snapshot = buildSnapshot(articles);
+        return snapshot.all().size();
+    }
+
+    @Override
+    public int purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        Integer deleted = transactionTemplate.execute(status -> newsArticleRepository.deletePublishedBefore(cutoff));
+        if (deleted != null && deleted > 0) {
+            reload();
+        }
+        return deleted == null ? 0 : deleted;
+    }
+
+
+    // Startup load and retention
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            System.out.println("Loaded " + reload() + " stored news articles");
+        } catch (Exception e) {
+            System.err.println("Failed to load stored news articles: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${news.store.purge-cron:0 15 0 * * *}")
+    public void scheduledPurge() {
+        try {
+            int deleted = purgeExpired();
+            if (deleted > 0) {
+                System.out.println("Purged " + deleted + " news articles older than " + retentionDays + " days");
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to purge old news articles: " + e.getMessage());
+        }
+    }
+
+
+    // Helper functions
+
+    // Newest articles first, capped at maxArticles, indexed by sector
+    private Snapshot buildSnapshot(List<CachedArticle> articles) {
+        articles.sort(NEWEST_FIRST);
+        List<CachedArticle> all = List.copyOf(articles.subList(0, Math.min(maxArticles, articles.size())));
+
+        Map<String, List<CachedArticle>> bySector = new HashMap<>();
+        Set<String> urls = new HashSet<>();
+        for (CachedArticle article : all) {
+            bySector.computeIfAbsent(sectorKey(article.dto().getSector()), key -> new ArrayList<>()).add(article);
+            urls.add(article.dto().getUrl());
+        }
+        bySector.replaceAll((sector, sectorArticles) -> List.copyOf(sectorArticles));
+        return new Snapshot(all, Map.copyOf(bySector), Set.copyOf(urls));
+    }
+
+    private static List<NewsArticleDTO> toDtos(List<CachedArticle> articles, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        return articles.stream().limit(limit).map(CachedArticle::dto).toList();
+    }
+
+    private static String sectorKey(String sector) {
+        if (sector == null) {
+            return "";
+        }
+        String key = sector.trim().toLowerCase();
+        return SECTOR_ALIASES.getOrDefault(key, key);
+    }
+
+    // MarketAux sends ISO-8601 timestamps with an offset; fall back to the fetch time if it is missing or malformed
+    static LocalDateTime parsePublishedAt(String publishedAt) {
+        if (isBlank(publishedAt)) {
+            return LocalDateTime.now();
+        }
+        try {
+            return LocalDateTime.ofInstant(OffsetDateTime.parse(publishedAt).toInstant(), ZoneId.systemDefault());
+        } catch (DateTimeParseException e) {
+            try {
+                return LocalDateTime.parse(publishedAt);
+            } catch (DateTimeParseException ignored) {
+                return LocalDateTime.now();
+            }
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    // Article as served, together with its publish time for ordering
+    private record CachedArticle(LocalDateTime publishedAt, NewsArticleDTO dto) {
+
+        static CachedArticle of(NewsArticle article) {
+            String publishedAt = article.getPublishedAt().atZone(ZoneId.systemDefault()).toOffsetDateTime().toString();
+            return new CachedArticle(article.getPublishedAt(), new NewsArticleDTO(
+                    article.getSector(),
+                    article.getTitle(),
+                    article.getSummary(),
+                    article.getUrl(),
+                    publishedAt,
+                    article.getImageUrl()));
+        }
+    }
+
+    // Immutable view of the stored articles used by every read
+    private record Snapshot(List<CachedArticle> all, Map<String, List<CachedArticle>> bySector, Set<String> urls) {
+        static final Snapshot EMPTY = new Snapshot(List.of(), Map.of(), Set.of());
+    }
+}
@@ -1,18 +1,19 @@
 package com.joelcode.personalinvestmentportfoliotracker.services.portfolio.allocation;
 
 import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.AllocationBreakdownDTO;
-import com.joelcode.personalinvestmentportfoliotracker.entities.Holding;
 import com.joelcode.personalinvestmentportfoliotracker.entities.User;
-import com.joelcode.personalinvestmentportfoliotracker.repositories.HoldingRepository;
-import com.joelcode.personalinvestmentportfoliotracker.services.holding.HoldingCalculationService;
 import com.joelcode.personalinvestmentportfoliotracker.services.user.UserValidationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.AccountValuation;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.AccountValuationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.Money;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -21,17 +22,14 @@ import java.util.stream.Collectors;
 public class AllocationBreakdownServiceImpl implements AllocationBreakdownService {
 
     // Define key fields
-    private final HoldingCalculationService holdingCalcService;
-    private final HoldingRepository holdingRepository;
+    private final AccountValuationService accountValuationService;
     private final UserValidationService userValidationService;
 
 
     // Constructor
-    public AllocationBreakdownServiceImpl(HoldingCalculationService holdingCalcService,
-                                               HoldingRepository holdingRepository,
+    public AllocationBreakdownServiceImpl(AccountValuationService accountValuationService,
                                                UserValidationService userValidationService) {
-        this.holdingCalcService = holdingCalcService;
-        this.holdingRepository = holdingRepository;
+        this.accountValuationService = accountValuationService;
         this.userValidationService = userValidationService;
     }
 
@@ -41,33 +39,35 @@ public class AllocationBreakdownServiceImpl implements AllocationBreakdownServic
     // get allocation for an account
     @Override
     public List<AllocationBreakdownDTO> getAllocationForAccount(UUID accountId) {
-        List<Holding> holdings = holdingRepository.findByAccount_AccountId(accountId);
+        AccountValuation valuation = accountValuationService.getValuation(accountId);
+        Collection<AccountValuation.Position> positions = valuation.getPositions().values();
 
         // EDGE CASE: Empty holdings
-        if (holdings == null || holdings.isEmpty()) {
+        if (positions.isEmpty()) {
             return new ArrayList<>();
         }
 
+        // Price every position from the cached price table
+        Map<UUID, BigDecimal> prices = accountValuationService.currentPrices(valuation);
+        return breakdown(positions, prices);
+    }
+
+    // Share of each position in the total market value of the given positions
+    public static List<AllocationBreakdownDTO> breakdown(Collection<AccountValuation.Position> positions,
+                                                         Map<UUID, BigDecimal> prices) {
         // Calculate total value
-        BigDecimal totalValue = BigDecimal.ZERO;
-        for (Holding h : holdings) {
-            if (h != null && h.getStock() != null) {
-                BigDecimal value = holdingCalcService.calculateCurrentValue(h);
-                if (value != null) {
-                    totalValue = totalValue.add(value);
-                }
-            }
+        Money totalValue = Money.ZERO;
+        for (AccountValuation.Position position : positions) {
+            totalValue = totalValue.plus(position.marketValue(prices.get(position.stockId())));
         }
 
         // EDGE CASE: Zero total value
-        final BigDecimal finalTotalValue = totalValue;
-        if (totalValue.compareTo(BigDecimal.ZERO) == 0) {
+        if (totalValue.signum() == 0) {
             // Return allocations with 0% for each holding
-            return holdings.stream()
-                    .filter(h -> h != null && h.getStock() != null)
-                    .map(h -> {
+            return positions.stream()
+                    .map(position -> {
                         AllocationBreakdownDTO dto = new AllocationBreakdownDTO();
-                        dto.setStockCode(h.getStock().getStockCode());
+                        dto.setStockCode(position.stockCode());
                         dto.setPercentage(BigDecimal.ZERO);
                         dto.setCurrentValue(BigDecimal.ZERO);
                         return dto;
@@ -76,25 +76,15 @@ public class AllocationBreakdownServiceImpl implements AllocationBreakdownServic
         }
 
         // Calculate allocations
-        return holdings.stream()
-                .filter(h -> h != null && h.getStock() != null)
-                .map(h -> {
-                    BigDecimal value = holdingCalcService.calculateCurrentValue(h);
-
-                    // EDGE CASE: Null value check
-                    if (value == null) {
-                        value = BigDecimal.ZERO;
-                    }
-
-                    BigDecimal percentage = value
-                            .multiply(BigDecimal.valueOf(100))
-                            .divide(finalTotalValue, 4, RoundingMode.HALF_UP)
-                            .setScale(2, RoundingMode.HALF_UP);
+        Money total = totalValue;
+        return positions.stream()
+                .map(position -> {
+                    Money value = position.marketValue(prices.get(position.stockId()));
 
                     AllocationBreakdownDTO dto = new AllocationBreakdownDTO();
-                    dto.setStockCode(h.getStock().getStockCode());
-                    dto.setPercentage(percentage);
-                    dto.setCurrentValue(value);
+                    dto.setStockCode(position.stockCode());
+                    dto.setPercentage(value.percentOf(total));
+                    dto.setCurrentValue(value.toCents());
                     return dto;
                 })
                 .collect(Collectors.toList());
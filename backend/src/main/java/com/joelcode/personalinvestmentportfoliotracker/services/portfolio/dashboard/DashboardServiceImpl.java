@@ -0,0 +1,287 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.portfolio.dashboard;
+
+import com.joelcode.personalinvestmentportfoliotracker.dto.holding.HoldingDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.AccountTotals;
+import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.AllocationBreakdownDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.PortfolioOverviewDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.PortfolioPerformanceDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.transaction.TransactionDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.utility.DashboardDTO;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Account;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Holding;
+import com.joelcode.personalinvestmentportfoliotracker.entities.PortfolioSnapshot;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.AccountRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.HoldingRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.PortfolioSnapshotRepository;
+import com.joelcode.personalinvestmentportfoliotracker.services.account.AccountValidationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.mapping.HoldingMapper;
+import com.joelcode.personalinvestmentportfoliotracker.services.marketdata.PriceResolver;
+import com.joelcode.personalinvestmentportfoliotracker.services.portfolio.allocation.AllocationBreakdownServiceImpl;
+import com.joelcode.personalinvestmentportfoliotracker.services.portfolio.overview.PortfolioOverviewServiceImpl;
+import com.joelcode.personalinvestmentportfoliotracker.services.portfolio.performance.PortfolioPerformanceServiceImpl;
+import com.joelcode.personalinvestmentportfoliotracker.services.transaction.TransactionService;
+import com.joelcode.personalinvestmentportfoliotracker.services.user.UserValidationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.AccountValuation;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Dashboard assembly for one account or for all of a user's accounts
+ *
+ * Each request loads its data exactly once: holdings with their stocks in one query, their prices
+ * in one resolver batch, paid dividend totals in one grouped query, the previous snapshots for the
+ * daily and monthly gain and the first page of the transaction feed. The loads run in parallel and
+ * every section is built as soon as its own inputs arrive, so latency follows the slowest load
+ * instead of the sum of four service calls that each reloaded the same account. The overview and
+ * performance are computed by the same helpers as the portfolio services, so the numbers agree.
+ * Sections that fail or are not ready by the deadline are left null and named in
+ * unavailableSections; the rest of the dashboard is still returned.
+ */
+@Service
+@Profile("!test")
+public class DashboardServiceImpl implements DashboardService {
+
+    public static final String OVERVIEW = "portfolioOverview";
+    public static final String PERFORMANCE = "portfolioPerformance";
+    public static final String ALLOCATIONS = "allocations";
+    public static final String RECENT_TRANSACTIONS = "recentTransactions";
+
+    private static final int RECENT_TRANSACTION_LIMIT = 10;
+
+    // Define key fields
+    private final AccountValidationService accountValidationService;
+    private final UserValidationService userValidationService;
+    private final AccountRepository accountRepository;
+    private final HoldingRepository holdingRepository;
+    private final PortfolioSnapshotRepository snapshotRepository;
+    private final TransactionService transactionService;
+    private final PriceResolver priceResolver;
+    private final long deadlineMillis;
+    private final ExecutorService loadExecutor;
+
+
+    // Constructor
+    public DashboardServiceImpl(AccountValidationService accountValidationService,
+                                UserValidationService userValidationService,
+                                AccountRepository accountRepository,
+                                HoldingRepository holdingRepository,
+                                PortfolioSnapshotRepository snapshotRepository,
+                                TransactionService transactionService,
+                                PriceResolver priceResolver,
+                                @Value("${dashboard.deadline-ms:3000}") long deadlineMillis,
+                                @Value("${dashboard.max-concurrency:6}") int maxConcurrency) {
+        this.accountValidationService = accountValidationService;
+        this.userValidationService = userValidationService;
+        this.accountRepository = accountRepository;
+        this.holdingRepository = holdingRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.transactionService = transactionService;
+        this.priceResolver = priceResolver;
+        this.deadlineMillis = deadlineMillis;
+        this.loadExecutor = Executors.newFixedThreadPool(maxConcurrency, runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+
+    // Interface functions
+
+    // Dashboard for a single account
+    @Override
+    public DashboardDTO getDashboardForAccount(UUID accountId) {
+        Account account = accountValidationService.validateAccountExistsById(accountId);
+        return assemble(account.getUserid(), List.of(account), false);
+    }
+
+    // Dashboard aggregated across all of a user's accounts
+    @Override
+    public DashboardDTO getDashboardForUser(UUID userId) {
+        userValidationService.validateUserExists(userId);
+        List<Account> accounts = accountRepository.findByUser_UserId(userId, Pageable.unpaged());
+        return assemble(userId, accounts, true);
+    }
+
+
+    // Helper functions
+
+    private DashboardDTO assemble(UUID userId, List<Account> accounts, boolean userLevel) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+        List<UUID> accountIds = accounts.stream().map(Account::getAccountId).toList();
+
+        // Shared loads, each issued once for the whole request
+        CompletableFuture<List<Holding>> holdings = load(() -> accountIds.isEmpty()
+                ? List.of() : holdingRepository.findByAccountIdsWithStock(accountIds));
+        CompletableFuture<Map<UUID, BigDecimal>> prices = holdings.thenApplyAsync(this::resolvePrices, loadExecutor);
+        CompletableFuture<BigDecimal> dividends = load(() -> loadDividends(userId, accountIds));
+        LocalDate today = LocalDate.now();
+        CompletableFuture<List<PortfolioSnapshot>> dayAgo = load(() -> loadPreviousSnapshots(accountIds, today));
+        // Latest snapshot on or before the same day last month
+        CompletableFuture<List<PortfolioSnapshot>> monthAgo = load(() ->
+                loadPreviousSnapshots(accountIds, today.minusMonths(1).plusDays(1)));
+        CompletableFuture<List<TransactionDTO>> transactions = load(() -> loadRecentTransactions(userId, accountIds, userLevel));
+
+        // Each section only waits for the loads it needs
+        UUID accountId = userLevel || accounts.isEmpty() ? null : accounts.get(0).getAccountId();
+        BigDecimal cashBalance = accounts.stream()
+                .map(account -> safe(account.getAccountBalance()))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        CompletableFuture<List<HoldingDTO>> holdingDTOs = holdings
+                .thenCombine(prices, (held, priced) -> holdingDTOs(accounts, held, priced));
+        CompletableFuture<PortfolioOverviewDTO> overview = holdingDTOs
+                .thenCombine(dividends, (held, paid) ->
+                        PortfolioOverviewServiceImpl.summarize(userId, accountId, held, cashBalance, paid));
+        CompletableFuture<PortfolioPerformanceDTO> performance = CompletableFuture.allOf(overview, dayAgo, monthAgo)
+                .thenApply(ignored -> performance(userId, accountId, accountIds, overview.join(), dayAgo.join(),
+                        monthAgo.join()));
+        CompletableFuture<List<AllocationBreakdownDTO>> allocations = holdings
+                .thenCombine(prices, (held, priced) -> allocations(accounts, held, priced));
+
+        // Collect whatever is ready by the deadline
+        List<String> unavailable = new ArrayList<>();
+        DashboardDTO dashboard = new DashboardDTO(
+                await(overview, OVERVIEW, deadline, unavailable),
+                await(performance, PERFORMANCE, deadline, unavailable),
+                await(allocations, ALLOCATIONS, deadline, unavailable),
+                await(transactions, RECENT_TRANSACTIONS, deadline, unavailable)
+        );
+        dashboard.setUnavailableSections(unavailable);
+        return dashboard;
+    }
+
+    private <T> CompletableFuture<T> load(Supplier<T> loader) {
+        return CompletableFuture.supplyAsync(loader, loadExecutor);
+    }
+
+    // Wait for a section until the shared deadline; a late or failed section is reported, not thrown
+    private <T> T await(CompletableFuture<T> section, String name, long deadline, List<String> unavailable) {
+        try {
+            return section.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            section.cancel(true);
+            System.err.println("Dashboard section " + name + " missed the " + deadlineMillis + " ms deadline");
+        } catch (ExecutionException e) {
+            System.err.println("Dashboard section " + name + " failed: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        unavailable.add(name);
+        return null;
+    }
+
+    private Map<UUID, BigDecimal> resolvePrices(List<Holding> holdings) {
+        return priceResolver.resolvePrices(holdings.stream()
+                .map(h -> h.getStock().getStockId())
+                .distinct()
+                .toList());
+    }
+
+    // Paid dividends of the given accounts, from the user's grouped totals in one query
+    private BigDecimal loadDividends(UUID userId, List<UUID> accountIds) {
+        if (accountIds.isEmpty()) {
+            return BigDecimal.ZERO;
+        }
+        return accountRepository.findTotalsByUserId(userId).stream()
+                .filter(totals -> accountIds.contains(totals.accountId()))
+                .map(AccountTotals::dividends)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    // Latest snapshot of each account taken before the given date
+    private List<PortfolioSnapshot> loadPreviousSnapshots(List<UUID> accountIds, LocalDate before) {
+        return accountIds.isEmpty() ? List.of() : snapshotRepository.findLatestBeforeForAccounts(accountIds, before);
+    }
+
+    // First page of the transaction feed, merged across accounts in SQL for a user dashboard
+    private List<TransactionDTO> loadRecentTransactions(UUID userId, List<UUID> accountIds, boolean userLevel) {
+        if (userLevel) {
+            return transactionService.getTransactionFeed(null, userId, null, RECENT_TRANSACTION_LIMIT).getTransactions();
+        }
+        return transactionService.getTransactionFeed(accountIds.get(0), null, null, RECENT_TRANSACTION_LIMIT)
+                .getTransactions();
+    }
+
+    // Priced holdings, account by account in the order the accounts were given
+    private List<HoldingDTO> holdingDTOs(List<Account> accounts, List<Holding> holdings, Map<UUID, BigDecimal> prices) {
+        Map<UUID, List<Holding>> byAccount = groupByAccount(holdings);
+        List<HoldingDTO> holdingDTOs = new ArrayList<>();
+        for (Account account : accounts) {
+            byAccount.getOrDefault(account.getAccountId(), List.of()).stream()
+                    .map(h -> HoldingMapper.toDTO(h, prices.get(h.getStock().getStockId())))
+                    .forEach(holdingDTOs::add);
+        }
+        return holdingDTOs;
+    }
+
+    // Performance over the overview's holdings, with gains measured against the previous snapshots
+    private PortfolioPerformanceDTO performance(UUID userId, UUID accountId, List<UUID> accountIds,
+                                                PortfolioOverviewDTO overview, List<PortfolioSnapshot> dayAgo,
+                                                List<PortfolioSnapshot> monthAgo) {
+        return PortfolioPerformanceServiceImpl.summarize(userId, accountId, overview.getHoldings(),
+                overview.getCashBalance(), overview.getTotalDividends(),
+                gainSince(overview, dayAgo, accountIds), gainSince(overview, monthAgo, accountIds));
+    }
+
+    // Change in total value since the given snapshots; unknown (null) unless every account has one
+    private BigDecimal gainSince(PortfolioOverviewDTO current, List<PortfolioSnapshot> previous, List<UUID> accountIds) {
+        if (accountIds.isEmpty() || previous.size() != accountIds.size()) {
+            return null;
+        }
+        BigDecimal previousValue = previous.stream()
+                .map(snapshot -> safe(snapshot.getTotalValue()))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return current.getTotalPortfolioValue().subtract(previousValue);
+    }
+
+    // Allocation within each account, listed account by account like the allocation service does
+    private List<AllocationBreakdownDTO> allocations(List<Account> accounts, List<Holding> holdings,
+                                                     Map<UUID, BigDecimal> prices) {
+        Map<UUID, List<Holding>> byAccount = groupByAccount(holdings);
+        List<AllocationBreakdownDTO> allocations = new ArrayList<>();
+        for (Account account : accounts) {
+            List<AccountValuation.Position> positions = byAccount.getOrDefault(account.getAccountId(), List.of())
+                    .stream()
+                    .map(AccountValuation.Position::from)
+                    .toList();
+            if (!positions.isEmpty()) {
+                allocations.addAll(AllocationBreakdownServiceImpl.breakdown(positions, prices));
+            }
+        }
+        return allocations;
+    }
+
+    private Map<UUID, List<Holding>> groupByAccount(List<Holding> holdings) {
+        return holdings.stream()
+                .filter(h -> h.getAccount() != null && h.getStock() != null)
+                .collect(Collectors.groupingBy(h -> h.getAccount().getAccountId()));
+    }
+
+    // Helper to safely return BigDecimal or ZERO if null
+    private static BigDecimal safe(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loadExecutor.shutdownNow();
+    }
+}
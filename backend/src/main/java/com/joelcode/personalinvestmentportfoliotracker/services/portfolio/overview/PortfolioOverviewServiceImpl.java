@@ -1,11 +1,12 @@
 package com.joelcode.personalinvestmentportfoliotracker.services.portfolio.overview;
 
 import com.joelcode.personalinvestmentportfoliotracker.dto.holding.HoldingDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.AccountTotals;
 import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.PortfolioOverviewDTO;
 import com.joelcode.personalinvestmentportfoliotracker.entities.Account;
-import com.joelcode.personalinvestmentportfoliotracker.entities.User;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.AccountRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.DividendPaymentRepository;
 import com.joelcode.personalinvestmentportfoliotracker.services.portfolio.allocation.AllocationBreakdownService;
-import com.joelcode.personalinvestmentportfoliotracker.services.dividendpayment.DividendPaymentService;
 import com.joelcode.personalinvestmentportfoliotracker.services.holding.HoldingService;
 import com.joelcode.personalinvestmentportfoliotracker.services.account.AccountValidationService;
 import com.joelcode.personalinvestmentportfoliotracker.services.user.UserValidationService;
@@ -14,7 +15,6 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -30,7 +30,7 @@ public class PortfolioOverviewServiceImpl implements PortfolioOverviewService {
     private HoldingService holdingService;
 
     @Autowired
-    private DividendPaymentService dividendPaymentService;
+    private DividendPaymentRepository dividendPaymentRepository;
 
     @Autowired
     private AllocationBreakdownService allocationService;
@@ -38,17 +38,22 @@ public class PortfolioOverviewServiceImpl implements PortfolioOverviewService {
     @Autowired
     private UserValidationService userValidationService;
 
+    @Autowired
+    private AccountRepository accountRepository;
+
 
     // Constructor
     public PortfolioOverviewServiceImpl(AccountValidationService accountValidationService,
-                                        HoldingService holdingService, DividendPaymentService dividendPaymentService,
+                                        HoldingService holdingService, DividendPaymentRepository dividendPaymentRepository,
                                         AllocationBreakdownService allocationService,
-                                        UserValidationService userValidationService) {
+                                        UserValidationService userValidationService,
+                                        AccountRepository accountRepository) {
         this.accountValidationService = accountValidationService;
         this.holdingService = holdingService;
-        this.dividendPaymentService = dividendPaymentService;
+        this.dividendPaymentRepository = dividendPaymentRepository;
         this.allocationService = allocationService;
         this.userValidationService = userValidationService;
+        this.accountRepository = accountRepository;
     }
 
 
@@ -71,71 +76,19 @@ public class PortfolioOverviewServiceImpl implements PortfolioOverviewService {
             List<HoldingDTO> holdings = holdingService.getHoldingsForAccount(accountId);
             System.out.println("✅ Got " + holdings.size() + " holdings");
 
-            // Calculate holdings value
-            System.out.println("💰 Calculating holdings value...");
-            BigDecimal holdingsValue = holdings.stream()
-                    .map(h -> {
-                        BigDecimal price = safe(h.getCurrentPrice());
-                        BigDecimal qty = safe(h.getQuantity());
-                        BigDecimal value = price.multiply(qty);
-                        System.out.println("  - " + h.getStockSymbol() + ": " + qty + " @ " + price + " = " + value);
-                        return value;
-                    })
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            System.out.println("✅ Holdings value: " + holdingsValue);
-
-            // Calculate total cost basis
-            System.out.println("💼 Calculating cost basis...");
-            BigDecimal totalCostBasis = holdings.stream()
-                    .map(h -> safe(h.getAverageCostBasis()).multiply(safe(h.getQuantity())))
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            System.out.println("✅ Total cost basis: " + totalCostBasis);
-
-            // Calculate unrealized gain
-            System.out.println("📈 Calculating unrealized gain...");
-            BigDecimal totalUnrealizedGain = holdingsValue.subtract(totalCostBasis);
-            System.out.println("✅ Unrealized gain: " + totalUnrealizedGain);
-
-            // Calculate realized gain
-            System.out.println("✔️ Calculating realized gain...");
-            BigDecimal totalRealizedGain = holdings.stream()
-                    .map(h -> safe(h.getRealizedGain()))
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            System.out.println("✅ Realized gain: " + totalRealizedGain);
-
-            // Get cash balance
-            System.out.println("💵 Getting cash balance...");
+            // Calculate totals
+            System.out.println("💰 Calculating totals...");
             BigDecimal cashBalance = safe(account.getAccountBalance());
-            System.out.println("✅ Cash balance: " + cashBalance);
-
-            // Calculate total portfolio value
-            System.out.println("🎯 Calculating total portfolio value...");
-            BigDecimal totalPortfolioValue = holdingsValue.add(cashBalance);
-            System.out.println("✅ Total portfolio value: " + totalPortfolioValue);
-
-            // Calculate total dividends
-            System.out.println("💸 Fetching dividends...");
-            BigDecimal totalDividends = dividendPaymentService.getDividendPaymentsForAccount(accountId).stream()
-                    .map(dto -> safe(dto.getTotalAmount()))
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            System.out.println("✅ Total dividends: " + totalDividends);
+            BigDecimal totalDividends = safe(dividendPaymentRepository.calculateTotalDividendsByAccount(accountId));
+            PortfolioOverviewDTO overview = summarize(account.getUserid(), account.getAccountId(), holdings,
+                    cashBalance, totalDividends);
+            System.out.println("✅ Total portfolio value: " + overview.getTotalPortfolioValue());
 
             System.out.println("=".repeat(70));
             System.out.println("✅ PortfolioOverviewService: Successfully created overview");
             System.out.println("=".repeat(70));
 
-            return new PortfolioOverviewDTO(
-                    account.getUserid(),
-                    account.getAccountId(),
-                    totalPortfolioValue,
-                    holdingsValue,
-                    totalCostBasis,
-                    totalUnrealizedGain,
-                    totalRealizedGain,
-                    totalDividends,
-                    cashBalance,
-                    holdings
-            );
+            return overview;
         } catch (Exception e) {
             System.err.println("=".repeat(70));
             System.err.println("❌ PortfolioOverviewService: ERROR");
@@ -151,52 +104,49 @@ public class PortfolioOverviewServiceImpl implements PortfolioOverviewService {
     @Override
     public PortfolioOverviewDTO getPortfolioOverviewForUser(UUID userId) {
         // Validate user exists
-        User user = userValidationService.validateUserExists(userId);
-
-        BigDecimal totalPortfolioValue = BigDecimal.ZERO;
-        BigDecimal holdingsValue = BigDecimal.ZERO;
-        BigDecimal totalCostBasis = BigDecimal.ZERO;
-        BigDecimal totalUnrealizedGain = BigDecimal.ZERO;
-        BigDecimal totalRealizedGain = BigDecimal.ZERO;
-        BigDecimal totalDividends = BigDecimal.ZERO;
-        BigDecimal cashBalance = BigDecimal.ZERO;
-
-        List<HoldingDTO> allHoldings = new ArrayList<>();
-
-        // Aggregate across all accounts
-        for (Account account : user.getAccounts()) {
-            PortfolioOverviewDTO accountOverview = getPortfolioOverviewForAccount(account.getAccountId());
-
-            totalPortfolioValue = totalPortfolioValue.add(accountOverview.getTotalPortfolioValue());
-            holdingsValue = holdingsValue.add(accountOverview.getHoldingsValue());
-            totalCostBasis = totalCostBasis.add(accountOverview.getTotalCostBasis());
-            totalUnrealizedGain = totalUnrealizedGain.add(accountOverview.getTotalUnrealizedGain());
-            totalRealizedGain = totalRealizedGain.add(accountOverview.getTotalRealizedGain());
-            totalDividends = totalDividends.add(accountOverview.getTotalDividends());
-            cashBalance = cashBalance.add(accountOverview.getCashBalance());
-
-            // Combine holdings
-            if (accountOverview.getHoldings() != null) {
-                allHoldings.addAll(accountOverview.getHoldings());
-            }
-        }
+        userValidationService.validateUserExists(userId);
+
+        // Holdings of every account, priced through the resolver and the live price table
+        List<HoldingDTO> allHoldings = holdingService.getHoldingsForUser(userId);
+
+        // Cash and paid dividends across all accounts in one grouped query
+        AccountTotals totals = AccountTotals.sum(accountRepository.findTotalsByUserId(userId));
+
+        return summarize(userId, null, allHoldings, totals.cashBalance(), totals.dividends());
+    }
+
+
+    // Helper functions
+
+    // Overview of priced holdings plus cash, shared by the account, user and dashboard paths so they agree
+    public static PortfolioOverviewDTO summarize(UUID userId, UUID accountId, List<HoldingDTO> holdings,
+                                                 BigDecimal cashBalance, BigDecimal totalDividends) {
+        BigDecimal holdingsValue = holdings.stream()
+                .map(h -> safe(h.getCurrentPrice()).multiply(safe(h.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalCostBasis = holdings.stream()
+                .map(h -> safe(h.getAverageCostBasis()).multiply(safe(h.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalRealizedGain = holdings.stream()
+                .map(h -> safe(h.getRealizedGain()))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
 
         return new PortfolioOverviewDTO(
                 userId,
-                null,
-                totalPortfolioValue,
+                accountId,
+                holdingsValue.add(cashBalance),
                 holdingsValue,
                 totalCostBasis,
-                totalUnrealizedGain,
+                holdingsValue.subtract(totalCostBasis),
                 totalRealizedGain,
                 totalDividends,
                 cashBalance,
-                allHoldings
+                holdings
         );
     }
 
     // Helper to safely return BigDecimal or ZERO if null
-    private BigDecimal safe(BigDecimal value) {
+    private static BigDecimal safe(BigDecimal value) {
         return value != null ? value : BigDecimal.ZERO;
     }
 }
\ No newline at end of file
@@ -3,28 +3,30 @@ package com.joelcode.personalinvestmentportfoliotracker.services.portfolio.perfo
 import com.joelcode.personalinvestmentportfoliotracker.controllers.WebSocketController;
 import com.joelcode.personalinvestmentportfoliotracker.dto.dividendpayment.DividendPaymentDTO;
 import com.joelcode.personalinvestmentportfoliotracker.dto.holding.HoldingDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.holding.HoldingView;
 import com.joelcode.personalinvestmentportfoliotracker.entities.Account;
-import com.joelcode.personalinvestmentportfoliotracker.entities.Holding;
 import com.joelcode.personalinvestmentportfoliotracker.entities.PortfolioSnapshot;
-import com.joelcode.personalinvestmentportfoliotracker.entities.User;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.AccountRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.DividendPaymentRepository;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.HoldingRepository;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.PortfolioSnapshotRepository;
 import com.joelcode.personalinvestmentportfoliotracker.services.account.AccountService;
 import com.joelcode.personalinvestmentportfoliotracker.services.account.AccountValidationService;
-import com.joelcode.personalinvestmentportfoliotracker.services.dividendpayment.DividendPaymentService;
 import com.joelcode.personalinvestmentportfoliotracker.services.holding.HoldingService;
+import com.joelcode.personalinvestmentportfoliotracker.services.marketdata.PriceResolver;
+import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.AccountTotals;
 import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.PortfolioPerformanceDTO;
 import com.joelcode.personalinvestmentportfoliotracker.services.user.UserValidationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.websocket.PortfolioUpdatePublisher;
 import jakarta.transaction.Transactional;
 import org.springframework.context.annotation.Profile;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -38,10 +40,11 @@ public class PortfolioPerformanceServiceImpl implements PortfolioPerformanceServ
     private final AccountRepository accountRepository;
     private final HoldingRepository holdingRepository;
     private final AccountValidationService accountValidationService;
-    private final DividendPaymentService dividendPaymentService;
+    private final DividendPaymentRepository dividendPaymentRepository;
     private final UserValidationService userValidationService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final PortfolioUpdatePublisher portfolioUpdatePublisher;
     private final WebSocketController webSocketController;
+    private final PriceResolver priceResolver;
 
 
     // Constructor
@@ -49,20 +52,22 @@ public class PortfolioPerformanceServiceImpl implements PortfolioPerformanceServ
                                             PortfolioSnapshotRepository snapshotRepository,
                                             AccountRepository accountRepository, HoldingRepository holdingRepository,
                                             AccountValidationService accountValidationService,
-                                            DividendPaymentService dividendPaymentService,
+                                            DividendPaymentRepository dividendPaymentRepository,
                                             UserValidationService userValidationService,
-                                            SimpMessagingTemplate messagingTemplate,
-                                            WebSocketController webSocketController) {
+                                            PortfolioUpdatePublisher portfolioUpdatePublisher,
+                                            WebSocketController webSocketController,
+                                            PriceResolver priceResolver) {
         this.accountService = accountService;
         this.holdingService = holdingService;
         this.snapshotRepository = snapshotRepository;
         this.accountRepository = accountRepository;
         this.holdingRepository = holdingRepository;
         this.accountValidationService = accountValidationService;
-        this.dividendPaymentService = dividendPaymentService;
+        this.dividendPaymentRepository = dividendPaymentRepository;
         this.userValidationService = userValidationService;
-        this.messagingTemplate = messagingTemplate;
+        this.portfolioUpdatePublisher = portfolioUpdatePublisher;
         this.webSocketController = webSocketController;
+        this.priceResolver = priceResolver;
     }
 
 
@@ -75,20 +80,25 @@ public class PortfolioPerformanceServiceImpl implements PortfolioPerformanceServ
         // Find account and retrieve holdings
         Account account = accountRepository.findByAccountId(accountId)
                 .orElseThrow(() -> new IllegalArgumentException("Account not found"));
-        List<Holding> holdings = holdingRepository.findByAccount_AccountId(accountId);
+        List<HoldingView> holdings = holdingRepository.findViewsByAccountId(accountId);
+
+        // Resolve all holding prices in one batch
+        Map<UUID, BigDecimal> prices = priceResolver.resolvePrices(holdings.stream()
+                .map(HoldingView::stockId)
+                .toList());
 
         // Calculate holdings value (current market value of all positions)
         BigDecimal holdingsValue = BigDecimal.ZERO;
-        for (Holding h : holdings) {
-            BigDecimal currentPrice = safe(h.getStock().getStockValue());
-            BigDecimal quantity = safe(h.getQuantity());
+        for (HoldingView h : holdings) {
+            BigDecimal currentPrice = safe(prices.get(h.stockId()));
+            BigDecimal quantity = safe(h.quantity());
             holdingsValue = holdingsValue.add(currentPrice.multiply(quantity));
         }
 
         // Calculate total cost basis (total amount invested)
         BigDecimal totalCostBasis = BigDecimal.ZERO;
-        for (Holding h : holdings) {
-            totalCostBasis = totalCostBasis.add(safe(h.getTotalCostBasis()));
+        for (HoldingView h : holdings) {
+            totalCostBasis = totalCostBasis.add(safe(h.totalCostBasis()));
         }
 
         // Calculate unrealized gain (current value - cost basis)
@@ -96,14 +106,12 @@ public class PortfolioPerformanceServiceImpl implements PortfolioPerformanceServ
 
         // Calculate realized gain (from closed positions)
         BigDecimal totalRealizedGain = BigDecimal.ZERO;
-        for (Holding h : holdings) {
-            totalRealizedGain = totalRealizedGain.add(safe(h.getRealizedGain()));
+        for (HoldingView h : holdings) {
+            totalRealizedGain = totalRealizedGain.add(safe(h.realizedGain()));
         }
 
-        // Get total dividends using totalAmount
-        BigDecimal totalDividends = dividendPaymentService.getDividendPaymentsForAccount(accountId).stream()
-                .map(dto -> safe(dto.getTotalAmount()))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Paid dividends only, as every other portfolio total counts them
+        BigDecimal totalDividends = safe(dividendPaymentRepository.calculateTotalDividendsByAccount(accountId));
 
         // Get cash balance
         BigDecimal cashBalance = safe(account.getAccountBalance());
@@ -166,7 +174,7 @@ public class PortfolioPerformanceServiceImpl implements PortfolioPerformanceServ
                 LocalDateTime.now()
         );
 
-        messagingTemplate.convertAndSend(
+        portfolioUpdatePublisher.publish(
                 "/topic/portfolio/" + accountId,
                 updateMessage
         );
@@ -201,6 +209,45 @@ public class PortfolioPerformanceServiceImpl implements PortfolioPerformanceServ
             );
         }
 
+        // Paid dividends only, as every other portfolio total counts them
+        BigDecimal totalDividends = BigDecimal.ZERO;
+        try {
+            totalDividends = safe(dividendPaymentRepository.calculateTotalDividendsByAccount(accountId));
+        } catch (Exception e) {
+            // If dividend calculation fails, continue with zero
+            totalDividends = BigDecimal.ZERO;
+        }
+
+        // Daily and monthly gain placeholders (implement if needed)
+        return summarize(account.getUserid(), account.getAccountId(), holdings, cashBalance, totalDividends,
+                BigDecimal.ZERO, BigDecimal.ZERO);
+    }
+
+    // Get performance on the user level
+    @Override
+    public PortfolioPerformanceDTO getPerformanceForUser(UUID userId) {
+        // Validate user exists
+        userValidationService.validateUserExists(userId);
+
+        // Holdings of every account, priced the same way as the per-account performance and the overview
+        List<HoldingDTO> holdings = holdingService.getHoldingsForUser(userId);
+
+        // Cash and paid dividends across all accounts in one grouped query
+        AccountTotals totals = AccountTotals.sum(accountRepository.findTotalsByUserId(userId));
+
+        // Daily and monthly gain placeholders (implement if needed)
+        return summarize(userId, null, holdings, totals.cashBalance(), totals.dividends(),
+                BigDecimal.ZERO, BigDecimal.ZERO);
+    }
+
+
+    // Helper functions
+
+    // Performance of priced holdings plus cash, shared by the account, user and dashboard paths so they agree.
+    // Without an account id the result is user-level
+    public static PortfolioPerformanceDTO summarize(UUID userId, UUID accountId, List<HoldingDTO> holdings,
+                                                    BigDecimal cashBalance, BigDecimal totalDividends,
+                                                    BigDecimal dailyGain, BigDecimal monthlyGain) {
         // Calculate holdings value (current market value of all positions)
         BigDecimal holdingsValue = holdings.stream()
                 .map(h -> safe(h.getCurrentPrice()).multiply(safe(h.getQuantity())))
@@ -219,77 +266,9 @@ public class PortfolioPerformanceServiceImpl implements PortfolioPerformanceServ
                 .map(h -> safe(h.getRealizedGain()))
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
-        // Get total dividends using totalAmount
-        BigDecimal totalDividends = BigDecimal.ZERO;
-        try {
-            totalDividends = dividendPaymentService.getDividendPaymentsForAccount(accountId).stream()
-                    .map(dto -> safe(dto.getTotalAmount()))
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-        } catch (Exception e) {
-            // If dividend calculation fails, continue with zero
-            totalDividends = BigDecimal.ZERO;
-        }
-
         // Calculate total portfolio value (holdings + cash)
         BigDecimal totalPortfolioValue = holdingsValue.add(cashBalance);
 
-        // Calculate ROI: (Total Return / Cost Basis) × 100
-        // Total Return = Unrealized Gain + Realized Gain + Dividends
-        BigDecimal totalReturn = totalUnrealizedGain.add(totalRealizedGain).add(totalDividends);
-        BigDecimal roiPercentage;
-
-        // EDGE CASE: Division by zero
-        if (totalCostBasis.compareTo(BigDecimal.ZERO) == 0) {
-            roiPercentage = BigDecimal.ZERO;
-        } else {
-            roiPercentage = totalReturn
-                    .multiply(BigDecimal.valueOf(100))
-                    .divide(totalCostBasis, 2, RoundingMode.HALF_UP);
-        }
-
-        // Daily and monthly gain placeholders (implement if needed)
-        BigDecimal dailyGain = BigDecimal.ZERO;
-        BigDecimal monthlyGain = BigDecimal.ZERO;
-
-        return new PortfolioPerformanceDTO(
-                account.getUserid(),
-                account.getAccountId(),
-                totalPortfolioValue,
-                totalCostBasis,
-                totalRealizedGain,
-                totalUnrealizedGain,
-                totalDividends,
-                cashBalance,
-                roiPercentage,
-                dailyGain,
-                monthlyGain
-        );
-    }
-
-    // Get performance on the user level
-    @Override
-    public PortfolioPerformanceDTO getPerformanceForUser(UUID userId) {
-        // Validate user exists
-        User user = userValidationService.validateUserExists(userId);
-
-        BigDecimal totalPortfolioValue = BigDecimal.ZERO;
-        BigDecimal totalCostBasis = BigDecimal.ZERO;
-        BigDecimal totalRealizedGain = BigDecimal.ZERO;
-        BigDecimal totalUnrealizedGain = BigDecimal.ZERO;
-        BigDecimal totalDividends = BigDecimal.ZERO;
-        BigDecimal cashBalance = BigDecimal.ZERO;
-
-        // Aggregate performance across all accounts
-        for (Account account : user.getAccounts()) {
-            PortfolioPerformanceDTO accountPerf = getPerformanceForAccount(account.getAccountId());
-            totalPortfolioValue = totalPortfolioValue.add(accountPerf.getTotalPortfolioValue());
-            totalCostBasis = totalCostBasis.add(accountPerf.getTotalCostBasis());
-            totalRealizedGain = totalRealizedGain.add(accountPerf.getTotalRealizedGain());
-            totalUnrealizedGain = totalUnrealizedGain.add(accountPerf.getTotalUnrealizedGain());
-            totalDividends = totalDividends.add(accountPerf.getTotalDividends());
-            cashBalance = cashBalance.add(accountPerf.getCashBalance());
-        }
-
         // Calculate ROI: (Total Return / Cost Basis) × 100
         // Total Return = Unrealized Gain + Realized Gain + Dividends
         BigDecimal totalReturn = totalUnrealizedGain.add(totalRealizedGain).add(totalDividends);
@@ -297,22 +276,13 @@ public class PortfolioPerformanceServiceImpl implements PortfolioPerformanceServ
                 ? totalReturn.multiply(BigDecimal.valueOf(100)).divide(totalCostBasis, 2, RoundingMode.HALF_UP)
                 : BigDecimal.ZERO;
 
-        // Daily and monthly gain placeholders (implement if needed)
-        BigDecimal dailyGain = BigDecimal.ZERO;
-        BigDecimal monthlyGain = BigDecimal.ZERO;
-
-        return new PortfolioPerformanceDTO(
-                userId,
-                totalPortfolioValue,
-                totalCostBasis,
-                totalRealizedGain,
-                totalUnrealizedGain,
-                totalDividends,
-                cashBalance,
-                roiPercentage,
-                dailyGain,
-                monthlyGain
-        );
+        if (accountId == null) {
+            return new PortfolioPerformanceDTO(userId, totalPortfolioValue, totalCostBasis, totalRealizedGain,
+                    totalUnrealizedGain, totalDividends, cashBalance, roiPercentage, dailyGain, monthlyGain);
+        }
+        return new PortfolioPerformanceDTO(userId, accountId, totalPortfolioValue, totalCostBasis,
+                totalRealizedGain, totalUnrealizedGain, totalDividends, cashBalance, roiPercentage,
+                dailyGain, monthlyGain);
     }
 
     // Normalizing Big Decimal values for clean calculation
@@ -329,7 +299,7 @@ public class PortfolioPerformanceServiceImpl implements PortfolioPerformanceServ
     }
 
     // Helper to safely return BigDecimal or ZERO if null
-    private BigDecimal safe(BigDecimal value) {
+    private static BigDecimal safe(BigDecimal value) {
         return value != null ? value : BigDecimal.ZERO;
     }
 }
\ No newline at end of file
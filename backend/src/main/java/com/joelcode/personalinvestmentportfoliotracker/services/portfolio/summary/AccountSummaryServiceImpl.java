@@ -1,22 +1,23 @@
 package com.joelcode.personalinvestmentportfoliotracker.services.portfolio.summary;
 
+import com.joelcode.personalinvestmentportfoliotracker.dto.holding.HoldingView;
+import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.AccountTotals;
 import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.HoldingSummaryDTO;
 import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.AccountSummaryDTO;
-import com.joelcode.personalinvestmentportfoliotracker.entities.Account;
-import com.joelcode.personalinvestmentportfoliotracker.entities.Holding;
-import com.joelcode.personalinvestmentportfoliotracker.entities.User;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.AccountRepository;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.HoldingRepository;
-import com.joelcode.personalinvestmentportfoliotracker.services.dividendpayment.DividendPaymentService;
-import com.joelcode.personalinvestmentportfoliotracker.services.stock.StockService;
 import com.joelcode.personalinvestmentportfoliotracker.services.user.UserValidationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.AccountValuation;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.AccountValuationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.Money;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -25,118 +26,118 @@ import java.util.stream.Collectors;
 public class AccountSummaryServiceImpl implements AccountSummaryService{
 
     // Define key fields
+    private final AccountValuationService accountValuationService;
+    private final UserValidationService userValidationService;
     private final AccountRepository accountRepository;
     private final HoldingRepository holdingRepository;
-    private final StockService stockService;
-    private final DividendPaymentService dividendPaymentService;
-    private final UserValidationService userValidationService;
 
 
     // Constructor
-    public AccountSummaryServiceImpl (AccountRepository accountRepository, HoldingRepository holdingRepository,
-                                      StockService stockService, DividendPaymentService dividendPaymentService,
-                                      UserValidationService userValidationService) {
+    public AccountSummaryServiceImpl (AccountValuationService accountValuationService,
+                                      UserValidationService userValidationService,
+                                      AccountRepository accountRepository,
+                                      HoldingRepository holdingRepository) {
+        this.accountValuationService = accountValuationService;
+        this.userValidationService = userValidationService;
         this.accountRepository = accountRepository;
         this.holdingRepository = holdingRepository;
-        this.stockService = stockService;
-        this.dividendPaymentService = dividendPaymentService;
-        this.userValidationService = userValidationService;
     }
 
 
     // Interface functions
 
-    // Get account summary by Id
+    // Get account summary by Id from the cached valuation and current prices
     public AccountSummaryDTO getAccountSummary(UUID accountId) {
-        Account account = accountRepository.findByAccountId(accountId)
-                .orElseThrow(() -> new IllegalArgumentException("Account not found"));
+        AccountValuation valuation = accountValuationService.getValuation(accountId);
+        Map<UUID, BigDecimal> prices = accountValuationService.currentPrices(valuation);
 
-        List<Holding> holdings = holdingRepository.findByAccount_AccountId(accountId);
+        // Total cost basis, dividends and cash are kept up to date by the valuation
+        return summarize(accountId, valuation.getPositions().values(), prices, valuation.getTotalCostBasis(),
+                valuation.getDividendTotal(), valuation.getCashBalance());
+    }
 
-        // Calculate holdings value (current market value of all positions)
-        BigDecimal holdingsValue = BigDecimal.ZERO;
+    // Get all summaries for a user from one grouped totals query and one holdings query
+    public List<AccountSummaryDTO> getAccountSummariesForUser(UUID userId) {
+        // Validate user exists
+        userValidationService.validateUserExists(userId);
+
+        List<AccountTotals> totals = accountRepository.findTotalsByUserId(userId);
+        Map<UUID, List<AccountValuation.Position>> positions = holdingRepository.findViewsByUserId(userId).stream()
+                .collect(Collectors.groupingBy(HoldingView::accountId,
+                        Collectors.mapping(AccountValuation.Position::from, Collectors.toList())));
+
+        // Price every stock held by the user in one batch
+        Map<UUID, BigDecimal> prices = accountValuationService.currentPricesOf(positions.values().stream()
+                .flatMap(List::stream)
+                .map(AccountValuation.Position::stockId)
+                .collect(Collectors.toSet()));
+
+        // Cost basis from the same positions as the holding lines, as the per-account summary does
+        return totals.stream()
+                .map(account -> {
+                    List<AccountValuation.Position> accountPositions = positions.getOrDefault(account.accountId(), List.of());
+                    return summarize(account.accountId(), accountPositions, prices, costBasisOf(accountPositions),
+                            Money.of(account.dividends()), Money.of(account.cashBalance()));
+                })
+                .collect(Collectors.toList());
+    }
 
-        // Calculate total cost basis (total amount invested)
-        BigDecimal totalCostBasis = BigDecimal.ZERO;
 
-        List<HoldingSummaryDTO> holdingSummaries = new ArrayList<>();
+    // Helper functions
 
-        for (Holding h : holdings) {
-            BigDecimal currentPrice = stockService.getCurrentPrice(h.getStock().getStockId());
-            BigDecimal quantity = safe(h.getQuantity());
-            BigDecimal averageCostBasis = safe(h.getAverageCostBasis());
+    private AccountSummaryDTO summarize(UUID accountId, Collection<AccountValuation.Position> positions,
+                                        Map<UUID, BigDecimal> prices, Money totalCostBasis, Money dividends,
+                                        Money cashBalance) {
+        // Calculate holdings value (current market value of all positions)
+        Money holdingsValue = Money.ZERO;
 
-            // Market value for this holding
-            BigDecimal marketValue = currentPrice.multiply(quantity);
+        List<HoldingSummaryDTO> holdingSummaries = new ArrayList<>();
 
-            // Cost basis for this holding
-            BigDecimal costBasis = averageCostBasis.multiply(quantity);
+        for (AccountValuation.Position position : positions) {
+            BigDecimal currentPrice = safe(prices.get(position.stockId()));
 
-            // Unrealized gain for this holding
-            BigDecimal unrealizedGain = marketValue.subtract(costBasis);
+            // Market value for this holding
+            Money marketValue = position.marketValue(currentPrice);
 
             // Add to totals
-            holdingsValue = holdingsValue.add(marketValue);
-            totalCostBasis = totalCostBasis.add(costBasis);
+            holdingsValue = holdingsValue.plus(marketValue);
 
+            // Convert to BigDecimal only for the DTO
             HoldingSummaryDTO dto = new HoldingSummaryDTO();
-            dto.setStockId(h.getStock().getStockId());
-            dto.setStockCode(h.getStock().getStockCode());
-            dto.setQuantity(quantity);
-            dto.setAverageCost(averageCostBasis);
+            dto.setStockId(position.stockId());
+            dto.setStockCode(position.stockCode());
+            dto.setQuantity(position.quantity().toBigDecimal());
+            dto.setAverageCost(position.averageCost().toBigDecimal());
             dto.setMarketPrice(currentPrice);
-            dto.setMarketValue(marketValue);
-            dto.setUnrealizedGain(unrealizedGain);
+            dto.setMarketValue(marketValue.toCents());
+            dto.setUnrealizedGain(marketValue.minus(position.costBasis()).toCents());
 
             holdingSummaries.add(dto);
         }
 
         // Calculate total unrealized gain (holdings value - cost basis)
-        BigDecimal totalUnrealizedGain = holdingsValue.subtract(totalCostBasis);
-
-        // Get total dividends using totalAmount
-        BigDecimal totalDividends = dividendPaymentService.getDividendPaymentsForAccount(accountId).stream()
-                .map(dto -> safe(dto.getTotalAmount()))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Get cash balance
-        BigDecimal cashBalance = safe(account.getAccountBalance());
-
-        // Calculate total portfolio value (holdings + cash)
-        BigDecimal totalPortfolioValue = holdingsValue.add(cashBalance);
-
-        // Calculate ROI: (Total Return / Cost Basis) × 100
-        // For summary, Total Return = Unrealized Gain + Dividends
-        BigDecimal totalReturn = totalUnrealizedGain.add(totalDividends);
-        BigDecimal roiPercentage = BigDecimal.ZERO;
-        if (totalCostBasis.compareTo(BigDecimal.ZERO) > 0) {
-            roiPercentage = totalReturn
-                    .multiply(BigDecimal.valueOf(100))
-                    .divide(totalCostBasis, 2, RoundingMode.HALF_UP);
-        }
+        Money totalUnrealizedGain = holdingsValue.minus(totalCostBasis);
 
         // Build summary
         AccountSummaryDTO summary = new AccountSummaryDTO();
         summary.setAccountId(accountId);
-        summary.setTotalCostBasis(totalCostBasis);
-        summary.setTotalMarketValue(holdingsValue);
-        summary.setTotalUnrealizedGain(totalUnrealizedGain);
-        summary.setTotalDividends(totalDividends);
-        summary.setTotalCashBalance(cashBalance);
+        summary.setTotalCostBasis(totalCostBasis.toCents());
+        summary.setTotalMarketValue(holdingsValue.toCents());
+        summary.setTotalUnrealizedGain(totalUnrealizedGain.toCents());
+        summary.setTotalDividends(dividends.toCents());
+        summary.setTotalCashBalance(cashBalance.toCents());
         summary.setHoldings(holdingSummaries);
 
         return summary;
     }
 
-    // Get all summaries for a user
-    public List<AccountSummaryDTO> getAccountSummariesForUser(UUID userId) {
-        // Validate user exists
-        User user = userValidationService.validateUserExists(userId);
-
-        // Stream through each account and get its summary
-        return user.getAccounts().stream()
-                .map(account -> getAccountSummary(account.getAccountId()))
-                .collect(Collectors.toList());
+    // Sum of position cost bases, the same total the valuation keeps for an account
+    private Money costBasisOf(Collection<AccountValuation.Position> positions) {
+        Money costBasis = Money.ZERO;
+        for (AccountValuation.Position position : positions) {
+            costBasis = costBasis.plus(position.costBasis());
+        }
+        return costBasis;
     }
 
     // Helper to safely return BigDecimal or ZERO if null
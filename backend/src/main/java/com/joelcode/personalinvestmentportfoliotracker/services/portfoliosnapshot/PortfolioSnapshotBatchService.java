@@ -0,0 +1,11 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.portfoliosnapshot;
+
+import com.joelcode.personalinvestmentportfoliotracker.dto.portfoliosnapshot.SnapshotBatchResult;
+
+import java.time.LocalDate;
+
+public interface PortfolioSnapshotBatchService {
+
+    // Create the snapshot for the given date for every account that does not have one yet
+    SnapshotBatchResult createSnapshotsForAllAccounts(LocalDate snapshotDate);
+}
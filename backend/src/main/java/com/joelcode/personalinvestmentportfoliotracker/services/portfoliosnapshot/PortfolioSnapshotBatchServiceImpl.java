@@ -0,0 +1,302 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.portfoliosnapshot;
+
+import com.joelcode.personalinvestmentportfoliotracker.dto.portfoliosnapshot.SnapshotBatchResult;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Holding;
+import com.joelcode.personalinvestmentportfoliotracker.entities.PortfolioSnapshot;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.AccountRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.HoldingRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.PortfolioSnapshotRepository;
+import com.joelcode.personalinvestmentportfoliotracker.services.holding.HoldingCalculationServiceImpl;
+import com.joelcode.personalinvestmentportfoliotracker.services.marketdata.PriceResolver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Batch snapshot job for all accounts
+ *
+ * Pages through account ids in key order and snapshots each page (chunk) in its own transaction
+ * on a bounded pool, so only a few chunks are ever in memory. Prices are resolved once per run
+ * for every held stock. Accounts that already have a snapshot for the date are skipped, so a run
+ * that stops part way can simply be started again.
+ */
+@Service
+@Profile("!test")
+public class PortfolioSnapshotBatchServiceImpl implements PortfolioSnapshotBatchService {
+
+    // Define key fields
+    private final AccountRepository accountRepository;
+    private final HoldingRepository holdingRepository;
+    private final PortfolioSnapshotRepository snapshotRepository;
+    private final PriceResolver priceResolver;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxConcurrency;
+
+    private final Counter createdCounter;
+    private final Counter skippedCounter;
+    private final Counter failedCounter;
+    private final Timer runTimer;
+    private final AtomicInteger progress = new AtomicInteger();
+    private final AtomicLong throughputMilli = new AtomicLong();
+
+
+    // Constructor
+    public PortfolioSnapshotBatchServiceImpl(AccountRepository accountRepository,
+                                             HoldingRepository holdingRepository,
+                                             PortfolioSnapshotRepository snapshotRepository,
+                                             PriceResolver priceResolver,
+                                             PlatformTransactionManager transactionManager,
+                                             MeterRegistry meterRegistry,
+                                             @Value("${snapshot.batch.chunk-size:200}") int chunkSize,
+                                             @Value("${snapshot.batch.max-concurrency:4}") int maxConcurrency) {
+        this.accountRepository = accountRepository;
+        this.holdingRepository = holdingRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.priceResolver = priceResolver;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxConcurrency = maxConcurrency;
+
+        this.createdCounter = accountCounter(meterRegistry, "created");
+        this.skippedCounter = accountCounter(meterRegistry, "skipped");
+        this.failedCounter = accountCounter(meterRegistry, "failed");
+        this.runTimer = Timer.builder("portfolio.snapshot.batch.duration")
+                .description("Time taken by a full snapshot run")
+                .register(meterRegistry);
+        Gauge.builder("portfolio.snapshot.batch.progress", progress, AtomicInteger::get)
+                .description("Accounts processed so far in the current or last run")
+                .register(meterRegistry);
+        Gauge.builder("portfolio.snapshot.batch.throughput", throughputMilli, t -> t.get() / 1000.0)
+                .description("Accounts per second in the last run")
+                .register(meterRegistry);
+    }
+
+
+    // Interface functions
+
+    @Override
+    public SnapshotBatchResult createSnapshotsForAllAccounts(LocalDate snapshotDate) {
+        long start = System.nanoTime();
+        progress.set(0);
+        Tally tally = new Tally();
+
+        // Resolve every held price once for the whole run
+        Map<UUID, BigDecimal> prices = resolveHeldPrices();
+
+        ExecutorService executor = Executors.newFixedThreadPool(maxConcurrency, runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-batch");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // One permit per chunk in flight, so memory and connections stay bounded
+        Semaphore inFlight = new Semaphore(maxConcurrency);
+        try {
+            UUID after = null;
+            while (true) {
+                PageRequest page = PageRequest.of(0, chunkSize);
+                List<UUID> accountIds = after == null
+                        ? accountRepository.findAccountIds(page)
+                        : accountRepository.findAccountIdsAfter(after, page);
+                if (accountIds.isEmpty()) {
+                    break;
+                }
+                after = accountIds.get(accountIds.size() - 1);
+
+                inFlight.acquire();
+                executor.execute(() -> {
+                    try {
+                        processChunk(accountIds, snapshotDate, prices, tally);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+
+                if (accountIds.size() < chunkSize) {
+                    break;
+                }
+            }
+
+            // Wait for the remaining chunks to finish
+            inFlight.acquire(maxConcurrency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdown();
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        runTimer.record(elapsed);
+        SnapshotBatchResult result = new SnapshotBatchResult(snapshotDate, tally.created.get(),
+                tally.skipped.get(), tally.failed.get(), elapsed);
+        throughputMilli.set(Math.round(result.getThroughput() * 1000));
+        return result;
+    }
+
+
+    // Helper functions
+
+    private Map<UUID, BigDecimal> resolveHeldPrices() {
+        List<UUID> stockIds = holdingRepository.findDistinctHeldStocks().stream()
+                .map(Stock::getStockId)
+                .toList();
+        return priceResolver.resolvePrices(stockIds);
+    }
+
+    // Snapshot one chunk in a single transaction, retrying account by account if the chunk fails
+    private void processChunk(List<UUID> accountIds, LocalDate snapshotDate, Map<UUID, BigDecimal> prices, Tally tally) {
+        try {
+            ChunkOutcome outcome = transactionTemplate.execute(status -> snapshotChunk(accountIds, snapshotDate, prices));
+            tally.record(outcome);
+        } catch (Exception chunkFailure) {
+            for (UUID accountId : accountIds) {
+                try {
+                    ChunkOutcome outcome = transactionTemplate.execute(status -> snapshotChunk(List.of(accountId), snapshotDate, prices));
+                    tally.record(outcome);
+                } catch (Exception e) {
+                    tally.failed.incrementAndGet();
+                    failedCounter.increment();
+                    progress.incrementAndGet();
+                    System.err.println("Failed to create snapshot for account " + accountId + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private ChunkOutcome snapshotChunk(List<UUID> accountIds, LocalDate snapshotDate, Map<UUID, BigDecimal> prices) {
+        // Skip accounts already done, which is what makes a run restartable
+        Set<UUID> done = new HashSet<>(snapshotRepository.findAccountIdsWithSnapshotOn(accountIds, snapshotDate));
+        List<UUID> pending = accountIds.stream().filter(id -> !done.contains(id)).toList();
+        if (pending.isEmpty()) {
+            return new ChunkOutcome(0, done.size());
+        }
+
+        List<Holding> holdings = holdingRepository.findByAccountIdsWithStock(pending);
+        Map<UUID, List<Holding>> holdingsByAccount = holdings.stream()
+                .collect(Collectors.groupingBy(h -> h.getAccount().getAccountId()));
+        Map<UUID, BigDecimal> chunkPrices = withMissingPrices(holdings, prices);
+        Map<UUID, BigDecimal> previousValues = snapshotRepository.findLatestBeforeForAccounts(pending, snapshotDate).stream()
+                .collect(Collectors.toMap(ps -> ps.getAccount().getAccountId(), PortfolioSnapshot::getTotalValue, (a, b) -> a));
+
+        List<PortfolioSnapshot> snapshots = new ArrayList<>(pending.size());
+        for (UUID accountId : pending) {
+            PortfolioSnapshot snapshot = buildSnapshot(holdingsByAccount.getOrDefault(accountId, List.of()),
+                    chunkPrices, previousValues.get(accountId));
+            snapshot.setAccount(accountRepository.getReferenceById(accountId));
+            snapshot.setSnapshotDate(snapshotDate);
+            snapshots.add(snapshot);
+        }
+
+        // Inserted in JDBC batches (hibernate.jdbc.batch_size)
+        snapshotRepository.saveAll(snapshots);
+        return new ChunkOutcome(snapshots.size(), done.size());
+    }
+
+    // EDGE CASE: Stock bought after the run started, resolve it like the per-account path would
+    private Map<UUID, BigDecimal> withMissingPrices(List<Holding> holdings, Map<UUID, BigDecimal> prices) {
+        List<UUID> missing = holdings.stream()
+                .map(h -> h.getStock().getStockId())
+                .filter(id -> !prices.containsKey(id))
+                .distinct()
+                .toList();
+        if (missing.isEmpty()) {
+            return prices;
+        }
+        Map<UUID, BigDecimal> merged = new HashMap<>(prices);
+        merged.putAll(priceResolver.resolvePrices(missing));
+        return merged;
+    }
+
+    // Same totals, rounding and price guards as the per-account snapshot (HoldingCalculationServiceImpl)
+    private PortfolioSnapshot buildSnapshot(List<Holding> holdings, Map<UUID, BigDecimal> prices, BigDecimal previousValue) {
+        BigDecimal totalValue = HoldingCalculationServiceImpl.totalValue(holdings, prices);
+        BigDecimal unrealizedGain = HoldingCalculationServiceImpl.totalUnrealizedGain(holdings, prices);
+        BigDecimal realizedGain = HoldingCalculationServiceImpl.totalRealizedGain(holdings);
+        BigDecimal totalGain = unrealizedGain.add(realizedGain);
+        BigDecimal totalCostBasis = holdings.stream()
+                .map(Holding::getTotalCostBasis)
+                .filter(Objects::nonNull)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        // Day change against the most recent earlier snapshot
+        BigDecimal dayChange = BigDecimal.ZERO;
+        BigDecimal dayChangePercent = BigDecimal.ZERO;
+        if (previousValue != null) {
+            dayChange = totalValue.subtract(previousValue);
+            if (previousValue.compareTo(BigDecimal.ZERO) > 0) {
+                dayChangePercent = dayChange
+                        .divide(previousValue, 4, RoundingMode.HALF_UP)
+                        .multiply(BigDecimal.valueOf(100));
+            }
+        }
+
+        PortfolioSnapshot snapshot = new PortfolioSnapshot();
+        snapshot.setTotalValue(totalValue);
+        snapshot.setCashBalance(BigDecimal.ZERO);
+        snapshot.setTotalCostBasis(totalCostBasis);
+        snapshot.setTotalGain(totalGain);
+        snapshot.setUnrealizedGain(unrealizedGain);
+        snapshot.setRealizedGain(realizedGain);
+        snapshot.setDayChange(dayChange);
+        snapshot.setDayChangePercent(dayChangePercent);
+        if (totalCostBasis.compareTo(BigDecimal.ZERO) > 0) {
+            snapshot.setRoiPercentage(totalGain
+                    .divide(totalCostBasis, 4, RoundingMode.HALF_UP)
+                    .multiply(BigDecimal.valueOf(100)));
+        }
+        return snapshot;
+    }
+
+    private static Counter accountCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("portfolio.snapshot.batch.accounts")
+                .description("Accounts handled by the snapshot job by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    // Created and skipped counts for one committed chunk
+    private record ChunkOutcome(int created, int skipped) {}
+
+    // Running totals for one run
+    private class Tally {
+        final AtomicInteger created = new AtomicInteger();
+        final AtomicInteger skipped = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+
+        void record(ChunkOutcome outcome) {
+            created.addAndGet(outcome.created());
+            skipped.addAndGet(outcome.skipped());
+            createdCounter.increment(outcome.created());
+            skippedCounter.increment(outcome.skipped());
+            progress.addAndGet(outcome.created() + outcome.skipped());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.pricealert;
+
+import com.joelcode.personalinvestmentportfoliotracker.entities.PriceAlert;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Untriggered price alert as held in the in-memory index
+ *
+ * Carries only what evaluation and notification need, so the index does not keep entities or
+ * lazy associations alive. Loaded with a single projection query when the index is rebuilt.
+ */
+public record ActiveAlert(UUID alertId,
+                          UUID userId,
+                          String username,
+                          UUID stockId,
+                          String stockCode,
+                          String type,
+                          BigDecimal targetPrice) {
+
+    public static final String ABOVE = "ABOVE";
+    public static final String BELOW = "BELOW";
+
+    public static ActiveAlert of(PriceAlert alert) {
+        return new ActiveAlert(
+                alert.getAlertId(),
+                alert.getUser().getUserId(),
+                alert.getUser().getUsername(),
+                alert.getStock().getStockId(),
+                alert.getStock().getStockCode(),
+                alert.getType(),
+                alert.getTargetPrice());
+    }
+}
@@ -0,0 +1,138 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.pricealert;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of active price alerts, sorted by threshold per stock
+ *
+ * Each stock keeps its ABOVE thresholds in ascending order and its BELOW thresholds in descending
+ * order, so the alerts crossed by a new price are always a prefix of one of the two maps. A price
+ * update therefore costs O(log n + k) for k fired alerts instead of a scan over every alert on the
+ * stock. Fired alerts are removed from the index, so each alert fires at most once.
+ */
+public class PriceAlertIndex {
+
+    // Stock id -> sorted thresholds, and alert id -> stock id for removal by alert
+    private final Map<UUID, StockThresholds> stocks = new ConcurrentHashMap<>();
+    private final Map<UUID, UUID> alertStocks = new ConcurrentHashMap<>();
+
+
+    // Add or replace an alert; alerts of an unknown type are ignored
+    public boolean add(ActiveAlert alert) {
+        if (!ActiveAlert.ABOVE.equals(alert.type()) && !ActiveAlert.BELOW.equals(alert.type())) {
+            return false;
+        }
+        remove(alert.alertId());
+        stocks.computeIfAbsent(alert.stockId(), id -> new StockThresholds()).add(alert);
+        alertStocks.put(alert.alertId(), alert.stockId());
+        return true;
+    }
+
+    public boolean remove(UUID alertId) {
+        UUID stockId = alertStocks.remove(alertId);
+        if (stockId == null) {
+            return false;
+        }
+        StockThresholds thresholds = stocks.get(stockId);
+        return thresholds != null && thresholds.remove(alertId);
+    }
+
+    // Remove and return every alert on the stock crossed by the price
+    public List<ActiveAlert> trigger(UUID stockId, BigDecimal price) {
+        StockThresholds thresholds = stocks.get(stockId);
+        if (thresholds == null || price == null) {
+            return Collections.emptyList();
+        }
+        List<ActiveAlert> fired = thresholds.trigger(price);
+        fired.forEach(alert -> alertStocks.remove(alert.alertId()));
+        return fired;
+    }
+
+    // Stocks with at least one active alert
+    public Set<UUID> stockIds() {
+        return Set.copyOf(alertStocks.values());
+    }
+
+    public int size() {
+        return alertStocks.size();
+    }
+
+    public void clear() {
+        stocks.clear();
+        alertStocks.clear();
+    }
+
+
+    // Thresholds for one stock, guarded by the instance lock
+    private static final class StockThresholds {
+
+        // ABOVE fires when price >= target: ascending, fired alerts are the head up to the price
+        private final NavigableMap<BigDecimal, Map<UUID, ActiveAlert>> above = new TreeMap<>();
+        // BELOW fires when price <= target: descending, fired alerts are the head down to the price
+        private final NavigableMap<BigDecimal, Map<UUID, ActiveAlert>> below = new TreeMap<>(Comparator.reverseOrder());
+
+        private final Map<UUID, ActiveAlert> alerts = new HashMap<>();
+
+        synchronized void add(ActiveAlert alert) {
+            side(alert.type()).computeIfAbsent(alert.targetPrice(), price -> new LinkedHashMap<>())
+                    .put(alert.alertId(), alert);
+            alerts.put(alert.alertId(), alert);
+        }
+
+        synchronized boolean remove(UUID alertId) {
+            ActiveAlert alert = alerts.remove(alertId);
+            if (alert == null) {
+                return false;
+            }
+            NavigableMap<BigDecimal, Map<UUID, ActiveAlert>> side = side(alert.type());
+            Map<UUID, ActiveAlert> atPrice = side.get(alert.targetPrice());
+            if (atPrice != null) {
+                atPrice.remove(alertId);
+                if (atPrice.isEmpty()) {
+                    side.remove(alert.targetPrice());
+                }
+            }
+            return true;
+        }
+
+        synchronized List<ActiveAlert> trigger(BigDecimal price) {
+            // EDGE CASE: Nothing crossed, the common case for a small price move
+            boolean aboveCrossed = !above.isEmpty() && above.firstKey().compareTo(price) <= 0;
+            boolean belowCrossed = !below.isEmpty() && below.firstKey().compareTo(price) >= 0;
+            if (!aboveCrossed && !belowCrossed) {
+                return Collections.emptyList();
+            }
+            List<ActiveAlert> fired = new ArrayList<>();
+            drain(above.headMap(price, true), fired);
+            drain(below.headMap(price, true), fired);
+            return fired;
+        }
+
+        private void drain(NavigableMap<BigDecimal, Map<UUID, ActiveAlert>> crossed, List<ActiveAlert> fired) {
+            for (Map<UUID, ActiveAlert> atPrice : crossed.values()) {
+                for (ActiveAlert alert : atPrice.values()) {
+                    alerts.remove(alert.alertId());
+                    fired.add(alert);
+                }
+            }
+            // Clearing the head view removes those thresholds from the backing map
+            crossed.clear();
+        }
+
+        private NavigableMap<BigDecimal, Map<UUID, ActiveAlert>> side(String type) {
+            return ActiveAlert.ABOVE.equals(type) ? above : below;
+        }
+    }
+}
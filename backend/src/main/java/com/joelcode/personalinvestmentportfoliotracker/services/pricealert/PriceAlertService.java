@@ -0,0 +1,30 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.pricealert;
+
+import com.joelcode.personalinvestmentportfoliotracker.entities.PriceAlert;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.UUID;
+
+public interface PriceAlertService {
+
+    // Add a newly created alert to the index
+    void register(PriceAlert alert);
+
+    // Remove a deleted alert from the index
+    void unregister(UUID alertId);
+
+    // Fire every alert on the stock crossed by the price and return how many fired
+    int evaluate(UUID stockId, BigDecimal price);
+
+    // Persist fired alerts in batches, then notify their owners; returns how many were persisted
+    int flushTriggered();
+
+    // Reload the index from the database and return how many alerts it holds
+    int rebuildIndex();
+
+    // Stocks with at least one active alert, so their prices are kept fresh
+    Set<UUID> alertedStockIds();
+
+    int activeAlertCount();
+}
@@ -0,0 +1,207 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.pricealert;
+
+import com.joelcode.personalinvestmentportfoliotracker.controllers.WebSocketController;
+import com.joelcode.personalinvestmentportfoliotracker.entities.PriceAlert;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.PriceAlertRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Evaluates price alerts against incoming prices
+ *
+ * Active alerts are held in a PriceAlertIndex, rebuilt from the database once the application is
+ * ready and kept current as alerts are created and deleted. Each price update fires the crossed
+ * alerts straight from the index. Fired alerts are queued and written back in batches on a short
+ * cadence, one UPDATE per batch, and their owners are notified once the batch has committed. If a
+ * batch fails to persist it is retried on the next flush.
+ */
+@Service
+@Profile("!test")
+public class PriceAlertServiceImpl implements PriceAlertService {
+
+    // Define key fields
+    private final PriceAlertRepository priceAlertRepository;
+    private final WebSocketController webSocketController;
+    private final TransactionTemplate transactionTemplate;
+    private final int flushBatchSize;
+    private final int rebuildPageSize;
+
+    private final PriceAlertIndex index = new PriceAlertIndex();
+    private final Queue<TriggeredAlert> triggered = new ConcurrentLinkedQueue<>();
+    private final Counter triggeredCounter;
+
+
+    // Constructor
+    public PriceAlertServiceImpl(PriceAlertRepository priceAlertRepository,
+                                 WebSocketController webSocketController,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${price-alerts.flush.batch-size:500}") int flushBatchSize,
+                                 @Value("${price-alerts.rebuild.page-size:5000}") int rebuildPageSize) {
+        this.priceAlertRepository = priceAlertRepository;
+        this.webSocketController = webSocketController;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushBatchSize = flushBatchSize;
+        this.rebuildPageSize = rebuildPageSize;
+
+        this.triggeredCounter = Counter.builder("price.alerts.triggered")
+                .description("Price alerts fired by incoming prices")
+                .register(meterRegistry);
+        Gauge.builder("price.alerts.active", index, PriceAlertIndex::size)
+                .description("Active price alerts held in the in-memory index")
+                .register(meterRegistry);
+        Gauge.builder("price.alerts.pending", triggered, Queue::size)
+                .description("Fired price alerts waiting to be persisted")
+                .register(meterRegistry);
+    }
+
+
+    // Interface functions
+
+    @Override
+    public void register(PriceAlert alert) {
+        if (Boolean.TRUE.equals(alert.getIsActive()) && alert.getTriggeredAt() == null) {
+            index.add(ActiveAlert.of(alert));
+        }
+    }
+
+    @Override
+    public void unregister(UUID alertId) {
+        index.remove(alertId);
+    }
+
+    @Override
+    public int evaluate(UUID stockId, BigDecimal price) {
+        List<ActiveAlert> fired = index.trigger(stockId, price);
+        if (fired.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        fired.forEach(alert -> triggered.add(new TriggeredAlert(alert, price, now)));
+        triggeredCounter.increment(fired.size());
+        return fired.size();
+    }
+
+    @Override
+    public int flushTriggered() {
+        int persisted = 0;
+        List<TriggeredAlert> batch;
+        while (!(batch = drainBatch()).isEmpty()) {
+            try {
+                persist(batch);
+            } catch (Exception e) {
+                // Put the batch back so the next flush retries it
+                triggered.addAll(batch);
+                System.err.println("Failed to persist triggered price alerts: " + e.getMessage());
+                break;
+            }
+            persisted += batch.size();
+            batch.forEach(this::notifyOwner);
+        }
+        return persisted;
+    }
+
+    @Override
+    public int rebuildIndex() {
+        index.clear();
+        UUID after = null;
+        List<ActiveAlert> page;
+        do {
+            PageRequest pageRequest = PageRequest.of(0, rebuildPageSize);
+            page = after == null
+                    ? priceAlertRepository.findActiveAlerts(pageRequest)
+                    : priceAlertRepository.findActiveAlertsAfter(after, pageRequest);
+            page.forEach(index::add);
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).alertId();
+            }
+        } while (page.size() == rebuildPageSize);
+
+        System.out.println("Price alert index loaded with " + index.size() + " active alerts");
+        return index.size();
+    }
+
+    @Override
+    public Set<UUID> alertedStockIds() {
+        return index.stockIds();
+    }
+
+    @Override
+    public int activeAlertCount() {
+        return index.size();
+    }
+
+
+    // Load the index once the application is ready to serve
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuildIndex();
+        } catch (Exception e) {
+            System.err.println("Failed to load price alert index: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${price-alerts.flush.interval-ms:1000}")
+    public void scheduledFlush() {
+        flushTriggered();
+    }
+
+
+    // Helper functions
+
+    private List<TriggeredAlert> drainBatch() {
+        List<TriggeredAlert> batch = new ArrayList<>();
+        TriggeredAlert next;
+        while (batch.size() < flushBatchSize && (next = triggered.poll()) != null) {
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    // One UPDATE per distinct trigger time; alerts fired by the same price update share it
+    private void persist(List<TriggeredAlert> batch) {
+        Map<LocalDateTime, List<UUID>> byTime = new LinkedHashMap<>();
+        batch.forEach(fired -> byTime.computeIfAbsent(fired.triggeredAt, time -> new ArrayList<>())
+                .add(fired.alert.alertId()));
+
+        transactionTemplate.executeWithoutResult(status ->
+                byTime.forEach((time, alertIds) -> priceAlertRepository.markTriggered(alertIds, time)));
+    }
+
+    private void notifyOwner(TriggeredAlert fired) {
+        ActiveAlert alert = fired.alert;
+        try {
+            webSocketController.sendUserNotification(alert.username(),
+                    "Price alert: " + alert.stockCode() + " " + alert.type() + " " + alert.targetPrice()
+                            + " reached at " + fired.price);
+        } catch (Exception e) {
+            System.err.println("Failed to send price alert notification: " + e.getMessage());
+        }
+    }
+
+    // Fired alert with the price that crossed it and when
+    private record TriggeredAlert(ActiveAlert alert, BigDecimal price, LocalDateTime triggeredAt) {}
+}
@@ -0,0 +1,80 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.pricehistory;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One chunk of parsed price bars, held column by column
+ *
+ * The reader fills the symbol, date, price and line columns. Validation resolves stock ids in
+ * bulk and then compacts the accepted rows to the front of the arrays, so the writer can send
+ * rows [0, size) straight to the database. The arrays are reused for every chunk of an upload.
+ */
+public class PriceBarChunk {
+
+    // Define key fields
+    final String[] symbols;
+    final LocalDateTime[] closeDates;
+    final BigDecimal[] closePrices;
+    final long[] lines;
+    final UUID[] stockIds;
+    private int size;
+
+
+    // Constructor
+    public PriceBarChunk(int capacity) {
+        this.symbols = new String[capacity];
+        this.closeDates = new LocalDateTime[capacity];
+        this.closePrices = new BigDecimal[capacity];
+        this.lines = new long[capacity];
+        this.stockIds = new UUID[capacity];
+    }
+
+
+    // Append a parsed bar, returning false once the chunk is full
+    public boolean add(String symbol, LocalDateTime closeDate, BigDecimal closePrice, long line) {
+        if (isFull()) {
+            return false;
+        }
+        symbols[size] = symbol;
+        closeDates[size] = closeDate;
+        closePrices[size] = closePrice;
+        lines[size] = line;
+        stockIds[size] = null;
+        size++;
+        return true;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return symbols.length;
+    }
+
+    public boolean isFull() {
+        return size == symbols.length;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Keep only the first n rows, used after validation has compacted accepted rows to the front
+    void truncate(int n) {
+        size = n;
+    }
+
+    // Column accessors for the writer
+    public UUID[] getStockIds() { return stockIds; }
+
+    public LocalDateTime[] getCloseDates() { return closeDates; }
+
+    public BigDecimal[] getClosePrices() { return closePrices; }
+}
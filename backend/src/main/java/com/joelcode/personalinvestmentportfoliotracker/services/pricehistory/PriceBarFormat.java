@@ -0,0 +1,34 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.pricehistory;
+
+// Wire formats accepted by the bulk price history ingestion endpoint
+public enum PriceBarFormat {
+
+    // One JSON object per line: {"symbol": "AAPL", "date": "2024-01-02", "close": 185.64}
+    NDJSON("application/x-ndjson"),
+
+    // Header row naming the symbol, date and close columns, then one bar per line
+    CSV("text/csv");
+
+    private final String mediaType;
+
+    PriceBarFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    // Format for a request Content-Type, ignoring parameters such as charset
+    public static PriceBarFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            String type = contentType.split(";", 2)[0].trim();
+            for (PriceBarFormat format : values()) {
+                if (format.mediaType.equalsIgnoreCase(type)) {
+                    return format;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unsupported content type for price history ingestion: " + contentType);
+    }
+}
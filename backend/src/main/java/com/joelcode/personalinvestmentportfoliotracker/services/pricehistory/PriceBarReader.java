@@ -0,0 +1,168 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.pricehistory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streaming reader for bulk price bar uploads
+ *
+ * Reads NDJSON or CSV one line at a time and fills a chunk, so an upload of any size is held in
+ * memory one chunk at a time. Lines that cannot be parsed are recorded as rejections and skipped
+ * rather than failing the upload. Dates may be an ISO date (start of day) or an ISO date-time.
+ */
+public class PriceBarReader implements Closeable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Accepted names for each field, in NDJSON keys and CSV headers alike
+    private static final List<String> SYMBOL_FIELDS = List.of("symbol", "ticker", "stock_code", "stockcode");
+    private static final List<String> DATE_FIELDS = List.of("date", "close_date", "closedate", "timestamp");
+    private static final List<String> CLOSE_FIELDS = List.of("close", "close_price", "closeprice", "price");
+
+    // Define key fields
+    private final BufferedReader reader;
+    private final PriceBarFormat format;
+    private final PriceBarRejections rejections;
+    private long line;
+    private long rowsRead;
+
+    // CSV column positions, resolved from the header row
+    private int symbolColumn = -1;
+    private int dateColumn = -1;
+    private int closeColumn = -1;
+
+
+    // Constructor
+    public PriceBarReader(InputStream input, PriceBarFormat format, PriceBarRejections rejections) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        this.format = format;
+        this.rejections = rejections;
+    }
+
+
+    // Fill the chunk with the next bars, returning false once the input is exhausted and nothing was read
+    public boolean fill(PriceBarChunk chunk) throws IOException {
+        chunk.clear();
+        String text;
+        while (!chunk.isFull() && (text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            if (format == PriceBarFormat.CSV && symbolColumn < 0) {
+                readHeader(text);
+                continue;
+            }
+            rowsRead++;
+            try {
+                if (format == PriceBarFormat.NDJSON) {
+                    parseJson(text, chunk);
+                } else {
+                    parseCsv(text, chunk);
+                }
+            } catch (IllegalArgumentException | DateTimeParseException | IOException e) {
+                rejections.reject(line, e.getMessage());
+            }
+        }
+        return !chunk.isEmpty();
+    }
+
+    // Data rows seen so far, including rejected ones
+    public long rowsRead() {
+        return rowsRead;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+
+    // Helper functions
+
+    private void parseJson(String text, PriceBarChunk chunk) throws IOException {
+        JsonNode node = MAPPER.readTree(text);
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("expected a JSON object");
+        }
+        chunk.add(symbol(field(node, SYMBOL_FIELDS)), closeDate(field(node, DATE_FIELDS)),
+                closePrice(field(node, CLOSE_FIELDS)), line);
+    }
+
+    private void parseCsv(String text, PriceBarChunk chunk) {
+        String[] columns = text.split(",", -1);
+        chunk.add(symbol(column(columns, symbolColumn)), closeDate(column(columns, dateColumn)),
+                closePrice(column(columns, closeColumn)), line);
+    }
+
+    private void readHeader(String text) {
+        String[] headers = text.split(",", -1);
+        for (int i = 0; i < headers.length; i++) {
+            String header = unquote(headers[i]).toLowerCase(Locale.ROOT);
+            if (symbolColumn < 0 && SYMBOL_FIELDS.contains(header)) symbolColumn = i;
+            else if (dateColumn < 0 && DATE_FIELDS.contains(header)) dateColumn = i;
+            else if (closeColumn < 0 && CLOSE_FIELDS.contains(header)) closeColumn = i;
+        }
+        if (symbolColumn < 0 || dateColumn < 0 || closeColumn < 0) {
+            throw new IllegalArgumentException("CSV header must name symbol, date and close columns, got: " + text);
+        }
+    }
+
+    private static String field(JsonNode node, List<String> names) {
+        for (String name : names) {
+            JsonNode value = node.get(name);
+            if (value != null && !value.isNull()) {
+                return value.asText();
+            }
+        }
+        return null;
+    }
+
+    private static String column(String[] columns, int index) {
+        return index < columns.length ? unquote(columns[index]) : null;
+    }
+
+    private static String unquote(String value) {
+        String trimmed = value.trim();
+        if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+            return trimmed.substring(1, trimmed.length() - 1).trim();
+        }
+        return trimmed;
+    }
+
+    private static String symbol(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static LocalDateTime closeDate(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.length() == 10 ? LocalDate.parse(trimmed).atStartOfDay() : LocalDateTime.parse(trimmed);
+    }
+
+    private static BigDecimal closePrice(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("close price is not a number: " + value);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.pricehistory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Rows rejected during one upload, counted in full but only the first few kept as messages
+public class PriceBarRejections {
+
+    private final int maxSamples;
+    private final List<String> samples = new ArrayList<>();
+    private long count;
+
+    public PriceBarRejections(int maxSamples) {
+        this.maxSamples = maxSamples;
+    }
+
+    public void reject(long line, String reason) {
+        count++;
+        if (samples.size() < maxSamples) {
+            samples.add("line " + line + ": " + reason);
+        }
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public List<String> samples() {
+        return List.copyOf(samples);
+    }
+}
@@ -0,0 +1,115 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.pricehistory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Whole-chunk validation for bulk price bars
+ *
+ * Replaces per-row calls to PriceHistoryValidationService for bulk uploads. Each rule runs as one
+ * pass over the chunk's columns, stock ids come from a map resolved once per chunk, and accepted
+ * rows are compacted to the front of the chunk in their original order. When the same stock and
+ * close date appear more than once in a chunk only the last one is kept, since a single upsert
+ * statement cannot touch the same row twice.
+ */
+public class PriceBarValidator {
+
+    // NUMERIC(19, 2) leaves 17 digits before the decimal point
+    private static final int PRICE_SCALE = 2;
+    private static final int MAX_INTEGER_DIGITS = 17;
+
+    private final LocalDateTime latestAllowed;
+
+
+    // Constructor, bars dated after latestAllowed are rejected
+    public PriceBarValidator(LocalDateTime latestAllowed) {
+        this.latestAllowed = latestAllowed;
+    }
+
+
+    // Validate and compact the chunk in place, returning the number of rows kept
+    public int validate(PriceBarChunk chunk, Map<String, UUID> stockIds, PriceBarRejections rejections) {
+        int size = chunk.size();
+        String[] reasons = new String[size];
+
+        // Pass 1: required fields and stock ids
+        for (int i = 0; i < size; i++) {
+            String symbol = chunk.symbols[i];
+            if (symbol == null) {
+                reasons[i] = "missing symbol";
+            } else if (chunk.closeDates[i] == null) {
+                reasons[i] = "missing close date";
+            } else if (chunk.closePrices[i] == null) {
+                reasons[i] = "missing close price";
+            } else if ((chunk.stockIds[i] = stockIds.get(symbol)) == null) {
+                reasons[i] = "unknown symbol " + symbol;
+            }
+        }
+
+        // Pass 2: price and date ranges, prices rounded to the column's scale
+        for (int i = 0; i < size; i++) {
+            if (reasons[i] != null) {
+                continue;
+            }
+            BigDecimal price = chunk.closePrices[i];
+            if (price.signum() <= 0) {
+                reasons[i] = "close price must be positive";
+            } else if (price.precision() - price.scale() > MAX_INTEGER_DIGITS) {
+                reasons[i] = "close price is too large";
+            } else if (chunk.closeDates[i].isAfter(latestAllowed)) {
+                reasons[i] = "close date is in the future";
+            } else if (price.scale() > PRICE_SCALE) {
+                chunk.closePrices[i] = price.setScale(PRICE_SCALE, RoundingMode.HALF_UP);
+            }
+        }
+
+        // Pass 3: last occurrence of each (stock, close date) wins
+        boolean[] superseded = new boolean[size];
+        Set<BarKey> seen = new HashSet<>();
+        for (int i = size - 1; i >= 0; i--) {
+            if (reasons[i] == null && !seen.add(new BarKey(chunk.stockIds[i], chunk.closeDates[i]))) {
+                superseded[i] = true;
+            }
+        }
+
+        // Pass 4: record rejections and compact the rest
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (reasons[i] != null) {
+                rejections.reject(chunk.lines[i], reasons[i]);
+                continue;
+            }
+            if (superseded[i]) {
+                continue;
+            }
+            if (kept != i) {
+                chunk.symbols[kept] = chunk.symbols[i];
+                chunk.closeDates[kept] = chunk.closeDates[i];
+                chunk.closePrices[kept] = chunk.closePrices[i];
+                chunk.lines[kept] = chunk.lines[i];
+                chunk.stockIds[kept] = chunk.stockIds[i];
+            }
+            kept++;
+        }
+        chunk.truncate(kept);
+        return kept;
+    }
+
+    // Symbols in the chunk, for resolving stock ids in one query
+    public static Set<String> symbolsOf(PriceBarChunk chunk) {
+        Set<String> symbols = new HashSet<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            if (chunk.symbols[i] != null) {
+                symbols.add(chunk.symbols[i]);
+            }
+        }
+        return symbols;
+    }
+
+    private record BarKey(UUID stockId, LocalDateTime closeDate) {}
+}
@@ -0,0 +1,207 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.pricehistory;
+
+import com.joelcode.personalinvestmentportfoliotracker.services.marketdata.LivePriceTable;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Set-based writes for bulk price history ingestion
+ *
+ * On PostgreSQL a chunk is streamed into a temporary staging table with COPY and merged into
+ * price_history with one INSERT ... ON CONFLICT on uq_price_history_stock_date, so an existing
+ * close for the same stock and date is overwritten rather than duplicated. With COPY disabled
+ * the same upsert is sent as one JDBC batch. Other databases (H2 in tests) get a batched MERGE.
+ * Writes go through JdbcTemplate, so they join the caller's transaction. Refreshing stock values
+ * drops those stocks from the live price table once the transaction commits, so price reads fall
+ * back to the new stored value until the market data refresher fetches a live one.
+ */
+@Component
+public class PriceHistoryBulkWriter {
+
+    private static final String CREATE_STAGING =
+            "CREATE TEMP TABLE IF NOT EXISTS price_history_staging " +
+            "(stock_id UUID, close_date TIMESTAMP, close_price NUMERIC(19, 2)) ON COMMIT DELETE ROWS";
+
+    private static final String COPY_STAGING =
+            "COPY price_history_staging (stock_id, close_date, close_price) FROM STDIN WITH (FORMAT csv)";
+
+    private static final String UPSERT_FROM_STAGING =
+            "INSERT INTO price_history (stock_id, close_date, close_price) " +
+            "SELECT stock_id, close_date, close_price FROM price_history_staging " +
+            "ON CONFLICT (stock_id, close_date) DO UPDATE SET close_price = EXCLUDED.close_price";
+
+    private static final String UPSERT_ROW =
+            "INSERT INTO price_history (stock_id, close_date, close_price) VALUES (?, ?, ?) " +
+            "ON CONFLICT (stock_id, close_date) DO UPDATE SET close_price = EXCLUDED.close_price";
+
+    private static final String MERGE_ROW =
+            "MERGE INTO price_history t " +
+            "USING (VALUES (CAST(? AS UUID), CAST(? AS TIMESTAMP), CAST(? AS NUMERIC(19, 2)))) s(stock_id, close_date, close_price) " +
+            "ON t.stock_id = s.stock_id AND t.close_date = s.close_date " +
+            "WHEN MATCHED THEN UPDATE SET close_price = s.close_price " +
+            "WHEN NOT MATCHED THEN INSERT (price_history_id, stock_id, close_date, close_price) " +
+            "VALUES (RANDOM_UUID(), s.stock_id, s.close_date, s.close_price)";
+
+    // Latest close per stock, once per stock touched by an upload
+    private static final String REFRESH_STOCK_VALUE =
+            "UPDATE stock SET stock_value = (SELECT p.close_price FROM price_history p " +
+            "WHERE p.stock_id = stock.stock_id ORDER BY p.close_date DESC LIMIT 1), updated_at = ? " +
+            "WHERE stock_id = ? AND EXISTS (SELECT 1 FROM price_history p WHERE p.stock_id = stock.stock_id)";
+
+    // Define key fields
+    private final JdbcTemplate jdbcTemplate;
+    private final LivePriceTable livePriceTable;
+    private final boolean useCopy;
+    private volatile Boolean postgres;
+
+
+    // Constructor
+    public PriceHistoryBulkWriter(JdbcTemplate jdbcTemplate,
+                                  LivePriceTable livePriceTable,
+                                  @Value("${price-history.ingest.use-copy:true}") boolean useCopy) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.livePriceTable = livePriceTable;
+        this.useCopy = useCopy;
+    }
+
+
+    // Upsert the chunk's rows [0, size), returning the number of rows inserted or updated
+    public int upsert(PriceBarChunk chunk) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        if (!isPostgres()) {
+            return sum(jdbcTemplate.batchUpdate(MERGE_ROW, rowSetter(chunk)));
+        }
+        if (!useCopy) {
+            return sum(jdbcTemplate.batchUpdate(UPSERT_ROW, rowSetter(chunk)));
+        }
+        return jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_STAGING);
+                statement.execute("TRUNCATE price_history_staging");
+            }
+            try {
+                connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyIn(COPY_STAGING, new StringReader(toCsv(chunk)));
+            } catch (IOException e) {
+                throw new SQLException("COPY into price_history_staging failed", e);
+            }
+            try (Statement statement = connection.createStatement()) {
+                return statement.executeUpdate(UPSERT_FROM_STAGING);
+            }
+        });
+    }
+
+    // Set each stock's value to its latest close, one batched statement for all of them
+    public int refreshStockValues(Collection<UUID> stockIds) {
+        if (stockIds.isEmpty()) {
+            return 0;
+        }
+        List<UUID> ids = new ArrayList<>(stockIds);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int refreshed = sum(jdbcTemplate.batchUpdate(REFRESH_STOCK_VALUE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                statement.setTimestamp(1, now);
+                statement.setObject(2, ids.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return ids.size();
+            }
+        }));
+        evictLivePricesAfterCommit(ids);
+        return refreshed;
+    }
+
+
+    // Helper functions
+
+    // A rolled back refresh leaves the stored values alone, so the live entries stay valid
+    private void evictLivePricesAfterCommit(List<UUID> stockIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            stockIds.forEach(livePriceTable::remove);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                stockIds.forEach(livePriceTable::remove);
+            }
+        });
+    }
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            result = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName()));
+            postgres = result;
+        }
+        return result;
+    }
+
+    private static BatchPreparedStatementSetter rowSetter(PriceBarChunk chunk) {
+        UUID[] stockIds = chunk.getStockIds();
+        LocalDateTime[] closeDates = chunk.getCloseDates();
+        BigDecimal[] closePrices = chunk.getClosePrices();
+        int size = chunk.size();
+        return new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                statement.setObject(1, stockIds[i]);
+                statement.setTimestamp(2, Timestamp.valueOf(closeDates[i]));
+                statement.setBigDecimal(3, closePrices[i]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return size;
+            }
+        };
+    }
+
+    // COPY csv payload; ids, ISO timestamps and plain decimals never need quoting
+    static String toCsv(PriceBarChunk chunk) {
+        UUID[] stockIds = chunk.getStockIds();
+        LocalDateTime[] closeDates = chunk.getCloseDates();
+        BigDecimal[] closePrices = chunk.getClosePrices();
+        StringBuilder csv = new StringBuilder(chunk.size() * 72);
+        for (int i = 0; i < chunk.size(); i++) {
+            csv.append(stockIds[i]).append(',')
+                    .append(closeDates[i]).append(',')
+                    .append(closePrices[i].toPlainString()).append('\n');
+        }
+        return csv.toString();
+    }
+
+    // EDGE CASE: Drivers may report SUCCESS_NO_INFO (-2) for batched statements, count those as one row
+    private static int sum(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            total += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,13 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.pricehistory;
+
+import com.joelcode.personalinvestmentportfoliotracker.dto.pricehistory.PriceHistoryIngestResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface PriceHistoryIngestService {
+
+    // Stream price bars for any number of symbols into price history, upserting on stock and close date,
+    // then set each touched stock's value to its latest close
+    PriceHistoryIngestResult ingest(InputStream input, PriceBarFormat format) throws IOException;
+}
@@ -0,0 +1,154 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.pricehistory;
+
+import com.joelcode.personalinvestmentportfoliotracker.dto.pricehistory.PriceHistoryIngestResult;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.StockRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Bulk price history ingestion
+ *
+ * Reads an upload in fixed-size chunks. Each chunk resolves its unseen symbols with one stock
+ * query, is validated column by column and is upserted in its own transaction, so a failure part
+ * way through keeps the chunks already written and the upload can simply be sent again. Stock
+ * values are updated once per symbol after the last chunk rather than once per row, and the
+ * days the upload covered are rolled up into daily bars.
+ */
+@Service
+@Profile("!test")
+public class PriceHistoryIngestServiceImpl implements PriceHistoryIngestService {
+
+    // Define key fields
+    private final StockRepository stockRepository;
+    private final PriceHistoryBulkWriter bulkWriter;
+    private final PriceHistoryRollupService rollupService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxErrors;
+
+    private final Counter writtenCounter;
+    private final Counter rejectedCounter;
+    private final Timer uploadTimer;
+
+
+    // Constructor
+    public PriceHistoryIngestServiceImpl(StockRepository stockRepository,
+                                         PriceHistoryBulkWriter bulkWriter,
+                                         PriceHistoryRollupService rollupService,
+                                         PlatformTransactionManager transactionManager,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${price-history.ingest.chunk-size:5000}") int chunkSize,
+                                         @Value("${price-history.ingest.max-errors:100}") int maxErrors) {
+        this.stockRepository = stockRepository;
+        this.bulkWriter = bulkWriter;
+        this.rollupService = rollupService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+
+        this.writtenCounter = rowCounter(meterRegistry, "written");
+        this.rejectedCounter = rowCounter(meterRegistry, "rejected");
+        this.uploadTimer = Timer.builder("price.history.ingest.duration")
+                .description("Time taken by one bulk price history upload")
+                .register(meterRegistry);
+    }
+
+
+    // Interface functions
+
+    @Override
+    public PriceHistoryIngestResult ingest(InputStream input, PriceBarFormat format) throws IOException {
+        long start = System.nanoTime();
+
+        PriceBarRejections rejections = new PriceBarRejections(maxErrors);
+        PriceBarValidator validator = new PriceBarValidator(LocalDateTime.now().plusDays(1));
+        PriceBarChunk chunk = new PriceBarChunk(chunkSize);
+
+        // Symbol -> stock id for every symbol seen so far, unknown symbols map to null
+        Map<String, UUID> stockIds = new HashMap<>();
+        Set<UUID> touched = new HashSet<>();
+        LocalDateTime firstDate = null;
+        LocalDateTime lastDate = null;
+        long written = 0;
+        long rowsRead;
+
+        try (PriceBarReader reader = new PriceBarReader(input, format, rejections)) {
+            while (reader.fill(chunk)) {
+                resolveStockIds(chunk, stockIds);
+                if (validator.validate(chunk, stockIds, rejections) == 0) {
+                    continue;
+                }
+                Integer count = transactionTemplate.execute(status -> bulkWriter.upsert(chunk));
+                written += count != null ? count : 0;
+                for (int i = 0; i < chunk.size(); i++) {
+                    touched.add(chunk.getStockIds()[i]);
+                    LocalDateTime closeDate = chunk.getCloseDates()[i];
+                    firstDate = firstDate == null || closeDate.isBefore(firstDate) ? closeDate : firstDate;
+                    lastDate = lastDate == null || closeDate.isAfter(lastDate) ? closeDate : lastDate;
+                }
+            }
+            rowsRead = reader.rowsRead();
+        }
+
+        // Stock values move once per symbol, after every bar for it has been written
+        transactionTemplate.executeWithoutResult(status -> bulkWriter.refreshStockValues(touched));
+
+        // Backfilled days get their daily bars now rather than never, the nightly job only rolls up new days
+        if (firstDate != null) {
+            rollupService.rollUp(firstDate.toLocalDate(), lastDate.toLocalDate());
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        uploadTimer.record(elapsed);
+        writtenCounter.increment(written);
+        rejectedCounter.increment(rejections.count());
+
+        PriceHistoryIngestResult result = new PriceHistoryIngestResult(rowsRead, written, rejections.count(),
+                touched.size(), elapsed, rejections.samples());
+        System.out.printf("Price history upload: %d rows read, %d written, %d rejected, %d symbols in %d ms (%.0f rows/s)%n",
+                rowsRead, written, rejections.count(), touched.size(), elapsed.toMillis(), result.getRowsPerSecond());
+        return result;
+    }
+
+
+    // Helper functions
+
+    // One query per chunk for symbols not seen earlier in the upload
+    private void resolveStockIds(PriceBarChunk chunk, Map<String, UUID> stockIds) {
+        Set<String> unseen = PriceBarValidator.symbolsOf(chunk);
+        unseen.removeAll(stockIds.keySet());
+        if (unseen.isEmpty()) {
+            return;
+        }
+        for (Stock stock : stockRepository.findByStockCodeIn(unseen)) {
+            stockIds.put(stock.getStockCode().toUpperCase(), stock.getStockId());
+        }
+        for (String symbol : unseen) {
+            stockIds.putIfAbsent(symbol, null);
+        }
+    }
+
+    private static Counter rowCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("price.history.ingest.rows")
+                .description("Bulk price history rows by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
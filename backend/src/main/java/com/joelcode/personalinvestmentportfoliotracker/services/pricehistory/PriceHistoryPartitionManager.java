@@ -0,0 +1,90 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.pricehistory;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Monthly partitions of price_history on PostgreSQL
+ *
+ * V8 turns price_history into a table range-partitioned by month (price_history_pYYYYMM) with a
+ * default partition for stray rows. Partitions are created a few months ahead so inserts never
+ * fall into the default partition, and whole months past retention are dropped, which frees
+ * space at once instead of leaving dead tuples behind a DELETE. On other databases (H2 in tests)
+ * the table is not partitioned and every call is a no-op.
+ */
+@Component
+public class PriceHistoryPartitionManager {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("price_history_p(\\d{6})");
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final String LIST_PARTITIONS =
+            "SELECT child.relname FROM pg_inherits i " +
+            "JOIN pg_class child ON child.oid = i.inhrelid " +
+            "JOIN pg_class parent ON parent.oid = i.inhparent " +
+            "WHERE parent.relname = 'price_history'";
+
+    // Define key fields
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean partitioned;
+
+
+    // Constructor
+    public PriceHistoryPartitionManager(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+
+    public boolean isPartitioned() {
+        Boolean result = partitioned;
+        if (result == null) {
+            result = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName()));
+            partitioned = result;
+        }
+        return result;
+    }
+
+    // Make sure partitions exist from this month through monthsAhead months later
+    public void ensurePartitions(LocalDate today, int monthsAhead) {
+        if (!isPartitioned()) {
+            return;
+        }
+        YearMonth month = YearMonth.from(today);
+        for (int i = 0; i <= monthsAhead; i++) {
+            jdbcTemplate.queryForObject("SELECT price_history_ensure_partition(?)::text", String.class,
+                    Date.valueOf(month.plusMonths(i).atDay(1)));
+        }
+    }
+
+    // Drop monthly partitions that end on or before the boundary, returning the dropped months
+    public List<YearMonth> dropPartitionsBefore(LocalDate boundary) {
+        List<YearMonth> dropped = new ArrayList<>();
+        if (!isPartitioned()) {
+            return dropped;
+        }
+        for (String name : jdbcTemplate.queryForList(LIST_PARTITIONS, String.class)) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.parse(matcher.group(1), PARTITION_MONTH);
+            if (!month.plusMonths(1).atDay(1).isAfter(boundary)) {
+                // Name matched the pattern above, so it is safe to put in the statement
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + name);
+                dropped.add(month);
+            }
+        }
+        return dropped;
+    }
+}
@@ -0,0 +1,12 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.pricehistory;
+
+import java.time.LocalDate;
+
+public interface PriceHistoryRollupService {
+
+    // Rebuild the daily OHLC bars of every day from the first to the last date (inclusive), returning bars written
+    int rollUp(LocalDate from, LocalDate to);
+
+    // Scheduled maintenance: create partitions ahead, roll up finished days and drop raw data past retention
+    void runMaintenance();
+}
@@ -0,0 +1,191 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.pricehistory;
+
+import com.joelcode.personalinvestmentportfoliotracker.dto.pricehistory.PricePoint;
+import com.joelcode.personalinvestmentportfoliotracker.entities.PriceHistoryDaily;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.PriceHistoryDailyRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.PriceHistoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Daily rollups and retention for price history
+ *
+ * Once a night, partitions are created for the coming months, every finished day since the
+ * newest rollup is rolled up into one OHLC bar per stock (each day in its own transaction), and
+ * raw points older than the retention window are dropped. The newest rolled-up day is always
+ * rolled up again in case points for it arrived late. Raw data is only dropped after its days
+ * have been rolled up, and on PostgreSQL only as whole monthly partitions.
+ */
+@Service
+@Profile("!test")
+public class PriceHistoryRollupServiceImpl implements PriceHistoryRollupService {
+
+    // Define key fields
+    private final PriceHistoryRepository priceHistoryRepository;
+    private final PriceHistoryDailyRepository dailyRepository;
+    private final PriceHistoryPartitionManager partitionManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int rawRetentionDays;
+    private final int partitionsAhead;
+    private final Clock clock;
+
+    private final Counter barsCounter;
+    private final Counter droppedCounter;
+
+
+    // Constructor
+    @Autowired
+    public PriceHistoryRollupServiceImpl(PriceHistoryRepository priceHistoryRepository,
+                                         PriceHistoryDailyRepository dailyRepository,
+                                         PriceHistoryPartitionManager partitionManager,
+                                         PlatformTransactionManager transactionManager,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${price-history.retention.raw-days:90}") int rawRetentionDays,
+                                         @Value("${price-history.rollup.partitions-ahead:2}") int partitionsAhead) {
+        this(priceHistoryRepository, dailyRepository, partitionManager, transactionManager, meterRegistry,
+                rawRetentionDays, partitionsAhead, Clock.systemDefaultZone());
+    }
+
+    PriceHistoryRollupServiceImpl(PriceHistoryRepository priceHistoryRepository, PriceHistoryDailyRepository dailyRepository,
+                                  PriceHistoryPartitionManager partitionManager, PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry, int rawRetentionDays, int partitionsAhead, Clock clock) {
+        this.priceHistoryRepository = priceHistoryRepository;
+        this.dailyRepository = dailyRepository;
+        this.partitionManager = partitionManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rawRetentionDays = rawRetentionDays;
+        this.partitionsAhead = partitionsAhead;
+        this.clock = clock;
+
+        this.barsCounter = Counter.builder("price.history.rollup.bars")
+                .description("Daily price bars written by the rollup job")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("price.history.retention.partitions.dropped")
+                .description("Monthly raw price history partitions dropped by retention")
+                .register(meterRegistry);
+    }
+
+
+    // Interface functions
+
+    @Override
+    public int rollUp(LocalDate from, LocalDate to) {
+        int written = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            LocalDate tradeDate = day;
+            Integer bars = transactionTemplate.execute(status -> rollUpDay(tradeDate));
+            written += bars != null ? bars : 0;
+        }
+        barsCounter.increment(written);
+        return written;
+    }
+
+    @Override
+    @Scheduled(cron = "${price-history.rollup.cron:0 30 0 * * *}")
+    public void runMaintenance() {
+        LocalDate today = LocalDate.now(clock);
+        try {
+            partitionManager.ensurePartitions(today, partitionsAhead);
+        } catch (Exception e) {
+            System.err.println("Failed to create price history partitions: " + e.getMessage());
+        }
+        try {
+            int bars = rollUpFinishedDays(today);
+            if (bars > 0) {
+                System.out.println("Rolled up " + bars + " daily price bars");
+            }
+            applyRetention(today);
+        } catch (Exception e) {
+            System.err.println("Price history rollup failed: " + e.getMessage());
+        }
+    }
+
+
+    // Helper functions
+
+    // Every day from the newest rollup (or the first raw point) through yesterday
+    int rollUpFinishedDays(LocalDate today) {
+        Optional<LocalDate> start = dailyRepository.findLatestTradeDate()
+                .or(() -> priceHistoryRepository.findEarliestCloseDate().map(LocalDateTime::toLocalDate));
+        LocalDate yesterday = today.minusDays(1);
+        if (start.isEmpty() || start.get().isAfter(yesterday)) {
+            return 0;
+        }
+        return rollUp(start.get(), yesterday);
+    }
+
+    // Drop raw points older than the retention window once their days have daily bars
+    void applyRetention(LocalDate today) {
+        LocalDate cutoff = today.minusDays(rawRetentionDays);
+        // Partitions hold whole months, so only months that end by the cutoff can go
+        LocalDate boundary = partitionManager.isPartitioned() ? cutoff.withDayOfMonth(1) : cutoff;
+
+        Optional<LocalDate> earliest = priceHistoryRepository.findEarliestCloseDate().map(LocalDateTime::toLocalDate);
+        if (earliest.isEmpty() || !earliest.get().isBefore(boundary)) {
+            return;
+        }
+        rollUp(earliest.get(), boundary.minusDays(1));
+
+        List<YearMonth> dropped = partitionManager.dropPartitionsBefore(boundary);
+        droppedCounter.increment(dropped.size());
+
+        // Anything left before the boundary (all of it without partitions, stray rows in the default partition with them)
+        Integer deleted = transactionTemplate.execute(status ->
+                priceHistoryRepository.deleteCloseDateBefore(boundary.atStartOfDay()));
+        System.out.println("Price history retention: dropped partitions " + dropped + ", deleted "
+                + (deleted != null ? deleted : 0) + " raw points before " + boundary);
+    }
+
+    // One OHLC bar per stock from the day's raw points, replacing any bar already stored for the day
+    private int rollUpDay(LocalDate day) {
+        List<PricePoint> points = priceHistoryRepository.findPointsBetween(day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+        if (points.isEmpty()) {
+            return 0;
+        }
+
+        Map<UUID, PriceHistoryDaily> stored = new HashMap<>();
+        for (PriceHistoryDaily bar : dailyRepository.findByTradeDate(day)) {
+            stored.put(bar.getStockId(), bar);
+        }
+
+        // Points arrive oldest first, so the first is the open and the last the close
+        Map<UUID, PriceHistoryDaily> bars = new LinkedHashMap<>();
+        for (PricePoint point : points) {
+            BigDecimal price = point.closePrice();
+            PriceHistoryDaily bar = bars.get(point.stockId());
+            if (bar == null) {
+                bar = stored.getOrDefault(point.stockId(), new PriceHistoryDaily(point.stockId(), day));
+                bar.setOpenPrice(price);
+                bar.setHighPrice(price);
+                bar.setLowPrice(price);
+                bar.setSamples(0);
+                bars.put(point.stockId(), bar);
+            }
+            bar.setHighPrice(bar.getHighPrice().max(price));
+            bar.setLowPrice(bar.getLowPrice().min(price));
+            bar.setClosePrice(price);
+            bar.setSamples(bar.getSamples() + 1);
+        }
+        dailyRepository.saveAll(bars.values());
+        return bars.size();
+    }
+}
@@ -4,6 +4,7 @@ import com.joelcode.personalinvestmentportfoliotracker.dto.pricehistory.PriceHis
 import com.joelcode.personalinvestmentportfoliotracker.dto.pricehistory.PriceHistoryDTO;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -21,5 +22,7 @@ public interface PriceHistoryService {
 
     List<PriceHistoryDTO> getPriceHistoryForStock(UUID stockId);
 
+    List<PriceHistoryDTO> getPriceHistoryForStock(UUID stockId, LocalDateTime from, LocalDateTime to);
+
     PriceHistoryDTO getLatestPriceForStock(UUID stockId);
 }
@@ -1,12 +1,12 @@
 package com.joelcode.personalinvestmentportfoliotracker.services.pricehistory;
 
-import com.joelcode.personalinvestmentportfoliotracker.controllers.WebSocketController;
 import com.joelcode.personalinvestmentportfoliotracker.dto.pricehistory.PriceHistoryCreateRequest;
 import com.joelcode.personalinvestmentportfoliotracker.dto.pricehistory.PriceHistoryDTO;
 import com.joelcode.personalinvestmentportfoliotracker.entities.PriceHistory;
 import com.joelcode.personalinvestmentportfoliotracker.exceptions.CustomAuthenticationException;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.PriceHistoryRepository;
 import com.joelcode.personalinvestmentportfoliotracker.services.mapping.PriceHistoryMapper;
+import com.joelcode.personalinvestmentportfoliotracker.services.websocket.PriceTickPublisher;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
@@ -20,22 +20,25 @@ import java.util.stream.Collectors;
 @Service
 public class PriceHistoryServiceImpl implements PriceHistoryService{
 
+    // Range returned when the caller does not give one
+    private static final int DEFAULT_SERIES_DAYS = 365;
+
     // Define key fields
     private final PriceHistoryRepository priceHistoryRepository;
     private final PriceHistoryValidationService validationService;
     private final SimpMessagingTemplate messagingTemplate;
-    private final WebSocketController webSocketController;
+    private final PriceTickPublisher priceTickPublisher;
 
 
     // Constructor
     public PriceHistoryServiceImpl(PriceHistoryRepository priceHistoryRepository,
                                    PriceHistoryValidationService validationService,
                                    SimpMessagingTemplate messagingTemplate,
-                                   WebSocketController webSocketController) {
+                                   PriceTickPublisher priceTickPublisher) {
         this.priceHistoryRepository = priceHistoryRepository;
         this.validationService = validationService;
         this.messagingTemplate = messagingTemplate;
-        this.webSocketController = webSocketController;
+        this.priceTickPublisher = priceTickPublisher;
     }
 
 
@@ -88,18 +91,20 @@ public class PriceHistoryServiceImpl implements PriceHistoryService{
                 .orElseThrow(() -> new CustomAuthenticationException("No price found for stock " + stockId));
     }
 
-    // Get price history for stock
+    // Get price history for stock, the last year at daily granularity
     @Override
     public List<PriceHistoryDTO> getPriceHistoryForStock(UUID stockId) {
-        // Fetch all price history records for the stock
-        List<PriceHistory> historyList = priceHistoryRepository.findByStock_StockIdOrderByCloseDateAsc(stockId);
+        LocalDateTime now = LocalDateTime.now();
+        return getPriceHistoryForStock(stockId, now.minusDays(DEFAULT_SERIES_DAYS), now);
+    }
 
-        // Map to DTOs
-        List<PriceHistoryDTO> dtos = historyList.stream()
-                .map(PriceHistoryMapper::toDTO)
+    // Get price history for stock within a range, raw points or daily closes depending on the range
+    @Override
+    public List<PriceHistoryDTO> getPriceHistoryForStock(UUID stockId, LocalDateTime from, LocalDateTime to) {
+        return priceHistoryRepository.findSeries(stockId, from, to)
+                .stream()
+                .map(point -> new PriceHistoryDTO(null, point.closeDate(), point.closePrice(), point.stockId()))
                 .collect(Collectors.toList());
-
-        return dtos;
     }
 
     // Get latest price for stock
@@ -114,8 +119,8 @@ public class PriceHistoryServiceImpl implements PriceHistoryService{
             String stockCode = priceHistory.getStock().getStockCode();
             BigDecimal latestPrice = priceHistory.getClosePrice();
 
-            // Broadcast via WebSocket using centralized controller method
-            webSocketController.broadcastStockPriceUpdate(stockId, stockCode, latestPrice);
+            // Tick the symbol's topic; skipped when nobody listens or the price has not changed
+            priceTickPublisher.publish(stockId, stockCode, latestPrice);
 
             // Return DTO to caller
             return PriceHistoryMapper.toDTO(priceHistory);
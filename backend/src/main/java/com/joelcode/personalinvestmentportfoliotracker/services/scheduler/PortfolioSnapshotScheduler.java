@@ -1,31 +1,31 @@
 package com.joelcode.personalinvestmentportfoliotracker.services.scheduler;
 
-import com.joelcode.personalinvestmentportfoliotracker.entities.Account;
+import com.joelcode.personalinvestmentportfoliotracker.dto.portfoliosnapshot.SnapshotBatchResult;
 import com.joelcode.personalinvestmentportfoliotracker.logging.BetterStackLogger;
-import com.joelcode.personalinvestmentportfoliotracker.repositories.AccountRepository;
+import com.joelcode.personalinvestmentportfoliotracker.services.portfoliosnapshot.PortfolioSnapshotBatchService;
 import com.joelcode.personalinvestmentportfoliotracker.services.portfoliosnapshot.PortfolioSnapshotCalculationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.time.LocalDate;
 import java.util.UUID;
 
 @Service
 @Profile("!test")
 public class PortfolioSnapshotScheduler {
 
-    private final AccountRepository accountRepository;
     private final PortfolioSnapshotCalculationService snapshotCalculationService;
+    private final PortfolioSnapshotBatchService snapshotBatchService;
     private final BetterStackLogger logger;
 
     @Autowired
-    public PortfolioSnapshotScheduler(AccountRepository accountRepository,
-                                      PortfolioSnapshotCalculationService snapshotCalculationService,
+    public PortfolioSnapshotScheduler(PortfolioSnapshotCalculationService snapshotCalculationService,
+                                      PortfolioSnapshotBatchService snapshotBatchService,
                                       @Autowired(required = false) BetterStackLogger logger) {
-        this.accountRepository = accountRepository;
         this.snapshotCalculationService = snapshotCalculationService;
+        this.snapshotBatchService = snapshotBatchService;
         this.logger = logger;
     }
 
@@ -38,31 +38,16 @@ public class PortfolioSnapshotScheduler {
     public void createDailySnapshotsForAllAccounts() {
         logInfo("Starting daily portfolio snapshot generation for all accounts");
 
-        List<Account> accounts = accountRepository.findAll();
-        int successCount = 0;
-        int failureCount = 0;
-
-        for (Account account : accounts) {
-            try {
-                UUID accountId = account.getAccountId();
-                snapshotCalculationService.generateSnapshotForToday(accountId);
-                successCount++;
-                logInfo("Generated snapshot for account: " + account.getAccountName() + " (ID: " + accountId + ")");
-            } catch (RuntimeException e) {
-                failureCount++;
-                // Don't stop the entire process if one account fails
-                if (e.getMessage().contains("already exists")) {
-                    logInfo("Snapshot already exists for account: " + account.getAccountName() + " - skipping");
-                } else {
-                    logError("Failed to generate snapshot for account: " + account.getAccountName() + " - " + e.getMessage());
-                }
-            } catch (Exception e) {
-                failureCount++;
-                logError("Unexpected error generating snapshot for account: " + account.getAccountName() + " - " + e.getMessage());
-            }
+        try {
+            SnapshotBatchResult result = snapshotBatchService.createSnapshotsForAllAccounts(LocalDate.now());
+            logInfo("Daily snapshot generation completed. Created: " + result.getCreated()
+                    + ", Skipped: " + result.getSkipped() + ", Failed: " + result.getFailed()
+                    + ", Total: " + result.getProcessed()
+                    + String.format(" (%.1f accounts/s)", result.getThroughput()));
+        } catch (Exception e) {
+            // Safe to re-run, accounts that already have today's snapshot are skipped
+            logError("Daily snapshot generation failed - " + e.getMessage());
         }
-
-        logInfo("Daily snapshot generation completed. Success: " + successCount + ", Failed: " + failureCount + ", Total: " + accounts.size());
     }
 
     /**
@@ -86,25 +71,13 @@ public class PortfolioSnapshotScheduler {
     public int createSnapshotsForAllAccounts() {
         logInfo("Manually triggering snapshot generation for all accounts");
 
-        List<Account> accounts = accountRepository.findAll();
-        int successCount = 0;
+        SnapshotBatchResult result = snapshotBatchService.createSnapshotsForAllAccounts(LocalDate.now());
 
-        for (Account account : accounts) {
-            try {
-                UUID accountId = account.getAccountId();
-                snapshotCalculationService.generateSnapshotForToday(accountId);
-                successCount++;
-            } catch (RuntimeException e) {
-                if (!e.getMessage().contains("already exists")) {
-                    logError("Failed to generate snapshot for account: " + account.getAccountName() + " - " + e.getMessage());
-                }
-            } catch (Exception e) {
-                logError("Unexpected error for account: " + account.getAccountName() + " - " + e.getMessage());
-            }
+        if (result.getFailed() > 0) {
+            logError("Manual snapshot generation failed for " + result.getFailed() + " accounts");
         }
-
-        logInfo("Manual snapshot generation completed. Generated: " + successCount + " snapshots");
-        return successCount;
+        logInfo("Manual snapshot generation completed. Generated: " + result.getCreated() + " snapshots");
+        return result.getCreated();
     }
 
     // Helper methods for logging
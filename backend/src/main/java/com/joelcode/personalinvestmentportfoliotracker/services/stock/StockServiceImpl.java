@@ -7,13 +7,14 @@ import com.joelcode.personalinvestmentportfoliotracker.entities.PriceHistory;
 import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.PriceHistoryRepository;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.StockRepository;
-import com.joelcode.personalinvestmentportfoliotracker.services.finnhub.FinnhubApiClient;
 import com.joelcode.personalinvestmentportfoliotracker.services.mapping.StockMapper;
+import com.joelcode.personalinvestmentportfoliotracker.services.marketdata.LivePriceTable;
+import com.joelcode.personalinvestmentportfoliotracker.services.utility.StockSearchIndex;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -26,15 +27,20 @@ public class StockServiceImpl implements StockService {
     private final StockRepository stockRepository;
     private final StockValidationService stockValidationService;
     private final PriceHistoryRepository priceHistoryRepository;
-    private final FinnhubApiClient finnhubApiClient;
+    private final LivePriceTable livePriceTable;
+    private final StockSearchIndex stockSearchIndex;
+    private final long maxPriceAgeMillis;
 
 
     // Constructor
-    public StockServiceImpl(StockRepository stockRepository, StockValidationService stockValidationService, PriceHistoryRepository priceHistoryRepository, FinnhubApiClient finnhubApiClient) {
+    public StockServiceImpl(StockRepository stockRepository, StockValidationService stockValidationService, PriceHistoryRepository priceHistoryRepository, LivePriceTable livePriceTable, StockSearchIndex stockSearchIndex,
+                            @Value("${market-data.resolver.max-age-ms:60000}") long maxPriceAgeMillis) {
         this.stockRepository = stockRepository;
         this.stockValidationService = stockValidationService;
         this.priceHistoryRepository = priceHistoryRepository;
-        this.finnhubApiClient = finnhubApiClient;
+        this.livePriceTable = livePriceTable;
+        this.stockSearchIndex = stockSearchIndex;
+        this.maxPriceAgeMillis = maxPriceAgeMillis;
     }
 
 
@@ -53,6 +59,7 @@ public class StockServiceImpl implements StockService {
 
         // Save to db
         stock = stockRepository.save(stock);
+        stockSearchIndex.put(stock);
 
         // Map entity to dto
         return StockMapper.toDTO(stock);
@@ -101,13 +108,18 @@ public class StockServiceImpl implements StockService {
         // Update entity via mapper helper
         StockMapper.updateEntity(stock, request);
 
-        // Save updated entity
+        // Save updated entity and re-index, the code or name may have changed
         stock = stockRepository.save(stock);
+        stockSearchIndex.put(stock);
+
+        // The save writes back the stock_value it loaded and the code may now name another ticker,
+        // so the live entry no longer matches the stored row; the refresher fills it again
+        livePriceTable.remove(id);
 
         return StockMapper.toDTO(stock);
     }
 
-    // Get current price
+    // Get current price from the live price table, falling back to the database
     @Override
     public BigDecimal getCurrentPrice(UUID stockId) {
 
@@ -115,21 +127,13 @@ public class StockServiceImpl implements StockService {
         Stock stock = stockRepository.findByStockId(stockId)
                 .orElseThrow(() -> new IllegalArgumentException("Stock with ID " + stockId + " does not exist."));
 
-        try {
-            // Fetch real-time price from FinnHub
-            BigDecimal realtimePrice = finnhubApiClient.getCurrentPrice(stock.getStockCode());
-            if (realtimePrice != null && realtimePrice.compareTo(BigDecimal.ZERO) > 0) {
-                // Update stock value with real-time price
-                stock.setStockValue(realtimePrice);
-                stockRepository.save(stock);
-
-                // Optionally save to price history for tracking
-                savePriceHistory(stock, realtimePrice);
-
-                return realtimePrice;
-            }
-        } catch (Exception e) {
-            // Silently fall back to database if FinnHub call fails
+        // Prices are kept fresh by the market data refresher, so reads never go upstream or write.
+        // A live price older than the resolver's max age is not trusted over the stored data.
+        long liveAfter = System.currentTimeMillis() - maxPriceAgeMillis;
+        Optional<LivePriceTable.LivePrice> livePrice = livePriceTable.get(stockId)
+                .filter(live -> live.updatedAtMillis() >= liveAfter);
+        if (livePrice.isPresent()) {
+            return livePrice.get().price();
         }
 
         // Fallback: Try to fetch latest price history record
@@ -142,25 +146,14 @@ public class StockServiceImpl implements StockService {
                 .orElse(stock.getStockValue());
     }
 
-    // Helper method to save price history
-    private void savePriceHistory(Stock stock, BigDecimal price) {
-        try {
-            PriceHistory priceHistory = new PriceHistory();
-            priceHistory.setStock(stock);
-            priceHistory.setClosePrice(price);
-            priceHistory.setCloseDate(LocalDateTime.now());
-            priceHistoryRepository.save(priceHistory);
-        } catch (Exception e) {
-            // Silently ignore if price history save fails
-        }
-    }
-
 
     // Delete stock
     @Override
     public void deleteStock(UUID id) {
         Stock stock = stockValidationService.validateStockExists(id);
         stockRepository.delete(stock);
+        stockSearchIndex.remove(id);
+        livePriceTable.remove(id);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.transaction;
+
+import com.joelcode.personalinvestmentportfoliotracker.entities.Transaction;
+import com.joelcode.personalinvestmentportfoliotracker.exceptions.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in the transaction feed
+ *
+ * The feed is ordered by creation time, newest first, with the transaction id breaking ties, so the
+ * last row of a page identifies exactly where the next page starts. Clients only see it as an
+ * opaque URL-safe token.
+ */
+public record TransactionFeedCursor(LocalDateTime createdAt, UUID transactionId) {
+
+    private static final String SEPARATOR = "|";
+
+    // Cursor pointing just after the given transaction
+    public static TransactionFeedCursor after(Transaction transaction) {
+        return new TransactionFeedCursor(transaction.getCreatedAt(), transaction.getTransactionId());
+    }
+
+    public String encode() {
+        String raw = createdAt + SEPARATOR + transactionId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TransactionFeedCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new TransactionFeedCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new ValidationException("Invalid transaction feed cursor");
+        }
+    }
+}
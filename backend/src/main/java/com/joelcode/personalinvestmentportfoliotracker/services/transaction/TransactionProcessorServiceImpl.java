@@ -11,9 +11,10 @@ import com.joelcode.personalinvestmentportfoliotracker.services.account.AccountS
 import com.joelcode.personalinvestmentportfoliotracker.services.dividendpayment.DividendPaymentCalculationService;
 import com.joelcode.personalinvestmentportfoliotracker.services.holding.HoldingCalculationService;
 import com.joelcode.personalinvestmentportfoliotracker.services.holding.HoldingService;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.AccountValuationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.websocket.PortfolioUpdatePublisher;
 import jakarta.transaction.Transactional;
 import org.springframework.context.annotation.Profile;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -33,7 +34,8 @@ public class TransactionProcessorServiceImpl implements TransactionProcessorServ
     private final DividendPaymentCalculationService dividendPaymentCalculationService;
     private final AccountRepository accountRepository;
     private final HoldingRepository holdingRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final PortfolioUpdatePublisher portfolioUpdatePublisher;
+    private final AccountValuationService accountValuationService;
 
 
     // Constructor
@@ -42,7 +44,8 @@ public class TransactionProcessorServiceImpl implements TransactionProcessorServ
                                            AccountService accountService,
                                            DividendPaymentCalculationService dividendPaymentCalculationService,
                                            AccountRepository accountRepository, HoldingRepository holdingRepository,
-                                           SimpMessagingTemplate messagingTemplate) {
+                                           PortfolioUpdatePublisher portfolioUpdatePublisher,
+                                           AccountValuationService accountValuationService) {
         this.transactionService = transactionService;
         this.holdingService = holdingService;
         this.holdingCalculationService = holdingCalculationService;
@@ -50,7 +53,8 @@ public class TransactionProcessorServiceImpl implements TransactionProcessorServ
         this.dividendPaymentCalculationService = dividendPaymentCalculationService;
         this.accountRepository = accountRepository;
         this.holdingRepository = holdingRepository;
-        this.messagingTemplate = messagingTemplate;
+        this.portfolioUpdatePublisher = portfolioUpdatePublisher;
+        this.accountValuationService = accountValuationService;
     }
 
 
@@ -113,6 +117,11 @@ public class TransactionProcessorServiceImpl implements TransactionProcessorServ
         holdingService.updateOrCreateHoldingFromTransaction(request);
         TransactionDTO dto = transactionService.createTransaction(request);
 
+        // Push the resulting position and cash into the cached account valuation
+        BigDecimal cashBalance = account.getAccountBalance();
+        holdingRepository.getHoldingByAccount_AccountIdAndStock_StockId(request.getAccountId(), request.getStockId())
+                .ifPresent(holding -> accountValuationService.recordPosition(holding, cashBalance));
+
         // --- Calculate and broadcast portfolio change ---
         BigDecimal currentPortfolioValue = holdingCalculationService.calculateTotalPortfolioValue(account.getAccountId());
         BigDecimal portfolioChange = currentPortfolioValue.subtract(previousPortfolioValue);
@@ -123,7 +132,7 @@ public class TransactionProcessorServiceImpl implements TransactionProcessorServ
                 portfolioChange,
                 LocalDateTime.now()
         );
-        messagingTemplate.convertAndSend("/topic/portfolio/" + account.getAccountId(), updateMessage);
+        portfolioUpdatePublisher.publish("/topic/portfolio/" + account.getAccountId(), updateMessage);
 
         return dto;
     }
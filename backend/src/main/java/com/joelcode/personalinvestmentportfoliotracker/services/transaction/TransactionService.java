@@ -2,6 +2,7 @@ package com.joelcode.personalinvestmentportfoliotracker.services.transaction;
 
 import com.joelcode.personalinvestmentportfoliotracker.dto.transaction.TransactionDTO;
 import com.joelcode.personalinvestmentportfoliotracker.dto.transaction.TransactionCreateRequest;
+import com.joelcode.personalinvestmentportfoliotracker.dto.transaction.TransactionFeedDTO;
 
 import java.util.List;
 import java.util.UUID;
@@ -15,4 +16,6 @@ public interface TransactionService {
     List<TransactionDTO> getAllTransactions();
 
     void deleteTransaction(UUID transactionId);
+
+    TransactionFeedDTO getTransactionFeed(UUID accountId, UUID userId, String cursor, int limit);
 }
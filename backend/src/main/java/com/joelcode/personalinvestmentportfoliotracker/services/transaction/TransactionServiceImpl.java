@@ -2,10 +2,14 @@ package com.joelcode.personalinvestmentportfoliotracker.services.transaction;
 
 import com.joelcode.personalinvestmentportfoliotracker.dto.transaction.TransactionDTO;
 import com.joelcode.personalinvestmentportfoliotracker.dto.transaction.TransactionCreateRequest;
+import com.joelcode.personalinvestmentportfoliotracker.dto.transaction.TransactionFeedDTO;
 import com.joelcode.personalinvestmentportfoliotracker.entities.Transaction;
+import com.joelcode.personalinvestmentportfoliotracker.exceptions.ValidationException;
 import com.joelcode.personalinvestmentportfoliotracker.services.mapping.TransactionMapper;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.TransactionRepository;
 import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -15,6 +19,8 @@ import java.util.stream.Collectors;
 @Service
 public class TransactionServiceImpl implements TransactionService {
 
+    public static final int MAX_FEED_PAGE_SIZE = 100;
+
     // Define key fields
     private final TransactionRepository transactionRepository;
     private final TransactionValidationService transactionValidationService;
@@ -64,4 +70,36 @@ public class TransactionServiceImpl implements TransactionService {
         Transaction transaction = transactionValidationService.validateTransactionExists(transactionId);
         transactionRepository.delete(transaction);
     }
-}
\ No newline at end of file
+
+    // Page of the transaction feed, newest first, for one account or across all of a user's accounts
+    @Override
+    public TransactionFeedDTO getTransactionFeed(UUID accountId, UUID userId, String cursor, int limit) {
+        if ((accountId == null) == (userId == null)) {
+            throw new ValidationException("Exactly one of accountId or userId is required");
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_FEED_PAGE_SIZE));
+
+        // One extra row tells whether another page follows
+        Pageable page = PageRequest.of(0, pageSize + 1);
+        TransactionFeedCursor after = cursor == null || cursor.isBlank() ? null : TransactionFeedCursor.decode(cursor);
+
+        List<Transaction> rows;
+        if (accountId != null) {
+            rows = after == null
+                    ? transactionRepository.findFeedForAccount(accountId, page)
+                    : transactionRepository.findFeedForAccountAfter(accountId, after.createdAt(), after.transactionId(), page);
+        } else {
+            rows = after == null
+                    ? transactionRepository.findFeedForUser(userId, page)
+                    : transactionRepository.findFeedForUserAfter(userId, after.createdAt(), after.transactionId(), page);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Transaction> pageRows = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? TransactionFeedCursor.after(pageRows.get(pageRows.size() - 1)).encode() : null;
+
+        return new TransactionFeedDTO(pageRows.stream()
+                .map(TransactionMapper::toDTO)
+                .collect(Collectors.toList()), nextCursor);
+    }
+}
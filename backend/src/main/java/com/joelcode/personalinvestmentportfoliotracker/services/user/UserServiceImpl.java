@@ -6,6 +6,7 @@ import com.joelcode.personalinvestmentportfoliotracker.dto.user.UserDTO;
 import com.joelcode.personalinvestmentportfoliotracker.dto.user.UserUpdateRequest;
 import com.joelcode.personalinvestmentportfoliotracker.entities.Account;
 import com.joelcode.personalinvestmentportfoliotracker.entities.User;
+import com.joelcode.personalinvestmentportfoliotracker.jwt.JwtPrincipalCache;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.UserRepository;
 import com.joelcode.personalinvestmentportfoliotracker.services.mapping.AccountMapper;
 import com.joelcode.personalinvestmentportfoliotracker.services.mapping.UserMapper;
@@ -25,13 +26,16 @@ public class UserServiceImpl implements UserService{
     private final UserRepository userRepository;
     private final UserValidationService userValidationService;
     private final PasswordEncoder passwordEncoder;
+    private final JwtPrincipalCache jwtPrincipalCache;
 
 
     // Constructor
-    public UserServiceImpl(UserRepository userRepository, UserValidationService userValidationService, PasswordEncoder passwordEncoder) {
+    public UserServiceImpl(UserRepository userRepository, UserValidationService userValidationService,
+                           PasswordEncoder passwordEncoder, JwtPrincipalCache jwtPrincipalCache) {
         this.userRepository = userRepository;
         this.userValidationService = userValidationService;
         this.passwordEncoder = passwordEncoder;
+        this.jwtPrincipalCache = jwtPrincipalCache;
     }
 
 
@@ -88,6 +92,9 @@ public class UserServiceImpl implements UserService{
 
         user = userRepository.save(user);
 
+        // Authenticated requests must not keep using the old username or password
+        jwtPrincipalCache.evict(userId);
+
         // Map entity to dto
         return UserMapper.toDTO(user);
     }
@@ -98,6 +105,7 @@ public class UserServiceImpl implements UserService{
         User user = userValidationService.validateUserExists(userId);
 
         userRepository.delete(user);
+        jwtPrincipalCache.evict(userId);
     }
 
     // Get all accounts by user
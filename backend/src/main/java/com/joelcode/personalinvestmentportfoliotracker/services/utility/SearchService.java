@@ -1,10 +1,14 @@
 package com.joelcode.personalinvestmentportfoliotracker.services.utility;
 
 import com.joelcode.personalinvestmentportfoliotracker.dto.utility.SearchDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.utility.StockSuggestionDTO;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface SearchService {
 
     SearchDTO search(String query, UUID userId);
+
+    List<StockSuggestionDTO> suggest(String query, int limit);
 }
@@ -4,20 +4,27 @@ import com.joelcode.personalinvestmentportfoliotracker.dto.utility.SearchDTO;
 import com.joelcode.personalinvestmentportfoliotracker.dto.stock.StockDTO;
 import com.joelcode.personalinvestmentportfoliotracker.dto.account.AccountDTO;
 import com.joelcode.personalinvestmentportfoliotracker.dto.holding.HoldingDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.utility.StockSuggestionDTO;
 import com.joelcode.personalinvestmentportfoliotracker.entities.Account;
 import com.joelcode.personalinvestmentportfoliotracker.entities.Holding;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.StockRepository;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.AccountRepository;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.HoldingRepository;
 import com.joelcode.personalinvestmentportfoliotracker.services.mapping.StockMapper;
 import com.joelcode.personalinvestmentportfoliotracker.services.mapping.AccountMapper;
 import com.joelcode.personalinvestmentportfoliotracker.services.mapping.HoldingMapper;
-import com.joelcode.personalinvestmentportfoliotracker.services.pricehistory.PriceHistoryServiceImpl;
+import com.joelcode.personalinvestmentportfoliotracker.services.marketdata.PriceResolver;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -25,6 +32,10 @@ import java.util.stream.Collectors;
 @Profile("!test")
 public class SearchServiceImpl implements SearchService {
 
+    // Most stocks a full search considers, and most suggestions per request
+    static final int MAX_STOCK_MATCHES = 50;
+    static final int MAX_SUGGESTIONS = 25;
+
     // Define key fields
     @Autowired
     private StockRepository stockRepository;
@@ -45,7 +56,10 @@ public class SearchServiceImpl implements SearchService {
     private HoldingMapper holdingMapper;
 
     @Autowired
-    private PriceHistoryServiceImpl priceHistoryService;
+    private StockSearchIndex stockSearchIndex;
+
+    @Autowired
+    private PriceResolver priceResolver;
 
 
     // Interface function
@@ -54,8 +68,11 @@ public class SearchServiceImpl implements SearchService {
     @Override
     public SearchDTO search(String query, UUID userId) {
 
-        // Search Stocks by company name (partial, case-insensitive)
-        List<StockDTO> stocks = stockRepository.findByCompanyNameContainingIgnoreCase(query)
+        // Stocks matching by code or company name, ranked by the in-memory index
+        List<StockSearchIndex.Match> matches = stockSearchIndex.suggest(query, MAX_STOCK_MATCHES);
+        List<UUID> stockIds = matches.stream().map(StockSearchIndex.Match::stockId).toList();
+
+        List<StockDTO> stocks = loadInRankOrder(stockIds)
                 .stream()
                 .map(StockMapper::toDTO)
                 .collect(Collectors.toList());
@@ -72,18 +89,52 @@ public class SearchServiceImpl implements SearchService {
                 .map(AccountMapper::toDTO)
                 .collect(Collectors.toList());
 
-        // Search Holdings
+        // Holdings in the matched stocks, priced with one batch lookup
         List<Holding> holdingEntities;
-        if (userId != null) {
-            holdingEntities = holdingRepository.findByAccount_User_UserIdAndStock_CompanyNameContainingIgnoreCase(userId, query);
+        if (stockIds.isEmpty()) {
+            holdingEntities = Collections.emptyList();
+        } else if (userId != null) {
+            holdingEntities = holdingRepository.findByAccount_User_UserIdAndStock_StockIdIn(userId, stockIds);
         } else {
-            holdingEntities = holdingRepository.findByStock_CompanyNameContainingIgnoreCase(query);
+            holdingEntities = holdingRepository.findByStock_StockIdIn(stockIds);
         }
 
+        Map<UUID, BigDecimal> prices = priceResolver.resolvePrices(holdingEntities.stream()
+                .map(h -> h.getStock().getStockId())
+                .collect(Collectors.toSet()));
+
         List<HoldingDTO> holdings = holdingEntities.stream()
-                .map(h -> HoldingMapper.toDTO(h, priceHistoryService.getCurrentPrice(h.getStock().getStockId())))
+                .map(h -> HoldingMapper.toDTO(h, prices.get(h.getStock().getStockId())))
                 .collect(Collectors.toList());
 
         return new SearchDTO(stocks, accounts, holdings);
     }
-}
\ No newline at end of file
+
+    // Typeahead suggestions served entirely from the in-memory index
+    @Override
+    public List<StockSuggestionDTO> suggest(String query, int limit) {
+        return stockSearchIndex.suggest(query, Math.min(Math.max(limit, 0), MAX_SUGGESTIONS))
+                .stream()
+                .map(match -> new StockSuggestionDTO(match.stockId(), match.stockCode(), match.companyName(),
+                        match.matchType().name()))
+                .toList();
+    }
+
+
+    // Helper functions
+
+    // One primary key query, returned in the index's ranking order
+    private List<Stock> loadInRankOrder(List<UUID> stockIds) {
+        if (stockIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<UUID, Integer> rank = new HashMap<>();
+        for (int i = 0; i < stockIds.size(); i++) {
+            rank.put(stockIds.get(i), i);
+        }
+        return stockRepository.findAllById(stockIds)
+                .stream()
+                .sorted(Comparator.comparing(stock -> rank.get(stock.getStockId())))
+                .toList();
+    }
+}
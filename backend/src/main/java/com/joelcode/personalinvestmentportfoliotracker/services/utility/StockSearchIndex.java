@@ -0,0 +1,243 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.utility;
+
+import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.StockRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory typeahead index over stock codes and company names
+ *
+ * Case-insensitive infix LIKE queries cannot use the b-tree indexes on stock code and company
+ * name, so every search scanned the stock table. Stocks are now held in memory in three
+ * structures:
+ * - a sorted map of codes, for exact and prefix matches
+ * - a sorted map of name words (and the full name), for name prefix matches
+ * - a trigram posting list, for infix matches
+ * Results are ranked exact code, then code prefix, then name prefix, then infix, and by code length
+ * within a tier. Lower tiers are skipped once the limit is filled, and a tier with thousands of hits
+ * only ranks its first few candidates. Queries shorter than three characters only match prefixes.
+ *
+ * Loaded once the application is ready and kept current by StockServiceImpl on create, update
+ * and delete. Reads never lock; writes are serialized.
+ */
+@Component
+@Profile("!test")
+public class StockSearchIndex {
+
+    private static final int GRAM_LENGTH = 3;
+    private static final int CANDIDATES_PER_RESULT = 4;
+    private static final int MIN_CANDIDATES = 32;
+
+    // Define key fields
+    private final StockRepository stockRepository;
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final NavigableMap<String, UUID> codes = new ConcurrentSkipListMap<>();
+    private final NavigableMap<String, Set<UUID>> nameWords = new ConcurrentSkipListMap<>();
+    private final Map<String, Set<UUID>> grams = new ConcurrentHashMap<>();
+
+
+    // Constructor
+    public StockSearchIndex(StockRepository stockRepository) {
+        this.stockRepository = stockRepository;
+    }
+
+
+    // Ranked matches for a query, best first
+    public List<Match> suggest(String query, int limit) {
+        String key = normalize(query);
+
+        // EDGE CASE: Blank query or no room for results
+        if (key.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        // Popular words and short prefixes hit thousands of stocks; only rank the first few per tier
+        int cap = Math.max(limit * CANDIDATES_PER_RESULT, MIN_CANDIDATES);
+        Map<UUID, MatchType> matched = new LinkedHashMap<>();
+
+        UUID exact = codes.get(key);
+        if (exact != null) {
+            matched.put(exact, MatchType.EXACT_CODE);
+        }
+
+        // Tiers are visited best first, so a tier is skipped once better tiers have filled the limit
+        String upper = key + Character.MAX_VALUE;
+        if (matched.size() < limit) {
+            int tierEnd = matched.size() + cap;
+            for (UUID stockId : codes.subMap(key, true, upper, false).values()) {
+                if (matched.size() >= tierEnd) {
+                    break;
+                }
+                matched.putIfAbsent(stockId, MatchType.CODE_PREFIX);
+            }
+        }
+        if (matched.size() < limit) {
+            int tierEnd = matched.size() + cap;
+            words:
+            for (Set<UUID> stockIds : nameWords.subMap(key, true, upper, false).values()) {
+                for (UUID stockId : stockIds) {
+                    if (matched.size() >= tierEnd) {
+                        break words;
+                    }
+                    matched.putIfAbsent(stockId, MatchType.NAME_PREFIX);
+                }
+            }
+        }
+        if (matched.size() < limit && key.length() >= GRAM_LENGTH) {
+            int tierEnd = matched.size() + cap;
+            for (UUID stockId : infixCandidates(key)) {
+                if (matched.size() >= tierEnd) {
+                    break;
+                }
+                Entry entry = entries.get(stockId);
+                if (entry != null && (entry.codeKey.contains(key) || entry.nameKey.contains(key))) {
+                    matched.putIfAbsent(stockId, MatchType.INFIX);
+                }
+            }
+        }
+
+        List<Match> matches = new ArrayList<>(matched.size());
+        matched.forEach((stockId, type) -> {
+            Entry entry = entries.get(stockId);
+            if (entry != null) {
+                matches.add(new Match(stockId, entry.stockCode, entry.companyName, type));
+            }
+        });
+        matches.sort(Comparator.comparing(Match::matchType)
+                .thenComparingInt((Match match) -> match.stockCode().length())
+                .thenComparing(Match::stockCode));
+        return matches.size() > limit ? matches.subList(0, limit) : matches;
+    }
+
+    // Add a stock, or re-index it after its code or name changed
+    public synchronized void put(Stock stock) {
+        remove(stock.getStockId());
+
+        String codeKey = normalize(stock.getStockCode());
+        String nameKey = normalize(stock.getCompanyName());
+        Set<String> words = words(nameKey);
+        Set<String> stockGrams = new HashSet<>();
+        addGrams(codeKey, stockGrams);
+        addGrams(nameKey, stockGrams);
+
+        Entry entry = new Entry(stock.getStockId(), stock.getStockCode(), stock.getCompanyName(),
+                codeKey, nameKey, words, stockGrams);
+        entries.put(entry.stockId, entry);
+        if (!codeKey.isEmpty()) {
+            codes.put(codeKey, entry.stockId);
+        }
+        words.forEach(word -> nameWords.computeIfAbsent(word, w -> ConcurrentHashMap.newKeySet()).add(entry.stockId));
+        stockGrams.forEach(gram -> grams.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(entry.stockId));
+    }
+
+    public synchronized void remove(UUID stockId) {
+        Entry entry = entries.remove(stockId);
+        if (entry == null) {
+            return;
+        }
+        codes.remove(entry.codeKey, stockId);
+        entry.words.forEach(word -> removePosting(nameWords, word, stockId));
+        entry.grams.forEach(gram -> removePosting(grams, gram, stockId));
+    }
+
+    // Replace the whole index with the current stock table
+    public synchronized int rebuild() {
+        entries.clear();
+        codes.clear();
+        nameWords.clear();
+        grams.clear();
+        stockRepository.findAll().forEach(this::put);
+        return entries.size();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            System.out.println("Stock search index loaded with " + rebuild() + " stocks");
+        } catch (Exception e) {
+            System.err.println("Failed to load stock search index: " + e.getMessage());
+        }
+    }
+
+
+    // Helper functions
+
+    // Stocks sharing every trigram of the query, starting from the rarest trigram
+    private Set<UUID> infixCandidates(String key) {
+        Set<UUID> smallest = null;
+        for (int i = 0; i + GRAM_LENGTH <= key.length(); i++) {
+            Set<UUID> posting = grams.get(key.substring(i, i + GRAM_LENGTH));
+            // EDGE CASE: A trigram no stock has, nothing can match
+            if (posting == null) {
+                return Collections.emptySet();
+            }
+            if (smallest == null || posting.size() < smallest.size()) {
+                smallest = posting;
+            }
+        }
+        return smallest != null ? smallest : Collections.emptySet();
+    }
+
+    private static void addGrams(String text, Set<String> target) {
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            target.add(text.substring(i, i + GRAM_LENGTH));
+        }
+    }
+
+    // Each word of the name plus the full name, so multi-word prefixes also match
+    private static Set<String> words(String nameKey) {
+        Set<String> words = new HashSet<>();
+        if (nameKey.isEmpty()) {
+            return words;
+        }
+        words.add(nameKey);
+        for (String word : nameKey.split("[^a-z0-9]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static void removePosting(Map<String, Set<UUID>> postings, String key, UUID stockId) {
+        postings.computeIfPresent(key, (k, stockIds) -> {
+            stockIds.remove(stockId);
+            return stockIds.isEmpty() ? null : stockIds;
+        });
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Ranking tiers, best first
+    public enum MatchType { EXACT_CODE, CODE_PREFIX, NAME_PREFIX, INFIX }
+
+    public record Match(UUID stockId, String stockCode, String companyName, MatchType matchType) {}
+
+    // Indexed stock together with the keys it was indexed under, so removal is exact
+    private record Entry(UUID stockId, String stockCode, String companyName, String codeKey, String nameKey,
+                         Set<String> words, Set<String> grams) {}
+}
@@ -0,0 +1,190 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.valuation;
+
+import com.joelcode.personalinvestmentportfoliotracker.dto.holding.HoldingView;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Holding;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Precomputed valuation state of one account
+ *
+ * Holds everything the dashboard needs apart from prices: cash, dividends received and every
+ * position with its quantity, cost basis and realized gain. Instances are immutable; each change
+ * produces a new instance so readers never see a half-applied update. Totals are adjusted by
+ * the delta of the changed position instead of being summed again. Amounts are fixed-point
+ * Money and Quantity values and only become BigDecimal in the DTOs.
+ */
+public final class AccountValuation {
+
+    // Define key fields
+    private final UUID accountId;
+    private final Money cashBalance;
+    private final Money dividendTotal;
+    private final Money totalCostBasis;
+    private final Money realizedGain;
+    private final Map<UUID, Position> positions;
+
+
+    // Constructor
+    private AccountValuation(UUID accountId, Money cashBalance, Money dividendTotal,
+                             Money totalCostBasis, Money realizedGain, Map<UUID, Position> positions) {
+        this.accountId = accountId;
+        this.cashBalance = cashBalance;
+        this.dividendTotal = dividendTotal;
+        this.totalCostBasis = totalCostBasis;
+        this.realizedGain = realizedGain;
+        this.positions = Collections.unmodifiableMap(positions);
+    }
+
+    // Build a valuation from the ledger rows of an account
+    public static AccountValuation of(UUID accountId, BigDecimal cashBalance, BigDecimal dividendTotal,
+                                      Collection<Position> positions) {
+        Map<UUID, Position> byStock = new LinkedHashMap<>();
+        Money totalCostBasis = Money.ZERO;
+        Money realizedGain = Money.ZERO;
+        for (Position position : positions) {
+            byStock.put(position.stockId(), position);
+            totalCostBasis = totalCostBasis.plus(position.costBasis());
+            realizedGain = realizedGain.plus(position.realizedGain());
+        }
+        return new AccountValuation(accountId, Money.of(cashBalance), Money.of(dividendTotal),
+                totalCostBasis, realizedGain, byStock);
+    }
+
+
+    // Incremental updates
+
+    // Replace one position and the cash balance after a trade
+    public AccountValuation withPosition(Position position, BigDecimal newCashBalance) {
+        Map<UUID, Position> updated = new LinkedHashMap<>(positions);
+        Position previous = updated.put(position.stockId(), position);
+
+        Money costBasisDelta = position.costBasis();
+        Money realizedGainDelta = position.realizedGain();
+        if (previous != null) {
+            costBasisDelta = costBasisDelta.minus(previous.costBasis());
+            realizedGainDelta = realizedGainDelta.minus(previous.realizedGain());
+        }
+
+        return new AccountValuation(accountId, Money.of(newCashBalance), dividendTotal,
+                totalCostBasis.plus(costBasisDelta), realizedGain.plus(realizedGainDelta), updated);
+    }
+
+    // Add a dividend payment and the cash balance it produced
+    public AccountValuation withDividend(BigDecimal amount, BigDecimal newCashBalance) {
+        return new AccountValuation(accountId, Money.of(newCashBalance), dividendTotal.plus(Money.of(amount)),
+                totalCostBasis, realizedGain, new LinkedHashMap<>(positions));
+    }
+
+
+    // Valuation at the given prices
+
+    // Market value of all positions; stocks without a price count as zero
+    public Money marketValue(Map<UUID, BigDecimal> prices) {
+        Money total = Money.ZERO;
+        for (Position position : positions.values()) {
+            total = total.plus(position.marketValue(prices.get(position.stockId())));
+        }
+        return total;
+    }
+
+    // Describe every field that differs from another valuation of the same account
+    public List<String> differencesFrom(AccountValuation other) {
+        List<String> differences = new ArrayList<>();
+        compare(differences, "cashBalance", cashBalance, other.cashBalance);
+        compare(differences, "dividendTotal", dividendTotal, other.dividendTotal);
+        compare(differences, "totalCostBasis", totalCostBasis, other.totalCostBasis);
+        compare(differences, "realizedGain", realizedGain, other.realizedGain);
+
+        for (Position position : positions.values()) {
+            Position theirs = other.positions.get(position.stockId());
+            if (theirs == null) {
+                differences.add("position " + position.stockCode() + " is not in the ledger");
+                continue;
+            }
+            String prefix = "position " + position.stockCode() + " ";
+            compare(differences, prefix + "quantity", position.quantity(), theirs.quantity());
+            compare(differences, prefix + "averageCost", position.averageCost(), theirs.averageCost());
+            compare(differences, prefix + "realizedGain", position.realizedGain(), theirs.realizedGain());
+        }
+        for (Position theirs : other.positions.values()) {
+            if (!positions.containsKey(theirs.stockId())) {
+                differences.add("position " + theirs.stockCode() + " is missing");
+            }
+        }
+        return differences;
+    }
+
+
+    // Getters
+    public UUID getAccountId() { return accountId; }
+
+    public Money getCashBalance() { return cashBalance; }
+
+    public Money getDividendTotal() { return dividendTotal; }
+
+    public Money getTotalCostBasis() { return totalCostBasis; }
+
+    public Money getRealizedGain() { return realizedGain; }
+
+    public Map<UUID, Position> getPositions() { return positions; }
+
+
+    // Helper functions
+
+    private static void compare(List<String> differences, String field, Object cached, Object ledger) {
+        if (!cached.equals(ledger)) {
+            differences.add(field + ": cached " + cached + ", ledger " + ledger);
+        }
+    }
+
+
+    // One stock position; cost basis is average cost times quantity rounded to cents
+    public record Position(UUID stockId, String stockCode, Quantity quantity, Money averageCost,
+                           Money costBasis, Money realizedGain) {
+
+        public Position {
+            Objects.requireNonNull(stockId, "stockId");
+            quantity = quantity != null ? quantity : Quantity.ZERO;
+            averageCost = averageCost != null ? averageCost : Money.ZERO;
+            costBasis = costBasis != null ? costBasis : Money.ZERO;
+            realizedGain = realizedGain != null ? realizedGain : Money.ZERO;
+        }
+
+        // Snapshot the state of a holding row
+        public static Position from(Holding holding) {
+            Quantity quantity = Quantity.of(holding.getQuantity());
+            Money averageCost = Money.of(holding.getAverageCostBasis());
+            return new Position(holding.getStock().getStockId(), holding.getStock().getStockCode(),
+                    quantity, averageCost, averageCost.times(quantity), Money.of(holding.getRealizedGain()));
+        }
+
+        // Same snapshot from a holding projection
+        public static Position from(HoldingView holding) {
+            Quantity quantity = Quantity.of(holding.quantity());
+            Money averageCost = Money.of(holding.averageCostBasis());
+            return new Position(holding.stockId(), holding.stockCode(),
+                    quantity, averageCost, averageCost.times(quantity), Money.of(holding.realizedGain()));
+        }
+
+        // Value at the given price, rounded to cents; prices with more than 4 places are multiplied exactly
+        public Money marketValue(BigDecimal price) {
+            if (price == null) {
+                return Money.ZERO;
+            }
+            if (Money.fits(price)) {
+                return Money.of(price).times(quantity);
+            }
+            return Money.of(price.multiply(quantity.toBigDecimal()).setScale(2, RoundingMode.HALF_UP));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.valuation;
+
+import com.joelcode.personalinvestmentportfoliotracker.dto.valuation.ValuationDriftDTO;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Holding;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public interface AccountValuationService {
+
+    // Cached valuation of an account, built from the ledger on first use
+    AccountValuation getValuation(UUID accountId);
+
+    // Current prices of every position, from the live price table where possible
+    Map<UUID, BigDecimal> currentPrices(AccountValuation valuation);
+
+    // Current prices of the given stocks, from the live price table where possible
+    Map<UUID, BigDecimal> currentPricesOf(Collection<UUID> stockIds);
+
+    // Apply the new state of a holding and the account cash once the current transaction commits
+    void recordPosition(Holding holding, BigDecimal cashBalance);
+
+    // Apply a dividend payment and the account cash once the current transaction commits
+    void recordDividend(UUID accountId, BigDecimal amount, BigDecimal cashBalance);
+
+    // Drop the cached valuation after a change that is not tracked incrementally
+    void evict(UUID accountId);
+
+    // Recompute a valuation from the ledger and replace the cached one
+    AccountValuation rebuild(UUID accountId);
+
+    // Compare every cached valuation with the ledger without changing the cache
+    List<ValuationDriftDTO> verifyAll();
+}
@@ -0,0 +1,229 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.valuation;
+
+import com.joelcode.personalinvestmentportfoliotracker.dto.valuation.ValuationDriftDTO;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Account;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Holding;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.AccountRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.DividendPaymentRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.HoldingRepository;
+import com.joelcode.personalinvestmentportfoliotracker.services.marketdata.LivePriceTable;
+import com.joelcode.personalinvestmentportfoliotracker.services.marketdata.PriceResolver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory account valuations for the dashboard
+ *
+ * The first read of an account builds its valuation from the ledger (holdings, paid dividends and
+ * cash); after that the trade and dividend write paths push their changes here, so a read is just
+ * arithmetic over the cached positions and the live price table. Changes are applied only after
+ * the surrounding transaction commits, so a rollback never leaks into the cache.
+ * Every change bumps a per-account generation and counts as pending until its transaction
+ * completes; a rebuild only installs its result if the account had nothing pending and no
+ * change arrived while it read the ledger, so a commit is never missed or applied twice.
+ * The cache holds at most max-accounts valuations and drops the least recently read one beyond
+ * that; a dropped account is simply rebuilt from the ledger on its next read.
+ */
+@Service
+public class AccountValuationServiceImpl implements AccountValuationService {
+
+    // Define key fields
+    private final AccountRepository accountRepository;
+    private final HoldingRepository holdingRepository;
+    private final DividendPaymentRepository dividendPaymentRepository;
+    private final LivePriceTable livePriceTable;
+    private final PriceResolver priceResolver;
+    private final long maxPriceAgeMillis;
+    private final Map<UUID, AccountValuation> valuations;
+    private final Map<UUID, Long> generations = new ConcurrentHashMap<>();
+    private final Map<UUID, Integer> pending = new ConcurrentHashMap<>();
+    private final Counter driftCounter;
+
+
+    // Constructor
+    public AccountValuationServiceImpl(AccountRepository accountRepository,
+                                       HoldingRepository holdingRepository,
+                                       DividendPaymentRepository dividendPaymentRepository,
+                                       LivePriceTable livePriceTable,
+                                       PriceResolver priceResolver,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${market-data.resolver.max-age-ms:60000}") long maxPriceAgeMillis,
+                                       @Value("${portfolio.valuation.cache.max-accounts:10000}") int maxAccounts) {
+        this.accountRepository = accountRepository;
+        this.holdingRepository = holdingRepository;
+        this.dividendPaymentRepository = dividendPaymentRepository;
+        this.livePriceTable = livePriceTable;
+        this.priceResolver = priceResolver;
+        this.maxPriceAgeMillis = maxPriceAgeMillis;
+        // Access-ordered, so the eldest entry is the least recently read; compute calls stay atomic under the lock
+        this.valuations = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, AccountValuation> eldest) {
+                return size() > maxAccounts;
+            }
+        });
+
+        meterRegistry.gaugeMapSize("portfolio.valuation.cache.size", List.of(), valuations);
+        this.driftCounter = Counter.builder("portfolio.valuation.drift")
+                .description("Cached account valuations that disagreed with the ledger")
+                .register(meterRegistry);
+    }
+
+
+    // Interface functions
+
+    // Get the cached valuation or build it from the ledger
+    @Override
+    public AccountValuation getValuation(UUID accountId) {
+        AccountValuation cached = valuations.get(accountId);
+        if (cached != null) {
+            return cached;
+        }
+        return rebuild(accountId);
+    }
+
+    // Price every position, going to the resolver only for stocks the live table has no recent price for
+    @Override
+    public Map<UUID, BigDecimal> currentPrices(AccountValuation valuation) {
+        return currentPricesOf(valuation.getPositions().keySet());
+    }
+
+    @Override
+    public Map<UUID, BigDecimal> currentPricesOf(Collection<UUID> stockIds) {
+        Map<UUID, BigDecimal> prices = new HashMap<>();
+        List<UUID> missing = new ArrayList<>();
+        long liveAfter = System.currentTimeMillis() - maxPriceAgeMillis;
+
+        for (UUID stockId : stockIds) {
+            Optional<LivePriceTable.LivePrice> live = livePriceTable.get(stockId)
+                    .filter(livePrice -> livePrice.updatedAtMillis() >= liveAfter);
+            if (live.isPresent()) {
+                prices.put(stockId, live.get().price());
+            } else {
+                missing.add(stockId);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            prices.putAll(priceResolver.resolvePrices(missing));
+        }
+        return prices;
+    }
+
+    // Record the new state of a holding after a trade
+    @Override
+    public void recordPosition(Holding holding, BigDecimal cashBalance) {
+        UUID accountId = holding.getAccount().getAccountId();
+        AccountValuation.Position position = AccountValuation.Position.from(holding);
+        afterCommit(accountId, valuation -> valuation.withPosition(position, cashBalance));
+    }
+
+    // Record a dividend payment
+    @Override
+    public void recordDividend(UUID accountId, BigDecimal amount, BigDecimal cashBalance) {
+        afterCommit(accountId, valuation -> valuation.withDividend(amount, cashBalance));
+    }
+
+    // Drop the cached valuation; the next read rebuilds it
+    @Override
+    public void evict(UUID accountId) {
+        afterCommit(accountId, valuation -> null);
+    }
+
+    // Recompute from the ledger and install unless a change is in flight
+    @Override
+    public AccountValuation rebuild(UUID accountId) {
+        long generation = generations.getOrDefault(accountId, 0L);
+        boolean settled = !pending.containsKey(accountId);
+        AccountValuation fromLedger = loadFromLedger(accountId);
+
+        if (settled) {
+            valuations.compute(accountId, (id, current) ->
+                    generations.getOrDefault(id, 0L) == generation ? fromLedger : current);
+        } else {
+            valuations.remove(accountId);
+        }
+        return fromLedger;
+    }
+
+    // Check each cached valuation against the ledger
+    @Override
+    public List<ValuationDriftDTO> verifyAll() {
+        List<ValuationDriftDTO> results = new ArrayList<>();
+        Map<UUID, AccountValuation> cached;
+        synchronized (valuations) {
+            cached = new LinkedHashMap<>(valuations);
+        }
+        for (Map.Entry<UUID, AccountValuation> entry : cached.entrySet()) {
+            List<String> differences;
+            try {
+                differences = entry.getValue().differencesFrom(loadFromLedger(entry.getKey()));
+            } catch (IllegalArgumentException e) {
+                differences = List.of(e.getMessage());
+            }
+
+            if (!differences.isEmpty()) {
+                driftCounter.increment();
+                System.err.println("Account valuation drift for " + entry.getKey() + ": " + differences);
+            }
+            results.add(new ValuationDriftDTO(entry.getKey(), differences));
+        }
+        return results;
+    }
+
+
+    // Helper functions
+
+    // Build a valuation from holdings, paid dividends and the account balance
+    private AccountValuation loadFromLedger(UUID accountId) {
+        Account account = accountRepository.findByAccountId(accountId)
+                .orElseThrow(() -> new IllegalArgumentException("Account not found"));
+
+        List<AccountValuation.Position> positions = holdingRepository.findByAccountIdsWithStock(List.of(accountId))
+                .stream()
+                .map(AccountValuation.Position::from)
+                .toList();
+        BigDecimal dividends = dividendPaymentRepository.calculateTotalDividendsByAccount(accountId);
+
+        return AccountValuation.of(accountId, account.getAccountBalance(), dividends, positions);
+    }
+
+    // Apply a change once the current transaction commits, or now if there is none
+    private void afterCommit(UUID accountId, UnaryOperator<AccountValuation> change) {
+        generations.merge(accountId, 1L, Long::sum);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            valuations.computeIfPresent(accountId, (id, valuation) -> change.apply(valuation));
+            return;
+        }
+
+        pending.merge(accountId, 1, Integer::sum);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                valuations.computeIfPresent(accountId, (id, valuation) -> change.apply(valuation));
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                pending.computeIfPresent(accountId, (id, count) -> count > 1 ? count - 1 : null);
+            }
+        });
+    }
+}
@@ -0,0 +1,51 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.valuation;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Shared scaled-long helpers for Money and Quantity
+final class FixedPoint {
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L
+    };
+
+    private FixedPoint() {}
+
+    static long pow10(int exponent) {
+        return POWERS_OF_TEN[exponent];
+    }
+
+    // Convert a decimal to units of 10^-scale, rounding HALF_UP; throws ArithmeticException on overflow
+    static long toUnits(BigDecimal value, int scale) {
+        if (fits(value, scale)) {
+            // Exact: shift the unscaled value instead of going through BigDecimal arithmetic
+            return value.unscaledValue().longValueExact() * pow10(scale - value.scale());
+        }
+        return value.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    // Whether a decimal converts to units of 10^-scale exactly and without overflow
+    static boolean fits(BigDecimal value, int scale) {
+        return value != null && value.scale() >= 0 && value.scale() <= scale
+                && value.precision() - value.scale() <= 18 - scale;
+    }
+
+    // Divide and round HALF_UP (ties away from zero), matching BigDecimal HALF_UP rounding
+    static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = Math.abs(dividend % divisor);
+        if (remainder >= Math.abs(divisor) - remainder) {
+            quotient += Long.signum(dividend) * Long.signum(divisor);
+        }
+        return quotient;
+    }
+
+    // Whether a * b fits in a long, using the high half of the 128-bit product
+    static boolean productFits(long a, long b) {
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        return (high == 0 && low >= 0) || (high == -1 && low < 0);
+    }
+}
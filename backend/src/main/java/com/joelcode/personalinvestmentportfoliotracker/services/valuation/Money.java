@@ -0,0 +1,139 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.valuation;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money amount or price as a fixed-point long
+ *
+ * One unit is 1e-4, the scale of the average cost column, so stored prices and amounts convert
+ * exactly. Valuation loops add and multiply plain longs; the product of a price and a quantity is
+ * rounded HALF_UP to cents exactly like HoldingCalculationServiceImpl always did with BigDecimal.
+ * Products are split into whole shares and the fractional part so they stay in a long for any
+ * realistic position; anything larger falls back to BigDecimal so results never change.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final int SCALE = 4;
+    public static final Money ZERO = new Money(0);
+
+    private static final int CENT_SCALE = 2;
+    private static final long UNITS_PER_CENT = FixedPoint.pow10(SCALE - CENT_SCALE);
+    private static final long SHARE_UNITS = FixedPoint.pow10(Quantity.SCALE);
+    // A price times a quantity is in units of 10^-(4 + 8); this brings it back to cents
+    private static final long PRODUCT_UNITS_PER_CENT = FixedPoint.pow10(SCALE + Quantity.SCALE - CENT_SCALE);
+
+    // Define key fields
+    private final long units;
+
+
+    // Constructor
+    private Money(long units) {
+        this.units = units;
+    }
+
+    // Amount from a count of 1e-4 units
+    public static Money ofUnits(long units) {
+        return units == 0 ? ZERO : new Money(units);
+    }
+
+    // Amount from whole cents
+    public static Money ofCents(long cents) {
+        return ofUnits(Math.multiplyExact(cents, UNITS_PER_CENT));
+    }
+
+    // Amount from a decimal, rounded HALF_UP to 4 places like the database columns
+    public static Money of(BigDecimal value) {
+        if (value == null) {
+            return ZERO;
+        }
+        return ofUnits(FixedPoint.toUnits(value, SCALE));
+    }
+
+    // Whether a decimal converts without rounding or overflow
+    public static boolean fits(BigDecimal value) {
+        return FixedPoint.fits(value, SCALE);
+    }
+
+
+    // Arithmetic
+    public Money plus(Money other) {
+        return ofUnits(Math.addExact(units, other.units));
+    }
+
+    public Money minus(Money other) {
+        return ofUnits(Math.subtractExact(units, other.units));
+    }
+
+    // Value of a quantity at this price, rounded HALF_UP to cents
+    public Money times(Quantity quantity) {
+        // Split into whole shares and the fractional part so realistic positions never overflow
+        long wholeShares = quantity.units() / SHARE_UNITS;
+        long fractionUnits = quantity.units() % SHARE_UNITS;
+        if (FixedPoint.productFits(units, wholeShares) && FixedPoint.productFits(units, fractionUnits)) {
+            long wholeValue = units * wholeShares;
+            long fractionValue = units * fractionUnits;
+            if (Math.abs(fractionValue) <= Long.MAX_VALUE - PRODUCT_UNITS_PER_CENT) {
+                // Whole cents of the whole-share value are exact; round what is left together with the fraction
+                long belowCent = (wholeValue % UNITS_PER_CENT) * SHARE_UNITS + fractionValue;
+                long cents = wholeValue / UNITS_PER_CENT + FixedPoint.divideHalfUp(belowCent, PRODUCT_UNITS_PER_CENT);
+                return ofCents(cents);
+            }
+        }
+        return of(toBigDecimal().multiply(quantity.toBigDecimal()).setScale(CENT_SCALE, RoundingMode.HALF_UP));
+    }
+
+    // Share of a total as a percentage, rounded to 4 places and then to 2 as the allocation view does
+    public BigDecimal percentOf(Money total) {
+        long percentUnits;
+        if (FixedPoint.productFits(units, 100L * FixedPoint.pow10(SCALE))) {
+            percentUnits = FixedPoint.divideHalfUp(units * 100L * FixedPoint.pow10(SCALE), total.units);
+        } else {
+            percentUnits = toBigDecimal().multiply(BigDecimal.valueOf(100))
+                    .divide(total.toBigDecimal(), SCALE, RoundingMode.HALF_UP)
+                    .unscaledValue().longValueExact();
+        }
+        return BigDecimal.valueOf(FixedPoint.divideHalfUp(percentUnits, UNITS_PER_CENT), CENT_SCALE);
+    }
+
+    public int signum() {
+        return Long.signum(units);
+    }
+
+
+    // Conversion
+    public long units() { return units; }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(units, SCALE);
+    }
+
+    // Decimal with two places for DTOs, rounded HALF_UP when the amount is not whole cents
+    public BigDecimal toCents() {
+        return BigDecimal.valueOf(FixedPoint.divideHalfUp(units, UNITS_PER_CENT), CENT_SCALE);
+    }
+
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(units, other.units);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Money money && money.units == units;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(units);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().stripTrailingZeros().toPlainString();
+    }
+}
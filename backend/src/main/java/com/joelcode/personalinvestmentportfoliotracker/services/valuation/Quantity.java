@@ -0,0 +1,88 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.valuation;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+
+/**
+ * Share quantity as a fixed-point long
+ *
+ * One unit is 1e-8 of a share, the same scale as the holding quantity column, so every stored
+ * quantity converts exactly and arithmetic on it is plain long math.
+ */
+public final class Quantity implements Comparable<Quantity> {
+
+    public static final int SCALE = 8;
+    public static final Quantity ZERO = new Quantity(0);
+
+    // Define key fields
+    private final long units;
+
+
+    // Constructor
+    private Quantity(long units) {
+        this.units = units;
+    }
+
+    // Quantity from a count of 1e-8 share units
+    public static Quantity ofUnits(long units) {
+        return units == 0 ? ZERO : new Quantity(units);
+    }
+
+    // Quantity from a decimal, rounded HALF_UP to 8 places like the database column
+    public static Quantity of(BigDecimal value) {
+        if (value == null) {
+            return ZERO;
+        }
+        return ofUnits(FixedPoint.toUnits(value, SCALE));
+    }
+
+    // Whether a decimal converts without rounding or overflow
+    public static boolean fits(BigDecimal value) {
+        return FixedPoint.fits(value, SCALE);
+    }
+
+
+    // Arithmetic
+    public Quantity plus(Quantity other) {
+        return ofUnits(Math.addExact(units, other.units));
+    }
+
+    public Quantity minus(Quantity other) {
+        return ofUnits(Math.subtractExact(units, other.units));
+    }
+
+    public int signum() {
+        return Long.signum(units);
+    }
+
+
+    // Conversion
+    public long units() { return units; }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(units, SCALE);
+    }
+
+
+    @Override
+    public int compareTo(Quantity other) {
+        return Long.compare(units, other.units);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Quantity quantity && quantity.units == units;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(units);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,183 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WebSocket publisher for portfolio, holding and dividend updates
+ *
+ * Services used to call the messaging template inside their database transaction for every
+ * mutation, so one trade could push several messages to the same topic and a rolled-back trade
+ * was still broadcast. Messages are now held until the surrounding transaction commits and
+ * dropped if it rolls back. Committed messages wait in a bounded queue for a short window, where
+ * a newer message with the same conflation key replaces the older one (latest value wins). A
+ * single background thread sends what is left once per window, so each payload is converted
+ * once per destination and never on the request thread. When the queue is full, updates to keys
+ * already queued are still merged and new keys are dropped.
+ */
+@Service
+public class CoalescingPortfolioUpdatePublisher implements PortfolioUpdatePublisher {
+
+    // Define key fields
+    private final SimpMessagingTemplate messagingTemplate;
+    private final int maxPending;
+
+    // Insertion-ordered so a window is sent in the order its keys first appeared
+    private final Map<String, PendingMessage> pending = new LinkedHashMap<>();
+    private final ScheduledExecutorService flushExecutor;
+
+    private final Counter sentCounter;
+    private final Counter coalescedCounter;
+    private final Counter droppedCounter;
+    private final Counter rolledBackCounter;
+    private final Counter failedCounter;
+
+
+    // Constructor
+    public CoalescingPortfolioUpdatePublisher(SimpMessagingTemplate messagingTemplate,
+                                              MeterRegistry meterRegistry,
+                                              @Value("${websocket.publish.window-ms:100}") long windowMillis,
+                                              @Value("${websocket.publish.max-pending:10000}") int maxPending) {
+        this.messagingTemplate = messagingTemplate;
+        this.maxPending = maxPending;
+        this.flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "websocket-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (windowMillis > 0) {
+            flushExecutor.scheduleWithFixedDelay(this::flushQuietly, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+        }
+
+        this.sentCounter = messageCounter(meterRegistry, "sent");
+        this.coalescedCounter = messageCounter(meterRegistry, "coalesced");
+        this.droppedCounter = messageCounter(meterRegistry, "dropped");
+        this.rolledBackCounter = messageCounter(meterRegistry, "rolled_back");
+        this.failedCounter = messageCounter(meterRegistry, "failed");
+        Gauge.builder("websocket.publish.queue.depth", this, CoalescingPortfolioUpdatePublisher::queueDepth)
+                .description("Messages waiting for the next WebSocket publish window")
+                .register(meterRegistry);
+    }
+
+
+    // Interface functions
+
+    @Override
+    public void publish(String destination, Object payload) {
+        publish(destination, payload.getClass().getSimpleName(), payload);
+    }
+
+    @Override
+    public void publish(String destination, String conflationKey, Object payload) {
+        PendingMessage message = new PendingMessage(destination, payload);
+        String key = destination + "|" + conflationKey;
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(key, message);
+            return;
+        }
+
+        // Nothing leaves before the transaction that produced it has committed
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(key, message);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    rolledBackCounter.increment();
+                }
+            }
+        });
+    }
+
+    @Override
+    public void flush() {
+        List<PendingMessage> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+
+        // EDGE CASE: One failed send must not drop the rest of the batch, it is already off the queue
+        for (PendingMessage message : batch) {
+            try {
+                messagingTemplate.convertAndSend(message.destination, message.payload);
+                sentCounter.increment();
+            } catch (Exception e) {
+                failedCounter.increment();
+                System.err.println("WebSocket publish to " + message.destination + " failed: " + e.getMessage());
+            }
+        }
+    }
+
+    public int queueDepth() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+
+    // Helper functions
+
+    private void enqueue(String key, PendingMessage message) {
+        synchronized (pending) {
+            if (pending.containsKey(key)) {
+                // Keep the key's place in the window, send only the latest payload
+                pending.put(key, message);
+                coalescedCounter.increment();
+                return;
+            }
+            // EDGE CASE: Queue is full, drop updates for keys that are not already waiting
+            if (pending.size() >= maxPending) {
+                droppedCounter.increment();
+                return;
+            }
+            pending.put(key, message);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            System.err.println("WebSocket publish failed: " + e.getMessage());
+        }
+    }
+
+    private static Counter messageCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("websocket.publish.messages")
+                .description("WebSocket updates by publish outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdownNow();
+        flushQuietly();
+    }
+
+    // Destination and payload waiting for the next window
+    private record PendingMessage(String destination, Object payload) {}
+}
@@ -0,0 +1,14 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.websocket;
+
+public interface PortfolioUpdatePublisher {
+
+    // Queue a message for a destination once the current transaction commits; a newer message with the same
+    // destination and type replaces it if both are still waiting to be sent
+    void publish(String destination, Object payload);
+
+    // Same as publish, but messages only replace each other when they share the given conflation key
+    void publish(String destination, String conflationKey, Object payload);
+
+    // Send everything waiting now instead of at the end of the current window
+    void flush();
+}
@@ -0,0 +1,123 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.websocket;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Which stock symbols currently have live WebSocket listeners
+ *
+ * Tracks STOMP subscriptions to /topic/stocks/{code} per session, so price ticks are only built
+ * for symbols someone is listening to and the market data refresher can poll those symbols more
+ * often than the rest. Unsubscribing or disconnecting removes the session's interest.
+ */
+@Component
+public class PriceSubscriptionRegistry {
+
+    public static final String PRICE_TOPIC_PREFIX = "/topic/stocks/";
+
+    // Session id -> (subscription id -> symbol), and symbol -> number of live subscriptions
+    private final Map<String, Map<String, String>> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Integer> listeners = new ConcurrentHashMap<>();
+
+
+    // Per-symbol destination for price ticks
+    public static String topicFor(String stockCode) {
+        return PRICE_TOPIC_PREFIX + stockCode.toUpperCase();
+    }
+
+    public boolean hasListeners(String stockCode) {
+        return listeners.containsKey(stockCode.toUpperCase());
+    }
+
+    public Set<String> watchedSymbols() {
+        return Set.copyOf(listeners.keySet());
+    }
+
+
+    // Event listeners
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor headers = headers(event.getMessage());
+        String symbol = symbolOf(headers.getDestination());
+        if (symbol == null || headers.getSessionId() == null || headers.getSubscriptionId() == null) {
+            return;
+        }
+        subscribe(headers.getSessionId(), headers.getSubscriptionId(), symbol);
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor headers = headers(event.getMessage());
+        if (headers.getSessionId() != null && headers.getSubscriptionId() != null) {
+            unsubscribe(headers.getSessionId(), headers.getSubscriptionId());
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        disconnect(event.getSessionId());
+    }
+
+
+    // Registry updates, also used directly by tests
+
+    public void subscribe(String sessionId, String subscriptionId, String symbol) {
+        String previous = sessions.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>())
+                .put(subscriptionId, symbol);
+        if (previous != null) {
+            release(previous);
+        }
+        listeners.merge(symbol, 1, Integer::sum);
+    }
+
+    public void unsubscribe(String sessionId, String subscriptionId) {
+        Map<String, String> subscriptions = sessions.get(sessionId);
+        if (subscriptions == null) {
+            return;
+        }
+        String symbol = subscriptions.remove(subscriptionId);
+        if (symbol != null) {
+            release(symbol);
+        }
+    }
+
+    public void disconnect(String sessionId) {
+        if (sessionId == null) {
+            return;
+        }
+        Map<String, String> subscriptions = sessions.remove(sessionId);
+        if (subscriptions != null) {
+            subscriptions.values().forEach(this::release);
+        }
+    }
+
+
+    // Helper functions
+
+    private void release(String symbol) {
+        listeners.computeIfPresent(symbol, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    // Symbol from a /topic/stocks/{code} destination, or null for any other destination
+    static String symbolOf(String destination) {
+        if (destination == null || !destination.startsWith(PRICE_TOPIC_PREFIX)) {
+            return null;
+        }
+        String symbol = destination.substring(PRICE_TOPIC_PREFIX.length());
+        return symbol.isEmpty() || symbol.contains("/") ? null : symbol.toUpperCase();
+    }
+
+    private static SimpMessageHeaderAccessor headers(Message<?> message) {
+        return SimpMessageHeaderAccessor.wrap(message);
+    }
+}
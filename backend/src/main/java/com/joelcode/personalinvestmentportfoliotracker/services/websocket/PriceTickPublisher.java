@@ -0,0 +1,86 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.websocket;
+
+import com.joelcode.personalinvestmentportfoliotracker.controllers.WebSocketController;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends stock price ticks to the per-symbol topic /topic/stocks/{code}
+ *
+ * A tick is only built when the symbol has a live listener and its price differs from the last
+ * tick sent for it, so repeated reads and unchanged refreshes do not reach clients. Per-session
+ * rate limits are applied on the outbound channel by PriceTickThrottle, which holds excess ticks
+ * back instead of dropping them, so a session still gets every price this class has sent.
+ */
+@Component
+public class PriceTickPublisher {
+
+    // Define key fields
+    private final SimpMessagingTemplate messagingTemplate;
+    private final PriceSubscriptionRegistry subscriptionRegistry;
+
+    // Last price sent per symbol, forgotten when nobody is listening
+    private final Map<String, BigDecimal> lastSent = new ConcurrentHashMap<>();
+
+    private final Counter sentCounter;
+    private final Counter unchangedCounter;
+    private final Counter unwatchedCounter;
+
+
+    // Constructor
+    public PriceTickPublisher(SimpMessagingTemplate messagingTemplate,
+                              PriceSubscriptionRegistry subscriptionRegistry,
+                              MeterRegistry meterRegistry) {
+        this.messagingTemplate = messagingTemplate;
+        this.subscriptionRegistry = subscriptionRegistry;
+        this.sentCounter = tickCounter(meterRegistry, "sent");
+        this.unchangedCounter = tickCounter(meterRegistry, "unchanged");
+        this.unwatchedCounter = tickCounter(meterRegistry, "unwatched");
+    }
+
+
+    // Send a tick if someone is listening and the price moved; returns whether a tick was sent
+    public boolean publish(UUID stockId, String stockCode, BigDecimal price) {
+        // EDGE CASE: Nothing to send
+        if (stockCode == null || price == null) {
+            return false;
+        }
+        String symbol = stockCode.toUpperCase();
+
+        if (!subscriptionRegistry.hasListeners(symbol)) {
+            // A later subscriber should get the next tick even if the price has not moved
+            lastSent.remove(symbol);
+            unwatchedCounter.increment();
+            return false;
+        }
+
+        BigDecimal previous = lastSent.put(symbol, price);
+        if (previous != null && previous.compareTo(price) == 0) {
+            unchangedCounter.increment();
+            return false;
+        }
+
+        messagingTemplate.convertAndSend(PriceSubscriptionRegistry.topicFor(symbol),
+                new WebSocketController.StockPriceUpdateMessage(stockId, symbol, price, LocalDateTime.now()));
+        sentCounter.increment();
+        return true;
+    }
+
+
+    // Helper functions
+
+    private static Counter tickCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("websocket.price.ticks")
+                .description("Stock price ticks by publish outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,166 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-session cap on price ticks, applied on the client outbound channel
+ *
+ * The broker fans each tick out to every subscribed session. This interceptor counts price
+ * ticks per session in one-second windows. Ticks beyond the cap are not dropped: the latest one
+ * per session and symbol is held back and sent once the next window has room, because the
+ * publisher does not send an unchanged price again. A newer tick for the same symbol replaces
+ * the held one, or clears it if it gets through first.
+ */
+@Component
+public class PriceTickThrottle implements ChannelInterceptor {
+
+    // Define key fields
+    private final int maxTicksPerSecond;
+    private final LongSupplier clock;
+    private final Map<String, SessionTicks> sessions = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService releaseExecutor;
+    private final Counter throttledCounter;
+    private final Counter releasedCounter;
+
+
+    // Constructor
+    @Autowired
+    public PriceTickThrottle(MeterRegistry meterRegistry,
+                             @Value("${websocket.price-ticks.max-per-second:5}") int maxTicksPerSecond,
+                             @Value("${websocket.price-ticks.release-ms:250}") long releaseMillis) {
+        this(meterRegistry, maxTicksPerSecond, System::currentTimeMillis, releaseMillis);
+    }
+
+    PriceTickThrottle(MeterRegistry meterRegistry, int maxTicksPerSecond, LongSupplier clock, long releaseMillis) {
+        this.maxTicksPerSecond = maxTicksPerSecond;
+        this.clock = clock;
+        this.releaseExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "price-tick-release");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (releaseMillis > 0) {
+            releaseExecutor.scheduleWithFixedDelay(this::releaseQuietly, releaseMillis, releaseMillis, TimeUnit.MILLISECONDS);
+        }
+        this.throttledCounter = tickCounter(meterRegistry, "throttled");
+        this.releasedCounter = tickCounter(meterRegistry, "released");
+    }
+
+
+    // Hold back price ticks for a session that has used up this second's allowance
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(message);
+        String destination = headers.getDestination();
+        if (headers.getMessageType() != SimpMessageType.MESSAGE
+                || headers.getSessionId() == null
+                || PriceSubscriptionRegistry.symbolOf(destination) == null) {
+            return message;
+        }
+
+        SessionTicks ticks = sessions.computeIfAbsent(headers.getSessionId(), id -> new SessionTicks());
+        synchronized (ticks) {
+            ticks.roll(clock.getAsLong() / 1000);
+            if (ticks.count >= maxTicksPerSecond) {
+                // Latest wins: a newer held tick for the same symbol replaces the older one
+                ticks.held.put(destination, new HeldTick(message, channel));
+                throttledCounter.increment();
+                return null;
+            }
+            ticks.count++;
+            // This tick is newer than anything held back for the symbol
+            ticks.held.remove(destination);
+            return message;
+        }
+    }
+
+    // Send held ticks for every session whose current window has room; returns how many were sent
+    public int release() {
+        int released = 0;
+        long second = clock.getAsLong() / 1000;
+        for (SessionTicks ticks : sessions.values()) {
+            // Sent under the session lock so a newer tick cannot pass while an older one is in flight
+            synchronized (ticks) {
+                ticks.roll(second);
+                Iterator<HeldTick> held = ticks.held.values().iterator();
+                while (held.hasNext() && ticks.count < maxTicksPerSecond) {
+                    HeldTick tick = held.next();
+                    held.remove();
+                    // Goes through preSend again, which counts it against the new window
+                    tick.channel.send(tick.message);
+                    released++;
+                }
+            }
+        }
+        releasedCounter.increment(released);
+        return released;
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        if (event.getSessionId() != null) {
+            sessions.remove(event.getSessionId());
+        }
+    }
+
+
+    // Helper functions
+
+    private void releaseQuietly() {
+        try {
+            release();
+        } catch (Exception e) {
+            System.err.println("Price tick release failed: " + e.getMessage());
+        }
+    }
+
+    private static Counter tickCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("websocket.price.ticks")
+                .description("Stock price ticks by publish outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        releaseExecutor.shutdownNow();
+    }
+
+    // Ticks sent to a session within the current wall-clock second, and the latest held tick per destination
+    private static final class SessionTicks {
+        private long second = Long.MIN_VALUE;
+        private int count;
+        private final Map<String, HeldTick> held = new LinkedHashMap<>();
+
+        private void roll(long now) {
+            if (second != now) {
+                second = now;
+                count = 0;
+            }
+        }
+    }
+
+    // A throttled tick and the channel to send it on once there is room
+    private record HeldTick(Message<?> message, MessageChannel channel) {}
+}
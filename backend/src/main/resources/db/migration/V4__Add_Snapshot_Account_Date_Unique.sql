@@ -0,0 +1,13 @@
+-- V4__Add_Snapshot_Account_Date_Unique.sql
+-- One snapshot per account per day, so the batch snapshot job can be safely re-run mid-way
+
+-- Remove any duplicates left by earlier runs, keeping the first snapshot created
+DELETE FROM portfolio_snapshots ps
+USING portfolio_snapshots newer
+WHERE ps.account_id = newer.account_id
+  AND ps.snapshot_date = newer.snapshot_date
+  AND (ps.created_at > newer.created_at
+       OR (ps.created_at = newer.created_at AND ps.snapshot_id > newer.snapshot_id));
+
+ALTER TABLE portfolio_snapshots
+    ADD CONSTRAINT uk_portfolio_snapshots_account_date UNIQUE (account_id, snapshot_date);
@@ -0,0 +1,8 @@
+-- V5__Add_Transactions_Feed_Index.sql
+-- Keyset index for the transaction feed: newest first per account, transaction id breaks timestamp ties
+
+CREATE INDEX idx_transactions_account_created
+    ON transactions (account_id, created_at DESC, transaction_id DESC);
+
+-- The feed index leads with account_id, so the single-column index is redundant
+DROP INDEX IF EXISTS idx_transactions_account_id;
@@ -0,0 +1,16 @@
+-- V6__Add_News_Articles.sql
+-- Local store of MarketAux articles, refreshed by the scheduled news fetcher and deduplicated by URL
+
+CREATE TABLE news_articles (
+    article_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    url VARCHAR(2048) NOT NULL UNIQUE,
+    sector VARCHAR(50) NOT NULL,
+    title TEXT NOT NULL,
+    summary TEXT,
+    image_url VARCHAR(2048),
+    published_at TIMESTAMP NOT NULL,
+    fetched_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Startup load and retention both read newest first
+CREATE INDEX idx_news_articles_published_at ON news_articles (published_at DESC);
@@ -0,0 +1,28 @@
+-- V7__Add_Candle_Store.sql
+-- Local OHLCV store behind the candles endpoint. Bars are keyed by symbol, resolution and bucket start
+-- (epoch seconds); coverage records which ranges have been fetched upstream, including ranges with no bars
+
+CREATE TABLE candle_bars (
+    candle_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    symbol VARCHAR(20) NOT NULL,
+    resolution VARCHAR(4) NOT NULL,
+    bucket_start BIGINT NOT NULL,
+    open_price NUMERIC(19, 4) NOT NULL,
+    high_price NUMERIC(19, 4) NOT NULL,
+    low_price NUMERIC(19, 4) NOT NULL,
+    close_price NUMERIC(19, 4) NOT NULL,
+    volume BIGINT NOT NULL DEFAULT 0
+);
+
+-- Range queries scan one series in bucket order
+CREATE UNIQUE INDEX uq_candle_bars_series_bucket ON candle_bars (symbol, resolution, bucket_start);
+
+CREATE TABLE candle_coverage (
+    coverage_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    symbol VARCHAR(20) NOT NULL,
+    resolution VARCHAR(4) NOT NULL,
+    range_from BIGINT NOT NULL,
+    range_to BIGINT NOT NULL
+);
+
+CREATE INDEX idx_candle_coverage_series ON candle_coverage (symbol, resolution, range_from);
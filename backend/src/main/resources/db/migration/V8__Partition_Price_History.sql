@@ -0,0 +1,94 @@
+-- V8__Partition_Price_History.sql
+-- price_history becomes a monthly range-partitioned table on close_date, with BRIN instead of b-tree on
+-- close_date. Daily OHLC rollups live in price_history_daily so raw intraday partitions can be dropped
+
+-- Move the old heap table aside, freeing the index names the new table uses
+DROP INDEX IF EXISTS idx_price_history_stock_id;
+DROP INDEX IF EXISTS idx_price_history_close_date;
+ALTER TABLE price_history RENAME TO price_history_unpartitioned;
+ALTER INDEX uq_price_history_stock_date RENAME TO uq_price_history_unpartitioned_stock_date;
+ALTER TABLE price_history_unpartitioned RENAME CONSTRAINT price_history_pkey TO price_history_unpartitioned_pkey;
+
+-- The partition key has to be part of the primary key
+CREATE TABLE price_history (
+    price_history_id UUID NOT NULL DEFAULT gen_random_uuid(),
+    stock_id UUID NOT NULL,
+    close_date TIMESTAMP NOT NULL,
+    close_price NUMERIC(19, 2) NOT NULL,
+    CONSTRAINT price_history_pkey PRIMARY KEY (price_history_id, close_date),
+    CONSTRAINT fk_price_history_stock_partitioned FOREIGN KEY (stock_id) REFERENCES stock(stock_id) ON DELETE CASCADE
+) PARTITION BY RANGE (close_date);
+
+-- One partition per calendar month, named price_history_pYYYYMM; the maintenance job calls this ahead of time.
+-- Rows the DEFAULT partition already holds for the month are moved into the new partition, since
+-- Postgres refuses to add a partition whose range the DEFAULT partition still has rows for
+CREATE OR REPLACE FUNCTION price_history_ensure_partition(month_start DATE) RETURNS VOID AS $$
+DECLARE
+    lower_bound DATE := date_trunc('month', month_start)::date;
+    upper_bound DATE := (date_trunc('month', month_start) + INTERVAL '1 month')::date;
+    partition_name TEXT := 'price_history_p' || to_char(lower_bound, 'YYYYMM');
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN;
+    END IF;
+
+    IF to_regclass('price_history_default') IS NULL THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF price_history FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, lower_bound, upper_bound);
+        RETURN;
+    END IF;
+
+    -- Fill a standalone table from DEFAULT, then attach it once DEFAULT no longer overlaps the range
+    EXECUTE format('CREATE TABLE %I (LIKE price_history INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition_name);
+    EXECUTE format('WITH moved AS (DELETE FROM price_history_default WHERE close_date >= %L AND close_date < %L RETURNING *) '
+                   'INSERT INTO %I SELECT * FROM moved',
+                   lower_bound, upper_bound, partition_name);
+    EXECUTE format('ALTER TABLE price_history ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, lower_bound, upper_bound);
+END;
+$$ LANGUAGE plpgsql;
+
+-- Partitions for every month with data, through two months ahead
+DO $$
+DECLARE
+    month_start DATE;
+BEGIN
+    FOR month_start IN
+        SELECT generate_series(
+                   date_trunc('month', COALESCE((SELECT MIN(close_date) FROM price_history_unpartitioned), now())),
+                   date_trunc('month', now()) + INTERVAL '2 months',
+                   INTERVAL '1 month')::date
+    LOOP
+        PERFORM price_history_ensure_partition(month_start);
+    END LOOP;
+END $$;
+
+-- Catches rows outside every monthly partition rather than failing the insert
+CREATE TABLE price_history_default PARTITION OF price_history DEFAULT;
+
+INSERT INTO price_history (price_history_id, stock_id, close_date, close_price)
+SELECT price_history_id, stock_id, close_date, close_price FROM price_history_unpartitioned;
+
+DROP TABLE price_history_unpartitioned;
+
+-- Upsert target and per-stock latest lookups; the unique key includes the partition key
+CREATE UNIQUE INDEX uq_price_history_stock_date ON price_history (stock_id, close_date);
+
+-- Rows arrive in close_date order, so block ranges stay tight and the index stays tiny
+CREATE INDEX brin_price_history_close_date ON price_history USING BRIN (close_date);
+
+-- ==================== DAILY ROLLUPS ====================
+CREATE TABLE price_history_daily (
+    daily_id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    stock_id UUID NOT NULL,
+    trade_date DATE NOT NULL,
+    open_price NUMERIC(19, 2) NOT NULL,
+    high_price NUMERIC(19, 2) NOT NULL,
+    low_price NUMERIC(19, 2) NOT NULL,
+    close_price NUMERIC(19, 2) NOT NULL,
+    samples INTEGER NOT NULL,
+    CONSTRAINT fk_price_history_daily_stock FOREIGN KEY (stock_id) REFERENCES stock(stock_id) ON DELETE CASCADE
+);
+
+CREATE UNIQUE INDEX uq_price_history_daily_stock_date ON price_history_daily (stock_id, trade_date);
+CREATE INDEX brin_price_history_daily_trade_date ON price_history_daily USING BRIN (trade_date);
@@ -0,0 +1,110 @@
+package com.joelcode.personalinvestmentportfoliotracker.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.joelcode.personalinvestmentportfoliotracker.dto.holding.HoldingDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.AllocationBreakdownDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.PortfolioOverviewDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.PortfolioPerformanceDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.transaction.TransactionDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.utility.DashboardDTO;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Holding;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Transaction;
+import com.joelcode.personalinvestmentportfoliotracker.services.mapping.HoldingMapper;
+import com.joelcode.personalinvestmentportfoliotracker.services.mapping.TransactionMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Entity to DTO conversions and dashboard JSON serialisation over a synthetic account
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int holdings;
+
+    private SyntheticPortfolio portfolio;
+    private Map<UUID, BigDecimal> prices;
+    private DashboardDTO dashboard;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setup() {
+        portfolio = new SyntheticPortfolio(holdings);
+        prices = portfolio.getPriceResolver().resolvePrices(portfolio.getHoldings().stream()
+                .map(h -> h.getStock().getStockId())
+                .toList());
+
+        // Same Jackson configuration Spring Boot applies to the REST responses
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<HoldingDTO> holdingDTOs = holdingDTOs();
+        BigDecimal holdingsValue = holdingDTOs.stream()
+                .map(HoldingDTO::getCurrentValue)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal costBasis = holdingDTOs.stream()
+                .map(HoldingDTO::getTotalCostBasis)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal cash = portfolio.getAccount().getAccountBalance();
+
+        PortfolioOverviewDTO overview = new PortfolioOverviewDTO(portfolio.getAccount().getUserid(),
+                portfolio.getAccountId(), holdingsValue.add(cash), holdingsValue, costBasis,
+                holdingsValue.subtract(costBasis), BigDecimal.ZERO, BigDecimal.ZERO, cash, holdingDTOs);
+        PortfolioPerformanceDTO performance = new PortfolioPerformanceDTO(portfolio.getAccount().getUserid(),
+                portfolio.getAccountId(), holdingsValue.add(cash), costBasis, BigDecimal.ZERO,
+                holdingsValue.subtract(costBasis), BigDecimal.ZERO, cash, BigDecimal.ZERO,
+                BigDecimal.ZERO, BigDecimal.ZERO);
+
+        List<AllocationBreakdownDTO> allocations = new ArrayList<>();
+        for (HoldingDTO holding : holdingDTOs) {
+            AllocationBreakdownDTO allocation = new AllocationBreakdownDTO();
+            allocation.setStockCode(holding.getStockSymbol());
+            allocation.setCurrentValue(holding.getCurrentValue());
+            allocation.setPercentage(holding.getCurrentValue().multiply(BigDecimal.valueOf(100))
+                    .divide(holdingsValue, 2, RoundingMode.HALF_UP));
+            allocations.add(allocation);
+        }
+
+        dashboard = new DashboardDTO(overview, performance, allocations, transactionDTOs());
+    }
+
+    @TearDown
+    public void tearDown() {
+        portfolio.shutdown();
+    }
+
+    @Benchmark
+    public List<HoldingDTO> holdingDTOs() {
+        List<HoldingDTO> result = new ArrayList<>(portfolio.getHoldings().size());
+        for (Holding holding : portfolio.getHoldings()) {
+            result.add(HoldingMapper.toDTO(holding, prices.get(holding.getStock().getStockId())));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<TransactionDTO> transactionDTOs() {
+        List<TransactionDTO> result = new ArrayList<>(portfolio.getTransactions().size());
+        for (Transaction transaction : portfolio.getTransactions()) {
+            result.add(TransactionMapper.toDTO(transaction));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public byte[] serialiseDashboard() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dashboard);
+    }
+}
@@ -0,0 +1,103 @@
+package com.joelcode.personalinvestmentportfoliotracker.benchmarks;
+
+import com.joelcode.personalinvestmentportfoliotracker.entities.User;
+import com.joelcode.personalinvestmentportfoliotracker.jwt.JwtAuthenticationFilter;
+import com.joelcode.personalinvestmentportfoliotracker.jwt.JwtPrincipalCache;
+import com.joelcode.personalinvestmentportfoliotracker.jwt.JwtTokenProvider;
+import com.joelcode.personalinvestmentportfoliotracker.model.CustomUserDetails;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.joelcode.personalinvestmentportfoliotracker.benchmarks.SyntheticPortfolio.stub;
+import static org.mockito.Mockito.when;
+
+// Requests per second through the JWT filter for an authenticated request, with and without the fast-path caches
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-that-is-at-least-256-bits-long-for-hmac-sha";
+
+    // cached: verified-token and principal caches on; uncached: every request verifies and queries
+    @Param({"cached", "uncached"})
+    private String caches;
+
+    private JwtAuthenticationFilter filter;
+    private JwtTokenProvider jwtTokenProvider;
+    private UserRepository userRepository;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setup() {
+        user = new User();
+        user.setUserId(UUID.randomUUID());
+        user.setUsername("benchmark");
+        user.setEmail("benchmark@example.com");
+        user.setFullName("Benchmark User");
+        user.setRoles(User.Role.ROLE_USER);
+
+        // User queries are stubbed, so the gains measured here exclude database round trips
+        userRepository = stub(UserRepository.class);
+        when(userRepository.findById(user.getUserId())).thenReturn(Optional.of(user));
+        when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+
+        boolean cached = "cached".equals(caches);
+        jwtTokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpirationInMs", 3_600_000);
+        ReflectionTestUtils.setField(jwtTokenProvider, "tokenCacheMaxEntries", cached ? 10_000 : 0);
+        filter = new JwtAuthenticationFilter(jwtTokenProvider,
+                new JwtPrincipalCache(userRepository, cached ? 30_000 : 0, 10_000));
+
+        token = jwtTokenProvider.generateToken(user);
+    }
+
+    @Benchmark
+    public Authentication filterRequest() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/dashboard/user");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    // What the filter did before: a fresh key and parser for each of three parses, then two user queries
+    @Benchmark
+    public CustomUserDetails legacyFilterPath() {
+        legacyClaims(token);
+        UUID userId = UUID.fromString(legacyClaims(token).getSubject());
+        User loaded = userRepository.findById(userId).orElseThrow();
+        CustomUserDetails principal = new CustomUserDetails(userRepository.findByUsername(loaded.getUsername()).orElseThrow());
+        legacyClaims(token);
+        return principal;
+    }
+
+    private static Claims legacyClaims(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
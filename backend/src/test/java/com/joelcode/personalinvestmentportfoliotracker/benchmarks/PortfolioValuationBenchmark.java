@@ -0,0 +1,92 @@
+package com.joelcode.personalinvestmentportfoliotracker.benchmarks;
+
+import com.joelcode.personalinvestmentportfoliotracker.controllers.WebSocketController;
+import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.AllocationBreakdownDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.PortfolioPerformanceDTO;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.PortfolioSnapshotRepository;
+import com.joelcode.personalinvestmentportfoliotracker.services.account.AccountService;
+import com.joelcode.personalinvestmentportfoliotracker.services.account.AccountValidationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.holding.HoldingCalculationServiceImpl;
+import com.joelcode.personalinvestmentportfoliotracker.services.holding.HoldingServiceImpl;
+import com.joelcode.personalinvestmentportfoliotracker.services.holding.HoldingValidationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.portfolio.allocation.AllocationBreakdownServiceImpl;
+import com.joelcode.personalinvestmentportfoliotracker.services.portfolio.performance.PortfolioPerformanceServiceImpl;
+import com.joelcode.personalinvestmentportfoliotracker.services.user.UserValidationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.AccountValuationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.AccountValuationServiceImpl;
+import com.joelcode.personalinvestmentportfoliotracker.services.websocket.PortfolioUpdatePublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.joelcode.personalinvestmentportfoliotracker.benchmarks.SyntheticPortfolio.stub;
+import static org.mockito.Mockito.when;
+
+// Valuation read paths over a synthetic account, wired with the real services and stubbed repositories
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PortfolioValuationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int holdings;
+
+    private SyntheticPortfolio portfolio;
+    private HoldingCalculationServiceImpl holdingCalculationService;
+    private PortfolioPerformanceServiceImpl portfolioPerformanceService;
+    private AllocationBreakdownServiceImpl allocationBreakdownService;
+
+    @Setup
+    public void setup() {
+        portfolio = new SyntheticPortfolio(holdings);
+
+        HoldingValidationService holdingValidationService = stub(HoldingValidationService.class);
+        when(holdingValidationService.validateAccountExists(portfolio.getAccountId())).thenReturn(portfolio.getAccount());
+        AccountValidationService accountValidationService = new AccountValidationService(portfolio.getAccountRepository());
+
+        holdingCalculationService = new HoldingCalculationServiceImpl(portfolio.getHoldingRepository(),
+                holdingValidationService, portfolio.getPriceResolver());
+
+        HoldingServiceImpl holdingService = new HoldingServiceImpl(portfolio.getHoldingRepository(),
+                holdingValidationService, accountValidationService, portfolio.getPriceResolver(),
+                stub(WebSocketController.class), stub(PortfolioUpdatePublisher.class), stub(AccountValuationService.class));
+        portfolioPerformanceService = new PortfolioPerformanceServiceImpl(stub(AccountService.class), holdingService,
+                stub(PortfolioSnapshotRepository.class), portfolio.getAccountRepository(),
+                portfolio.getHoldingRepository(), accountValidationService, portfolio.getDividendPaymentRepository(),
+                stub(UserValidationService.class), stub(PortfolioUpdatePublisher.class),
+                stub(WebSocketController.class), portfolio.getPriceResolver());
+
+        AccountValuationServiceImpl accountValuationService = new AccountValuationServiceImpl(
+                portfolio.getAccountRepository(), portfolio.getHoldingRepository(),
+                portfolio.getDividendPaymentRepository(), portfolio.getLivePriceTable(),
+                portfolio.getPriceResolver(), new SimpleMeterRegistry(), 3_600_000, 100_000);
+        allocationBreakdownService = new AllocationBreakdownServiceImpl(accountValuationService,
+                stub(UserValidationService.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        portfolio.shutdown();
+    }
+
+    @Benchmark
+    public BigDecimal calculateTotalPortfolioValue() {
+        return holdingCalculationService.calculateTotalPortfolioValue(portfolio.getAccountId());
+    }
+
+    @Benchmark
+    public PortfolioPerformanceDTO getPerformanceForAccount() {
+        return portfolioPerformanceService.getPerformanceForAccount(portfolio.getAccountId());
+    }
+
+    @Benchmark
+    public List<AllocationBreakdownDTO> getAllocationForAccount() {
+        return allocationBreakdownService.getAllocationForAccount(portfolio.getAccountId());
+    }
+}
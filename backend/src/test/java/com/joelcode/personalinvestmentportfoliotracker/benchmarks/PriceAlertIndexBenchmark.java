@@ -0,0 +1,101 @@
+package com.joelcode.personalinvestmentportfoliotracker.benchmarks;
+
+import com.joelcode.personalinvestmentportfoliotracker.services.pricealert.ActiveAlert;
+import com.joelcode.personalinvestmentportfoliotracker.services.pricealert.PriceAlertIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Cost of evaluating one price update against every alert in memory: sorted index versus scanning the stock's alerts
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PriceAlertIndexBenchmark {
+
+    private static final int STOCKS = 100;
+
+    @Param({"100000", "1000000"})
+    private int alerts;
+
+    private PriceAlertIndex index;
+    private List<List<ActiveAlert>> alertsByStock;
+    private UUID[] stockIds;
+    private BigDecimal[] prices;
+    private Random random;
+
+    @Setup
+    public void setup() {
+        random = new Random(42);
+        index = new PriceAlertIndex();
+        stockIds = new UUID[STOCKS];
+        prices = new BigDecimal[STOCKS];
+        alertsByStock = new ArrayList<>();
+        for (int s = 0; s < STOCKS; s++) {
+            stockIds[s] = UUID.randomUUID();
+            prices[s] = BigDecimal.valueOf(10_000, 2);
+            alertsByStock.add(new ArrayList<>());
+        }
+
+        // Thresholds spread over 50.00 to 150.00 either side of the starting price of 100.00
+        for (int i = 0; i < alerts; i++) {
+            int s = i % STOCKS;
+            String type = random.nextBoolean() ? ActiveAlert.ABOVE : ActiveAlert.BELOW;
+            BigDecimal target = BigDecimal.valueOf(5_000 + random.nextInt(10_000), 2);
+            if (ActiveAlert.ABOVE.equals(type) == target.compareTo(prices[s]) <= 0) {
+                // Start with nothing crossed so every alert is live
+                type = ActiveAlert.ABOVE.equals(type) ? ActiveAlert.BELOW : ActiveAlert.ABOVE;
+            }
+            ActiveAlert alert = new ActiveAlert(UUID.randomUUID(), UUID.randomUUID(), "user" + i,
+                    stockIds[s], "S" + s, type, target);
+            index.add(alert);
+            alertsByStock.get(s).add(alert);
+        }
+    }
+
+    // Random walk of 10 cents per update, like a refresh tick
+    private int nextMove() {
+        int s = random.nextInt(STOCKS);
+        BigDecimal step = BigDecimal.valueOf(random.nextBoolean() ? 10 : -10, 2);
+        BigDecimal next = prices[s].add(step);
+        if (next.compareTo(BigDecimal.valueOf(50)) > 0 && next.compareTo(BigDecimal.valueOf(150)) < 0) {
+            prices[s] = next;
+        }
+        return s;
+    }
+
+    // Fired alerts are added back on the other side of the price so the index stays at its configured size
+    @Benchmark
+    public int sortedIndex() {
+        int s = nextMove();
+        List<ActiveAlert> fired = index.trigger(stockIds[s], prices[s]);
+        for (ActiveAlert alert : fired) {
+            String opposite = ActiveAlert.ABOVE.equals(alert.type()) ? ActiveAlert.BELOW : ActiveAlert.ABOVE;
+            index.add(new ActiveAlert(alert.alertId(), alert.userId(), alert.username(), alert.stockId(),
+                    alert.stockCode(), opposite, alert.targetPrice()));
+        }
+        return fired.size();
+    }
+
+    // Checking every alert on the stock, which is what evaluating without the index would cost
+    @Benchmark
+    public int linearScan() {
+        int s = nextMove();
+        BigDecimal price = prices[s];
+        int fired = 0;
+        for (ActiveAlert alert : alertsByStock.get(s)) {
+            int cmp = price.compareTo(alert.targetPrice());
+            if (ActiveAlert.ABOVE.equals(alert.type()) ? cmp >= 0 : cmp <= 0) {
+                fired++;
+            }
+        }
+        return fired;
+    }
+}
@@ -0,0 +1,72 @@
+package com.joelcode.personalinvestmentportfoliotracker.benchmarks;
+
+import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
+import com.joelcode.personalinvestmentportfoliotracker.services.utility.StockSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Typeahead latency over a realistic listing size: in-memory index versus a case-insensitive infix scan
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StockSearchBenchmark {
+
+    private static final String[] WORDS = {"Apple", "Micro", "Global", "Energy", "Capital", "Systems", "Bio",
+            "Pharma", "Holdings", "Networks", "Digital", "Motors", "Foods", "Realty", "Semiconductor", "Group"};
+
+    @Param({"10000"})
+    private int stocks;
+
+    // Short prefix, word prefix and infix queries
+    @Param({"a", "hold", "conduct"})
+    private String query;
+
+    private StockSearchIndex index;
+    private List<Stock> all;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        all = new ArrayList<>(stocks);
+        index = new StockSearchIndex(null);
+        for (int i = 0; i < stocks; i++) {
+            StringBuilder code = new StringBuilder();
+            for (int c = 0; c < 2 + random.nextInt(3); c++) {
+                code.append((char) ('A' + random.nextInt(26)));
+            }
+            code.append(i);
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " Inc";
+            Stock stock = new Stock(code.toString(), name, BigDecimal.TEN, BigDecimal.ZERO);
+            stock.setStockId(UUID.randomUUID());
+            all.add(stock);
+            index.put(stock);
+        }
+    }
+
+    @Benchmark
+    public List<StockSearchIndex.Match> index() {
+        return index.suggest(query, 10);
+    }
+
+    // What a LIKE %q% scan has to do for every row, without the database round trip
+    @Benchmark
+    public List<Stock> infixScan() {
+        String key = query.toLowerCase();
+        List<Stock> matches = new ArrayList<>();
+        for (Stock stock : all) {
+            if (stock.getCompanyName().toLowerCase().contains(key) || stock.getStockCode().toLowerCase().contains(key)) {
+                matches.add(stock);
+            }
+        }
+        return matches.size() > 10 ? matches.subList(0, 10) : matches;
+    }
+}
@@ -0,0 +1,187 @@
+package com.joelcode.personalinvestmentportfoliotracker.benchmarks;
+
+import com.joelcode.personalinvestmentportfoliotracker.dto.dividendpayment.DividendPaymentDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.finnhub.FinnhubCandleDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.finnhub.FinnhubCompanyProfileDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.finnhub.FinnhubMetricsDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.finnhub.FinnhubQuoteDTO;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Account;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Holding;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Transaction;
+import com.joelcode.personalinvestmentportfoliotracker.entities.User;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.AccountRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.DividendPaymentRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.HoldingRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.PriceHistoryRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.StockRepository;
+import com.joelcode.personalinvestmentportfoliotracker.services.finnhub.FinnhubApiClient;
+import com.joelcode.personalinvestmentportfoliotracker.services.marketdata.LivePriceTable;
+import com.joelcode.personalinvestmentportfoliotracker.services.marketdata.PriceResolverImpl;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Synthetic account used by the benchmarks
+ *
+ * Builds one account with the requested number of holdings, one stock per holding and a few
+ * transactions each, all from a fixed seed so every run and every commit measures the same data.
+ * Repositories are stub-only Mockito mocks returning the prebuilt lists, and prices come from a
+ * real PriceResolverImpl backed by a stubbed FinnhubApiClient, so no database or network is used.
+ */
+public class SyntheticPortfolio {
+
+    private static final int TRANSACTIONS_PER_HOLDING = 3;
+
+    // Define key fields
+    private final Account account;
+    private final List<Stock> stocks = new ArrayList<>();
+    private final List<Holding> holdings = new ArrayList<>();
+    private final List<Transaction> transactions = new ArrayList<>();
+    private final List<DividendPaymentDTO> dividendPayments = new ArrayList<>();
+
+    private final AccountRepository accountRepository = stub(AccountRepository.class);
+    private final HoldingRepository holdingRepository = stub(HoldingRepository.class);
+    private final StockRepository stockRepository = stub(StockRepository.class);
+    private final DividendPaymentRepository dividendPaymentRepository = stub(DividendPaymentRepository.class);
+    private final LivePriceTable livePriceTable = new LivePriceTable();
+    private final PriceResolverImpl priceResolver;
+
+
+    // Constructor
+    public SyntheticPortfolio(int holdingCount) {
+        Random random = new Random(holdingCount);
+
+        User user = new User();
+        user.setUserId(UUID.randomUUID());
+        account = new Account(UUID.randomUUID(), "Benchmark", BigDecimal.valueOf(25_000_00, 2), user);
+
+        for (int i = 0; i < holdingCount; i++) {
+            // Prices and quantities at the column scales used in production
+            Stock stock = new Stock("SYM" + i, "Company " + i,
+                    BigDecimal.valueOf(500 + random.nextInt(99_500), 2), BigDecimal.ZERO);
+            stock.setStockId(UUID.randomUUID());
+            // Every tenth stock starts stale so the first lookup goes through the FinnHub stub
+            stock.setUpdatedAt(i % 10 == 0 ? null : LocalDateTime.now());
+            stocks.add(stock);
+
+            BigDecimal quantity = BigDecimal.valueOf(1 + random.nextInt(500_000_000), 6).setScale(8);
+            BigDecimal averageCost = BigDecimal.valueOf(500 + random.nextInt(99_500), 4);
+            Holding holding = new Holding(UUID.randomUUID(), account, stock, quantity, averageCost,
+                    averageCost.multiply(quantity).setScale(2, RoundingMode.HALF_UP),
+                    BigDecimal.ZERO, BigDecimal.valueOf(random.nextInt(10_000), 2), LocalDateTime.now());
+            holdings.add(holding);
+
+            for (int t = 0; t < TRANSACTIONS_PER_HOLDING; t++) {
+                Transaction transaction = new Transaction(quantity, averageCost, BigDecimal.ZERO, stock, account);
+                transaction.setTransactionId(UUID.randomUUID());
+                transaction.setTransactionType(t % 2 == 0
+                        ? Transaction.TransactionType.BUY : Transaction.TransactionType.SELL);
+                transaction.setCreatedAt(LocalDateTime.now().minusDays(t));
+                transactions.add(transaction);
+            }
+
+            if (i % 4 == 0) {
+                dividendPayments.add(new DividendPaymentDTO(account.getAccountId(), BigDecimal.valueOf(1_25, 2)));
+            }
+        }
+        account.setHoldings(holdings);
+        account.setTransactions(transactions);
+
+        // Repository stubs return the prebuilt lists
+        when(accountRepository.findByAccountId(account.getAccountId())).thenReturn(Optional.of(account));
+        when(accountRepository.findById(account.getAccountId())).thenReturn(Optional.of(account));
+        when(holdingRepository.findByAccount(account)).thenReturn(holdings);
+        when(holdingRepository.findByAccount_AccountId(account.getAccountId())).thenReturn(holdings);
+        when(holdingRepository.findByAccountIdsWithStock(any())).thenReturn(holdings);
+        when(stockRepository.findAllById(any())).thenReturn(stocks);
+        when(dividendPaymentRepository.calculateTotalDividendsByAccount(account.getAccountId()))
+                .thenReturn(BigDecimal.valueOf(dividendPayments.size() * 125L, 2));
+
+        // Refreshed prices stay live for the whole run so steady-state reads never go upstream
+        priceResolver = new PriceResolverImpl(stockRepository, stub(PriceHistoryRepository.class),
+                new StubFinnhubApiClient(), livePriceTable, stub(PlatformTransactionManager.class),
+                stub(JdbcTemplate.class), 3_600_000, 30_000, 5_000, 4);
+    }
+
+    // Mock that keeps no invocation history, so millions of benchmark calls do not grow the heap
+    public static <T> T stub(Class<T> type) {
+        return Mockito.mock(type, Mockito.withSettings().stubOnly());
+    }
+
+
+    // Getters
+    public Account getAccount() {return account;}
+
+    public UUID getAccountId() {return account.getAccountId();}
+
+    public List<Holding> getHoldings() {return holdings;}
+
+    public List<Transaction> getTransactions() {return transactions;}
+
+    public List<DividendPaymentDTO> getDividendPayments() {return dividendPayments;}
+
+    public AccountRepository getAccountRepository() {return accountRepository;}
+
+    public HoldingRepository getHoldingRepository() {return holdingRepository;}
+
+    public DividendPaymentRepository getDividendPaymentRepository() {return dividendPaymentRepository;}
+
+    public LivePriceTable getLivePriceTable() {return livePriceTable;}
+
+    public PriceResolverImpl getPriceResolver() {return priceResolver;}
+
+    public void shutdown() {
+        priceResolver.shutdown();
+    }
+
+
+    // FinnHub stand-in returning a deterministic price per symbol without any network call
+    static class StubFinnhubApiClient implements FinnhubApiClient {
+
+        @Override
+        public FinnhubQuoteDTO getQuote(String symbol) {return null;}
+
+        @Override
+        public FinnhubCompanyProfileDTO getCompanyProfile(String symbol) {return null;}
+
+        @Override
+        public FinnhubMetricsDTO getMetrics(String symbol) {return null;}
+
+        @Override
+        public FinnhubCandleDTO getCandles(String symbol, String resolution, long from, long to) {return null;}
+
+        @Override
+        public BigDecimal getCurrentPrice(String symbol) {
+            return BigDecimal.valueOf(500 + Math.floorMod(symbol.hashCode(), 99_500), 2);
+        }
+
+        @Override
+        public CompletableFuture<FinnhubQuoteDTO> getQuoteAsync(String symbol) {return CompletableFuture.completedFuture(null);}
+
+        @Override
+        public CompletableFuture<FinnhubCompanyProfileDTO> getCompanyProfileAsync(String symbol) {return CompletableFuture.completedFuture(null);}
+
+        @Override
+        public CompletableFuture<FinnhubMetricsDTO> getMetricsAsync(String symbol) {return CompletableFuture.completedFuture(null);}
+
+        @Override
+        public CompletableFuture<FinnhubCandleDTO> getCandlesAsync(String symbol, String resolution, long from, long to) {
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.joelcode.personalinvestmentportfoliotracker.benchmarks;
+
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.Money;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.Quantity;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Compares the BigDecimal valuation loop with the fixed-point Money/Quantity loop
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValuationArithmeticBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int holdings;
+
+    private BigDecimal[] prices;
+    private BigDecimal[] quantities;
+    private Quantity[] cachedQuantities;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        prices = new BigDecimal[holdings];
+        quantities = new BigDecimal[holdings];
+        cachedQuantities = new Quantity[holdings];
+        for (int i = 0; i < holdings; i++) {
+            // Prices at the stock column scale, quantities at the holding column scale
+            prices[i] = BigDecimal.valueOf(100 + random.nextInt(99_900), 2);
+            quantities[i] = BigDecimal.valueOf(random.nextInt(1_000_000_000), 8).setScale(8);
+            cachedQuantities[i] = Quantity.of(quantities[i]);
+        }
+    }
+
+    // What HoldingCalculationServiceImpl did before: one multiply, setScale and add per holding
+    @Benchmark
+    public BigDecimal bigDecimalTotal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < holdings; i++) {
+            total = total.add(prices[i].multiply(quantities[i]).setScale(2, RoundingMode.HALF_UP));
+        }
+        return total.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    // Fixed-point loop converting both inputs from BigDecimal each time
+    @Benchmark
+    public BigDecimal fixedPointTotal() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < holdings; i++) {
+            total = total.plus(Money.of(prices[i]).times(Quantity.of(quantities[i])));
+        }
+        return total.toCents();
+    }
+
+    // Fixed-point loop over quantities already held as Quantity, as the cached account valuation does
+    @Benchmark
+    public BigDecimal fixedPointCachedTotal() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < holdings; i++) {
+            total = total.plus(Money.of(prices[i]).times(cachedQuantities[i]));
+        }
+        return total.toCents();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ValuationArithmeticBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
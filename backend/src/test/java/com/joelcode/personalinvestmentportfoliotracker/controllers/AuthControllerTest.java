@@ -5,6 +5,7 @@ import com.joelcode.personalinvestmentportfoliotracker.dto.auth.LoginRequest;
 import com.joelcode.personalinvestmentportfoliotracker.dto.auth.LoginResponseDTO;
 import com.joelcode.personalinvestmentportfoliotracker.dto.auth.RegistrationRequest;
 import com.joelcode.personalinvestmentportfoliotracker.entities.User;
+import com.joelcode.personalinvestmentportfoliotracker.jwt.JwtPrincipalCache;
 import com.joelcode.personalinvestmentportfoliotracker.jwt.JwtTokenProvider;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -41,6 +42,9 @@ class AuthControllerTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private JwtPrincipalCache jwtPrincipalCache;
+
     @Mock
     private Authentication authentication;
 
@@ -53,7 +57,8 @@ class AuthControllerTest {
                 authenticationManager,
                 jwtTokenProvider,
                 userRepository,
-                passwordEncoder
+                passwordEncoder,
+                jwtPrincipalCache
         );
     }
 
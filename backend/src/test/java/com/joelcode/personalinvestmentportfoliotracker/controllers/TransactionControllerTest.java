@@ -3,6 +3,7 @@ package com.joelcode.personalinvestmentportfoliotracker.controllers;
 import com.joelcode.personalinvestmentportfoliotracker.controllers.entitycontrollers.TransactionController;
 import com.joelcode.personalinvestmentportfoliotracker.dto.transaction.TransactionDTO;
 import com.joelcode.personalinvestmentportfoliotracker.dto.transaction.TransactionCreateRequest;
+import com.joelcode.personalinvestmentportfoliotracker.dto.transaction.TransactionFeedDTO;
 import com.joelcode.personalinvestmentportfoliotracker.entities.Transaction;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.TransactionRepository;
 import com.joelcode.personalinvestmentportfoliotracker.services.mapping.TransactionMapper;
@@ -184,4 +185,18 @@ class TransactionControllerTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         verify(transactionRepository, times(1)).findByAccount_AccountId(accountId);
     }
+
+    // Test the feed endpoint passes the scope, cursor and limit through to the service
+    @Test
+    void testGetTransactionFeed_Success() {
+        UUID userId = UUID.randomUUID();
+        TransactionFeedDTO feed = new TransactionFeedDTO(List.of(new TransactionDTO()), "next");
+        when(transactionService.getTransactionFeed(null, userId, "cursor", 20)).thenReturn(feed);
+
+        ResponseEntity<TransactionFeedDTO> response = transactionController.getTransactionFeed(null, userId, "cursor", 20);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("next", response.getBody().getNextCursor());
+        assertEquals(1, response.getBody().getTransactions().size());
+    }
 }
@@ -1,6 +1,7 @@
 package com.joelcode.personalinvestmentportfoliotracker.controllers.utilitycontrollers;
 
 import com.joelcode.personalinvestmentportfoliotracker.dto.utility.SearchDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.utility.StockSuggestionDTO;
 import com.joelcode.personalinvestmentportfoliotracker.services.utility.SearchService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,6 +11,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -161,4 +163,19 @@ class SearchControllerTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         verify(searchService, times(1)).search(query, null);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSuggest_ReturnsSuggestions() {
+        // Arrange
+        StockSuggestionDTO suggestion = new StockSuggestionDTO(UUID.randomUUID(), "AAPL", "Apple Inc", "EXACT_CODE");
+        when(searchService.suggest("aapl", 10)).thenReturn(List.of(suggestion));
+
+        // Act
+        ResponseEntity<List<StockSuggestionDTO>> response = searchController.suggest("aapl", 10);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().size());
+        verify(searchService, times(1)).suggest("aapl", 10);
+    }
+}
@@ -5,10 +5,13 @@ import com.joelcode.personalinvestmentportfoliotracker.entities.*;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.*;
 import com.joelcode.personalinvestmentportfoliotracker.services.dividend.DividendServiceImpl;
 import com.joelcode.personalinvestmentportfoliotracker.services.dividendpayment.DividendPaymentServiceImpl;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.AccountValuationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.websocket.PortfolioUpdatePublisher;
 import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
@@ -111,8 +114,9 @@ class DividendFlowTest {
                 stockRepository,
                 holdingRepository,
                 null, // DividendPaymentValidationService
-                messagingTemplate,
-                null // HoldingCalculationService
+                Mockito.mock(PortfolioUpdatePublisher.class),
+                null, // HoldingCalculationService
+                Mockito.mock(AccountValuationService.class)
         );
 
         dividendService = new DividendServiceImpl(
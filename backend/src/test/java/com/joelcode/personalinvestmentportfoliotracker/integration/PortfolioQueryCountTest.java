@@ -0,0 +1,241 @@
+package com.joelcode.personalinvestmentportfoliotracker.integration;
+
+import com.joelcode.personalinvestmentportfoliotracker.controllers.WebSocketController;
+import com.joelcode.personalinvestmentportfoliotracker.dto.holding.HoldingDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.AccountSummaryDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.PortfolioOverviewDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.PortfolioPerformanceDTO;
+import com.joelcode.personalinvestmentportfoliotracker.entities.*;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.*;
+import com.joelcode.personalinvestmentportfoliotracker.services.account.AccountService;
+import com.joelcode.personalinvestmentportfoliotracker.services.account.AccountValidationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.holding.HoldingServiceImpl;
+import com.joelcode.personalinvestmentportfoliotracker.services.holding.HoldingValidationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.marketdata.LivePriceTable;
+import com.joelcode.personalinvestmentportfoliotracker.services.marketdata.PriceResolver;
+import com.joelcode.personalinvestmentportfoliotracker.services.portfolio.allocation.AllocationBreakdownServiceImpl;
+import com.joelcode.personalinvestmentportfoliotracker.services.portfolio.overview.PortfolioOverviewServiceImpl;
+import com.joelcode.personalinvestmentportfoliotracker.services.portfolio.performance.PortfolioPerformanceServiceImpl;
+import com.joelcode.personalinvestmentportfoliotracker.services.portfolio.summary.AccountSummaryServiceImpl;
+import com.joelcode.personalinvestmentportfoliotracker.services.user.UserValidationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.AccountValuationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.AccountValuationServiceImpl;
+import com.joelcode.personalinvestmentportfoliotracker.services.websocket.PortfolioUpdatePublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Exact SQL statement counts for the portfolio read endpoints, so an N+1 on holdings or stocks fails the build
+@ActiveProfiles("test")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class PortfolioQueryCountTest {
+
+    private static final int ACCOUNTS = 3;
+    private static final int HOLDINGS = 5;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private HoldingRepository holdingRepository;
+
+    @Autowired
+    private PortfolioSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private DividendPaymentRepository dividendPaymentRepository;
+
+    private Statistics statistics;
+    private HoldingServiceImpl holdingService;
+    private PortfolioOverviewServiceImpl overviewService;
+    private PortfolioPerformanceServiceImpl performanceService;
+    private AllocationBreakdownServiceImpl allocationService;
+    private AccountSummaryServiceImpl summaryService;
+
+    private UUID userId;
+    private UUID accountId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Prices come from the mocked resolver so only portfolio reads reach the database
+        PriceResolver priceResolver = mock(PriceResolver.class);
+        when(priceResolver.resolvePrices(anyCollection())).thenAnswer(invocation -> {
+            Collection<UUID> stockIds = invocation.getArgument(0);
+            return stockIds.stream().distinct()
+                    .collect(Collectors.toMap(Function.identity(), id -> BigDecimal.valueOf(100)));
+        });
+
+        AccountValidationService accountValidationService = new AccountValidationService(accountRepository);
+        UserValidationService userValidationService = new UserValidationService(userRepository);
+        AccountValuationService accountValuationService = new AccountValuationServiceImpl(accountRepository,
+                holdingRepository, dividendPaymentRepository, new LivePriceTable(), priceResolver,
+                new SimpleMeterRegistry(), 60_000, 10_000);
+
+        holdingService = new HoldingServiceImpl(holdingRepository,
+                new HoldingValidationService(holdingRepository, accountRepository, stockRepository),
+                accountValidationService, priceResolver, mock(WebSocketController.class),
+                mock(PortfolioUpdatePublisher.class), accountValuationService);
+        allocationService = new AllocationBreakdownServiceImpl(accountValuationService, userValidationService);
+        overviewService = new PortfolioOverviewServiceImpl(accountValidationService, holdingService,
+                dividendPaymentRepository, allocationService, userValidationService, accountRepository);
+        performanceService = new PortfolioPerformanceServiceImpl(mock(AccountService.class), holdingService,
+                snapshotRepository, accountRepository, holdingRepository, accountValidationService,
+                dividendPaymentRepository, userValidationService, mock(PortfolioUpdatePublisher.class),
+                mock(WebSocketController.class), priceResolver);
+        summaryService = new AccountSummaryServiceImpl(accountValuationService, userValidationService,
+                accountRepository, holdingRepository);
+
+        // One user with several accounts, each holding the same stocks
+        User user = new User();
+        user.setUsername("counter");
+        user.setEmail("counter@example.com");
+        entityManager.persist(user);
+
+        List<Stock> stocks = new ArrayList<>();
+        for (int i = 0; i < HOLDINGS; i++) {
+            Stock stock = new Stock();
+            stock.setStockCode("STK" + i);
+            stock.setCompanyName("Stock " + i);
+            stock.setStockValue(BigDecimal.valueOf(90));
+            entityManager.persist(stock);
+            stocks.add(stock);
+        }
+
+        for (int a = 0; a < ACCOUNTS; a++) {
+            Account account = new Account();
+            account.setAccountName("Brokerage " + a);
+            account.setAccountBalance(BigDecimal.valueOf(1000));
+            account.setUser(user);
+            entityManager.persist(account);
+            accountId = account.getAccountId();
+
+            for (Stock stock : stocks) {
+                Holding holding = new Holding();
+                holding.setAccount(account);
+                holding.setStock(stock);
+                holding.setQuantity(BigDecimal.TEN);
+                holding.setAverageCostBasis(BigDecimal.valueOf(80));
+                holding.setTotalCostBasis(BigDecimal.valueOf(800));
+                holding.setRealizedGain(BigDecimal.ZERO);
+                holding.setFirstPurchaseDate(LocalDateTime.now());
+                entityManager.persist(holding);
+            }
+        }
+
+        userId = user.getUserId();
+
+        // Start each read from an empty persistence context, as a request would
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @Test
+    void testHoldingsForAccount() {
+        assertEquals(HOLDINGS, holdingService.getHoldingsForAccount(accountId).size());
+        assertStatements(2);
+    }
+
+    @Test
+    void testOverviewForAccount() {
+        assertEquals(HOLDINGS, overviewService.getPortfolioOverviewForAccount(accountId).getHoldings().size());
+        assertStatements(4);
+    }
+
+    @Test
+    void testOverviewForUser() {
+        PortfolioOverviewDTO overview = overviewService.getPortfolioOverviewForUser(userId);
+        assertEquals(ACCOUNTS * HOLDINGS, overview.getHoldings().size());
+        // Valued at the resolved price (100), not the stored stock_value (90), like the holdings it returns
+        assertEquals(0, overview.getTotalPortfolioValue().compareTo(BigDecimal.valueOf(ACCOUNTS * (1000 + HOLDINGS * 1000))));
+        assertEquals(0, overview.getHoldingsValue().compareTo(overview.getHoldings().stream()
+                .map(HoldingDTO::getCurrentValue)
+                .reduce(BigDecimal.ZERO, BigDecimal::add)));
+        assertStatements(3);
+    }
+
+    @Test
+    void testPerformanceForUser() {
+        PortfolioPerformanceDTO performance = performanceService.getPerformanceForUser(userId);
+        assertEquals(0, performance.getTotalCostBasis().compareTo(BigDecimal.valueOf(ACCOUNTS * HOLDINGS * 800)));
+        // Valued at the resolved price like the user overview, so it costs the same statements
+        assertEquals(0, performance.getTotalPortfolioValue().compareTo(BigDecimal.valueOf(ACCOUNTS * (1000 + HOLDINGS * 1000))));
+        assertStatements(3);
+    }
+
+    @Test
+    void testAccountSummariesForUser() {
+        List<AccountSummaryDTO> summaries = summaryService.getAccountSummariesForUser(userId);
+        assertEquals(ACCOUNTS, summaries.size());
+        summaries.forEach(summary -> assertEquals(HOLDINGS, summary.getHoldings().size()));
+        assertStatements(3);
+    }
+
+    @Test
+    void testPerformanceForAccount() {
+        performanceService.getPerformanceForAccount(accountId);
+        assertStatements(4);
+    }
+
+    @Test
+    void testCalculatePortfolioPerformance() {
+        performanceService.calculatePortfolioPerformance(accountId);
+        assertStatements(3);
+    }
+
+    @Test
+    void testAllocationForAccount() {
+        assertEquals(HOLDINGS, allocationService.getAllocationForAccount(accountId).size());
+        assertStatements(3);
+    }
+
+    @Test
+    void testAccountSummary() {
+        assertEquals(HOLDINGS, summaryService.getAccountSummary(accountId).getHoldings().size());
+        assertStatements(3);
+    }
+
+
+    // Helper functions
+
+    private void assertStatements(long expected) {
+        assertEquals(expected, statistics.getPrepareStatementCount(),
+                "SQL statements: " + statistics.getQueries().length + " distinct queries, "
+                        + statistics.getEntityLoadCount() + " entity loads");
+    }
+}
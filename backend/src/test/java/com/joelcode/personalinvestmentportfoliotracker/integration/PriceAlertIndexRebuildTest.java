@@ -0,0 +1,85 @@
+package com.joelcode.personalinvestmentportfoliotracker.integration;
+
+import com.joelcode.personalinvestmentportfoliotracker.controllers.WebSocketController;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
+import com.joelcode.personalinvestmentportfoliotracker.entities.User;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.PriceAlertRepository;
+import com.joelcode.personalinvestmentportfoliotracker.services.pricealert.PriceAlertServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+// Rebuilding the price alert index from the database must load every active alert, whatever its id
+@ActiveProfiles("test")
+@DataJpaTest
+class PriceAlertIndexRebuildTest {
+
+    // Ids on both sides of 0x80..., where signed and unsigned UUID ordering disagree
+    private static final List<UUID> ALERT_IDS = List.of(
+            UUID.fromString("00000000-0000-0000-0000-000000000001"),
+            UUID.fromString("7fffffff-ffff-ffff-ffff-ffffffffffff"),
+            UUID.fromString("80000000-0000-0000-8000-000000000000"),
+            UUID.fromString("80000000-0000-0000-8000-000000000001"),
+            UUID.fromString("ffffffff-ffff-ffff-ffff-fffffffffffe"));
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PriceAlertRepository priceAlertRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private UUID stockId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("alerter");
+        user.setEmail("alerter@example.com");
+        entityManager.persist(user);
+
+        Stock stock = new Stock();
+        stock.setStockCode("AAPL");
+        stock.setCompanyName("Apple Inc");
+        stock.setStockValue(BigDecimal.valueOf(100));
+        entityManager.persist(stock);
+        entityManager.flush();
+        stockId = stock.getStockId();
+
+        // Explicit ids, so the generated-id strategy cannot hide the ordering problem
+        for (UUID alertId : ALERT_IDS) {
+            entityManager.getEntityManager().createNativeQuery(
+                            "INSERT INTO price_alerts (alert_id, user_id, stock_id, type, target_price, is_active) " +
+                            "VALUES (?, ?, ?, 'ABOVE', 150, true)")
+                    .setParameter(1, alertId)
+                    .setParameter(2, user.getUserId())
+                    .setParameter(3, stockId)
+                    .executeUpdate();
+        }
+        entityManager.clear();
+    }
+
+    // Test a rebuild with pages smaller than the alert count still loads every alert
+    @Test
+    void testRebuildIndex_LoadsAlertsOnBothSidesOfSignBit() {
+        PriceAlertServiceImpl priceAlertService = new PriceAlertServiceImpl(priceAlertRepository,
+                mock(WebSocketController.class), transactionManager, new SimpleMeterRegistry(), 500, 2);
+
+        assertEquals(ALERT_IDS.size(), priceAlertService.rebuildIndex());
+        assertEquals(ALERT_IDS.size(), priceAlertService.evaluate(stockId, BigDecimal.valueOf(150)));
+    }
+}
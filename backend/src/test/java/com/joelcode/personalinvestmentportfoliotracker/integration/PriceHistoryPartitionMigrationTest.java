@@ -0,0 +1,121 @@
+package com.joelcode.personalinvestmentportfoliotracker.integration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// V8 partitioning runs against a real PostgreSQL only, the database in MIGRATION_TEST_DB_URL is cleaned on every test
+@EnabledIfEnvironmentVariable(named = "MIGRATION_TEST_DB_URL", matches = ".+")
+class PriceHistoryPartitionMigrationTest {
+
+    private Flyway flyway;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(System.getenv("MIGRATION_TEST_DB_URL"),
+                System.getenv().getOrDefault("MIGRATION_TEST_DB_USER", "postgres"),
+                System.getenv().getOrDefault("MIGRATION_TEST_DB_PASSWORD", ""));
+        flyway = Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .cleanDisabled(false)
+                .load();
+        flyway.clean();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        flyway.clean();
+    }
+
+    // Test existing rows are carried over into monthly partitions
+    @Test
+    void testMigrate_MovesExistingRowsIntoMonthlyPartitions() {
+        migrateTo("7");
+        UUID stockId = insertStock();
+        YearMonth lastMonth = YearMonth.now().minusMonths(1);
+        insertPrice(stockId, lastMonth.atDay(10));
+
+        flyway.migrate();
+
+        assertEquals(1, count(partitionName(lastMonth)));
+        assertEquals(0, count("price_history_default"));
+    }
+
+    // Test creating a partition for a month already caught by DEFAULT moves those rows instead of failing
+    @Test
+    void testEnsurePartition_MovesRowsOutOfDefaultPartition() {
+        flyway.migrate();
+        UUID stockId = insertStock();
+        YearMonth farMonth = YearMonth.now().plusMonths(6);
+        insertPrice(stockId, farMonth.atDay(1));
+        insertPrice(stockId, farMonth.atEndOfMonth());
+        insertPrice(stockId, farMonth.plusMonths(1).atDay(1));
+        assertEquals(3, count("price_history_default"));
+
+        ensurePartition(farMonth);
+
+        assertEquals(2, count(partitionName(farMonth)));
+        assertEquals(1, count("price_history_default"));
+        assertEquals(3, count("price_history"));
+        // The attached partition picks up the parent's unique key
+        assertThrows(DuplicateKeyException.class, () -> insertPrice(stockId, farMonth.atDay(1)));
+
+        // Idempotent, as the maintenance job calls it every run
+        assertDoesNotThrow(() -> ensurePartition(farMonth));
+        assertEquals(2, count(partitionName(farMonth)));
+    }
+
+
+    // Helper functions
+
+    private void migrateTo(String version) {
+        Flyway.configure()
+                .configuration(flyway.getConfiguration())
+                .target(version)
+                .load()
+                .migrate();
+    }
+
+    private UUID insertStock() {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO stock (stock_code, company_name, stock_value) VALUES ('AAPL', 'Apple Inc', 100) RETURNING stock_id",
+                UUID.class);
+    }
+
+    private void insertPrice(UUID stockId, LocalDate day) {
+        jdbcTemplate.update("INSERT INTO price_history (stock_id, close_date, close_price) VALUES (?, ?, 100)",
+                stockId, Timestamp.valueOf(day.atTime(16, 0)));
+    }
+
+    private void ensurePartition(YearMonth month) {
+        jdbcTemplate.queryForObject("SELECT price_history_ensure_partition(?)::text", String.class,
+                Date.valueOf(month.atDay(1)));
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+
+    private static String partitionName(YearMonth month) {
+        return "price_history_p" + month.format(DateTimeFormatter.ofPattern("yyyyMM"));
+    }
+}
@@ -0,0 +1,90 @@
+package com.joelcode.personalinvestmentportfoliotracker.integration;
+
+import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
+import com.joelcode.personalinvestmentportfoliotracker.entities.User;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.PriceHistoryRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.StockRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.UserRepository;
+import com.joelcode.personalinvestmentportfoliotracker.services.finnhub.FinnhubApiClient;
+import com.joelcode.personalinvestmentportfoliotracker.services.marketdata.LivePriceTable;
+import com.joelcode.personalinvestmentportfoliotracker.services.marketdata.PriceResolverImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// A price write-back that fails inside a caller's transaction must not roll the caller back
+@ActiveProfiles("test")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PriceWriteIsolationTest {
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PriceHistoryRepository priceHistoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        priceHistoryRepository.deleteAll();
+        stockRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    // Test a trade that resolves a stale price still commits when the price write fails
+    @Test
+    void testResolvePrices_FailedWriteDoesNotRollBackCaller() {
+        Stock stock = stockRepository.save(new Stock("AAPL", "Apple Inc", BigDecimal.valueOf(100), BigDecimal.ZERO));
+
+        FinnhubApiClient finnhubApiClient = mock(FinnhubApiClient.class);
+        when(finnhubApiClient.getCurrentPrice(anyString())).thenReturn(BigDecimal.valueOf(110));
+        JdbcTemplate failingJdbcTemplate = mock(JdbcTemplate.class);
+        when(failingJdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+                .thenThrow(new IllegalStateException("Lock timeout"));
+
+        // Max age 0, so the stored price is always stale and goes upstream
+        PriceResolverImpl priceResolver = new PriceResolverImpl(stockRepository, priceHistoryRepository,
+                finnhubApiClient, new LivePriceTable(), transactionManager, failingJdbcTemplate, 0, 30_000, 2_000, 1);
+
+        try {
+            Map<UUID, BigDecimal> prices = new TransactionTemplate(transactionManager).execute(status -> {
+                User trader = new User();
+                trader.setUsername("trader");
+                trader.setEmail("trader@example.com");
+                userRepository.save(trader);
+                return priceResolver.resolvePrices(List.of(stock.getStockId()));
+            });
+
+            assertEquals(BigDecimal.valueOf(110), prices.get(stock.getStockId()));
+            assertTrue(userRepository.findByUsername("trader").isPresent());
+        } finally {
+            priceResolver.shutdown();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.joelcode.personalinvestmentportfoliotracker.jwt;
+
+import com.joelcode.personalinvestmentportfoliotracker.entities.User;
+import com.joelcode.personalinvestmentportfoliotracker.model.CustomUserDetails;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Testing the JWT filter fast path: one verification per token and cached principals
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private JwtTokenProvider jwtTokenProvider;
+    private JwtPrincipalCache jwtPrincipalCache;
+    private JwtAuthenticationFilter filter;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        jwtTokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret",
+                "this-is-a-super-secret-key-that-is-at-least-256-bits-long-for-testing-purposes-only");
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpirationInMs", 3600000);
+        jwtPrincipalCache = new JwtPrincipalCache(userRepository, 30_000, 100, clock::get);
+        filter = new JwtAuthenticationFilter(jwtTokenProvider, jwtPrincipalCache);
+
+        user = new User();
+        user.setUserId(UUID.randomUUID());
+        user.setUsername("testuser");
+        user.setEmail("test@example.com");
+        user.setFullName("Test User");
+        user.setRoles(User.Role.ROLE_USER);
+        when(userRepository.findById(user.getUserId())).thenReturn(Optional.of(user));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    // Test repeat requests with one token authenticate with a single user query
+    @Test
+    void testRepeatRequests_UseCachedPrincipal() throws Exception {
+        String token = jwtTokenProvider.generateToken(user);
+
+        for (int i = 0; i < 3; i++) {
+            Authentication authentication = authenticate(token);
+            assertNotNull(authentication);
+            assertEquals(user.getUserId(), ((CustomUserDetails) authentication.getPrincipal()).getUser().getUserId());
+            assertEquals("ROLE_USER", authentication.getAuthorities().iterator().next().getAuthority());
+        }
+
+        verify(userRepository, times(1)).findById(user.getUserId());
+    }
+
+    // Test eviction and TTL expiry both force a reload
+    @Test
+    void testEvictAndTtl_ReloadPrincipal() throws Exception {
+        String token = jwtTokenProvider.generateToken(user);
+        authenticate(token);
+
+        jwtPrincipalCache.evict(user.getUserId());
+        authenticate(token);
+        verify(userRepository, times(2)).findById(user.getUserId());
+
+        clock.addAndGet(30_000);
+        authenticate(token);
+        verify(userRepository, times(3)).findById(user.getUserId());
+    }
+
+    // Test a tampered token is still rejected after the genuine one was cached
+    @Test
+    void testTamperedToken_NotAuthenticated() throws Exception {
+        String token = jwtTokenProvider.generateToken(user);
+        assertNotNull(authenticate(token));
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        assertNull(authenticate(tampered));
+    }
+
+    // Test a token for a deleted user does not authenticate
+    @Test
+    void testUnknownUser_NotAuthenticated() throws Exception {
+        when(userRepository.findById(user.getUserId())).thenReturn(Optional.empty());
+
+        assertNull(authenticate(jwtTokenProvider.generateToken(user)));
+        assertEquals(0, jwtPrincipalCache.size());
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/accounts");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
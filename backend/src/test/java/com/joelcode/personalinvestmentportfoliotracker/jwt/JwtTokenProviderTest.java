@@ -11,6 +11,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Date;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -375,4 +376,60 @@ class JwtTokenProviderTest {
         assertNotNull(claims.get("fullName"), "Full name claim should not be null");
         // REMOVED: Password claim test - password is no longer stored in JWT
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetClaims_RepeatTokenServedFromCache() {
+        // Arrange
+        String token = jwtTokenProvider.generateToken(testUser);
+
+        // Act
+        Claims first = jwtTokenProvider.getClaims(token);
+        Claims second = jwtTokenProvider.getClaims(token);
+
+        // Assert
+        assertSame(first, second, "A verified token should not be parsed again");
+        assertEquals(testUser.getUserId(), jwtTokenProvider.getUserIdFromToken(token));
+    }
+
+    @Test
+    void testGetClaims_TokenCacheStaysBounded() {
+        // Arrange
+        ReflectionTestUtils.setField(jwtTokenProvider, "tokenCacheMaxEntries", 2);
+        String oldest = jwtTokenProvider.generateToken(testUser);
+        jwtTokenProvider.getClaims(oldest);
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            testUser.setUsername("user" + i);
+            jwtTokenProvider.getClaims(jwtTokenProvider.generateToken(testUser));
+        }
+
+        // Assert
+        Map<?, ?> cache = (Map<?, ?>) ReflectionTestUtils.getField(jwtTokenProvider, "verifiedTokens");
+        assertTrue(cache.size() <= 2);
+        assertEquals(testUser.getUserId(), jwtTokenProvider.getUserIdFromToken(oldest));
+    }
+
+    @Test
+    void testGetClaims_TokenCacheEvictsLeastRecentlyUsed() {
+        // Arrange
+        ReflectionTestUtils.setField(jwtTokenProvider, "tokenCacheMaxEntries", 2);
+        String first = jwtTokenProvider.generateToken(testUser);
+        testUser.setUsername("second");
+        String second = jwtTokenProvider.generateToken(testUser);
+        testUser.setUsername("third");
+        String third = jwtTokenProvider.generateToken(testUser);
+
+        // Act
+        jwtTokenProvider.getClaims(first);
+        jwtTokenProvider.getClaims(second);
+        jwtTokenProvider.getClaims(first);
+        jwtTokenProvider.getClaims(third);
+
+        // Assert
+        Map<?, ?> cache = (Map<?, ?>) ReflectionTestUtils.getField(jwtTokenProvider, "verifiedTokens");
+        assertTrue(cache.containsKey(first));
+        assertFalse(cache.containsKey(second));
+        assertTrue(cache.containsKey(third));
+    }
+}
@@ -0,0 +1,126 @@
+package com.joelcode.personalinvestmentportfoliotracker.logging;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Testing log lines are shipped in batches against a local stand-in for the Better Stack endpoint
+public class BetterStackLoggerTest {
+
+    private HttpServer server;
+    private final BlockingQueue<Received> received = new LinkedBlockingQueue<>();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private BetterStackLogger logger;
+
+    @BeforeEach
+    void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            int status = failuresLeft.getAndDecrement() > 0 ? 503 : 202;
+            if (status == 202) {
+                try (InputStream body = new GZIPInputStream(exchange.getRequestBody())) {
+                    received.add(new Received(
+                            exchange.getRequestHeaders().getFirst("Authorization"),
+                            exchange.getRequestHeaders().getFirst("Content-Type"),
+                            new String(body.readAllBytes(), StandardCharsets.UTF_8)));
+                }
+            }
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void teardown() {
+        if (logger != null) {
+            logger.shutdown();
+        }
+        server.stop(0);
+    }
+
+    // Test a full batch is sent as one gzipped NDJSON request without waiting for the interval
+    @Test
+    void testLog_SendsFullBatchAsNdjson() throws InterruptedException {
+        logger = logger(3, 60_000, 1);
+        logger.info("first");
+        logger.warn("second");
+        logger.error("third");
+
+        Received request = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(request);
+        assertEquals("Bearer test-token", request.authorization());
+        assertEquals("application/x-ndjson", request.contentType());
+
+        String[] lines = request.body().strip().split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].contains("\"message\":\"first\"") && lines[0].contains("\"level\":\"INFO\""));
+        assertTrue(lines[2].contains("\"message\":\"third\"") && lines[2].contains("\"level\":\"ERROR\""));
+    }
+
+    // Test a batch refused with a server error is retried until it is accepted
+    @Test
+    void testLog_RetriesServerErrors() throws InterruptedException {
+        failuresLeft.set(2);
+        logger = logger(1, 60_000, 5);
+        logger.info("retried");
+
+        Received request = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(request);
+        assertTrue(request.body().contains("retried"));
+    }
+
+    // Test lines still buffered are sent on shutdown
+    @Test
+    void testShutdown_FlushesBufferedLines() throws InterruptedException {
+        logger = logger(100, 60_000, 1);
+        logger.info("one");
+        logger.info("two");
+        assertTrue(received.isEmpty());
+
+        logger.shutdown();
+
+        Received request = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(request);
+        assertEquals(2, request.body().strip().split("\n").length);
+    }
+
+    // Test a full ring drops its oldest lines and keeps the newest
+    @Test
+    void testRingBuffer_DropsOldestWhenFull() {
+        LogEventRingBuffer buffer = new LogEventRingBuffer(4);
+        for (int i = 1; i <= 6; i++) {
+            buffer.offer(new LogEvent(Instant.now(), "INFO", "line " + i));
+        }
+
+        assertEquals(2, buffer.dropped());
+        assertEquals(4, buffer.size());
+        assertEquals(List.of("line 3", "line 4", "line 5", "line 6"), List.of(
+                buffer.poll().message(), buffer.poll().message(), buffer.poll().message(), buffer.poll().message()));
+        assertNull(buffer.poll());
+    }
+
+    private BetterStackLogger logger(int maxBatchSize, long flushIntervalMillis, int maxAttempts) {
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+        return new BetterStackLogger(new SimpleMeterRegistry(), "test-token", url, 64, maxBatchSize,
+                flushIntervalMillis, maxAttempts, 10, 100);
+    }
+
+    private record Received(String authorization, String contentType, String body) {}
+}
@@ -0,0 +1,123 @@
+package com.joelcode.personalinvestmentportfoliotracker.monitoring;
+
+import com.joelcode.personalinvestmentportfoliotracker.services.finnhub.FinnhubApiClient;
+import com.joelcode.personalinvestmentportfoliotracker.services.news.MarketAuxApiClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Testing external API health is reported from observed traffic rather than live calls
+public class ExternalApiHealthIndicatorTest {
+
+    @Mock
+    private FinnhubApiClient finnhubApiClient;
+
+    @Mock
+    private MarketAuxApiClient marketAuxApiClient;
+
+    private AtomicLong now;
+    private ExternalApiHealthTracker tracker;
+    private ExternalApiHealthIndicator indicator;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        now = new AtomicLong(1_000_000L);
+        tracker = new ExternalApiHealthTracker(10,
+                new ExternalApiHealthTracker.Thresholds(4, 0.2, 0.5, 3, 1000), now::get);
+        indicator = new ExternalApiHealthIndicator(tracker, finnhubApiClient, marketAuxApiClient, 60_000, 0);
+    }
+
+    // Test health never calls a provider and reports UP before any traffic
+    @Test
+    void testHealth_ServedWithoutCallingProviders() {
+        Health health = indicator.health();
+
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals(ProviderHealth.UNKNOWN, details(health, "finnhub").get("status"));
+        verifyNoInteractions(finnhubApiClient, marketAuxApiClient);
+    }
+
+    // Test failures move a provider to DEGRADED, then DOWN, and successes bring it back
+    @Test
+    void testTracker_ThresholdsFromRecentCalls() {
+        for (int i = 0; i < 8; i++) {
+            tracker.record("finnhub", true, 100, null);
+        }
+        assertEquals(ProviderHealth.UP, tracker.health("finnhub").status());
+
+        tracker.record("finnhub", false, 100, "quote: status 503");
+        assertEquals(ProviderHealth.DEGRADED, tracker.health("finnhub").status());
+        assertEquals("quote: status 503", tracker.health("finnhub").lastFailure());
+
+        tracker.record("finnhub", false, 100, "quote: status 503");
+        tracker.record("finnhub", false, 100, "quote: status 503");
+        assertEquals(ProviderHealth.DOWN, tracker.health("finnhub").status());
+
+        // Ten successes push every failure out of the window
+        for (int i = 0; i < 10; i++) {
+            tracker.record("finnhub", true, 100, null);
+        }
+        ProviderHealth recovered = tracker.health("finnhub");
+        assertEquals(ProviderHealth.UP, recovered.status());
+        assertEquals(0.0, recovered.failureRate());
+        assertNotNull(recovered.lastFailureAt());
+
+        // Slow but successful calls are DEGRADED
+        for (int i = 0; i < 10; i++) {
+            tracker.record("finnhub", true, 2_000, null);
+        }
+        assertEquals(ProviderHealth.DEGRADED, tracker.health("finnhub").status());
+    }
+
+    // Test one provider down is DEGRADED overall and both down is DOWN
+    @Test
+    void testHealth_CombinesProviders() {
+        for (int i = 0; i < 3; i++) {
+            tracker.record("marketaux", false, 50, "news: deadline exceeded");
+        }
+        tracker.record("finnhub", true, 50, null);
+        Health oneDown = indicator.health();
+        assertEquals("DEGRADED", oneDown.getStatus().getCode());
+        assertEquals("MarketAux API is down", oneDown.getDetails().get("message"));
+
+        for (int i = 0; i < 3; i++) {
+            tracker.record("finnhub", false, 50, "quote: deadline exceeded");
+        }
+        assertEquals(Status.DOWN, indicator.health().getStatus());
+    }
+
+    // Test only providers idle for longer than their interval are probed, and MarketAux not at all by default
+    @Test
+    void testProbe_OnlyIdleProviders() {
+        when(finnhubApiClient.getQuoteAsync("AAPL")).thenReturn(CompletableFuture.completedFuture(null));
+
+        indicator.probeIdleProviders();
+        verify(finnhubApiClient, times(1)).getQuoteAsync("AAPL");
+
+        tracker.record("finnhub", true, 50, null);
+        now.addAndGet(30_000);
+        indicator.probeIdleProviders();
+        verify(finnhubApiClient, times(1)).getQuoteAsync("AAPL");
+
+        now.addAndGet(60_000);
+        indicator.probeIdleProviders();
+        verify(finnhubApiClient, times(2)).getQuoteAsync("AAPL");
+        verifyNoInteractions(marketAuxApiClient);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> details(Health health, String provider) {
+        return (Map<String, Object>) health.getDetails().get(provider);
+    }
+}
@@ -1,7 +1,7 @@
 package com.joelcode.personalinvestmentportfoliotracker.repositories;
 
-import com.joelcode.personalinvestmentportfoliotracker.entities.Account;
-import com.joelcode.personalinvestmentportfoliotracker.entities.User;
+import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.AccountTotals;
+import com.joelcode.personalinvestmentportfoliotracker.entities.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -213,4 +213,75 @@ class AccountRepositoryTest {
         // Assert
         assertTrue(results.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindTotalsByUserId_CashAndPaidDividendsPerAccount() {
+        // Arrange: two holdings and one paid and one pending dividend on the checking account.
+        // Holdings must not multiply the account's row or its dividends
+        Stock aapl = stock("AAPL", 150);
+        Stock msft = stock("MSFT", 300);
+        holding(testAccount, aapl, 10, 1200, 50);
+        holding(testAccount, msft, 2, 500, 0);
+
+        Dividend dividend = new Dividend(BigDecimal.ONE, LocalDateTime.now(), aapl);
+        entityManager.persist(dividend);
+        entityManager.persist(new DividendPayment(testAccount, aapl, dividend, BigDecimal.TEN,
+                BigDecimal.valueOf(10), LocalDateTime.now()));
+        DividendPayment pending = new DividendPayment(testAccount, aapl, dividend, BigDecimal.TEN,
+                BigDecimal.valueOf(99), LocalDateTime.now());
+        pending.setStatus(DividendPayment.PaymentStatus.PENDING);
+        entityManager.persist(pending);
+
+        // An account without holdings still gets a row
+        Account savings = new Account();
+        savings.setAccountName("Savings");
+        savings.setAccountBalance(BigDecimal.valueOf(250));
+        savings.setUser(testUser);
+        entityManager.persist(savings);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        List<AccountTotals> totals = accountRepository.findTotalsByUserId(testUser.getUserId());
+
+        // Assert
+        assertEquals(2, totals.size());
+        AccountTotals checking = totals.stream()
+                .filter(t -> t.accountId().equals(testAccount.getAccountId())).findFirst().orElseThrow();
+        assertEquals(0, checking.dividends().compareTo(BigDecimal.TEN));
+        assertEquals(0, checking.cashBalance().compareTo(testAccount.getAccountBalance()));
+
+        AccountTotals empty = totals.stream()
+                .filter(t -> t.accountId().equals(savings.getAccountId())).findFirst().orElseThrow();
+        assertEquals(0, empty.dividends().signum());
+        assertEquals(0, empty.cashBalance().compareTo(BigDecimal.valueOf(250)));
+
+        AccountTotals user = AccountTotals.sum(totals);
+        assertEquals(0, user.cashBalance().compareTo(BigDecimal.valueOf(5250))); // 5000 + 250
+        assertEquals(0, user.dividends().compareTo(BigDecimal.TEN));
+    }
+
+
+    // Helper functions
+
+    private Stock stock(String code, long price) {
+        Stock stock = new Stock();
+        stock.setStockCode(code);
+        stock.setCompanyName(code);
+        stock.setStockValue(BigDecimal.valueOf(price));
+        entityManager.persist(stock);
+        return stock;
+    }
+
+    private void holding(Account account, Stock stock, long quantity, long costBasis, long realizedGain) {
+        Holding holding = new Holding();
+        holding.setAccount(account);
+        holding.setStock(stock);
+        holding.setQuantity(BigDecimal.valueOf(quantity));
+        holding.setAverageCostBasis(BigDecimal.valueOf(costBasis).divide(BigDecimal.valueOf(quantity)));
+        holding.setTotalCostBasis(BigDecimal.valueOf(costBasis));
+        holding.setRealizedGain(BigDecimal.valueOf(realizedGain));
+        holding.setFirstPurchaseDate(LocalDateTime.now());
+        entityManager.persist(holding);
+    }
+}
@@ -14,6 +14,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -249,4 +250,37 @@ class PortfolioSnapshotRepositoryTest {
         assertTrue(count > 0);
         assertEquals(1L, count);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindAccountIdsWithSnapshotOn_Success() {
+        // Act
+        List<UUID> today = portfolioSnapshotRepository.findAccountIdsWithSnapshotOn(List.of(testAccount.getAccountId()), LocalDate.now());
+        List<UUID> tomorrow = portfolioSnapshotRepository.findAccountIdsWithSnapshotOn(List.of(testAccount.getAccountId()), LocalDate.now().plusDays(1));
+
+        // Assert
+        assertEquals(List.of(testAccount.getAccountId()), today);
+        assertTrue(tomorrow.isEmpty());
+    }
+
+    @Test
+    void testFindLatestBeforeForAccounts_Success() {
+        // Arrange
+        PortfolioSnapshot older = new PortfolioSnapshot();
+        older.setAccount(testAccount);
+        older.setSnapshotDate(LocalDate.now().minusDays(3));
+        older.setTotalValue(BigDecimal.valueOf(40000.0));
+        older.setCashBalance(BigDecimal.ZERO);
+        older.setTotalCostBasis(BigDecimal.valueOf(40000.0));
+        entityManager.persistAndFlush(older);
+
+        // Act
+        List<PortfolioSnapshot> beforeTomorrow = portfolioSnapshotRepository.findLatestBeforeForAccounts(List.of(testAccount.getAccountId()), LocalDate.now().plusDays(1));
+        List<PortfolioSnapshot> beforeToday = portfolioSnapshotRepository.findLatestBeforeForAccounts(List.of(testAccount.getAccountId()), LocalDate.now());
+
+        // Assert
+        assertEquals(1, beforeTomorrow.size());
+        assertEquals(testSnapshot.getSnapshotId(), beforeTomorrow.get(0).getSnapshotId());
+        assertEquals(1, beforeToday.size());
+        assertEquals(older.getSnapshotId(), beforeToday.get(0).getSnapshotId());
+    }
+}
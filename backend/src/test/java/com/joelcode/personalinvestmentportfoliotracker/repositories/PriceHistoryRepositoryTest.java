@@ -1,6 +1,8 @@
 package com.joelcode.personalinvestmentportfoliotracker.repositories;
 
+import com.joelcode.personalinvestmentportfoliotracker.dto.pricehistory.PricePoint;
 import com.joelcode.personalinvestmentportfoliotracker.entities.PriceHistory;
+import com.joelcode.personalinvestmentportfoliotracker.entities.PriceHistoryDaily;
 import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,6 +11,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -223,4 +226,46 @@ class PriceHistoryRepositoryTest {
         assertFalse(results.isEmpty());
         assertTrue(results.stream().allMatch(ph -> ph.getClosePrice().compareTo(BigDecimal.valueOf(200.0)) < 0));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindSeries_ShortRecentRangeReturnsRawPoints() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        entityManager.persistAndFlush(new PriceHistory(now.minusHours(2), BigDecimal.valueOf(149.0), testStock));
+
+        // Act
+        List<PricePoint> results = priceHistoryRepository.findSeries(testStock.getStockId(), now.minusDays(1), now.plusMinutes(1));
+
+        // Assert
+        assertEquals(2, results.size());
+        assertEquals(0, results.get(0).closePrice().compareTo(BigDecimal.valueOf(149.0)));
+        assertEquals(0, results.get(1).closePrice().compareTo(BigDecimal.valueOf(150.0)));
+    }
+
+    @Test
+    void testFindSeries_LongRangeUsesDailyRollupsThenRawDays() {
+        // Arrange
+        LocalDate today = LocalDate.now();
+        for (int daysAgo = 3; daysAgo >= 1; daysAgo--) {
+            PriceHistoryDaily bar = new PriceHistoryDaily(testStock.getStockId(), today.minusDays(daysAgo));
+            bar.setOpenPrice(BigDecimal.ONE);
+            bar.setHighPrice(BigDecimal.ONE);
+            bar.setLowPrice(BigDecimal.ONE);
+            bar.setClosePrice(BigDecimal.valueOf(100 + daysAgo));
+            bar.setSamples(1);
+            entityManager.persist(bar);
+        }
+        entityManager.persistAndFlush(new PriceHistory(today.atStartOfDay().plusMinutes(1), BigDecimal.valueOf(149.0), testStock));
+
+        // Act
+        List<PricePoint> results = priceHistoryRepository.findSeries(testStock.getStockId(),
+                today.minusDays(30).atStartOfDay(), LocalDateTime.now().plusMinutes(1));
+
+        // Assert: three rolled-up days, then today's last raw point
+        assertEquals(4, results.size());
+        assertEquals(today.minusDays(3).atStartOfDay(), results.get(0).closeDate());
+        assertEquals(0, results.get(2).closePrice().compareTo(BigDecimal.valueOf(101)));
+        assertEquals(today.atStartOfDay(), results.get(3).closeDate());
+        assertEquals(0, results.get(3).closePrice().compareTo(BigDecimal.valueOf(150.0)));
+    }
+}
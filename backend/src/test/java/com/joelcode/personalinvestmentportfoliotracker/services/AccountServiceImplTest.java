@@ -5,18 +5,21 @@ import com.joelcode.personalinvestmentportfoliotracker.dto.account.AccountCreate
 import com.joelcode.personalinvestmentportfoliotracker.dto.account.AccountDTO;
 import com.joelcode.personalinvestmentportfoliotracker.dto.account.AccountUpdateRequest;
 import com.joelcode.personalinvestmentportfoliotracker.dto.holding.HoldingDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.holding.HoldingView;
 import com.joelcode.personalinvestmentportfoliotracker.dto.transaction.TransactionDTO;
 import com.joelcode.personalinvestmentportfoliotracker.entities.*;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.AccountRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.HoldingRepository;
 import com.joelcode.personalinvestmentportfoliotracker.services.account.AccountServiceImpl;
 import com.joelcode.personalinvestmentportfoliotracker.services.account.AccountValidationService;
 import com.joelcode.personalinvestmentportfoliotracker.services.mapping.HoldingMapper;
 import com.joelcode.personalinvestmentportfoliotracker.services.mapping.TransactionMapper;
 import com.joelcode.personalinvestmentportfoliotracker.services.pricehistory.PriceHistoryService;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.AccountValuationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.websocket.PortfolioUpdatePublisher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -36,6 +39,9 @@ public class AccountServiceImplTest {
     @Mock
     private AccountRepository accountRepository;
 
+    @Mock
+    private HoldingRepository holdingRepository;
+
     @Mock
     private AccountValidationService accountValidationService;
 
@@ -49,7 +55,10 @@ public class AccountServiceImplTest {
     private PriceHistoryService priceHistoryService;
 
     @Mock
-    private SimpMessagingTemplate messagingTemplate;
+    private PortfolioUpdatePublisher portfolioUpdatePublisher;
+
+    @Mock
+    private AccountValuationService accountValuationService;
 
     @InjectMocks
     private AccountServiceImpl accountService;
@@ -100,8 +109,8 @@ public class AccountServiceImplTest {
         // Ensure that the repository did not save more than once
         verify(accountRepository, times(1)).save(any(Account.class));
         // Verify websocket endpoint is correct
-        verify(messagingTemplate, times(1))
-                .convertAndSend(startsWith("/topic/portfolio/"), (Object) any());
+        verify(portfolioUpdatePublisher, times(1))
+                .publish(startsWith("/topic/portfolio/"), any());
     }
 
     // Test retrieving an account by id
@@ -153,8 +162,8 @@ public class AccountServiceImplTest {
         // Run check to make sure the account was updated properly
         assertEquals("Updated Account", result.getAccountName());
         verify(accountRepository, times(1)).save(any(Account.class));
-        verify(messagingTemplate, times(1))
-                .convertAndSend(startsWith("/topic/portfolio/"), (Object) any());
+        verify(portfolioUpdatePublisher, times(1))
+                .publish(startsWith("/topic/portfolio/"), any());
     }
 
     // Test deleting an account
@@ -180,8 +189,8 @@ public class AccountServiceImplTest {
 
         // Test if balance was updated
         assertEquals(BigDecimal.valueOf(1200), testAccount.getAccountBalance());
-        verify(messagingTemplate, times(1))
-                .convertAndSend(startsWith("/topic/portfolio/"), (Object) any());
+        verify(portfolioUpdatePublisher, times(1))
+                .publish(startsWith("/topic/portfolio/"), any());
     }
 
     // Test retrieving transaction for an account
@@ -208,19 +217,16 @@ public class AccountServiceImplTest {
     // Test retrieving holdings for an account
     @Test
     void testGetHoldingsForAccount_ReturnsCorrectList() {
-        Holding h = new Holding();
-        Stock stock = new Stock();
-        stock.setStockId(UUID.randomUUID());
-        h.setStock(stock);
-
-        testAccount.getHoldings().add(h);
+        UUID stockId = UUID.randomUUID();
+        HoldingView h = new HoldingView(UUID.randomUUID(), accountId, stockId, "AAPL", null,
+                BigDecimal.ONE, BigDecimal.ONE, BigDecimal.ONE, BigDecimal.ZERO, null);
 
         when(accountValidationService.validateAccountExistsById(accountId))
                 .thenReturn(testAccount);
-        UUID stockId = h.getStock().getStockId();
+        when(holdingRepository.findViewsByAccountId(accountId)).thenReturn(List.of(h));
         when(priceHistoryService.getCurrentPrice(stockId)).thenReturn(BigDecimal.TEN);
         try (MockedStatic<HoldingMapper> mockedHoldingMapper = Mockito.mockStatic(HoldingMapper.class)) {
-            mockedHoldingMapper.when(() -> HoldingMapper.toDTO(h, BigDecimal.TEN))
+            mockedHoldingMapper.when(() -> HoldingMapper.viewToDTO(h, BigDecimal.TEN))
                     .thenReturn(new HoldingDTO());
 
             List<HoldingDTO> result = accountService.getHoldingsForAccount(accountId);
@@ -7,10 +7,11 @@ import com.joelcode.personalinvestmentportfoliotracker.repositories.*;
 import com.joelcode.personalinvestmentportfoliotracker.services.dividendpayment.DividendPaymentServiceImpl;
 import com.joelcode.personalinvestmentportfoliotracker.services.dividendpayment.DividendPaymentValidationService;
 import com.joelcode.personalinvestmentportfoliotracker.services.holding.HoldingCalculationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.AccountValuationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.websocket.PortfolioUpdatePublisher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -38,9 +39,11 @@ public class DividendPaymentServiceImplTest {
     @Mock
     private DividendPaymentValidationService validationService;
     @Mock
-    private SimpMessagingTemplate messagingTemplate;
+    private PortfolioUpdatePublisher portfolioUpdatePublisher;
     @Mock
     private HoldingCalculationService holdingCalculationService;
+    @Mock
+    private AccountValuationService accountValuationService;
 
     @InjectMocks
     private DividendPaymentServiceImpl paymentService;
@@ -107,7 +110,11 @@ public class DividendPaymentServiceImplTest {
 
         assertNotNull(result);
         verify(paymentRepository, times(1)).save(any(DividendPayment.class));
-        verify(messagingTemplate, times(2)).convertAndSend(anyString(), (Object) any());
+        verify(portfolioUpdatePublisher, times(1)).publish(eq("/topic/dividends"), anyString(), any());
+        verify(portfolioUpdatePublisher, times(1)).publish(eq("/topic/portfolio/" + accountId), any());
+        verify(accountValuationService).recordDividend(eq(accountId),
+                argThat(amount -> amount.compareTo(BigDecimal.valueOf(25)) == 0),
+                argThat(cash -> cash.compareTo(BigDecimal.valueOf(10025)) == 0));
     }
 
     // Test retrieving payment by id
@@ -140,5 +147,32 @@ public class DividendPaymentServiceImplTest {
         paymentService.deleteDividendPayment(paymentId);
 
         verify(paymentRepository, times(1)).delete(testPayment);
+        verify(accountValuationService).evict(accountId);
+    }
+
+    // Test a batch payout evicts the cached valuation of every account it pays
+    @Test
+    void testProcessPaymentsForDividend_EvictsPaidAccounts() {
+        Account otherAccount = new Account();
+        otherAccount.setAccountId(UUID.randomUUID());
+        Holding held = holding(testAccount, 100);
+        Holding otherHeld = holding(otherAccount, 40);
+        when(dividendRepository.findById(dividendId)).thenReturn(Optional.of(testDividend));
+        when(holdingRepository.findByStock_StockId(stockId)).thenReturn(List.of(held, otherHeld));
+        when(paymentRepository.existsByAccountAndDividend(any(), any())).thenReturn(false);
+
+        paymentService.processPaymentsForDividend(dividendId);
+
+        verify(paymentRepository, times(2)).save(any(DividendPayment.class));
+        verify(accountValuationService).evict(accountId);
+        verify(accountValuationService).evict(otherAccount.getAccountId());
+    }
+
+    private Holding holding(Account account, int quantity) {
+        Holding holding = new Holding();
+        holding.setAccount(account);
+        holding.setStock(testStock);
+        holding.setQuantity(BigDecimal.valueOf(quantity));
+        return holding;
     }
 }
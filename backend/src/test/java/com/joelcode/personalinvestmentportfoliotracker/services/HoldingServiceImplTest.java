@@ -6,11 +6,12 @@ import com.joelcode.personalinvestmentportfoliotracker.entities.*;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.HoldingRepository;
 import com.joelcode.personalinvestmentportfoliotracker.services.account.AccountValidationService;
 import com.joelcode.personalinvestmentportfoliotracker.services.holding.*;
-import com.joelcode.personalinvestmentportfoliotracker.services.pricehistory.PriceHistoryServiceImpl;
+import com.joelcode.personalinvestmentportfoliotracker.services.marketdata.PriceResolver;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.AccountValuationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.websocket.PortfolioUpdatePublisher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -30,11 +31,13 @@ public class HoldingServiceImplTest {
     @Mock
     private AccountValidationService accountValidationService;
     @Mock
-    private PriceHistoryServiceImpl priceHistoryService;
+    private PriceResolver priceResolver;
     @Mock
     private WebSocketController webSocketController;
     @Mock
-    private SimpMessagingTemplate messagingTemplate;
+    private PortfolioUpdatePublisher portfolioUpdatePublisher;
+    @Mock
+    private AccountValuationService accountValuationService;
 
     @InjectMocks
     private HoldingServiceImpl holdingService;
@@ -92,7 +95,7 @@ public class HoldingServiceImplTest {
 
         assertNotNull(result);
         verify(holdingRepository, times(1)).save(any(Holding.class));
-        verify(messagingTemplate, times(1)).convertAndSend(anyString(), (Object) any());
+        verify(portfolioUpdatePublisher, times(1)).publish(anyString(), anyString(), any());
     }
 
     // Test retrieving holding by id
@@ -129,7 +132,7 @@ public class HoldingServiceImplTest {
 
         assertNotNull(result);
         verify(holdingRepository, times(1)).save(any(Holding.class));
-        verify(messagingTemplate, times(1)).convertAndSend(anyString(), (Object) any());
+        verify(portfolioUpdatePublisher, times(1)).publish(anyString(), anyString(), any());
     }
 
     // Test deleting holding
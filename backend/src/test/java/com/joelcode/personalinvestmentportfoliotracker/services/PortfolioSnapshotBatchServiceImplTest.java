@@ -0,0 +1,264 @@
+package com.joelcode.personalinvestmentportfoliotracker.services;
+
+import com.joelcode.personalinvestmentportfoliotracker.dto.portfoliosnapshot.PortfolioSnapshotCreateRequest;
+import com.joelcode.personalinvestmentportfoliotracker.dto.portfoliosnapshot.SnapshotBatchResult;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Account;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Holding;
+import com.joelcode.personalinvestmentportfoliotracker.entities.PortfolioSnapshot;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.AccountRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.HoldingRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.PortfolioSnapshotRepository;
+import com.joelcode.personalinvestmentportfoliotracker.services.holding.HoldingCalculationServiceImpl;
+import com.joelcode.personalinvestmentportfoliotracker.services.holding.HoldingValidationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.marketdata.PriceResolver;
+import com.joelcode.personalinvestmentportfoliotracker.services.portfoliosnapshot.PortfolioSnapshotBatchServiceImpl;
+import com.joelcode.personalinvestmentportfoliotracker.services.portfoliosnapshot.PortfolioSnapshotCalculationServiceImpl;
+import com.joelcode.personalinvestmentportfoliotracker.services.portfoliosnapshot.PortfolioSnapshotService;
+import com.joelcode.personalinvestmentportfoliotracker.services.portfoliosnapshot.PortfolioSnapshotValidationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Testing the batch snapshot job
+public class PortfolioSnapshotBatchServiceImplTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private HoldingRepository holdingRepository;
+
+    @Mock
+    private PortfolioSnapshotRepository snapshotRepository;
+
+    @Mock
+    private PriceResolver priceResolver;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PortfolioSnapshotBatchServiceImpl batchService;
+    private LocalDate today;
+    private Stock stock;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        batchService = new PortfolioSnapshotBatchServiceImpl(accountRepository, holdingRepository, snapshotRepository,
+                priceResolver, transactionManager, meterRegistry, 2, 2);
+        today = LocalDate.now();
+
+        stock = new Stock("AAPL", "Apple Inc.", BigDecimal.valueOf(100), BigDecimal.ZERO);
+        stock.setStockId(UUID.randomUUID());
+        when(holdingRepository.findDistinctHeldStocks()).thenReturn(List.of(stock));
+        when(priceResolver.resolvePrices(List.of(stock.getStockId())))
+                .thenReturn(Map.of(stock.getStockId(), BigDecimal.valueOf(120)));
+        when(accountRepository.getReferenceById(any())).thenAnswer(invocation -> account(invocation.getArgument(0)));
+    }
+
+    // Test accounts are paged in chunks, valued with one price lookup and saved in batches
+    @Test
+    void testCreateSnapshotsForAllAccounts_PagesAndSavesInChunks() {
+        UUID a1 = UUID.randomUUID();
+        UUID a2 = UUID.randomUUID();
+        UUID a3 = UUID.randomUUID();
+        when(accountRepository.findAccountIds(any(Pageable.class))).thenReturn(List.of(a1, a2));
+        when(accountRepository.findAccountIdsAfter(eq(a2), any(Pageable.class))).thenReturn(List.of(a3));
+        when(snapshotRepository.findAccountIdsWithSnapshotOn(anyCollection(), eq(today))).thenReturn(List.of());
+        when(holdingRepository.findByAccountIdsWithStock(anyCollection())).thenAnswer(invocation -> {
+            Collection<UUID> ids = invocation.getArgument(0);
+            return ids.contains(a1) ? List.of(holding(a1, 10, 1000)) : List.of();
+        });
+        when(snapshotRepository.findLatestBeforeForAccounts(anyCollection(), eq(today))).thenReturn(List.of());
+
+        SnapshotBatchResult result = batchService.createSnapshotsForAllAccounts(today);
+
+        assertEquals(3, result.getCreated());
+        assertEquals(0, result.getFailed());
+        verify(priceResolver, times(1)).resolvePrices(any());
+
+        List<PortfolioSnapshot> saved = capturedSnapshots();
+        assertEquals(3, saved.size());
+        PortfolioSnapshot first = saved.stream()
+                .filter(s -> s.getAccount().getAccountId().equals(a1)).findFirst().orElseThrow();
+        assertEquals(new BigDecimal("1200.00"), first.getTotalValue());
+        assertEquals(new BigDecimal("200.00"), first.getTotalGain());
+        assertEquals(3.0, meterRegistry.get("portfolio.snapshot.batch.accounts").tag("result", "created").counter().count());
+    }
+
+    // Test a re-run skips accounts that already have a snapshot for the date
+    @Test
+    void testCreateSnapshotsForAllAccounts_RestartSkipsDoneAccounts() {
+        UUID done = UUID.randomUUID();
+        UUID pending = UUID.randomUUID();
+        when(accountRepository.findAccountIds(any(Pageable.class))).thenReturn(List.of(done, pending));
+        when(accountRepository.findAccountIdsAfter(eq(pending), any(Pageable.class))).thenReturn(List.of());
+        when(snapshotRepository.findAccountIdsWithSnapshotOn(anyCollection(), eq(today))).thenReturn(List.of(done));
+        when(holdingRepository.findByAccountIdsWithStock(anyCollection())).thenReturn(List.of());
+        when(snapshotRepository.findLatestBeforeForAccounts(anyCollection(), eq(today))).thenReturn(List.of());
+
+        SnapshotBatchResult result = batchService.createSnapshotsForAllAccounts(today);
+
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getSkipped());
+        List<PortfolioSnapshot> saved = capturedSnapshots();
+        assertEquals(1, saved.size());
+        assertEquals(pending, saved.get(0).getAccount().getAccountId());
+    }
+
+    // Test a failing chunk is retried account by account so only the bad account fails
+    @Test
+    void testCreateSnapshotsForAllAccounts_IsolatesFailingAccount() {
+        UUID good = UUID.randomUUID();
+        UUID bad = UUID.randomUUID();
+        when(accountRepository.findAccountIds(any(Pageable.class))).thenReturn(List.of(good, bad));
+        when(accountRepository.findAccountIdsAfter(eq(bad), any(Pageable.class))).thenReturn(List.of());
+        when(snapshotRepository.findAccountIdsWithSnapshotOn(anyCollection(), eq(today))).thenReturn(List.of());
+        when(holdingRepository.findByAccountIdsWithStock(anyCollection())).thenAnswer(invocation -> {
+            Collection<UUID> ids = invocation.getArgument(0);
+            if (ids.contains(bad)) {
+                throw new RuntimeException("Corrupt holding");
+            }
+            return List.of();
+        });
+        when(snapshotRepository.findLatestBeforeForAccounts(anyCollection(), eq(today))).thenReturn(List.of());
+
+        SnapshotBatchResult result = batchService.createSnapshotsForAllAccounts(today);
+
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getFailed());
+        assertEquals(1.0, meterRegistry.get("portfolio.snapshot.batch.accounts").tag("result", "failed").counter().count());
+    }
+
+    // Test day change is measured against the previous snapshot
+    @Test
+    void testCreateSnapshotsForAllAccounts_DayChangeFromPreviousSnapshot() {
+        UUID accountId = UUID.randomUUID();
+        PortfolioSnapshot previous = new PortfolioSnapshot();
+        previous.setAccount(account(accountId));
+        previous.setTotalValue(BigDecimal.valueOf(1000));
+        when(accountRepository.findAccountIds(any(Pageable.class))).thenReturn(List.of(accountId));
+        when(snapshotRepository.findAccountIdsWithSnapshotOn(anyCollection(), eq(today))).thenReturn(List.of());
+        when(holdingRepository.findByAccountIdsWithStock(anyCollection())).thenReturn(List.of(holding(accountId, 10, 1000)));
+        when(snapshotRepository.findLatestBeforeForAccounts(anyCollection(), eq(today))).thenReturn(List.of(previous));
+
+        batchService.createSnapshotsForAllAccounts(today);
+
+        PortfolioSnapshot saved = capturedSnapshots().get(0);
+        assertEquals(new BigDecimal("200.00"), saved.getDayChange());
+        assertEquals(0, new BigDecimal("20").compareTo(saved.getDayChangePercent()));
+    }
+
+    // Test the batch job and the per-account snapshot agree on rounding and on negative and missing prices
+    @Test
+    void testCreateSnapshotsForAllAccounts_MatchesPerAccountSnapshot() {
+        UUID accountId = UUID.randomUUID();
+        Account account = account(accountId);
+        Stock fractional = heldStock("MSFT", 33.335);
+        Stock negative = heldStock("BAD", -5);
+        Stock unpriced = heldStock("NEW", 50);
+        Holding roundedUp = holding(accountId, 3, 90);
+        roundedUp.setStock(fractional);
+        roundedUp.setRealizedGain(new BigDecimal("12.345"));
+        Holding negativePrice = holding(accountId, 7, 70);
+        negativePrice.setStock(negative);
+        Holding missingPrice = holding(accountId, 2, 40);
+        missingPrice.setStock(unpriced);
+        List<Holding> holdings = List.of(roundedUp, negativePrice, missingPrice);
+
+        PortfolioSnapshot previous = new PortfolioSnapshot();
+        previous.setAccount(account);
+        previous.setTotalValue(new BigDecimal("90.50"));
+
+        // The resolver has no price for NEW, and BAD comes back negative
+        Map<UUID, BigDecimal> prices = Map.of(
+                fractional.getStockId(), new BigDecimal("33.335"),
+                negative.getStockId(), BigDecimal.valueOf(-5));
+        when(priceResolver.resolvePrices(any())).thenReturn(prices);
+
+        // Per-account path
+        PortfolioSnapshotValidationService snapshotValidationService = mock(PortfolioSnapshotValidationService.class);
+        HoldingValidationService holdingValidationService = mock(HoldingValidationService.class);
+        PortfolioSnapshotService snapshotService = mock(PortfolioSnapshotService.class);
+        when(snapshotValidationService.validateAccountExists(accountId)).thenReturn(account);
+        when(holdingValidationService.validateAccountExists(accountId)).thenReturn(account);
+        when(holdingRepository.findByAccount(account)).thenReturn(holdings);
+        when(holdingRepository.sumTotalCostBasisByAccount(account)).thenReturn(BigDecimal.valueOf(200));
+        when(snapshotRepository.findLatestByAccount(account)).thenReturn(Optional.of(previous));
+        PortfolioSnapshotCalculationServiceImpl calculationService = new PortfolioSnapshotCalculationServiceImpl(
+                snapshotService, snapshotRepository, snapshotValidationService,
+                new HoldingCalculationServiceImpl(holdingRepository, holdingValidationService, priceResolver));
+
+        calculationService.generateSnapshotForToday(accountId);
+        ArgumentCaptor<PortfolioSnapshotCreateRequest> requestCaptor = ArgumentCaptor.forClass(PortfolioSnapshotCreateRequest.class);
+        verify(snapshotService).createSnapshot(requestCaptor.capture());
+        PortfolioSnapshotCreateRequest expected = requestCaptor.getValue();
+
+        // Batch path
+        when(holdingRepository.findDistinctHeldStocks()).thenReturn(List.of(fractional, negative));
+        when(accountRepository.findAccountIds(any(Pageable.class))).thenReturn(List.of(accountId));
+        when(snapshotRepository.findAccountIdsWithSnapshotOn(anyCollection(), eq(today))).thenReturn(List.of());
+        when(holdingRepository.findByAccountIdsWithStock(anyCollection())).thenReturn(holdings);
+        when(snapshotRepository.findLatestBeforeForAccounts(anyCollection(), eq(today))).thenReturn(List.of(previous));
+
+        batchService.createSnapshotsForAllAccounts(today);
+        PortfolioSnapshot actual = capturedSnapshots().get(0);
+
+        assertEquals(new BigDecimal("100.01"), expected.getTotalValue());
+        assertEquals(expected.getTotalValue(), actual.getTotalValue());
+        assertEquals(0, expected.getTotalCostBasis().compareTo(actual.getTotalCostBasis()));
+        assertEquals(expected.getTotalGain(), actual.getTotalGain());
+        assertEquals(expected.getDayChange(), actual.getDayChange());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<PortfolioSnapshot> capturedSnapshots() {
+        ArgumentCaptor<Iterable<PortfolioSnapshot>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(snapshotRepository, atLeastOnce()).saveAll(captor.capture());
+        List<PortfolioSnapshot> all = new ArrayList<>();
+        captor.getAllValues().forEach(batch -> batch.forEach(all::add));
+        return all;
+    }
+
+    private Account account(UUID accountId) {
+        Account account = new Account();
+        account.setAccountId(accountId);
+        return account;
+    }
+
+    private Stock heldStock(String code, double storedValue) {
+        Stock held = new Stock(code, code, BigDecimal.valueOf(storedValue), BigDecimal.ZERO);
+        held.setStockId(UUID.randomUUID());
+        return held;
+    }
+
+    private Holding holding(UUID accountId, int quantity, int costBasis) {
+        Holding holding = new Holding();
+        holding.setAccount(account(accountId));
+        holding.setStock(stock);
+        holding.setQuantity(BigDecimal.valueOf(quantity));
+        holding.setTotalCostBasis(BigDecimal.valueOf(costBasis));
+        return holding;
+    }
+}
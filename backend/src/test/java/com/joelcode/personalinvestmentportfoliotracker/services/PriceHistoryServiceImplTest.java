@@ -1,19 +1,22 @@
 package com.joelcode.personalinvestmentportfoliotracker.services;
 
-import com.joelcode.personalinvestmentportfoliotracker.controllers.WebSocketController;
 import com.joelcode.personalinvestmentportfoliotracker.dto.pricehistory.PriceHistoryCreateRequest;
 import com.joelcode.personalinvestmentportfoliotracker.dto.pricehistory.PriceHistoryDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.pricehistory.PricePoint;
 import com.joelcode.personalinvestmentportfoliotracker.entities.PriceHistory;
 import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.PriceHistoryRepository;
 import com.joelcode.personalinvestmentportfoliotracker.services.mapping.PriceHistoryMapper;
 import com.joelcode.personalinvestmentportfoliotracker.services.pricehistory.PriceHistoryServiceImpl;
 import com.joelcode.personalinvestmentportfoliotracker.services.pricehistory.PriceHistoryValidationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.websocket.PriceTickPublisher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -32,7 +35,7 @@ public class PriceHistoryServiceImplTest {
     private PriceHistoryValidationService validationService;
 
     @Mock
-    private WebSocketController webSocketController;
+    private PriceTickPublisher priceTickPublisher;
 
     @InjectMocks
     private PriceHistoryServiceImpl priceHistoryService;
@@ -140,16 +143,26 @@ public class PriceHistoryServiceImplTest {
     @Test
     void testGetPriceHistoryForStock_ReturnsList() {
         // Stub the exact repository method called by the service
-        when(priceHistoryRepository.findByStock_StockIdOrderByCloseDateAsc(stockId))
-                .thenReturn(List.of(testPriceHistory));
+        when(priceHistoryRepository.findSeries(eq(stockId), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(new PricePoint(stockId, testPriceHistory.getCloseDate(), testPriceHistory.getClosePrice())));
 
-        try (MockedStatic<PriceHistoryMapper> mapperMock = Mockito.mockStatic(PriceHistoryMapper.class)) {
-            mapperMock.when(() -> PriceHistoryMapper.toDTO(testPriceHistory)).thenReturn(new PriceHistoryDTO());
+        List<PriceHistoryDTO> result = priceHistoryService.getPriceHistoryForStock(stockId);
 
-            List<PriceHistoryDTO> result = priceHistoryService.getPriceHistoryForStock(stockId);
+        assertEquals(1, result.size());
+        assertEquals(testPriceHistory.getClosePrice(), result.get(0).getClosePrice());
+        assertEquals(stockId, result.get(0).getStockId());
+    }
 
-            assertEquals(1, result.size());
-        }
+    @Test
+    void testGetPriceHistoryForStock_DefaultsToTheLastYear() {
+        when(priceHistoryRepository.findSeries(any(), any(), any())).thenReturn(List.of());
+
+        priceHistoryService.getPriceHistoryForStock(stockId);
+
+        ArgumentCaptor<LocalDateTime> from = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> to = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(priceHistoryRepository).findSeries(eq(stockId), from.capture(), to.capture());
+        assertEquals(365, Duration.between(from.getValue(), to.getValue()).toDays());
     }
 
     @Test
@@ -161,7 +174,7 @@ public class PriceHistoryServiceImplTest {
 
             priceHistoryService.getLatestPriceForStock(stockId);
 
-            verify(webSocketController, times(1)).broadcastStockPriceUpdate(eq(stockId), eq("TEST"), any());
+            verify(priceTickPublisher, times(1)).publish(eq(stockId), eq("TEST"), any());
         }
     }
 }
\ No newline at end of file
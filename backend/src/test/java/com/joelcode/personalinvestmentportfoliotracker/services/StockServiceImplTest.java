@@ -3,7 +3,9 @@ package com.joelcode.personalinvestmentportfoliotracker.services;
 import com.joelcode.personalinvestmentportfoliotracker.dto.stock.*;
 import com.joelcode.personalinvestmentportfoliotracker.entities.*;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.*;
+import com.joelcode.personalinvestmentportfoliotracker.services.marketdata.LivePriceTable;
 import com.joelcode.personalinvestmentportfoliotracker.services.stock.*;
+import com.joelcode.personalinvestmentportfoliotracker.services.utility.StockSearchIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
@@ -26,8 +28,11 @@ public class StockServiceImplTest {
     private StockValidationService stockValidationService;
     @Mock
     private PriceHistoryRepository priceHistoryRepository;
+    @Mock
+    private LivePriceTable livePriceTable;
+    @Mock
+    private StockSearchIndex stockSearchIndex;
 
-    @InjectMocks
     private StockServiceImpl stockService;
 
     private Stock testStock;
@@ -37,6 +42,8 @@ public class StockServiceImplTest {
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
+        stockService = new StockServiceImpl(stockRepository, stockValidationService, priceHistoryRepository,
+                livePriceTable, stockSearchIndex, 60_000);
 
         stockId = UUID.randomUUID();
 
@@ -64,6 +71,7 @@ public class StockServiceImplTest {
         assertNotNull(result);
         assertEquals("AAPL", result.getStockCode());
         verify(stockRepository, times(1)).save(any(Stock.class));
+        verify(stockSearchIndex, times(1)).put(testStock);
     }
 
     // Test retrieving stock by id
@@ -103,6 +111,8 @@ public class StockServiceImplTest {
 
         assertNotNull(result);
         verify(stockRepository, times(1)).save(any(Stock.class));
+        verify(stockSearchIndex, times(1)).put(testStock);
+        verify(livePriceTable, times(1)).remove(stockId);
     }
 
     // Test deleting stock
@@ -113,5 +123,57 @@ public class StockServiceImplTest {
         stockService.deleteStock(stockId);
 
         verify(stockRepository, times(1)).delete(testStock);
+        verify(stockSearchIndex, times(1)).remove(stockId);
+        verify(livePriceTable, times(1)).remove(stockId);
+    }
+
+    // Test a recent live price is served without reading price history
+    @Test
+    void testGetCurrentPrice_ServedFromLiveTable() {
+        when(stockRepository.findByStockId(stockId)).thenReturn(Optional.of(testStock));
+        when(livePriceTable.get(stockId))
+                .thenReturn(Optional.of(new LivePriceTable.LivePrice(BigDecimal.valueOf(155.0), System.currentTimeMillis())));
+
+        BigDecimal result = stockService.getCurrentPrice(stockId);
+
+        assertEquals(BigDecimal.valueOf(155.0), result);
+        verifyNoInteractions(priceHistoryRepository);
+    }
+
+    // Test a live price older than the max age falls back to the stored data
+    @Test
+    void testGetCurrentPrice_IgnoresExpiredLivePrice() {
+        when(stockRepository.findByStockId(stockId)).thenReturn(Optional.of(testStock));
+        when(livePriceTable.get(stockId))
+                .thenReturn(Optional.of(new LivePriceTable.LivePrice(BigDecimal.valueOf(155.0), System.currentTimeMillis() - 120_000)));
+        when(priceHistoryRepository.findTopByStockOrderByCloseDateDesc(testStock)).thenReturn(Optional.empty());
+
+        BigDecimal result = stockService.getCurrentPrice(stockId);
+
+        assertEquals(BigDecimal.valueOf(150.0), result);
+    }
+
+    // Test a deleted stock is rejected even while its live price is still in the table
+    @Test
+    void testGetCurrentPrice_UnknownStockRejected() {
+        when(stockRepository.findByStockId(stockId)).thenReturn(Optional.empty());
+        when(livePriceTable.get(stockId))
+                .thenReturn(Optional.of(new LivePriceTable.LivePrice(BigDecimal.valueOf(155.0), System.currentTimeMillis())));
+
+        assertThrows(IllegalArgumentException.class, () -> stockService.getCurrentPrice(stockId));
+    }
+
+    // Test current price falls back to the stored value and never writes
+    @Test
+    void testGetCurrentPrice_FallsBackToDatabase() {
+        when(livePriceTable.get(stockId)).thenReturn(Optional.empty());
+        when(stockRepository.findByStockId(stockId)).thenReturn(Optional.of(testStock));
+        when(priceHistoryRepository.findTopByStockOrderByCloseDateDesc(testStock)).thenReturn(Optional.empty());
+
+        BigDecimal result = stockService.getCurrentPrice(stockId);
+
+        assertEquals(BigDecimal.valueOf(150.0), result);
+        verify(stockRepository, never()).save(any(Stock.class));
+        verify(priceHistoryRepository, never()).save(any());
     }
-}
\ No newline at end of file
+}
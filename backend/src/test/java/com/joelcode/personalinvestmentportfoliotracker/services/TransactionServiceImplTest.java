@@ -2,16 +2,22 @@ package com.joelcode.personalinvestmentportfoliotracker.services;
 
 import com.joelcode.personalinvestmentportfoliotracker.dto.transaction.TransactionCreateRequest;
 import com.joelcode.personalinvestmentportfoliotracker.dto.transaction.TransactionDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.transaction.TransactionFeedDTO;
 import com.joelcode.personalinvestmentportfoliotracker.entities.Transaction;
+import com.joelcode.personalinvestmentportfoliotracker.exceptions.ValidationException;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.TransactionRepository;
 import com.joelcode.personalinvestmentportfoliotracker.services.mapping.TransactionMapper;
+import com.joelcode.personalinvestmentportfoliotracker.services.transaction.TransactionFeedCursor;
 import com.joelcode.personalinvestmentportfoliotracker.services.transaction.TransactionServiceImpl;
 import com.joelcode.personalinvestmentportfoliotracker.services.transaction.TransactionValidationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -112,4 +118,75 @@ public class TransactionServiceImplTest {
 
         verify(transactionRepository, times(1)).delete(testTransaction);
     }
+
+    // Test the first feed page fetches one extra row and returns a cursor at the last row shown
+    @Test
+    void testGetTransactionFeed_FirstPageReturnsCursor() {
+        List<Transaction> rows = feedRows(3);
+        when(transactionRepository.findFeedForAccount(eq(accountId), any(Pageable.class))).thenReturn(rows);
+
+        TransactionFeedDTO feed = transactionService.getTransactionFeed(accountId, null, null, 2);
+
+        assertEquals(2, feed.getTransactions().size());
+        assertEquals(rows.get(1).getTransactionId(), feed.getTransactions().get(1).getTransactionId());
+        TransactionFeedCursor cursor = TransactionFeedCursor.decode(feed.getNextCursor());
+        assertEquals(rows.get(1).getTransactionId(), cursor.transactionId());
+        assertEquals(rows.get(1).getCreatedAt(), cursor.createdAt());
+
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(transactionRepository).findFeedForAccount(eq(accountId), page.capture());
+        assertEquals(3, page.getValue().getPageSize());
+    }
+
+    // Test a cursor continues the user feed strictly after that row and ends without a cursor
+    @Test
+    void testGetTransactionFeed_CursorPageUsesKeyset() {
+        UUID userId = UUID.randomUUID();
+        Transaction last = feedRows(1).get(0);
+        String cursor = TransactionFeedCursor.after(last).encode();
+        when(transactionRepository.findFeedForUserAfter(eq(userId), eq(last.getCreatedAt()),
+                eq(last.getTransactionId()), any(Pageable.class))).thenReturn(feedRows(1));
+
+        TransactionFeedDTO feed = transactionService.getTransactionFeed(null, userId, cursor, 20);
+
+        assertEquals(1, feed.getTransactions().size());
+        assertNull(feed.getNextCursor());
+        verify(transactionRepository, never()).findFeedForUser(any(), any());
+    }
+
+    // Test the page size is capped
+    @Test
+    void testGetTransactionFeed_LimitIsCapped() {
+        when(transactionRepository.findFeedForAccount(eq(accountId), any(Pageable.class))).thenReturn(List.of());
+
+        transactionService.getTransactionFeed(accountId, null, null, 10_000);
+
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(transactionRepository).findFeedForAccount(eq(accountId), page.capture());
+        assertEquals(TransactionServiceImpl.MAX_FEED_PAGE_SIZE + 1, page.getValue().getPageSize());
+    }
+
+    // Test a malformed cursor and an ambiguous scope are rejected
+    @Test
+    void testGetTransactionFeed_InvalidArgumentsThrow() {
+        assertThrows(ValidationException.class,
+                () -> transactionService.getTransactionFeed(accountId, null, "not-a-cursor", 20));
+        assertThrows(ValidationException.class,
+                () -> transactionService.getTransactionFeed(accountId, UUID.randomUUID(), null, 20));
+        assertThrows(ValidationException.class,
+                () -> transactionService.getTransactionFeed(null, null, null, 20));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    private List<Transaction> feedRows(int count) {
+        List<Transaction> rows = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < count; i++) {
+            Transaction transaction = new Transaction();
+            transaction.setTransactionId(UUID.randomUUID());
+            transaction.setCreatedAt(now.minusMinutes(i));
+            rows.add(transaction);
+        }
+        return rows;
+    }
 }
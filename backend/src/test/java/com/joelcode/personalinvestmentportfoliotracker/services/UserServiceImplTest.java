@@ -6,6 +6,7 @@ import com.joelcode.personalinvestmentportfoliotracker.dto.user.UserDTO;
 import com.joelcode.personalinvestmentportfoliotracker.dto.user.UserUpdateRequest;
 import com.joelcode.personalinvestmentportfoliotracker.entities.Account;
 import com.joelcode.personalinvestmentportfoliotracker.entities.User;
+import com.joelcode.personalinvestmentportfoliotracker.jwt.JwtPrincipalCache;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.UserRepository;
 import com.joelcode.personalinvestmentportfoliotracker.services.mapping.AccountMapper;
 import com.joelcode.personalinvestmentportfoliotracker.services.mapping.UserMapper;
@@ -33,6 +34,9 @@ public class UserServiceImplTest {
     @Mock
     private UserValidationService userValidationService;
 
+    @Mock
+    private JwtPrincipalCache jwtPrincipalCache;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -123,6 +127,7 @@ public class UserServiceImplTest {
 
             assertNotNull(result);
             verify(userRepository, times(1)).save(any(User.class));
+            verify(jwtPrincipalCache, times(1)).evict(userId);
         }
     }
 
@@ -134,6 +139,7 @@ public class UserServiceImplTest {
         userService.deleteUser(userId);
 
         verify(userRepository, times(1)).delete(testUser);
+        verify(jwtPrincipalCache, times(1)).evict(userId);
     }
 
     // Test get all accounts for user
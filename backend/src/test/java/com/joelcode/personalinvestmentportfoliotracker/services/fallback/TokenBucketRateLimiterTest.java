@@ -0,0 +1,96 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.fallback;
+
+import com.joelcode.personalinvestmentportfoliotracker.exceptions.RateLimitExceededException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Testing the token bucket rate limiter
+public class TokenBucketRateLimiterTest {
+
+    private AtomicLong now;
+
+    @BeforeEach
+    void setup() {
+        now = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    }
+
+    // Test a full bucket allows exactly the burst size without waiting
+    @Test
+    void testTryAcquire_AllowsBurstThenRefuses() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("test", 60, 3, 0, now::get);
+
+        assertEquals(3, limiter.availablePermits());
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(0, limiter.availablePermits());
+        assertEquals(1000, limiter.estimatedWaitMillis());
+    }
+
+    // Test permits refill at the configured rate but never beyond the burst size
+    @Test
+    void testTryAcquire_RefillsAtRate() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("test", 60, 2, 0, now::get);
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        now.addAndGet(TimeUnit.MINUTES.toNanos(10));
+        assertEquals(2, limiter.availablePermits());
+    }
+
+    // Test the daily quota caps total permits regardless of rate
+    @Test
+    void testTryAcquire_DailyQuota() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("test", 600, 10, 2, now::get);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(0, limiter.remainingDailyQuota());
+    }
+
+    // Test a timed acquire queues for the next slot within the timeout
+    @Test
+    void testAcquire_WaitsForNextSlot() throws InterruptedException {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("test", 6000, 1, 0);
+        assertTrue(limiter.tryAcquire());
+
+        long start = System.nanoTime();
+        assertTrue(limiter.acquire(Duration.ofSeconds(1)));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(5));
+    }
+
+    // Test a timed acquire gives up when the next slot is beyond the timeout
+    @Test
+    void testAcquire_RefusesBeyondTimeout() throws InterruptedException {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("test", 1, 1, 0, now::get);
+        assertTrue(limiter.tryAcquire());
+
+        assertFalse(limiter.acquire(Duration.ofMillis(10)));
+    }
+
+    // Test async acquire completes once granted and fails fast when refused
+    @Test
+    void testAcquireAsync() throws Exception {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("test", 1, 1, 0, now::get);
+
+        limiter.acquireAsync(Duration.ZERO).get(1, TimeUnit.SECONDS);
+
+        CompletableFuture<Void> refused = limiter.acquireAsync(Duration.ofMillis(10));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> refused.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(RateLimitExceededException.class, e.getCause());
+    }
+}
@@ -0,0 +1,166 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.finnhub;
+
+import com.joelcode.personalinvestmentportfoliotracker.dto.finnhub.FinnhubQuoteDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Testing the caching FinnHub decorator
+public class CachingFinnhubApiClientTest {
+
+    @Mock
+    private FinnhubApiClient delegate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicLong now;
+    private CachingFinnhubApiClient client;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        now = new AtomicLong(1_000_000L);
+        client = new CachingFinnhubApiClient(delegate, meterRegistry, 1_000, 5_000, 2, now::get);
+    }
+
+    // Test repeated reads inside the freshness window hit the cache
+    @Test
+    void testGetQuote_FreshQuoteServedFromCache() {
+        when(delegate.getQuoteAsync("AAPL")).thenReturn(completed(150));
+
+        client.getQuote("aapl");
+        FinnhubQuoteDTO result = client.getQuote("AAPL");
+
+        assertEquals(BigDecimal.valueOf(150), result.getCurrentPrice());
+        verify(delegate, times(1)).getQuoteAsync("AAPL");
+        assertEquals(1.0, counter("hit"));
+        assertEquals(1.0, counter("miss"));
+    }
+
+    // Test a quote past its freshness window is still served while it refreshes
+    @Test
+    void testGetQuote_StaleQuoteServedAndRefreshed() {
+        when(delegate.getQuoteAsync("AAPL")).thenReturn(completed(150)).thenReturn(completed(155));
+
+        client.getQuote("AAPL");
+        now.addAndGet(2_000);
+        FinnhubQuoteDTO stale = client.getQuote("AAPL");
+
+        assertEquals(BigDecimal.valueOf(150), stale.getCurrentPrice());
+        verify(delegate, timeout(1_000).times(2)).getQuoteAsync("AAPL");
+        assertEquals(1.0, counter("stale"));
+    }
+
+    // Test a quote past the stale window is reloaded synchronously
+    @Test
+    void testGetQuote_ExpiredQuoteReloaded() {
+        when(delegate.getQuoteAsync("AAPL")).thenReturn(completed(150)).thenReturn(completed(160));
+
+        client.getQuote("AAPL");
+        now.addAndGet(10_000);
+
+        assertEquals(BigDecimal.valueOf(160), client.getCurrentPrice("AAPL"));
+        assertEquals(2.0, counter("miss"));
+    }
+
+    // Test concurrent misses share one upstream request
+    @Test
+    void testGetQuote_ConcurrentMissesCoalesced() throws Exception {
+        CountDownLatch upstreamStarted = new CountDownLatch(1);
+        CompletableFuture<FinnhubQuoteDTO> upstream = new CompletableFuture<>();
+        when(delegate.getQuoteAsync("MSFT")).thenAnswer(invocation -> {
+            upstreamStarted.countDown();
+            return upstream;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<FinnhubQuoteDTO> first = executor.submit(() -> client.getQuote("MSFT"));
+            assertTrue(upstreamStarted.await(5, TimeUnit.SECONDS));
+            Future<FinnhubQuoteDTO> second = executor.submit(() -> client.getQuote("MSFT"));
+            Future<FinnhubQuoteDTO> third = executor.submit(() -> client.getQuote("MSFT"));
+
+            while (counter("coalesced") < 2.0) {
+                Thread.sleep(5);
+            }
+            upstream.complete(quote(300));
+
+            assertEquals(BigDecimal.valueOf(300), first.get(5, TimeUnit.SECONDS).getCurrentPrice());
+            assertEquals(BigDecimal.valueOf(300), second.get(5, TimeUnit.SECONDS).getCurrentPrice());
+            assertEquals(BigDecimal.valueOf(300), third.get(5, TimeUnit.SECONDS).getCurrentPrice());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(delegate, times(1)).getQuoteAsync("MSFT");
+    }
+
+    // Test upstream failures propagate and are not cached
+    @Test
+    void testGetQuote_FailurePropagates() {
+        when(delegate.getQuoteAsync("AAPL"))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Failed to fetch quote for symbol: AAPL")))
+                .thenReturn(completed(150));
+
+        assertThrows(RuntimeException.class, () -> client.getQuote("AAPL"));
+        assertEquals(BigDecimal.valueOf(150), client.getCurrentPrice("AAPL"));
+    }
+
+    // Test the cache never grows past its bound
+    @Test
+    void testGetQuote_EvictsOldestBeyondMaxEntries() {
+        when(delegate.getQuoteAsync(anyString())).thenReturn(completed(10));
+
+        client.getQuote("AAA");
+        now.incrementAndGet();
+        client.getQuote("BBB");
+        now.incrementAndGet();
+        client.getQuote("CCC");
+
+        assertEquals(2.0, meterRegistry.get("finnhub.quote.cache.size").gauge().value());
+        client.getQuote("AAA");
+        verify(delegate, times(2)).getQuoteAsync("AAA");
+    }
+
+    // Test eviction drops the least recently read symbol rather than the first fetched
+    @Test
+    void testGetQuote_EvictsLeastRecentlyUsed() {
+        when(delegate.getQuoteAsync(anyString())).thenReturn(completed(10));
+
+        client.getQuote("AAA");
+        client.getQuote("BBB");
+        client.getQuote("AAA");
+        client.getQuote("CCC");
+
+        client.getQuote("AAA");
+        client.getQuote("BBB");
+        verify(delegate, times(1)).getQuoteAsync("AAA");
+        verify(delegate, times(2)).getQuoteAsync("BBB");
+    }
+
+    private double counter(String result) {
+        return meterRegistry.get("finnhub.quote.cache.requests").tag("result", result).counter().count();
+    }
+
+    private CompletableFuture<FinnhubQuoteDTO> completed(int price) {
+        return CompletableFuture.completedFuture(quote(price));
+    }
+
+    private FinnhubQuoteDTO quote(int price) {
+        return new FinnhubQuoteDTO(BigDecimal.valueOf(price), null, null, null, null, null);
+    }
+}
@@ -0,0 +1,161 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.http;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.joelcode.personalinvestmentportfoliotracker.config.MarketDataHttpProperties;
+import com.joelcode.personalinvestmentportfoliotracker.dto.finnhub.FinnhubQuoteDTO;
+import com.joelcode.personalinvestmentportfoliotracker.exceptions.ExternalApiException;
+import com.joelcode.personalinvestmentportfoliotracker.monitoring.ExternalApiHealthTracker;
+import com.joelcode.personalinvestmentportfoliotracker.monitoring.ProviderHealth;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Testing the market data transport against a local stand-in for FinnHub
+public class MarketDataHttpClientTest {
+
+    private static final String QUOTE_JSON = "{\"c\":187.5,\"d\":1.5,\"dp\":0.8,\"h\":188,\"l\":185,\"o\":186,\"pc\":186}";
+
+    private HttpServer server;
+    private SimpleMeterRegistry meterRegistry;
+    private ExternalApiHealthTracker healthTracker;
+    private MarketDataHttpClient client;
+
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicInteger maxOpen = new AtomicInteger();
+    private volatile String acceptEncoding;
+
+    @BeforeEach
+    void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(8));
+        server.createContext("/quote", exchange -> {
+            acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            respond(exchange, 200, gzip(QUOTE_JSON));
+        });
+        server.createContext("/slow", exchange -> {
+            maxOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+            sleep(300);
+            open.decrementAndGet();
+            respond(exchange, 200, QUOTE_JSON.getBytes(StandardCharsets.UTF_8));
+        });
+        server.createContext("/limited", exchange -> respond(exchange, 429, new byte[0]));
+        server.start();
+
+        meterRegistry = new SimpleMeterRegistry();
+        MarketDataHttpProperties properties = new MarketDataHttpProperties(2, true, Map.of(
+                "quote", new MarketDataHttpProperties.Timeouts(1000, 2000, 3000),
+                "candles", new MarketDataHttpProperties.Timeouts(1000, 2000, 100)));
+        healthTracker = new ExternalApiHealthTracker(50, 5, 0.2, 0.5, 5, 3000);
+        client = new MarketDataHttpClient(properties,
+                JsonMapper.builder().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES).build(),
+                meterRegistry, healthTracker);
+    }
+
+    @AfterEach
+    void teardown() {
+        client.shutdown();
+        server.stop(0);
+    }
+
+    // Test a gzipped response is requested, decoded and timed
+    @Test
+    void testGetAsync_DecodesGzippedJson() {
+        FinnhubQuoteDTO quote = client.getAsync(MarketDataEndpoint.QUOTE, uri("/quote"), FinnhubQuoteDTO.class).join();
+
+        assertEquals(0, new BigDecimal("187.5").compareTo(quote.getCurrentPrice()));
+        assertEquals("gzip", acceptEncoding);
+        assertEquals(ProviderHealth.UP, healthTracker.health("finnhub").status());
+        assertEquals(1, meterRegistry.get("market.data.http.requests")
+                .tags("provider", "finnhub", "endpoint", "quote", "outcome", "success").timer().count());
+    }
+
+    // Test an error status fails the future with its status code
+    @Test
+    void testGetAsync_ErrorStatusFails() {
+        CompletionException error = assertThrows(CompletionException.class,
+                () -> client.getAsync(MarketDataEndpoint.QUOTE, uri("/limited"), FinnhubQuoteDTO.class).join());
+
+        assertInstanceOf(ExternalApiException.class, error.getCause());
+        assertEquals(429, ((ExternalApiException) error.getCause()).getStatusCode());
+        assertEquals(1, meterRegistry.get("market.data.http.requests").tag("outcome", "client_error").timer().count());
+        // The provider answered, so a 4xx does not count against its health
+        assertEquals(ProviderHealth.UP, healthTracker.health("finnhub").status());
+    }
+
+    // Test a request past its endpoint's deadline fails with a timeout
+    @Test
+    void testGetAsync_DeadlineExceeded() {
+        CompletionException error = assertThrows(CompletionException.class,
+                () -> client.getAsync(MarketDataEndpoint.CANDLES, uri("/slow"), FinnhubQuoteDTO.class).join());
+
+        assertInstanceOf(TimeoutException.class, error.getCause());
+        assertEquals(1, meterRegistry.get("market.data.http.requests").tag("outcome", "timeout").timer().count());
+        assertEquals(ProviderHealth.DEGRADED, healthTracker.health("finnhub").status());
+        assertEquals("candles: deadline exceeded", healthTracker.health("finnhub").lastFailure());
+    }
+
+    // Test no more than max-connections-per-host requests are open to one host at once
+    @Test
+    void testGetAsync_CapsRequestsPerHost() {
+        List<CompletableFuture<FinnhubQuoteDTO>> requests = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            requests.add(client.getAsync(MarketDataEndpoint.QUOTE, uri("/slow"), FinnhubQuoteDTO.class));
+        }
+        assertEquals(4.0, meterRegistry.get("market.data.http.connections").tag("state", "pending").gauge().value());
+
+        requests.forEach(request -> assertNotNull(request.join()));
+        assertEquals(2, maxOpen.get());
+        assertEquals(0.0, meterRegistry.get("market.data.http.connections").tag("state", "active").gauge().value());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    private static byte[] gzip(String body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.marketdata;
+
+import com.joelcode.personalinvestmentportfoliotracker.dto.finnhub.FinnhubCandleDTO;
+import com.joelcode.personalinvestmentportfoliotracker.entities.CandleBar;
+import com.joelcode.personalinvestmentportfoliotracker.entities.CandleCoverage;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.CandleBarRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.CandleCoverageRepository;
+import com.joelcode.personalinvestmentportfoliotracker.services.finnhub.FinnhubApiClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Testing the candle store: gap computation, gap filling and request coalescing
+public class CandleServiceImplTest {
+
+    private static final long DAY = 86_400L;
+    private static final long NOW = 1_000 * DAY;
+
+    @Mock
+    private FinnhubApiClient finnhubApiClient;
+
+    @Mock
+    private CandleBarRepository barRepository;
+
+    @Mock
+    private CandleCoverageRepository coverageRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CandleServiceImpl candleService;
+    private SimpleMeterRegistry meterRegistry;
+
+    // In-memory tables behind the mocked repositories
+    private final List<CandleBar> bars = new ArrayList<>();
+    private final List<CandleCoverage> coverage = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        candleService = new CandleServiceImpl(finnhubApiClient, barRepository, coverageRepository,
+                transactionManager, meterRegistry, 4, () -> NOW);
+
+        when(barRepository.findBySymbolAndResolutionAndBucketStartBetweenOrderByBucketStartAsc(anyString(), anyString(), anyLong(), anyLong()))
+                .thenAnswer(invocation -> {
+                    String symbol = invocation.getArgument(0);
+                    long from = invocation.getArgument(2);
+                    long to = invocation.getArgument(3);
+                    return bars.stream()
+                            .filter(bar -> bar.getSymbol().equals(symbol) && bar.getBucketStart() >= from && bar.getBucketStart() <= to)
+                            .sorted(Comparator.comparingLong(CandleBar::getBucketStart))
+                            .toList();
+                });
+        when(barRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            for (CandleBar bar : (Iterable<CandleBar>) invocation.getArgument(0)) {
+                if (!bars.contains(bar)) {
+                    bars.add(bar);
+                }
+            }
+            return List.of();
+        });
+        when(coverageRepository.findBySymbolAndResolutionOrderByRangeFromAsc(anyString(), anyString()))
+                .thenAnswer(invocation -> coverage.stream()
+                        .sorted(Comparator.comparingLong(CandleCoverage::getRangeFrom))
+                        .toList());
+        when(coverageRepository.save(any(CandleCoverage.class))).thenAnswer(invocation -> {
+            coverage.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        doAnswer(invocation -> {
+            coverage.removeAll((Collection<?>) invocation.getArgument(0));
+            return null;
+        }).when(coverageRepository).deleteAll(anyIterable());
+
+        // Upstream returns one daily bar per day in the requested range
+        when(finnhubApiClient.getCandlesAsync(eq("AAPL"), eq("D"), anyLong(), anyLong()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(
+                        dailyBars(invocation.getArgument(2), invocation.getArgument(3))));
+    }
+
+    @Test
+    void testGetCandles_CachedRangeIsServedWithoutUpstreamCalls() {
+        long from = NOW - 365 * DAY;
+        long to = NOW - 10 * DAY;
+
+        FinnhubCandleDTO first = candleService.getCandles("aapl", "D", from, to);
+        FinnhubCandleDTO second = candleService.getCandles("AAPL", "D", from, to);
+
+        verify(finnhubApiClient, times(1)).getCandlesAsync(anyString(), anyString(), anyLong(), anyLong());
+        assertEquals("ok", second.getStatus());
+        assertEquals(356, second.getTimestamps().size());
+        assertEquals(first.getTimestamps(), second.getTimestamps());
+        assertEquals(1.0, meterRegistry.get("candles.requests").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void testGetCandles_OnlyMissingSubRangesAreFetched() {
+        candleService.getCandles("AAPL", "D", NOW - 100 * DAY, NOW - 50 * DAY);
+        candleService.getCandles("AAPL", "D", NOW - 30 * DAY, NOW - 20 * DAY);
+
+        FinnhubCandleDTO candles = candleService.getCandles("AAPL", "D", NOW - 120 * DAY, NOW - 20 * DAY);
+
+        verify(finnhubApiClient).getCandlesAsync("AAPL", "D", NOW - 120 * DAY, NOW - 100 * DAY - 1);
+        verify(finnhubApiClient).getCandlesAsync("AAPL", "D", NOW - 50 * DAY + 1, NOW - 30 * DAY - 1);
+        verify(finnhubApiClient, times(4)).getCandlesAsync(anyString(), anyString(), anyLong(), anyLong());
+        assertEquals(101, candles.getTimestamps().size());
+
+        // Touching ranges were merged into one
+        assertEquals(1, coverage.size());
+        assertEquals(NOW - 120 * DAY, coverage.get(0).getRangeFrom());
+        assertEquals(NOW - 20 * DAY, coverage.get(0).getRangeTo());
+    }
+
+    @Test
+    void testGetCandles_LatestBucketIsFetchedAgain() {
+        candleService.getCandles("AAPL", "D", NOW - 5 * DAY, NOW);
+        candleService.getCandles("AAPL", "D", NOW - 5 * DAY, NOW);
+
+        verify(finnhubApiClient, times(1)).getCandlesAsync("AAPL", "D", NOW - 5 * DAY, NOW);
+        verify(finnhubApiClient, times(1)).getCandlesAsync("AAPL", "D", NOW - DAY + 1, NOW);
+
+        // The refetched bucket was updated in place, not duplicated
+        assertEquals(6, bars.size());
+    }
+
+    @Test
+    void testGetCandles_IdenticalConcurrentRequestsShareOneFetch() throws Exception {
+        CompletableFuture<FinnhubCandleDTO> upstream = new CompletableFuture<>();
+        when(finnhubApiClient.getCandlesAsync(eq("MSFT"), eq("D"), anyLong(), anyLong())).thenReturn(upstream);
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<FinnhubCandleDTO> first = callers.submit(() -> candleService.getCandles("MSFT", "D", NOW - 10 * DAY, NOW - 5 * DAY));
+            verify(finnhubApiClient, timeout(2000)).getCandlesAsync(eq("MSFT"), eq("D"), anyLong(), anyLong());
+            Future<FinnhubCandleDTO> second = callers.submit(() -> candleService.getCandles("MSFT", "D", NOW - 10 * DAY, NOW - 5 * DAY));
+
+            // Wait until the second caller has joined the first load before letting upstream answer
+            long deadline = System.currentTimeMillis() + 2000;
+            while (meterRegistry.get("candles.requests").tag("result", "coalesced").counter().count() < 1
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            upstream.complete(new FinnhubCandleDTO(null, null, null, null, null, null, "no_data"));
+
+            assertEquals("no_data", first.get(2, TimeUnit.SECONDS).getStatus());
+            assertSame(first.get(), second.get(2, TimeUnit.SECONDS));
+            verify(finnhubApiClient, times(1)).getCandlesAsync(eq("MSFT"), anyString(), anyLong(), anyLong());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void testGetCandles_RejectsUnknownResolutionAndInvertedRange() {
+        assertThrows(IllegalArgumentException.class, () -> candleService.getCandles("AAPL", "2H", 0, DAY));
+        assertThrows(IllegalArgumentException.class, () -> candleService.getCandles("AAPL", "D", DAY, 0));
+        verifyNoInteractions(finnhubApiClient);
+    }
+
+    @Test
+    void testGaps_SubtractsCoveredRanges() {
+        List<CandleCoverage> covered = List.of(
+                new CandleCoverage("AAPL", "D", 10, 19),
+                new CandleCoverage("AAPL", "D", 30, 39));
+
+        assertEquals(List.of(new CandleServiceImpl.Range(0, 9), new CandleServiceImpl.Range(20, 29),
+                new CandleServiceImpl.Range(40, 50)), CandleServiceImpl.gaps(0, 50, covered));
+        assertEquals(List.of(), CandleServiceImpl.gaps(12, 18, covered));
+        assertEquals(List.of(new CandleServiceImpl.Range(20, 25)), CandleServiceImpl.gaps(15, 25, covered));
+    }
+
+
+    // Helper functions
+
+    private static FinnhubCandleDTO dailyBars(long from, long to) {
+        List<BigDecimal> prices = new ArrayList<>();
+        List<Long> timestamps = new ArrayList<>();
+        List<Long> volumes = new ArrayList<>();
+        for (long t = ((from + DAY - 1) / DAY) * DAY; t <= to; t += DAY) {
+            timestamps.add(t);
+            prices.add(BigDecimal.valueOf(t / DAY));
+            volumes.add(1_000L);
+        }
+        return new FinnhubCandleDTO(prices, prices, prices, prices, timestamps, volumes,
+                timestamps.isEmpty() ? "no_data" : "ok");
+    }
+}
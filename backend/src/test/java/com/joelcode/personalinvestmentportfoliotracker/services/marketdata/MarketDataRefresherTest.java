@@ -0,0 +1,194 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.marketdata;
+
+import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.HoldingRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.PriceHistoryRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.StockRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.WatchlistRepository;
+import com.joelcode.personalinvestmentportfoliotracker.services.finnhub.FinnhubApiClient;
+import com.joelcode.personalinvestmentportfoliotracker.services.pricealert.PriceAlertService;
+import com.joelcode.personalinvestmentportfoliotracker.services.websocket.PriceSubscriptionRegistry;
+import com.joelcode.personalinvestmentportfoliotracker.services.websocket.PriceTickPublisher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Testing the background market data refresher
+public class MarketDataRefresherTest {
+
+    @Mock
+    private HoldingRepository holdingRepository;
+
+    @Mock
+    private WatchlistRepository watchlistRepository;
+
+    @Mock
+    private StockRepository stockRepository;
+
+    @Mock
+    private PriceHistoryRepository priceHistoryRepository;
+
+    @Mock
+    private FinnhubApiClient finnhubApiClient;
+
+    @Mock
+    private PriceSubscriptionRegistry subscriptionRegistry;
+
+    @Mock
+    private PriceTickPublisher priceTickPublisher;
+
+    @Mock
+    private PriceAlertService priceAlertService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private LivePriceTable livePriceTable;
+    private MarketDataRefresher refresher;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        livePriceTable = new LivePriceTable();
+        refresher = new MarketDataRefresher(holdingRepository, watchlistRepository, stockRepository,
+                priceHistoryRepository, finnhubApiClient, livePriceTable, subscriptionRegistry,
+                priceTickPublisher, priceAlertService, transactionManager, jdbcTemplate, null, 60_000, 2_000, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        refresher.shutdown();
+    }
+
+    // Test held and watched stocks are refreshed once each and published to the live table
+    @Test
+    void testRefreshTrackedPrices_PublishesHeldAndWatchedStocks() {
+        Stock held = stock("AAPL", 150);
+        Stock watched = stock("MSFT", 300);
+        when(holdingRepository.findDistinctHeldStocks()).thenReturn(List.of(held));
+        when(watchlistRepository.findDistinctWatchedStocks()).thenReturn(List.of(held, watched));
+        when(finnhubApiClient.getCurrentPrice("AAPL")).thenReturn(BigDecimal.valueOf(151));
+        when(finnhubApiClient.getCurrentPrice("MSFT")).thenReturn(BigDecimal.valueOf(301));
+
+        refresher.refreshTrackedPrices();
+
+        verify(finnhubApiClient, times(1)).getCurrentPrice("AAPL");
+        assertEquals(BigDecimal.valueOf(151), livePriceTable.get(held.getStockId()).orElseThrow().price());
+        assertEquals(BigDecimal.valueOf(301), livePriceTable.get(watched.getStockId()).orElseThrow().price());
+        verify(priceHistoryRepository, times(1)).saveAll(argThat(bars -> bars.spliterator().getExactSizeIfKnown() == 2));
+    }
+
+    // Test stocks that only have price alerts are refreshed too, and every refreshed price is evaluated
+    @Test
+    void testRefreshTrackedPrices_IncludesAlertedStocks() {
+        Stock held = stock("AAPL", 150);
+        Stock alerted = stock("NVDA", 400);
+        when(holdingRepository.findDistinctHeldStocks()).thenReturn(List.of(held));
+        when(priceAlertService.alertedStockIds()).thenReturn(Set.of(held.getStockId(), alerted.getStockId()));
+        when(stockRepository.findAllById(Set.of(alerted.getStockId()))).thenReturn(List.of(alerted));
+        when(finnhubApiClient.getCurrentPrice("AAPL")).thenReturn(BigDecimal.valueOf(151));
+        when(finnhubApiClient.getCurrentPrice("NVDA")).thenReturn(BigDecimal.valueOf(410));
+
+        refresher.refreshTrackedPrices();
+
+        verify(priceAlertService).evaluate(held.getStockId(), BigDecimal.valueOf(151));
+        verify(priceAlertService).evaluate(alerted.getStockId(), BigDecimal.valueOf(410));
+    }
+
+    // Test a second refresh inside the interval does not write another history bar
+    @Test
+    void testRefresh_AtMostOneBarPerInterval() {
+        Stock stock = stock("AAPL", 150);
+        when(finnhubApiClient.getCurrentPrice("AAPL")).thenReturn(BigDecimal.valueOf(151), BigDecimal.valueOf(152));
+
+        refresher.refresh(List.of(stock));
+        refresher.refresh(List.of(stock));
+
+        verify(priceHistoryRepository, times(1)).saveAll(any());
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+        assertEquals(BigDecimal.valueOf(152), livePriceTable.get(stock.getStockId()).orElseThrow().price());
+    }
+
+    // Test an upstream failure leaves the live table untouched
+    @Test
+    void testRefresh_UpstreamFailureSkipsStock() {
+        Stock stock = stock("AAPL", 150);
+        when(finnhubApiClient.getCurrentPrice("AAPL")).thenThrow(new RuntimeException("Upstream down"));
+
+        assertEquals(0, refresher.refresh(List.of(stock)));
+        assertTrue(livePriceTable.get(stock.getStockId()).isEmpty());
+        verifyNoInteractions(stockRepository, priceHistoryRepository, jdbcTemplate);
+    }
+
+    // Test only the price is written back, never the whole stock row loaded before the fetch
+    @Test
+    void testRefresh_UpdatesStockValueOnly() throws Exception {
+        Stock changed = stock("AAPL", 150);
+        Stock unchanged = stock("MSFT", 300);
+        when(finnhubApiClient.getCurrentPrice("AAPL")).thenReturn(BigDecimal.valueOf(151));
+        when(finnhubApiClient.getCurrentPrice("MSFT")).thenReturn(BigDecimal.valueOf(300));
+
+        refresher.refresh(List.of(changed, unchanged));
+
+        ArgumentCaptor<BatchPreparedStatementSetter> batch = ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(eq("UPDATE stock SET stock_value = ?, updated_at = ? WHERE stock_id = ?"),
+                batch.capture());
+        verify(stockRepository, never()).saveAll(any());
+
+        assertEquals(1, batch.getValue().getBatchSize());
+        PreparedStatement statement = mock(PreparedStatement.class);
+        batch.getValue().setValues(statement, 0);
+        verify(statement).setBigDecimal(1, BigDecimal.valueOf(151));
+        verify(statement).setObject(3, changed.getStockId());
+    }
+
+    // Test symbols with live listeners are refreshed and ticked on the fast cadence
+    @Test
+    void testRefreshWatchedPrices_OnlyPollsSymbolsWithListeners() {
+        Stock live = stock("TSLA", 200);
+        when(subscriptionRegistry.watchedSymbols()).thenReturn(Set.of("TSLA"));
+        when(stockRepository.findByStockCodeIn(Set.of("TSLA"))).thenReturn(List.of(live));
+        when(finnhubApiClient.getCurrentPrice("TSLA")).thenReturn(BigDecimal.valueOf(205));
+
+        refresher.refreshWatchedPrices();
+
+        verify(finnhubApiClient, times(1)).getCurrentPrice(anyString());
+        verify(priceTickPublisher, times(1)).publish(live.getStockId(), "TSLA", BigDecimal.valueOf(205));
+        assertEquals(BigDecimal.valueOf(205), livePriceTable.get(live.getStockId()).orElseThrow().price());
+    }
+
+    // Test nothing is polled on the fast cadence when nobody is listening
+    @Test
+    void testRefreshWatchedPrices_NoListenersNoUpstreamCalls() {
+        when(subscriptionRegistry.watchedSymbols()).thenReturn(Set.of());
+
+        refresher.refreshWatchedPrices();
+
+        verifyNoInteractions(finnhubApiClient, stockRepository, priceTickPublisher);
+    }
+
+    private Stock stock(String code, int price) {
+        Stock stock = new Stock(code, code + " Inc", BigDecimal.valueOf(price), BigDecimal.ZERO);
+        stock.setStockId(UUID.randomUUID());
+        return stock;
+    }
+}
@@ -0,0 +1,146 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.marketdata;
+
+import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
+import com.joelcode.personalinvestmentportfoliotracker.exceptions.RateLimitExceededException;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.PriceHistoryRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.StockRepository;
+import com.joelcode.personalinvestmentportfoliotracker.services.finnhub.FinnhubApiClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Testing batched price resolution
+public class PriceResolverImplTest {
+
+    @Mock
+    private StockRepository stockRepository;
+
+    @Mock
+    private PriceHistoryRepository priceHistoryRepository;
+
+    @Mock
+    private FinnhubApiClient finnhubApiClient;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private LivePriceTable livePriceTable;
+    private PriceResolverImpl priceResolver;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        livePriceTable = new LivePriceTable();
+        priceResolver = new PriceResolverImpl(stockRepository, priceHistoryRepository, finnhubApiClient,
+                livePriceTable, transactionManager, jdbcTemplate, 60_000, 30_000, 2_000, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        priceResolver.shutdown();
+    }
+
+    // Test fresh stocks are served from the database without going upstream
+    @Test
+    void testResolvePrices_FreshStocksSkipUpstream() {
+        Stock stock = stock("AAPL", 150, LocalDateTime.now());
+        when(stockRepository.findAllById(any())).thenReturn(List.of(stock));
+
+        Map<UUID, BigDecimal> prices = priceResolver.resolvePrices(List.of(stock.getStockId()));
+
+        assertEquals(BigDecimal.valueOf(150), prices.get(stock.getStockId()));
+        verifyNoInteractions(finnhubApiClient);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    // Test stale stocks are refreshed and written back in one batch
+    @Test
+    void testResolvePrices_StaleStocksRefreshed() {
+        Stock fresh = stock("AAPL", 150, LocalDateTime.now());
+        Stock stale = stock("MSFT", 300, LocalDateTime.now().minusMinutes(10));
+        when(stockRepository.findAllById(any())).thenReturn(List.of(fresh, stale));
+        when(finnhubApiClient.getCurrentPrice("MSFT")).thenReturn(BigDecimal.valueOf(310));
+
+        Map<UUID, BigDecimal> prices = priceResolver.resolvePrices(List.of(fresh.getStockId(), stale.getStockId()));
+
+        assertEquals(BigDecimal.valueOf(150), prices.get(fresh.getStockId()));
+        assertEquals(BigDecimal.valueOf(310), prices.get(stale.getStockId()));
+        verify(finnhubApiClient, times(1)).getCurrentPrice(anyString());
+        verify(jdbcTemplate, times(1)).batchUpdate(eq("UPDATE stock SET stock_value = ?, updated_at = ? WHERE stock_id = ?"),
+                any(BatchPreparedStatementSetter.class));
+        verify(stockRepository, never()).saveAll(any());
+        verify(priceHistoryRepository, times(1)).saveAll(any());
+        assertEquals(BigDecimal.valueOf(310), livePriceTable.get(stale.getStockId()).orElseThrow().price());
+    }
+
+    // Test a recent live price is used even when the stored row is stale
+    @Test
+    void testResolvePrices_RecentLivePriceSkipsUpstream() {
+        Stock stale = stock("MSFT", 300, LocalDateTime.now().minusMinutes(10));
+        when(stockRepository.findAllById(any())).thenReturn(List.of(stale));
+        livePriceTable.put(stale.getStockId(), BigDecimal.valueOf(320), System.currentTimeMillis());
+
+        Map<UUID, BigDecimal> prices = priceResolver.resolvePrices(List.of(stale.getStockId()));
+
+        assertEquals(BigDecimal.valueOf(320), prices.get(stale.getStockId()));
+        verifyNoInteractions(finnhubApiClient);
+    }
+
+    // Test the stored price is used once the rate limit is exhausted
+    @Test
+    void testResolvePrices_RateLimitedFallsBackToStored() {
+        Stock stale = stock("MSFT", 300, null);
+        when(stockRepository.findAllById(any())).thenReturn(List.of(stale));
+        when(finnhubApiClient.getCurrentPrice("MSFT")).thenThrow(new RateLimitExceededException("Rate limit exceeded for finnhub"));
+
+        Map<UUID, BigDecimal> prices = priceResolver.resolvePrices(List.of(stale.getStockId()));
+
+        assertEquals(BigDecimal.valueOf(300), prices.get(stale.getStockId()));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    // Test an upstream failure falls back to the stored price
+    @Test
+    void testResolvePrices_UpstreamFailureFallsBackToStored() {
+        Stock stale = stock("MSFT", 300, LocalDateTime.now().minusMinutes(10));
+        when(stockRepository.findAllById(any())).thenReturn(List.of(stale));
+        when(finnhubApiClient.getCurrentPrice("MSFT")).thenThrow(new RuntimeException("Upstream down"));
+
+        Map<UUID, BigDecimal> prices = priceResolver.resolvePrices(List.of(stale.getStockId()));
+
+        assertEquals(BigDecimal.valueOf(300), prices.get(stale.getStockId()));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    // Test an empty request does not touch the database
+    @Test
+    void testResolvePrices_EmptyInput() {
+        assertTrue(priceResolver.resolvePrices(List.of()).isEmpty());
+        verifyNoInteractions(stockRepository);
+    }
+
+    private Stock stock(String code, int price, LocalDateTime updatedAt) {
+        Stock stock = new Stock(code, code + " Inc", BigDecimal.valueOf(price), BigDecimal.ZERO);
+        stock.setStockId(UUID.randomUUID());
+        stock.setUpdatedAt(updatedAt);
+        return stock;
+    }
+}
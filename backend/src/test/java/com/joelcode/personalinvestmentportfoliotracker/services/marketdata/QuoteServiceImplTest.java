@@ -0,0 +1,180 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.marketdata;
+
+import com.joelcode.personalinvestmentportfoliotracker.dto.finnhub.FinnhubQuoteDTO;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
+import com.joelcode.personalinvestmentportfoliotracker.services.finnhub.FinnhubApiClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Testing deadline-bounded quotes for list views
+public class QuoteServiceImplTest {
+
+    @Mock
+    private FinnhubApiClient finnhubApiClient;
+
+    private static final ZoneId SESSION_ZONE = ZoneId.of("America/New_York");
+
+    private LivePriceTable livePriceTable;
+    private QuoteServiceImpl quoteService;
+    private Clock clock;
+    private LocalDate session;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        livePriceTable = new LivePriceTable();
+        clock = Clock.fixed(Instant.now(), ZoneOffset.UTC);
+        session = LocalDate.now(clock.withZone(SESSION_ZONE));
+        quoteService = new QuoteServiceImpl(finnhubApiClient, livePriceTable, 60_000, 200, 2, 10, SESSION_ZONE, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        quoteService.shutdown();
+    }
+
+    // Test change is measured against the previous close, not the stored stock value
+    @Test
+    void testGetQuotes_ChangeAgainstPreviousClose() {
+        Stock stock = stock("AAPL", 90);
+        when(finnhubApiClient.getQuote("AAPL")).thenReturn(quote(110, 100));
+
+        StockQuote quote = quoteService.getQuote(stock);
+
+        assertEquals(BigDecimal.valueOf(110), quote.price());
+        assertEquals(BigDecimal.valueOf(10), quote.change());
+        assertEquals(0, new BigDecimal("10").compareTo(quote.changePercent()));
+        assertFalse(quote.stale());
+    }
+
+    // Test stocks with a fresh price and previous close never go upstream
+    @Test
+    void testGetQuotes_ServedFromLiveTable() {
+        Stock stock = stock("AAPL", 90);
+        livePriceTable.put(stock.getStockId(), BigDecimal.valueOf(105), System.currentTimeMillis());
+        livePriceTable.putPreviousClose(stock.getStockId(), BigDecimal.valueOf(100), session);
+
+        StockQuote quote = quoteService.getQuote(stock);
+
+        assertEquals(BigDecimal.valueOf(5), quote.change());
+        verifyNoInteractions(finnhubApiClient);
+    }
+
+    // Test a previous close from an earlier session is refetched even when the price is fresh
+    @Test
+    void testGetQuotes_PreviousCloseExpiresAtSessionBoundary() {
+        Stock stock = stock("AAPL", 90);
+        livePriceTable.put(stock.getStockId(), BigDecimal.valueOf(105), System.currentTimeMillis());
+        livePriceTable.putPreviousClose(stock.getStockId(), BigDecimal.valueOf(80), session.minusDays(1));
+        when(finnhubApiClient.getQuote("AAPL")).thenReturn(quote(106, 100));
+
+        StockQuote quote = quoteService.getQuote(stock);
+
+        assertEquals(BigDecimal.valueOf(6), quote.change());
+        verify(finnhubApiClient, times(1)).getQuote("AAPL");
+        assertEquals(BigDecimal.valueOf(100), livePriceTable.getPreviousClose(stock.getStockId(), session).orElseThrow());
+    }
+
+    // Test concurrent requests for a symbol share its fetch, and a full queue is served stale without fetching
+    @Test
+    void testGetQuotes_SharesInFlightFetchAndBoundsQueue() throws Exception {
+        QuoteServiceImpl small = new QuoteServiceImpl(finnhubApiClient, livePriceTable, 60_000, 100, 1, 1,
+                SESSION_ZONE, clock);
+        Stock slow = stock("MSFT", 300);
+        Stock queued = stock("TSLA", 200);
+        Stock rejected = stock("NVDA", 400);
+        CountDownLatch release = new CountDownLatch(1);
+        when(finnhubApiClient.getQuote(anyString())).thenAnswer(invocation -> {
+            release.await();
+            return quote(310, 305);
+        });
+
+        try {
+            // The worker is busy with MSFT, TSLA waits in the queue, NVDA does not fit
+            assertTrue(small.getQuotes(List.of(slow, queued, rejected)).values().stream().allMatch(StockQuote::stale));
+            assertTrue(small.getQuote(slow).stale());
+
+            release.countDown();
+            verify(finnhubApiClient, timeout(1_000)).getQuote("TSLA");
+            verify(finnhubApiClient, times(1)).getQuote("MSFT");
+            verify(finnhubApiClient, never()).getQuote("NVDA");
+        } finally {
+            release.countDown();
+            small.shutdown();
+        }
+    }
+
+    // Test a slow symbol is returned stale at the deadline and warms the table when it arrives
+    @Test
+    void testGetQuotes_SlowSymbolMarkedStale() throws Exception {
+        Stock fast = stock("AAPL", 90);
+        Stock slow = stock("MSFT", 300);
+        CountDownLatch release = new CountDownLatch(1);
+        when(finnhubApiClient.getQuote("AAPL")).thenReturn(quote(110, 100));
+        when(finnhubApiClient.getQuote("MSFT")).thenAnswer(invocation -> {
+            release.await();
+            return quote(310, 305);
+        });
+
+        long start = System.nanoTime();
+        Map<UUID, StockQuote> quotes = quoteService.getQuotes(List.of(fast, slow));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis < 1_000, "waited " + elapsedMillis + "ms");
+        assertFalse(quotes.get(fast.getStockId()).stale());
+        assertTrue(quotes.get(slow.getStockId()).stale());
+        assertEquals(BigDecimal.valueOf(300), quotes.get(slow.getStockId()).price());
+
+        release.countDown();
+        verify(finnhubApiClient, timeout(1_000)).getQuote("MSFT");
+        for (int i = 0; i < 50 && livePriceTable.getPreviousClose(slow.getStockId(), session).isEmpty(); i++) {
+            Thread.sleep(20);
+        }
+        assertFalse(quoteService.getQuote(slow).stale());
+        verify(finnhubApiClient, times(1)).getQuote("MSFT");
+    }
+
+    // Test an upstream failure falls back to the stored price
+    @Test
+    void testGetQuotes_UpstreamFailureFallsBack() {
+        Stock stock = stock("AAPL", 90);
+        when(finnhubApiClient.getQuote(anyString())).thenThrow(new RuntimeException("Upstream down"));
+
+        StockQuote quote = quoteService.getQuote(stock);
+
+        assertTrue(quote.stale());
+        assertEquals(BigDecimal.valueOf(90), quote.price());
+        assertEquals(BigDecimal.ZERO, quote.change());
+    }
+
+    private Stock stock(String code, int price) {
+        Stock stock = new Stock(code, code + " Inc", BigDecimal.valueOf(price), BigDecimal.ZERO);
+        stock.setStockId(UUID.randomUUID());
+        return stock;
+    }
+
+    private FinnhubQuoteDTO quote(int price, int previousClose) {
+        FinnhubQuoteDTO quote = new FinnhubQuoteDTO();
+        quote.setCurrentPrice(BigDecimal.valueOf(price));
+        quote.setPreviousClosePrice(BigDecimal.valueOf(previousClose));
+        return quote;
+    }
+}
@@ -0,0 +1,100 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.news;
+
+import com.joelcode.personalinvestmentportfoliotracker.dto.news.NewsArticleDTO;
+import com.joelcode.personalinvestmentportfoliotracker.exceptions.RateLimitExceededException;
+import com.joelcode.personalinvestmentportfoliotracker.services.fallback.ApiRateLimitService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Testing the news fetcher spreads the MarketAux daily quota over the day
+public class MarketAuxNewsFetcherTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    @Mock
+    private MarketAuxApiClient marketAuxApiClient;
+
+    @Mock
+    private NewsService newsService;
+
+    @Mock
+    private ApiRateLimitService rateLimitService;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        when(marketAuxApiClient.getNewsBySector(anyString(), anyInt())).thenReturn(List.of(article()));
+        when(marketAuxApiClient.getAllNews(anyInt())).thenReturn(List.of(article()));
+    }
+
+    // Test each run gets an even share of the calls above the reserve, capped per run
+    @Test
+    void testCallsForThisRun_SpreadsRemainingQuota() {
+        // 18:00 with hourly runs leaves 6 runs before midnight
+        MarketAuxNewsFetcher fetcher = fetcherAt(LocalDateTime.of(2024, 5, 1, 18, 0), 10);
+
+        when(rateLimitService.getRemainingMarketAuxCalls()).thenReturn(17L);
+        assertEquals(2, fetcher.callsForThisRun());
+
+        when(rateLimitService.getRemainingMarketAuxCalls()).thenReturn(5L);
+        assertEquals(0, fetcher.callsForThisRun());
+
+        when(rateLimitService.getRemainingMarketAuxCalls()).thenReturn(Long.MAX_VALUE);
+        assertEquals(10, fetcher.callsForThisRun());
+    }
+
+    // Test calls rotate through every sector and the unfiltered slot, then ingest what was fetched
+    @Test
+    void testRefresh_RotatesThroughSectors() {
+        when(rateLimitService.getRemainingMarketAuxCalls()).thenReturn(1_000L);
+        MarketAuxNewsFetcher fetcher = fetcherAt(LocalDateTime.of(2024, 5, 1, 23, 0), 10);
+        int slots = new IndustryToSectorMapper().sectors().size();
+
+        assertEquals(slots, fetcher.refresh());
+
+        new IndustryToSectorMapper().sectors().stream().filter(sector -> !"Other".equals(sector))
+                .forEach(sector -> verify(marketAuxApiClient).getNewsBySector(sector, 3));
+        verify(marketAuxApiClient).getAllNews(3);
+        verify(newsService).ingest(argThat(articles -> articles.size() == slots));
+    }
+
+    // Test a refused call ends the run and the same sector is tried first next time
+    @Test
+    void testRefresh_StopsWhenRateLimited() {
+        when(rateLimitService.getRemainingMarketAuxCalls()).thenReturn(1_000L);
+        when(marketAuxApiClient.getNewsBySector(anyString(), anyInt()))
+                .thenReturn(List.of(article()))
+                .thenThrow(new RateLimitExceededException("MarketAux rate limit exceeded"))
+                .thenReturn(List.of(article()));
+        MarketAuxNewsFetcher fetcher = fetcherAt(LocalDateTime.of(2024, 5, 1, 23, 0), 3);
+        String second = new IndustryToSectorMapper().sectors().get(1);
+
+        assertEquals(1, fetcher.refresh());
+        verify(newsService).ingest(argThat(articles -> articles.size() == 1));
+
+        fetcher.refresh();
+        verify(marketAuxApiClient, times(2)).getNewsBySector(eq(second), anyInt());
+    }
+
+    private MarketAuxNewsFetcher fetcherAt(LocalDateTime now, int maxCallsPerRun) {
+        ZoneId zone = ZoneId.systemDefault();
+        Clock clock = Clock.fixed(now.atZone(zone).toInstant(), zone);
+        return new MarketAuxNewsFetcher(marketAuxApiClient, newsService, rateLimitService, new IndustryToSectorMapper(),
+                HOUR, 5, maxCallsPerRun, 3, clock);
+    }
+
+    private static NewsArticleDTO article() {
+        return new NewsArticleDTO("Technology", "Title", "Summary", "https://news/" + System.nanoTime(), null, null);
+    }
+}
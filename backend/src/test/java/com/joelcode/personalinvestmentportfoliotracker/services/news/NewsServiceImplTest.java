@@ -0,0 +1,102 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.news;
+
+import com.joelcode.personalinvestmentportfoliotracker.dto.news.NewsArticleDTO;
+import com.joelcode.personalinvestmentportfoliotracker.entities.NewsArticle;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.NewsArticleRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Testing news is served from the in-memory sector indexes over the article store
+public class NewsServiceImplTest {
+
+    @Mock
+    private NewsArticleRepository newsArticleRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private NewsServiceImpl newsService;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        newsService = new NewsServiceImpl(newsArticleRepository, transactionManager, new SimpleMeterRegistry(), 3, 30);
+        when(newsArticleRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    // Test only articles with unseen URLs are stored, and repeats in a later batch are skipped without a query
+    @Test
+    void testIngest_StoresNewUrlsOnly() {
+        when(newsArticleRepository.findExistingUrls(anyCollection())).thenReturn(List.of("https://news/stored"));
+
+        int added = newsService.ingest(List.of(
+                article("Technology", "https://news/a", "2024-05-01T10:00:00.000000Z"),
+                article("Technology", "https://news/a", "2024-05-01T10:00:00.000000Z"),
+                article("FinTech", "https://news/stored", "2024-05-01T11:00:00Z"),
+                article("FinTech", null, "2024-05-01T12:00:00Z")));
+
+        assertEquals(1, added);
+        assertEquals(List.of("https://news/a"), urls(newsService.getLatestNews(10)));
+
+        assertEquals(0, newsService.ingest(List.of(article("Technology", "https://news/a", "2024-05-01T10:00:00Z"))));
+        verify(newsArticleRepository, times(1)).findExistingUrls(anyCollection());
+    }
+
+    // Test sector reads are newest first, case-insensitive, alias Semiconductors and merge across sectors
+    @Test
+    void testSectorQueries_ServeNewestFromIndexes() {
+        newsService.ingest(List.of(
+                article("Technology", "https://news/t1", "2024-05-01T09:00:00Z"),
+                article("Technology", "https://news/t2", "2024-05-01T12:00:00Z"),
+                article("Healthcare", "https://news/h1", "2024-05-01T10:00:00Z")));
+
+        assertEquals(List.of("https://news/t2", "https://news/t1"), urls(newsService.getNewsBySector("technology", 5)));
+        assertEquals(List.of("https://news/t2"), urls(newsService.getNewsBySector("Semiconductors", 1)));
+        assertEquals(List.of("https://news/t2", "https://news/h1"),
+                urls(newsService.getNewsBySectors(List.of("Healthcare", "Technology", "Unknown"), 2)));
+        assertTrue(newsService.getNewsBySector("Retail", 5).isEmpty());
+    }
+
+    // Test the in-memory store keeps only the newest max-articles
+    @Test
+    void testIngest_KeepsNewestArticlesWithinCap() {
+        newsService.ingest(List.of(
+                article("Retail", "https://news/1", "2024-05-01T01:00:00Z"),
+                article("Retail", "https://news/2", "2024-05-01T02:00:00Z"),
+                article("Retail", "https://news/3", "2024-05-01T03:00:00Z"),
+                article("Retail", "https://news/4", "2024-05-01T04:00:00Z")));
+
+        assertEquals(List.of("https://news/4", "https://news/3", "https://news/2"), urls(newsService.getLatestNews(10)));
+    }
+
+    // Test a reload rebuilds the indexes from stored articles
+    @Test
+    void testReload_LoadsStoredArticles() {
+        NewsArticle stored = new NewsArticle("https://news/s", "FinTech", "Stored", null, null,
+                LocalDateTime.of(2024, 5, 1, 8, 0));
+        when(newsArticleRepository.findAllByOrderByPublishedAtDesc(any(Pageable.class))).thenReturn(List.of(stored));
+
+        assertEquals(1, newsService.reload());
+        assertEquals(List.of("https://news/s"), urls(newsService.getNewsBySector("FinTech", 5)));
+    }
+
+    private static NewsArticleDTO article(String sector, String url, String publishedAt) {
+        return new NewsArticleDTO(sector, "Title " + url, "Summary", url, publishedAt, null);
+    }
+
+    private static List<String> urls(List<NewsArticleDTO> articles) {
+        return articles.stream().map(NewsArticleDTO::getUrl).toList();
+    }
+}
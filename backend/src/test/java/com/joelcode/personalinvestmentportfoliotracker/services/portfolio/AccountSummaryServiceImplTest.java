@@ -1,17 +1,19 @@
 package com.joelcode.personalinvestmentportfoliotracker.services.portfolio;
 
+import com.joelcode.personalinvestmentportfoliotracker.dto.holding.HoldingView;
 import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.AccountSummaryDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.AccountTotals;
 import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.HoldingSummaryDTO;
 import com.joelcode.personalinvestmentportfoliotracker.entities.Account;
-import com.joelcode.personalinvestmentportfoliotracker.entities.Holding;
-import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
 import com.joelcode.personalinvestmentportfoliotracker.entities.User;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.AccountRepository;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.HoldingRepository;
-import com.joelcode.personalinvestmentportfoliotracker.services.dividendpayment.DividendPaymentCalculationService;
 import com.joelcode.personalinvestmentportfoliotracker.services.portfolio.summary.AccountSummaryServiceImpl;
-import com.joelcode.personalinvestmentportfoliotracker.services.stock.StockService;
 import com.joelcode.personalinvestmentportfoliotracker.services.user.UserValidationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.AccountValuation;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.AccountValuationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.Money;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.Quantity;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
@@ -19,29 +21,26 @@ import org.mockito.*;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 public class AccountSummaryServiceImplTest {
 
     @Mock
-    private AccountRepository accountRepository;
+    private AccountValuationService accountValuationService;
 
     @Mock
-    private HoldingRepository holdingRepository;
-
-    @Mock
-    private StockService stockService;
+    private UserValidationService userValidationService;
 
     @Mock
-    private DividendPaymentCalculationService dividendPaymentCalculationService;
+    private AccountRepository accountRepository;
 
     @Mock
-    private UserValidationService userValidationService;
+    private HoldingRepository holdingRepository;
 
     @InjectMocks
     private AccountSummaryServiceImpl accountSummaryService;
@@ -49,9 +48,6 @@ public class AccountSummaryServiceImplTest {
     private UUID accountId;
     private UUID stockId;
     private UUID userId;
-    private Account testAccount;
-    private Holding testHolding;
-    private Stock testStock;
     private User testUser;
 
     @BeforeEach
@@ -62,69 +58,96 @@ public class AccountSummaryServiceImplTest {
         stockId = UUID.randomUUID();
         userId = UUID.randomUUID();
 
-        // Initialize Stock
-        testStock = new Stock();
-        testStock.setStockId(stockId);
-        testStock.setStockCode("TEST");
+        // Initialize valuation: 10 shares at an average cost of 50, 25 in dividends, 1000 cash
+        AccountValuation.Position position = new AccountValuation.Position(stockId, "TEST",
+                Quantity.of(BigDecimal.valueOf(10)), Money.of(BigDecimal.valueOf(50)),
+                Money.of(BigDecimal.valueOf(500)), Money.ZERO);
+        AccountValuation valuation = AccountValuation.of(accountId, BigDecimal.valueOf(1000),
+                BigDecimal.valueOf(25), List.of(position));
 
-        // Initialize Holding
-        testHolding = new Holding();
-        testHolding.setStock(testStock);
-        testHolding.setQuantity(BigDecimal.valueOf(10));
-        testHolding.setAverageCostBasis(BigDecimal.valueOf(50));
-
-        // Initialize Account
-        testAccount = new Account();
-        testAccount.setAccountId(accountId);
-        testAccount.setAccountBalance(BigDecimal.valueOf(1000));
+        when(accountValuationService.getValuation(accountId)).thenReturn(valuation);
+        when(accountValuationService.currentPrices(valuation)).thenReturn(Map.of(stockId, BigDecimal.valueOf(60)));
 
         // Initialize User
+        Account testAccount = new Account();
+        testAccount.setAccountId(accountId);
         testUser = new User();
         testUser.setUserId(userId);
         List<Account> accounts = new ArrayList<>();
         accounts.add(testAccount);
         testUser.setAccounts(accounts);
-
-        // Link holdings repository
-        when(holdingRepository.findByAccount_AccountId(accountId)).thenReturn(List.of(testHolding));
     }
 
     @Test
     void testGetAccountSummary_Success() {
-        when(accountRepository.findByAccountId(accountId)).thenReturn(Optional.of(testAccount));
-        when(stockService.getCurrentPrice(stockId)).thenReturn(BigDecimal.valueOf(60));
-        when(dividendPaymentCalculationService.calculateTotalDividends(accountId)).thenReturn(BigDecimal.valueOf(25));
-
         AccountSummaryDTO summary = accountSummaryService.getAccountSummary(accountId);
 
         assertNotNull(summary);
         assertEquals(accountId, summary.getAccountId());
-        assertEquals(BigDecimal.valueOf(500), summary.getTotalCostBasis()); // 50 * 10
-        assertEquals(BigDecimal.valueOf(600), summary.getTotalMarketValue()); // 60 * 10
-        assertEquals(BigDecimal.valueOf(100), summary.getTotalUnrealizedGain()); // 600 - 500
-        assertEquals(BigDecimal.valueOf(25), summary.getTotalDividends());
-        assertEquals(BigDecimal.valueOf(1000), summary.getTotalCashBalance());
+        assertEquals(new BigDecimal("500.00"), summary.getTotalCostBasis()); // 50 * 10
+        assertEquals(new BigDecimal("600.00"), summary.getTotalMarketValue()); // 60 * 10
+        assertEquals(new BigDecimal("100.00"), summary.getTotalUnrealizedGain()); // 600 - 500
+        assertEquals(new BigDecimal("25.00"), summary.getTotalDividends());
+        assertEquals(new BigDecimal("1000.00"), summary.getTotalCashBalance());
 
         List<HoldingSummaryDTO> holdings = summary.getHoldings();
         assertEquals(1, holdings.size());
         assertEquals(stockId, holdings.get(0).getStockId());
-        assertEquals(BigDecimal.valueOf(10), holdings.get(0).getQuantity());
+        assertEquals(0, BigDecimal.valueOf(10).compareTo(holdings.get(0).getQuantity()));
     }
 
     @Test
     void testGetAccountSummariesForUser_Success() {
         when(userValidationService.validateUserExists(userId)).thenReturn(testUser);
-        when(accountRepository.findByAccountId(accountId)).thenReturn(Optional.of(testAccount));
-        when(stockService.getCurrentPrice(stockId)).thenReturn(BigDecimal.valueOf(60));
-        when(dividendPaymentCalculationService.calculateTotalDividends(accountId)).thenReturn(BigDecimal.valueOf(25));
+        when(accountRepository.findTotalsByUserId(userId)).thenReturn(List.of(new AccountTotals(accountId,
+                BigDecimal.valueOf(1000), BigDecimal.valueOf(25))));
+        when(holdingRepository.findViewsByUserId(userId)).thenReturn(List.of(new HoldingView(UUID.randomUUID(),
+                accountId, stockId, "TEST", BigDecimal.valueOf(60), BigDecimal.valueOf(10), BigDecimal.valueOf(50),
+                BigDecimal.valueOf(500), BigDecimal.ZERO, null)));
+        when(accountValuationService.currentPricesOf(Set.of(stockId))).thenReturn(Map.of(stockId, BigDecimal.valueOf(60)));
 
         List<AccountSummaryDTO> summaries = accountSummaryService.getAccountSummariesForUser(userId);
 
         assertEquals(1, summaries.size());
         AccountSummaryDTO summary = summaries.get(0);
         assertEquals(accountId, summary.getAccountId());
-        assertEquals(BigDecimal.valueOf(1000), summary.getTotalCashBalance());
+        assertEquals(new BigDecimal("1000.00"), summary.getTotalCashBalance());
         assertEquals(1, summary.getHoldings().size());
         assertEquals(stockId, summary.getHoldings().get(0).getStockId());
+        assertEquals(new BigDecimal("600.00"), summary.getTotalMarketValue());
+        assertEquals(new BigDecimal("100.00"), summary.getTotalUnrealizedGain());
+        assertEquals(new BigDecimal("25.00"), summary.getTotalDividends());
+
+        // Built from the grouped queries without loading each account's valuation
+        verify(accountValuationService, never()).getValuation(any());
+    }
+
+    @Test
+    void testGetAccountSummariesForUser_AgreesWithAccountSummary() {
+        // Stored total cost basis (100.00) differs from the rounded average cost times quantity (99.99)
+        HoldingView view = new HoldingView(UUID.randomUUID(), accountId, stockId, "TEST", BigDecimal.valueOf(40),
+                BigDecimal.valueOf(3), new BigDecimal("33.33"), new BigDecimal("100.00"), BigDecimal.ZERO, null);
+        AccountValuation valuation = AccountValuation.of(accountId, BigDecimal.valueOf(1000), BigDecimal.valueOf(25),
+                List.of(AccountValuation.Position.from(view)));
+        when(accountValuationService.getValuation(accountId)).thenReturn(valuation);
+        when(accountValuationService.currentPrices(valuation)).thenReturn(Map.of(stockId, BigDecimal.valueOf(40)));
+
+        when(userValidationService.validateUserExists(userId)).thenReturn(testUser);
+        when(accountRepository.findTotalsByUserId(userId)).thenReturn(List.of(new AccountTotals(accountId,
+                BigDecimal.valueOf(1000), BigDecimal.valueOf(25))));
+        when(holdingRepository.findViewsByUserId(userId)).thenReturn(List.of(view));
+        when(accountValuationService.currentPricesOf(Set.of(stockId))).thenReturn(Map.of(stockId, BigDecimal.valueOf(40)));
+
+        AccountSummaryDTO single = accountSummaryService.getAccountSummary(accountId);
+        AccountSummaryDTO fromUser = accountSummaryService.getAccountSummariesForUser(userId).get(0);
+
+        assertEquals(new BigDecimal("99.99"), single.getTotalCostBasis());
+        assertEquals(single.getTotalCostBasis(), fromUser.getTotalCostBasis());
+        assertEquals(single.getTotalMarketValue(), fromUser.getTotalMarketValue());
+        assertEquals(single.getTotalUnrealizedGain(), fromUser.getTotalUnrealizedGain());
+        assertEquals(single.getHoldings().get(0).getUnrealizedGain(), fromUser.getHoldings().get(0).getUnrealizedGain());
+
+        // Holding gains add up to the account total
+        assertEquals(fromUser.getTotalUnrealizedGain(), fromUser.getHoldings().get(0).getUnrealizedGain());
     }
 }
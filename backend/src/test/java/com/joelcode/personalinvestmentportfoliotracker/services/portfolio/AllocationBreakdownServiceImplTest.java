@@ -2,10 +2,12 @@ package com.joelcode.personalinvestmentportfoliotracker.services.portfolio;
 
 import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.AllocationBreakdownDTO;
 import com.joelcode.personalinvestmentportfoliotracker.entities.*;
-import com.joelcode.personalinvestmentportfoliotracker.repositories.HoldingRepository;
-import com.joelcode.personalinvestmentportfoliotracker.services.holding.HoldingCalculationService;
 import com.joelcode.personalinvestmentportfoliotracker.services.portfolio.allocation.AllocationBreakdownServiceImpl;
 import com.joelcode.personalinvestmentportfoliotracker.services.user.UserValidationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.AccountValuation;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.AccountValuationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.Money;
+import com.joelcode.personalinvestmentportfoliotracker.services.valuation.Quantity;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,10 +24,7 @@ public class AllocationBreakdownServiceImplTest {
 
     // Define mock key fields
     @Mock
-    private HoldingCalculationService holdingCalcService;
-
-    @Mock
-    private HoldingRepository holdingRepository;
+    private AccountValuationService accountValuationService;
 
     @Mock
     private UserValidationService userValidationService;
@@ -36,10 +35,10 @@ public class AllocationBreakdownServiceImplTest {
     private UUID accountId;
     private UUID userId;
 
-    private Holding holding1;
-    private Holding holding2;
+    private AccountValuation.Position aapl;
+    private AccountValuation.Position msft;
 
-    // Setup sample holdings for testing
+    // Setup sample positions for testing
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
@@ -47,35 +46,17 @@ public class AllocationBreakdownServiceImplTest {
         accountId = UUID.randomUUID();
         userId = UUID.randomUUID();
 
-        // Holding 1
-        holding1 = new Holding();
-        Stock stock1 = new Stock();
-        stock1.setStockCode("AAPL");
-        holding1.setStock(stock1);
-
-        // Holding 2
-        holding2 = new Holding();
-        Stock stock2 = new Stock();
-        stock2.setStockCode("MSFT");
-        holding2.setStock(stock2);
+        aapl = position("AAPL", 10);
+        msft = position("MSFT", 4);
     }
 
     // Test allocation when holdings exist
     @Test
     void testGetAllocationForAccount_ReturnsCorrectAllocations() {
 
-        // Prepare test holdings
-        List<Holding> holdings = List.of(holding1, holding2);
-
-        when(holdingRepository.findByAccount_AccountId(accountId))
-                .thenReturn(holdings);
-
-        // Mock calculated values
-        when(holdingCalcService.calculateCurrentValue(holding1))
-                .thenReturn(BigDecimal.valueOf(600));
-
-        when(holdingCalcService.calculateCurrentValue(holding2))
-                .thenReturn(BigDecimal.valueOf(400));
+        // AAPL worth 600, MSFT worth 400
+        mockValuation(accountId, List.of(aapl, msft),
+                Map.of(aapl.stockId(), BigDecimal.valueOf(60), msft.stockId(), BigDecimal.valueOf(100)));
 
         // Call service
         List<AllocationBreakdownDTO> result = allocationService.getAllocationForAccount(accountId);
@@ -84,49 +65,44 @@ public class AllocationBreakdownServiceImplTest {
         assertNotNull(result);
         assertEquals(2, result.size());
 
-        AllocationBreakdownDTO aapl = result.stream()
+        AllocationBreakdownDTO aaplAllocation = result.stream()
                 .filter(r -> r.getStockCode().equals("AAPL"))
                 .findFirst().orElse(null);
 
-        AllocationBreakdownDTO msft = result.stream()
+        AllocationBreakdownDTO msftAllocation = result.stream()
                 .filter(r -> r.getStockCode().equals("MSFT"))
                 .findFirst().orElse(null);
 
-        assertNotNull(aapl);
-        assertNotNull(msft);
+        assertNotNull(aaplAllocation);
+        assertNotNull(msftAllocation);
 
         // AAPL = 600 / 1000 = 60%
-        assertEquals(BigDecimal.valueOf(60.00).setScale(2), aapl.getPercentage());
+        assertEquals(BigDecimal.valueOf(60.00).setScale(2), aaplAllocation.getPercentage());
 
         // MSFT = 400 / 1000 = 40%
-        assertEquals(BigDecimal.valueOf(40.00).setScale(2), msft.getPercentage());
+        assertEquals(BigDecimal.valueOf(40.00).setScale(2), msftAllocation.getPercentage());
+        assertEquals(new BigDecimal("400.00"), msftAllocation.getCurrentValue());
     }
 
     // Test empty holdings for account
     @Test
     void testGetAllocationForAccount_EmptyHoldings_ReturnsEmptyList() {
 
-        when(holdingRepository.findByAccount_AccountId(accountId))
-                .thenReturn(new ArrayList<>());
+        mockValuation(accountId, List.of(), Map.of());
 
         List<AllocationBreakdownDTO> result = allocationService.getAllocationForAccount(accountId);
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
+        verify(accountValuationService, never()).currentPrices(any());
     }
 
     // Test zero-value holdings return zero-percent allocations
     @Test
     void testGetAllocationForAccount_ZeroTotalValue_ReturnsZeroPercent() {
 
-        List<Holding> holdings = List.of(holding1);
-
-        when(holdingRepository.findByAccount_AccountId(accountId))
-                .thenReturn(holdings);
-
-        // Mock current value = 0
-        when(holdingCalcService.calculateCurrentValue(any(Holding.class)))
-                .thenReturn(BigDecimal.ZERO);
+        // Current price = 0
+        mockValuation(accountId, List.of(aapl), Map.of(aapl.stockId(), BigDecimal.ZERO));
 
         List<AllocationBreakdownDTO> result = allocationService.getAllocationForAccount(accountId);
 
@@ -151,16 +127,23 @@ public class AllocationBreakdownServiceImplTest {
         when(userValidationService.validateUserExists(userId))
                 .thenReturn(user);
 
-        // Mock underlying account allocation call
-        when(holdingRepository.findByAccount_AccountId(accId))
-                .thenReturn(List.of(holding1));
-
-        when(holdingCalcService.calculateCurrentValue(holding1))
-                .thenReturn(BigDecimal.valueOf(500));
+        // Mock underlying account valuation
+        mockValuation(accId, List.of(aapl), Map.of(aapl.stockId(), BigDecimal.valueOf(50)));
 
         List<AllocationBreakdownDTO> result = allocationService.getAllocationForUser(userId);
 
         assertEquals(1, result.size());
         assertEquals("AAPL", result.get(0).getStockCode());
     }
+
+    private AccountValuation.Position position(String code, int quantity) {
+        return new AccountValuation.Position(UUID.randomUUID(), code, Quantity.of(BigDecimal.valueOf(quantity)),
+                Money.of(BigDecimal.TEN), Money.of(BigDecimal.valueOf(10L * quantity)), Money.ZERO);
+    }
+
+    private void mockValuation(UUID id, List<AccountValuation.Position> positions, Map<UUID, BigDecimal> prices) {
+        AccountValuation valuation = AccountValuation.of(id, BigDecimal.ZERO, BigDecimal.ZERO, positions);
+        when(accountValuationService.getValuation(id)).thenReturn(valuation);
+        when(accountValuationService.currentPrices(valuation)).thenReturn(prices);
+    }
 }
@@ -0,0 +1,243 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.portfolio;
+
+import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.AccountTotals;
+import com.joelcode.personalinvestmentportfoliotracker.dto.transaction.TransactionDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.transaction.TransactionFeedDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.utility.DashboardDTO;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Account;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Holding;
+import com.joelcode.personalinvestmentportfoliotracker.entities.PortfolioSnapshot;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Transaction;
+import com.joelcode.personalinvestmentportfoliotracker.entities.User;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.AccountRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.HoldingRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.PortfolioSnapshotRepository;
+import com.joelcode.personalinvestmentportfoliotracker.services.account.AccountValidationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.marketdata.PriceResolver;
+import com.joelcode.personalinvestmentportfoliotracker.services.portfolio.dashboard.DashboardServiceImpl;
+import com.joelcode.personalinvestmentportfoliotracker.services.transaction.TransactionService;
+import com.joelcode.personalinvestmentportfoliotracker.services.user.UserValidationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+// Testing the dashboard loader: shared loads, parallel sections and partial results
+public class DashboardServiceImplTest {
+
+    @Mock
+    private AccountValidationService accountValidationService;
+
+    @Mock
+    private UserValidationService userValidationService;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private HoldingRepository holdingRepository;
+
+    @Mock
+    private PortfolioSnapshotRepository snapshotRepository;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private PriceResolver priceResolver;
+
+    private DashboardServiceImpl dashboardService;
+    private User user;
+    private Account account;
+    private Stock stock;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        dashboardService = new DashboardServiceImpl(accountValidationService, userValidationService,
+                accountRepository, holdingRepository, snapshotRepository, transactionService,
+                priceResolver, 500, 4);
+
+        user = new User();
+        user.setUserId(UUID.randomUUID());
+        account = account(BigDecimal.valueOf(1000));
+        stock = new Stock("AAPL", "Apple Inc.", BigDecimal.valueOf(50), BigDecimal.ZERO);
+        stock.setStockId(UUID.randomUUID());
+
+        when(accountValidationService.validateAccountExistsById(account.getAccountId())).thenReturn(account);
+        when(holdingRepository.findByAccountIdsWithStock(List.of(account.getAccountId())))
+                .thenReturn(List.of(holding(account, 10, 50)));
+        when(priceResolver.resolvePrices(List.of(stock.getStockId())))
+                .thenReturn(Map.of(stock.getStockId(), BigDecimal.valueOf(60)));
+        when(accountRepository.findTotalsByUserId(user.getUserId()))
+                .thenReturn(List.of(new AccountTotals(account.getAccountId(), BigDecimal.valueOf(1000), BigDecimal.valueOf(25))));
+        when(transactionService.getTransactionFeed(account.getAccountId(), null, null, 10))
+                .thenReturn(new TransactionFeedDTO(List.of(transaction(account)), null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dashboardService.shutdown();
+    }
+
+    // Test every section is built from one holdings query and one price batch
+    @Test
+    void testGetDashboardForAccount_LoadsOnceAndBuildsAllSections() {
+        DashboardDTO dashboard = dashboardService.getDashboardForAccount(account.getAccountId());
+
+        assertTrue(dashboard.getUnavailableSections().isEmpty());
+        assertEquals(0, BigDecimal.valueOf(600).compareTo(dashboard.getPortfolioOverview().getHoldingsValue()));
+        assertEquals(0, BigDecimal.valueOf(1600).compareTo(dashboard.getPortfolioOverview().getTotalPortfolioValue()));
+        assertEquals(0, BigDecimal.valueOf(25).compareTo(dashboard.getPortfolioOverview().getTotalDividends()));
+        assertEquals(account.getAccountId(), dashboard.getPortfolioPerformance().getAccountId());
+        assertEquals(new BigDecimal("25.00"), dashboard.getPortfolioPerformance().getRoiPercentage()); // (100 + 25) / 500
+        assertEquals(1, dashboard.getAllocations().size());
+        assertEquals(new BigDecimal("100.00"), dashboard.getAllocations().get(0).getPercentage());
+        assertEquals(1, dashboard.getRecentTransactions().size());
+
+        verify(holdingRepository, times(1)).findByAccountIdsWithStock(any());
+        verify(priceResolver, times(1)).resolvePrices(any());
+
+        // No earlier snapshot, so the gains are unknown rather than zero
+        assertNull(dashboard.getPortfolioPerformance().getDailyGain());
+        assertNull(dashboard.getPortfolioPerformance().getMonthlyGain());
+    }
+
+    // Test the daily and monthly gain are measured against the latest earlier snapshots
+    @Test
+    void testGetDashboardForAccount_GainsFromPreviousSnapshots() {
+        LocalDate today = LocalDate.now();
+        when(snapshotRepository.findLatestBeforeForAccounts(List.of(account.getAccountId()), today))
+                .thenReturn(List.of(snapshot(account, 1550)));
+        when(snapshotRepository.findLatestBeforeForAccounts(List.of(account.getAccountId()), today.minusMonths(1).plusDays(1)))
+                .thenReturn(List.of(snapshot(account, 1400)));
+
+        DashboardDTO dashboard = dashboardService.getDashboardForAccount(account.getAccountId());
+
+        assertEquals(0, BigDecimal.valueOf(50).compareTo(dashboard.getPortfolioPerformance().getDailyGain()));
+        assertEquals(0, BigDecimal.valueOf(200).compareTo(dashboard.getPortfolioPerformance().getMonthlyGain()));
+    }
+
+    // Test the user dashboard loads all accounts together and sums them
+    @Test
+    void testGetDashboardForUser_AggregatesAccounts() {
+        Account second = account(BigDecimal.valueOf(500));
+        List<UUID> accountIds = List.of(account.getAccountId(), second.getAccountId());
+        when(userValidationService.validateUserExists(user.getUserId())).thenReturn(user);
+        when(accountRepository.findByUser_UserId(user.getUserId(), Pageable.unpaged())).thenReturn(List.of(account, second));
+        when(holdingRepository.findByAccountIdsWithStock(accountIds))
+                .thenReturn(List.of(holding(account, 10, 50), holding(second, 5, 40)));
+        when(transactionService.getTransactionFeed(null, user.getUserId(), null, 10))
+                .thenReturn(new TransactionFeedDTO(List.of(transaction(second), transaction(account)), null));
+        when(accountRepository.findTotalsByUserId(user.getUserId())).thenReturn(List.of(
+                new AccountTotals(account.getAccountId(), BigDecimal.valueOf(1000), BigDecimal.valueOf(25)),
+                new AccountTotals(second.getAccountId(), BigDecimal.valueOf(500), BigDecimal.valueOf(5))));
+
+        DashboardDTO dashboard = dashboardService.getDashboardForUser(user.getUserId());
+
+        assertTrue(dashboard.getUnavailableSections().isEmpty());
+        assertNull(dashboard.getPortfolioOverview().getAccountId());
+        assertEquals(0, BigDecimal.valueOf(900).compareTo(dashboard.getPortfolioOverview().getHoldingsValue()));
+        assertEquals(0, BigDecimal.valueOf(1500).compareTo(dashboard.getPortfolioOverview().getCashBalance()));
+        assertEquals(2, dashboard.getPortfolioOverview().getHoldings().size());
+        assertEquals(2, dashboard.getAllocations().size());
+        assertEquals(2, dashboard.getRecentTransactions().size());
+        verify(holdingRepository, times(1)).findByAccountIdsWithStock(accountIds);
+        verify(priceResolver, times(1)).resolvePrices(any());
+        verify(transactionService, times(1)).getTransactionFeed(null, user.getUserId(), null, 10);
+
+        // Paid dividends of both accounts from one grouped query
+        assertEquals(0, BigDecimal.valueOf(30).compareTo(dashboard.getPortfolioOverview().getTotalDividends()));
+        verify(accountRepository, times(1)).findTotalsByUserId(user.getUserId());
+    }
+
+    // Test a slow load only drops its own section
+    @Test
+    void testGetDashboardForAccount_SlowSectionMissesDeadline() {
+        when(transactionService.getTransactionFeed(any(), any(), any(), anyInt())).thenAnswer(invocation -> {
+            Thread.sleep(2_000);
+            return new TransactionFeedDTO(List.of(), null);
+        });
+
+        long start = System.currentTimeMillis();
+        DashboardDTO dashboard = dashboardService.getDashboardForAccount(account.getAccountId());
+
+        assertTrue(System.currentTimeMillis() - start < 1_500);
+        assertEquals(List.of(DashboardServiceImpl.RECENT_TRANSACTIONS), dashboard.getUnavailableSections());
+        assertNull(dashboard.getRecentTransactions());
+        assertNotNull(dashboard.getPortfolioOverview());
+        assertNotNull(dashboard.getPortfolioPerformance());
+        assertNotNull(dashboard.getAllocations());
+    }
+
+    // Test a failed price lookup drops the priced sections but keeps the rest
+    @Test
+    void testGetDashboardForAccount_FailedPricesGivePartialResult() {
+        when(priceResolver.resolvePrices(any())).thenThrow(new RuntimeException("upstream down"));
+
+        DashboardDTO dashboard = dashboardService.getDashboardForAccount(account.getAccountId());
+
+        assertEquals(List.of(DashboardServiceImpl.OVERVIEW, DashboardServiceImpl.PERFORMANCE,
+                DashboardServiceImpl.ALLOCATIONS), dashboard.getUnavailableSections());
+        assertNull(dashboard.getPortfolioOverview());
+        assertEquals(1, dashboard.getRecentTransactions().size());
+    }
+
+    // Test a missing account is still rejected outright
+    @Test
+    void testGetDashboardForAccount_UnknownAccountThrows() {
+        UUID unknown = UUID.randomUUID();
+        when(accountValidationService.validateAccountExistsById(unknown))
+                .thenThrow(new IllegalArgumentException("Account not found"));
+
+        assertThrows(IllegalArgumentException.class, () -> dashboardService.getDashboardForAccount(unknown));
+        verifyNoInteractions(holdingRepository);
+    }
+
+    private Account account(BigDecimal cash) {
+        Account account = new Account();
+        account.setAccountId(UUID.randomUUID());
+        account.setAccountBalance(cash);
+        account.setUser(user);
+        return account;
+    }
+
+    private Holding holding(Account account, int quantity, int averageCost) {
+        Holding holding = new Holding();
+        holding.setHoldingId(UUID.randomUUID());
+        holding.setAccount(account);
+        holding.setStock(stock);
+        holding.setQuantity(BigDecimal.valueOf(quantity));
+        holding.setAverageCostBasis(BigDecimal.valueOf(averageCost));
+        holding.setTotalCostBasis(BigDecimal.valueOf((long) quantity * averageCost));
+        holding.setRealizedGain(BigDecimal.ZERO);
+        return holding;
+    }
+
+    private PortfolioSnapshot snapshot(Account account, int totalValue) {
+        PortfolioSnapshot snapshot = new PortfolioSnapshot();
+        snapshot.setAccount(account);
+        snapshot.setTotalValue(BigDecimal.valueOf(totalValue));
+        return snapshot;
+    }
+
+    private TransactionDTO transaction(Account account) {
+        return new TransactionDTO(UUID.randomUUID(), stock.getStockId(), account.getAccountId(), BigDecimal.ONE,
+                BigDecimal.valueOf(50), Transaction.TransactionType.BUY, LocalDateTime.now());
+    }
+}
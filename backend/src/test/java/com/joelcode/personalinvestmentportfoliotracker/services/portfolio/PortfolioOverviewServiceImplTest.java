@@ -1,11 +1,13 @@
 package com.joelcode.personalinvestmentportfoliotracker.services.portfolio;
 
 import com.joelcode.personalinvestmentportfoliotracker.dto.holding.HoldingDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.AccountTotals;
 import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.PortfolioOverviewDTO;
 import com.joelcode.personalinvestmentportfoliotracker.entities.Account;
 import com.joelcode.personalinvestmentportfoliotracker.entities.User;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.AccountRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.DividendPaymentRepository;
 import com.joelcode.personalinvestmentportfoliotracker.services.account.AccountValidationService;
-import com.joelcode.personalinvestmentportfoliotracker.services.dividendpayment.DividendPaymentService;
 import com.joelcode.personalinvestmentportfoliotracker.services.holding.HoldingService;
 import com.joelcode.personalinvestmentportfoliotracker.services.portfolio.overview.PortfolioOverviewServiceImpl;
 import com.joelcode.personalinvestmentportfoliotracker.services.user.UserValidationService;
@@ -30,11 +32,14 @@ public class PortfolioOverviewServiceImplTest {
     private HoldingService holdingService;
 
     @Mock
-    private DividendPaymentService dividendPaymentService;
+    private DividendPaymentRepository dividendPaymentRepository;
 
     @Mock
     private UserValidationService userValidationService;
 
+    @Mock
+    private AccountRepository accountRepository;
+
     @InjectMocks
     private PortfolioOverviewServiceImpl portfolioOverviewService;
 
@@ -73,10 +78,11 @@ public class PortfolioOverviewServiceImplTest {
         // Mocks
         when(accountValidationService.validateAccountExistsById(accountId)).thenReturn(account);
         when(holdingService.getHoldingsForAccount(accountId)).thenReturn(List.of(holdingDTO));
-        when(dividendPaymentService.getDividendPaymentsForAccount(accountId)).thenReturn(List.of(
-                new com.joelcode.personalinvestmentportfoliotracker.dto.dividendpayment.DividendPaymentDTO(accountId, BigDecimal.valueOf(25))
-        ));
+        when(dividendPaymentRepository.calculateTotalDividendsByAccount(accountId)).thenReturn(BigDecimal.valueOf(25));
         when(userValidationService.validateUserExists(userId)).thenReturn(user);
+        when(holdingService.getHoldingsForUser(userId)).thenReturn(List.of(holdingDTO));
+        when(accountRepository.findTotalsByUserId(userId)).thenReturn(List.of(new AccountTotals(accountId,
+                BigDecimal.valueOf(1000), BigDecimal.valueOf(25))));
     }
 
     @Test
@@ -103,6 +109,27 @@ public class PortfolioOverviewServiceImplTest {
         assertEquals(BigDecimal.valueOf(100), overview.getTotalUnrealizedGain());
         assertTrue(overview.getCashBalance().compareTo(BigDecimal.valueOf(1000)) == 0);
         assertEquals(1, overview.getHoldings().size());
+        assertEquals(BigDecimal.valueOf(25), overview.getTotalDividends());
+
+        // Totals come from the grouped query, not from per-account reloads
+        verify(holdingService, never()).getHoldingsForAccount(any());
+        verify(accountValidationService, never()).validateAccountExistsById(any());
+    }
+
+    @Test
+    void testGetPortfolioOverviewForUser_TotalsMatchReturnedHoldings() {
+        // Live price 62 has not been written back to stock_value yet
+        holdingDTO.setCurrentPrice(BigDecimal.valueOf(62));
+
+        PortfolioOverviewDTO overview = portfolioOverviewService.getPortfolioOverviewForUser(userId);
+
+        BigDecimal listed = overview.getHoldings().stream()
+                .map(h -> h.getCurrentPrice().multiply(h.getQuantity()))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(0, listed.compareTo(overview.getHoldingsValue()));
+        assertEquals(0, BigDecimal.valueOf(620).compareTo(overview.getHoldingsValue()));
+        assertEquals(0, BigDecimal.valueOf(1620).compareTo(overview.getTotalPortfolioValue()));
+        assertEquals(0, BigDecimal.valueOf(120).compareTo(overview.getTotalUnrealizedGain()));
     }
 
     @Test
@@ -122,7 +149,9 @@ public class PortfolioOverviewServiceImplTest {
 
     @Test
     void testGetPortfolioOverviewForUser_EmptyHoldings() {
-        when(holdingService.getHoldingsForAccount(accountId)).thenReturn(new ArrayList<>());
+        when(holdingService.getHoldingsForUser(userId)).thenReturn(new ArrayList<>());
+        when(accountRepository.findTotalsByUserId(userId)).thenReturn(List.of(new AccountTotals(accountId,
+                BigDecimal.valueOf(1000), null)));
 
         PortfolioOverviewDTO overview = portfolioOverviewService.getPortfolioOverviewForUser(userId);
 
@@ -1,20 +1,23 @@
 package com.joelcode.personalinvestmentportfoliotracker.services.portfolio;
 
 import com.joelcode.personalinvestmentportfoliotracker.controllers.WebSocketController;
-import com.joelcode.personalinvestmentportfoliotracker.dto.dividendpayment.DividendPaymentDTO;
 import com.joelcode.personalinvestmentportfoliotracker.dto.holding.HoldingDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.holding.HoldingView;
+import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.AccountTotals;
 import com.joelcode.personalinvestmentportfoliotracker.entities.*;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.AccountRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.DividendPaymentRepository;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.HoldingRepository;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.PortfolioSnapshotRepository;
 import com.joelcode.personalinvestmentportfoliotracker.services.account.AccountValidationService;
 import com.joelcode.personalinvestmentportfoliotracker.services.account.AccountService;
 import com.joelcode.personalinvestmentportfoliotracker.services.dividendpayment.DividendPaymentCalculationService;
-import com.joelcode.personalinvestmentportfoliotracker.services.dividendpayment.DividendPaymentService;
 import com.joelcode.personalinvestmentportfoliotracker.services.holding.HoldingService;
+import com.joelcode.personalinvestmentportfoliotracker.services.marketdata.PriceResolver;
 import com.joelcode.personalinvestmentportfoliotracker.dto.portfolio.PortfolioPerformanceDTO;
 import com.joelcode.personalinvestmentportfoliotracker.services.portfolio.performance.PortfolioPerformanceServiceImpl;
 import com.joelcode.personalinvestmentportfoliotracker.services.user.UserValidationService;
+import com.joelcode.personalinvestmentportfoliotracker.services.websocket.PortfolioUpdatePublisher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
@@ -22,6 +25,7 @@ import org.mockito.*;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -52,7 +56,7 @@ public class PortfolioPerformanceServiceImplTest {
     private AccountValidationService accountValidationService;
 
     @Mock
-    private DividendPaymentService dividendPaymentService;
+    private DividendPaymentRepository dividendPaymentRepository;
 
     @Mock
     private UserValidationService userValidationService;
@@ -61,7 +65,10 @@ public class PortfolioPerformanceServiceImplTest {
     private WebSocketController webSocketController;
 
     @Mock
-    private org.springframework.messaging.simp.SimpMessagingTemplate messagingTemplate;
+    private PortfolioUpdatePublisher portfolioUpdatePublisher;
+
+    @Mock
+    private PriceResolver priceResolver;
 
     @InjectMocks
     private PortfolioPerformanceServiceImpl portfolioPerformanceService;
@@ -121,13 +128,15 @@ public class PortfolioPerformanceServiceImplTest {
         // Mocks
         when(accountRepository.findByAccountId(accountId)).thenReturn(Optional.of(account));
         when(accountValidationService.validateAccountExistsById(accountId)).thenReturn(account);
-        when(holdingRepository.findByAccount_AccountId(accountId)).thenReturn(List.of(holding));
+        when(holdingRepository.findViewsByAccountId(accountId)).thenReturn(List.of(new HoldingView(
+                UUID.randomUUID(), accountId, stockId, "STK", BigDecimal.valueOf(60), holding.getQuantity(),
+                holding.getAverageCostBasis(), holding.getTotalCostBasis(), holding.getRealizedGain(), null)));
         when(holdingService.getHoldingsForAccount(accountId)).thenReturn(List.of(holdingDTO));
         when(dividendPaymentCalculationService.calculateTotalDividends(accountId)).thenReturn(BigDecimal.valueOf(25));
-        when(dividendPaymentService.getDividendPaymentsForAccount(accountId)).thenReturn(List.of(
-                new DividendPaymentDTO(accountId, BigDecimal.valueOf(25))
-        ));
+        when(dividendPaymentRepository.calculateTotalDividendsByAccount(accountId)).thenReturn(BigDecimal.valueOf(25));
         when(userValidationService.validateUserExists(userId)).thenReturn(user);
+        when(holdingService.getHoldingsForUser(userId)).thenReturn(List.of(holdingDTO));
+        when(priceResolver.resolvePrices(List.of(stockId))).thenReturn(Map.of(stockId, BigDecimal.valueOf(60)));
     }
 
     @Test
@@ -171,6 +180,9 @@ public class PortfolioPerformanceServiceImplTest {
 
     @Test
     void testGetPerformanceForUser() {
+        when(accountRepository.findTotalsByUserId(userId)).thenReturn(List.of(new AccountTotals(accountId,
+                BigDecimal.valueOf(1000), BigDecimal.valueOf(25))));
+
         PortfolioPerformanceDTO perf = portfolioPerformanceService.getPerformanceForUser(userId);
 
         assertNotNull(perf);
@@ -179,13 +191,45 @@ public class PortfolioPerformanceServiceImplTest {
         assertEquals(BigDecimal.valueOf(500), perf.getTotalCostBasis());
         assertEquals(BigDecimal.valueOf(10), perf.getTotalRealizedGain());
         assertEquals(BigDecimal.valueOf(100), perf.getTotalUnrealizedGain());
+        assertEquals(BigDecimal.valueOf(25), perf.getTotalDividends());
+
+        // Totals come from the grouped query, not from per-account reloads
+        verify(holdingService, never()).getHoldingsForAccount(any());
+    }
+
+    @Test
+    void testGetPerformanceForUser_MatchesAccountPerformance() {
+        // Live price 62 has not been written back to stock_value; both paths must use it
+        holdingDTO.setCurrentPrice(BigDecimal.valueOf(62));
+        when(accountRepository.findTotalsByUserId(userId)).thenReturn(List.of(new AccountTotals(accountId,
+                BigDecimal.valueOf(1000), BigDecimal.valueOf(25))));
+
+        PortfolioPerformanceDTO forUser = portfolioPerformanceService.getPerformanceForUser(userId);
+        PortfolioPerformanceDTO forAccount = portfolioPerformanceService.getPerformanceForAccount(accountId);
+
+        assertEquals(0, BigDecimal.valueOf(1620).compareTo(forUser.getTotalPortfolioValue()));
+        assertEquals(0, forAccount.getTotalPortfolioValue().compareTo(forUser.getTotalPortfolioValue()));
+        assertEquals(0, forAccount.getTotalUnrealizedGain().compareTo(forUser.getTotalUnrealizedGain()));
+        assertEquals(0, forAccount.getTotalDividends().compareTo(forUser.getTotalDividends()));
+        assertEquals(0, forAccount.getRoiPercentage().compareTo(forUser.getRoiPercentage()));
+    }
+
+    @Test
+    void testGetPerformanceForUser_NoAccounts() {
+        when(holdingService.getHoldingsForUser(userId)).thenReturn(List.of());
+        when(accountRepository.findTotalsByUserId(userId)).thenReturn(List.of());
+
+        PortfolioPerformanceDTO perf = portfolioPerformanceService.getPerformanceForUser(userId);
+
+        assertEquals(BigDecimal.ZERO, perf.getTotalPortfolioValue());
+        assertEquals(BigDecimal.ZERO, perf.getRoiPercentage());
     }
 
     @Test
     void testCreatePortfolioSnapshot() {
         portfolioPerformanceService.createPortfolioSnapshot(accountId);
         verify(snapshotRepository, times(1)).save(any());
-        verify(messagingTemplate, times(1))
-                .convertAndSend(anyString(), any(WebSocketController.PortfolioUpdateMessage.class));
+        verify(portfolioUpdatePublisher, times(1))
+                .publish(anyString(), any(WebSocketController.PortfolioUpdateMessage.class));
     }
 }
\ No newline at end of file
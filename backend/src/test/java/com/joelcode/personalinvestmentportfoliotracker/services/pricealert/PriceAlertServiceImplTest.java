@@ -0,0 +1,127 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.pricealert;
+
+import com.joelcode.personalinvestmentportfoliotracker.controllers.WebSocketController;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.PriceAlertRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Testing price alert evaluation against the sorted threshold index
+public class PriceAlertServiceImplTest {
+
+    @Mock
+    private PriceAlertRepository priceAlertRepository;
+
+    @Mock
+    private WebSocketController webSocketController;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PriceAlertServiceImpl priceAlertService;
+    private UUID stockId;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        priceAlertService = new PriceAlertServiceImpl(priceAlertRepository, webSocketController,
+                transactionManager, new SimpleMeterRegistry(), 2, 2);
+        stockId = UUID.randomUUID();
+    }
+
+    // Test a price fires exactly the ABOVE alerts at or below it and the BELOW alerts at or above it
+    @Test
+    void testEvaluate_FiresOnlyCrossedAlerts() {
+        PriceAlertIndex index = new PriceAlertIndex();
+        ActiveAlert above100 = alert("ABOVE", "100.00");
+        ActiveAlert above110 = alert("ABOVE", "110");
+        ActiveAlert above120 = alert("ABOVE", "120");
+        ActiveAlert below90 = alert("BELOW", "90");
+        ActiveAlert below110 = alert("BELOW", "110.0");
+        List.of(above100, above110, above120, below90, below110).forEach(index::add);
+
+        List<ActiveAlert> fired = index.trigger(stockId, new BigDecimal("110"));
+
+        assertEquals(3, fired.size());
+        assertTrue(fired.containsAll(List.of(above100, above110, below110)));
+        assertEquals(2, index.size());
+
+        // Fired alerts are gone, so the same price fires nothing the second time
+        assertTrue(index.trigger(stockId, new BigDecimal("110")).isEmpty());
+        assertEquals(List.of(below90), index.trigger(stockId, new BigDecimal("85")));
+    }
+
+    // Test alerts on other stocks and removed alerts never fire
+    @Test
+    void testEvaluate_IgnoresOtherStocksAndRemovedAlerts() {
+        ActiveAlert kept = alert("ABOVE", "50");
+        ActiveAlert removed = alert("ABOVE", "50");
+        ActiveAlert otherStock = new ActiveAlert(UUID.randomUUID(), UUID.randomUUID(), "bob",
+                UUID.randomUUID(), "MSFT", "ABOVE", BigDecimal.ONE);
+        when(priceAlertRepository.findActiveAlerts(any(Pageable.class))).thenReturn(List.of(kept, removed));
+        when(priceAlertRepository.findActiveAlertsAfter(eq(removed.alertId()), any(Pageable.class)))
+                .thenReturn(List.of(otherStock));
+
+        assertEquals(3, priceAlertService.rebuildIndex());
+        priceAlertService.unregister(removed.alertId());
+
+        assertEquals(1, priceAlertService.evaluate(stockId, BigDecimal.valueOf(60)));
+        assertEquals(1, priceAlertService.activeAlertCount());
+    }
+
+    // Test fired alerts are persisted in batches before their owners are notified
+    @Test
+    void testFlushTriggered_PersistsInBatchesThenNotifies() {
+        when(priceAlertRepository.findActiveAlerts(any(Pageable.class)))
+                .thenReturn(List.of(alert("ABOVE", "10"), alert("ABOVE", "11")));
+        when(priceAlertRepository.findActiveAlertsAfter(any(), any(Pageable.class)))
+                .thenReturn(List.of(alert("BELOW", "8")));
+        priceAlertService.rebuildIndex();
+
+        assertEquals(2, priceAlertService.evaluate(stockId, BigDecimal.valueOf(12)));
+        assertEquals(1, priceAlertService.evaluate(stockId, BigDecimal.valueOf(7)));
+        verifyNoInteractions(webSocketController);
+
+        assertEquals(3, priceAlertService.flushTriggered());
+
+        // Batch size is 2: one UPDATE for the first batch, one for the remainder
+        verify(priceAlertRepository, times(2)).markTriggered(anyCollection(), any());
+        verify(webSocketController, times(3)).sendUserNotification(eq("alice"), contains("AAPL"));
+        assertEquals(0, priceAlertService.flushTriggered());
+    }
+
+    // Test a batch that fails to persist is kept and retried, without notifying anyone
+    @Test
+    void testFlushTriggered_RetriesFailedBatch() {
+        when(priceAlertRepository.findActiveAlerts(any(Pageable.class)))
+                .thenReturn(List.of(alert("ABOVE", "10")));
+        priceAlertService.rebuildIndex();
+        priceAlertService.evaluate(stockId, BigDecimal.valueOf(10));
+        when(priceAlertRepository.markTriggered(anyCollection(), any()))
+                .thenThrow(new RuntimeException("Database down"))
+                .thenReturn(1);
+
+        assertEquals(0, priceAlertService.flushTriggered());
+        verifyNoInteractions(webSocketController);
+
+        assertEquals(1, priceAlertService.flushTriggered());
+        verify(webSocketController, times(1)).sendUserNotification(eq("alice"), anyString());
+    }
+
+    private ActiveAlert alert(String type, String target) {
+        return new ActiveAlert(UUID.randomUUID(), UUID.randomUUID(), "alice", stockId, "AAPL", type,
+                new BigDecimal(target));
+    }
+}
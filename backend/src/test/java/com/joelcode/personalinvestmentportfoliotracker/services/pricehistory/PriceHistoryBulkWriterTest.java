@@ -0,0 +1,105 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.pricehistory;
+
+import com.joelcode.personalinvestmentportfoliotracker.entities.PriceHistory;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.PriceHistoryRepository;
+import com.joelcode.personalinvestmentportfoliotracker.services.marketdata.LivePriceTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.transaction.TestTransaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Testing the bulk upsert and stock value refresh against the H2 schema
+@ActiveProfiles("test")
+@DataJpaTest
+@Import({PriceHistoryBulkWriter.class, LivePriceTable.class})
+class PriceHistoryBulkWriterTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PriceHistoryRepository priceHistoryRepository;
+
+    @Autowired
+    private PriceHistoryBulkWriter bulkWriter;
+
+    @Autowired
+    private LivePriceTable livePriceTable;
+
+    private Stock stock;
+
+    @BeforeEach
+    void setUp() {
+        stock = new Stock();
+        stock.setStockCode("AAPL");
+        stock.setCompanyName("Apple");
+        stock.setStockValue(BigDecimal.valueOf(100));
+        entityManager.persistAndFlush(stock);
+    }
+
+    @Test
+    void testUpsert_InsertsNewBarsAndOverwritesExistingCloses() {
+        LocalDateTime day1 = LocalDateTime.of(2024, 1, 2, 0, 0);
+        LocalDateTime day2 = LocalDateTime.of(2024, 1, 3, 0, 0);
+        entityManager.persistAndFlush(new PriceHistory(day1, new BigDecimal("150.00"), stock));
+
+        PriceBarChunk chunk = new PriceBarChunk(10);
+        chunk.add("AAPL", day1, new BigDecimal("151.25"), 1);
+        chunk.add("AAPL", day2, new BigDecimal("152.50"), 2);
+        chunk.getStockIds()[0] = stock.getStockId();
+        chunk.getStockIds()[1] = stock.getStockId();
+
+        assertEquals(2, bulkWriter.upsert(chunk));
+        entityManager.clear();
+
+        List<PriceHistory> history = priceHistoryRepository.findByStock_StockId(stock.getStockId());
+        assertEquals(2, history.size());
+        assertTrue(history.stream().anyMatch(p -> p.getCloseDate().equals(day1) && p.getClosePrice().compareTo(new BigDecimal("151.25")) == 0));
+        assertTrue(history.stream().anyMatch(p -> p.getCloseDate().equals(day2) && p.getClosePrice().compareTo(new BigDecimal("152.50")) == 0));
+    }
+
+    @Test
+    void testRefreshStockValues_UsesLatestClose() {
+        entityManager.persistAndFlush(new PriceHistory(LocalDateTime.of(2024, 1, 3, 0, 0), new BigDecimal("160.00"), stock));
+        entityManager.persistAndFlush(new PriceHistory(LocalDateTime.of(2024, 1, 2, 0, 0), new BigDecimal("155.00"), stock));
+
+        assertEquals(1, bulkWriter.refreshStockValues(Set.of(stock.getStockId())));
+        entityManager.clear();
+
+        Stock reloaded = entityManager.find(Stock.class, stock.getStockId());
+        assertEquals(0, reloaded.getStockValue().compareTo(new BigDecimal("160.00")));
+    }
+
+    // Test a refreshed stock's live price is dropped once the refresh commits
+    @Test
+    void testRefreshStockValues_EvictsLivePriceOnCommit() {
+        entityManager.persistAndFlush(new PriceHistory(LocalDateTime.of(2024, 1, 3, 0, 0), new BigDecimal("160.00"), stock));
+        livePriceTable.put(stock.getStockId(), new BigDecimal("175.00"), System.currentTimeMillis());
+
+        bulkWriter.refreshStockValues(Set.of(stock.getStockId()));
+        assertTrue(livePriceTable.get(stock.getStockId()).isPresent());
+
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        assertTrue(livePriceTable.get(stock.getStockId()).isEmpty());
+
+        // Committed rows outlive the test, remove them so other tests start clean
+        TestTransaction.start();
+        priceHistoryRepository.deleteAll();
+        entityManager.remove(entityManager.find(Stock.class, stock.getStockId()));
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+    }
+}
@@ -0,0 +1,166 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.pricehistory;
+
+import com.joelcode.personalinvestmentportfoliotracker.dto.pricehistory.PriceHistoryIngestResult;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.StockRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Testing bulk price history ingestion: parsing, chunk validation and the writes it asks for
+public class PriceHistoryIngestServiceImplTest {
+
+    @Mock
+    private StockRepository stockRepository;
+
+    @Mock
+    private PriceHistoryBulkWriter bulkWriter;
+
+    @Mock
+    private PriceHistoryRollupService rollupService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PriceHistoryIngestServiceImpl ingestService;
+    private Stock apple;
+    private Stock microsoft;
+
+    // Rows handed to the writer, copied out of each chunk
+    private final List<String> upserted = new ArrayList<>();
+    private final List<Integer> chunkSizes = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        ingestService = new PriceHistoryIngestServiceImpl(stockRepository, bulkWriter, rollupService, transactionManager,
+                new SimpleMeterRegistry(), 3, 10);
+
+        apple = stock("AAPL");
+        microsoft = stock("MSFT");
+        when(stockRepository.findByStockCodeIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> codes = invocation.getArgument(0);
+            return List.of(apple, microsoft).stream().filter(s -> codes.contains(s.getStockCode())).toList();
+        });
+        when(bulkWriter.upsert(any())).thenAnswer(invocation -> {
+            PriceBarChunk chunk = invocation.getArgument(0);
+            chunkSizes.add(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                upserted.add(chunk.getStockIds()[i] + "@" + chunk.getCloseDates()[i] + "=" + chunk.getClosePrices()[i]);
+            }
+            return chunk.size();
+        });
+    }
+
+    @Test
+    void testIngest_NdjsonWritesInChunksAndRefreshesEachStockOnce() throws Exception {
+        String body = """
+                {"symbol":"AAPL","date":"2024-01-02","close":185.64}
+                {"symbol":"MSFT","date":"2024-01-02","close":370.87}
+                {"symbol":"aapl","date":"2024-01-03","close":184.25}
+                {"symbol":"MSFT","date":"2024-01-03T16:00:00","close":370.6}
+                """;
+
+        PriceHistoryIngestResult result = ingestService.ingest(input(body), PriceBarFormat.NDJSON);
+
+        assertEquals(4, result.getRowsRead());
+        assertEquals(4, result.getRowsWritten());
+        assertEquals(0, result.getRowsRejected());
+        assertEquals(2, result.getSymbolsUpdated());
+        assertEquals(List.of(3, 1), chunkSizes);
+        assertTrue(upserted.contains(apple.getStockId() + "@2024-01-03T00:00=184.25"));
+        assertTrue(upserted.contains(microsoft.getStockId() + "@2024-01-03T16:00=370.6"));
+
+        // Symbols already resolved are not looked up again, and stock values move once at the end
+        verify(stockRepository, times(1)).findByStockCodeIn(anyCollection());
+        verify(bulkWriter, times(1)).refreshStockValues(argThat(ids ->
+                ids.size() == 2 && ids.contains(apple.getStockId()) && ids.contains(microsoft.getStockId())));
+        verify(rollupService).rollUp(LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 3));
+    }
+
+    @Test
+    void testIngest_CsvRejectsBadRowsWithoutFailingTheUpload() throws Exception {
+        String future = LocalDateTime.now().plusDays(10).toLocalDate().toString();
+        String body = "date,ticker,open,close\n" +
+                "2024-01-02,AAPL,184.0,185.64\n" +
+                "2024-01-02,ZZZZ,1.0,2.0\n" +
+                "2024-01-02,MSFT,370.0,-1\n" +
+                "not-a-date,MSFT,370.0,371\n" +
+                future + ",MSFT,370.0,371\n" +
+                "2024-01-03,MSFT,370.0,abc\n";
+
+        PriceHistoryIngestResult result = ingestService.ingest(input(body), PriceBarFormat.CSV);
+
+        assertEquals(6, result.getRowsRead());
+        assertEquals(1, result.getRowsWritten());
+        assertEquals(5, result.getRowsRejected());
+        assertEquals(5, result.getErrors().size());
+        assertTrue(result.getErrors().contains("line 3: unknown symbol ZZZZ"));
+        assertTrue(result.getErrors().contains("line 4: close price must be positive"));
+        assertTrue(result.getErrors().contains("line 6: close date is in the future"));
+        assertEquals(List.of(apple.getStockId() + "@2024-01-02T00:00=185.64"), upserted);
+    }
+
+    @Test
+    void testIngest_DuplicateBarsInAChunkKeepTheLastAndRoundPrices() throws Exception {
+        String body = """
+                {"symbol":"AAPL","date":"2024-01-02","close":180}
+                {"symbol":"AAPL","date":"2024-01-02","close":185.649}
+                {"symbol":"MSFT","date":"2024-01-02","close":370.87}
+                """;
+
+        PriceHistoryIngestResult result = ingestService.ingest(input(body), PriceBarFormat.NDJSON);
+
+        assertEquals(2, result.getRowsWritten());
+        assertEquals(1, result.getRowsSuperseded());
+        assertEquals(List.of(apple.getStockId() + "@2024-01-02T00:00=185.65",
+                microsoft.getStockId() + "@2024-01-02T00:00=370.87"), upserted);
+    }
+
+    @Test
+    void testIngest_CsvWithoutRequiredColumnsIsRefused() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ingestService.ingest(input("symbol,open\nAAPL,1\n"), PriceBarFormat.CSV));
+        verify(bulkWriter, never()).upsert(any());
+    }
+
+    @Test
+    void testFromContentType_IgnoresParameters() {
+        assertEquals(PriceBarFormat.CSV, PriceBarFormat.fromContentType("text/csv; charset=UTF-8"));
+        assertEquals(PriceBarFormat.NDJSON, PriceBarFormat.fromContentType("application/x-ndjson"));
+        assertThrows(IllegalArgumentException.class, () -> PriceBarFormat.fromContentType("application/json"));
+    }
+
+
+    // Helper functions
+
+    private static InputStream input(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Stock stock(String code) {
+        Stock stock = new Stock();
+        stock.setStockId(UUID.randomUUID());
+        stock.setStockCode(code);
+        stock.setStockValue(BigDecimal.ONE);
+        return stock;
+    }
+}
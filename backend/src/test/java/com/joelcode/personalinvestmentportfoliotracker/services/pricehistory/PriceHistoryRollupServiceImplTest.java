@@ -0,0 +1,167 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.pricehistory;
+
+import com.joelcode.personalinvestmentportfoliotracker.dto.pricehistory.PricePoint;
+import com.joelcode.personalinvestmentportfoliotracker.entities.PriceHistoryDaily;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.PriceHistoryDailyRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.PriceHistoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Testing the daily rollup and raw retention job
+public class PriceHistoryRollupServiceImplTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 15);
+
+    @Mock
+    private PriceHistoryRepository priceHistoryRepository;
+
+    @Mock
+    private PriceHistoryDailyRepository dailyRepository;
+
+    @Mock
+    private PriceHistoryPartitionManager partitionManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PriceHistoryRollupServiceImpl rollupService;
+    private final UUID stockId = UUID.randomUUID();
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        Clock clock = Clock.fixed(TODAY.atStartOfDay(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+        rollupService = new PriceHistoryRollupServiceImpl(priceHistoryRepository, dailyRepository, partitionManager,
+                transactionManager, new SimpleMeterRegistry(), 90, 2, clock);
+
+        when(priceHistoryRepository.findPointsBetween(any(), any())).thenReturn(List.of());
+        when(dailyRepository.findByTradeDate(any())).thenReturn(List.of());
+    }
+
+    @Test
+    void testRollUp_BuildsOhlcBarFromTheDaysPoints() {
+        LocalDate day = TODAY.minusDays(1);
+        when(priceHistoryRepository.findPointsBetween(day.atStartOfDay(), TODAY.atStartOfDay())).thenReturn(List.of(
+                point(day.atTime(9, 30), "101.00"),
+                point(day.atTime(11, 0), "104.50"),
+                point(day.atTime(13, 0), "99.25"),
+                point(day.atTime(16, 0), "102.75")));
+
+        assertEquals(1, rollupService.rollUp(day, day));
+
+        PriceHistoryDaily bar = savedBars().get(0);
+        assertEquals(stockId, bar.getStockId());
+        assertEquals(day, bar.getTradeDate());
+        assertEquals(new BigDecimal("101.00"), bar.getOpenPrice());
+        assertEquals(new BigDecimal("104.50"), bar.getHighPrice());
+        assertEquals(new BigDecimal("99.25"), bar.getLowPrice());
+        assertEquals(new BigDecimal("102.75"), bar.getClosePrice());
+        assertEquals(4, bar.getSamples());
+    }
+
+    @Test
+    void testRollUp_ReplacesTheStoredBarForTheDay() {
+        LocalDate day = TODAY.minusDays(1);
+        PriceHistoryDaily stored = new PriceHistoryDaily(stockId, day);
+        stored.setOpenPrice(BigDecimal.ONE);
+        stored.setHighPrice(BigDecimal.ONE);
+        stored.setLowPrice(BigDecimal.ONE);
+        stored.setClosePrice(BigDecimal.ONE);
+        stored.setSamples(1);
+        when(dailyRepository.findByTradeDate(day)).thenReturn(List.of(stored));
+        when(priceHistoryRepository.findPointsBetween(day.atStartOfDay(), TODAY.atStartOfDay()))
+                .thenReturn(List.of(point(day.atTime(10, 0), "5.00"), point(day.atTime(15, 0), "6.00")));
+
+        rollupService.rollUp(day, day);
+
+        PriceHistoryDaily bar = savedBars().get(0);
+        assertSame(stored, bar);
+        assertEquals(new BigDecimal("5.00"), bar.getOpenPrice());
+        assertEquals(new BigDecimal("6.00"), bar.getClosePrice());
+        assertEquals(2, bar.getSamples());
+    }
+
+    @Test
+    void testRunMaintenance_RollsUpFromTheNewestBarThroughYesterday() {
+        when(dailyRepository.findLatestTradeDate()).thenReturn(Optional.of(TODAY.minusDays(3)));
+        when(priceHistoryRepository.findEarliestCloseDate()).thenReturn(Optional.of(TODAY.minusDays(10).atStartOfDay()));
+
+        rollupService.runMaintenance();
+
+        verify(partitionManager).ensurePartitions(TODAY, 2);
+        for (int daysAgo = 3; daysAgo >= 1; daysAgo--) {
+            LocalDate day = TODAY.minusDays(daysAgo);
+            verify(priceHistoryRepository).findPointsBetween(day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+        }
+        verify(priceHistoryRepository, never()).findPointsBetween(eq(TODAY.atStartOfDay()), any());
+        verify(priceHistoryRepository, never()).deleteCloseDateBefore(any());
+    }
+
+    @Test
+    void testRunMaintenance_RetentionRollsUpBeforeDeleting() {
+        LocalDate cutoff = TODAY.minusDays(90);
+        when(partitionManager.isPartitioned()).thenReturn(false);
+        when(dailyRepository.findLatestTradeDate()).thenReturn(Optional.of(TODAY.minusDays(1)));
+        when(priceHistoryRepository.findEarliestCloseDate()).thenReturn(Optional.of(cutoff.minusDays(2).atTime(12, 0)));
+
+        rollupService.runMaintenance();
+
+        var order = inOrder(priceHistoryRepository);
+        order.verify(priceHistoryRepository).findPointsBetween(cutoff.minusDays(2).atStartOfDay(), cutoff.minusDays(1).atStartOfDay());
+        order.verify(priceHistoryRepository).findPointsBetween(cutoff.minusDays(1).atStartOfDay(), cutoff.atStartOfDay());
+        order.verify(priceHistoryRepository).deleteCloseDateBefore(cutoff.atStartOfDay());
+    }
+
+    @Test
+    void testRunMaintenance_PartitionedRetentionDropsWholeMonthsOnly() {
+        // 90 days before 2024-06-15 is 2024-03-17, so March must stay and February can go
+        LocalDate boundary = LocalDate.of(2024, 3, 1);
+        when(partitionManager.isPartitioned()).thenReturn(true);
+        when(partitionManager.dropPartitionsBefore(boundary)).thenReturn(List.of(YearMonth.of(2024, 2)));
+        when(dailyRepository.findLatestTradeDate()).thenReturn(Optional.of(TODAY.minusDays(1)));
+        when(priceHistoryRepository.findEarliestCloseDate()).thenReturn(Optional.of(LocalDate.of(2024, 2, 1).atStartOfDay()));
+
+        rollupService.runMaintenance();
+
+        verify(priceHistoryRepository).findPointsBetween(LocalDate.of(2024, 2, 29).atStartOfDay(), boundary.atStartOfDay());
+        verify(priceHistoryRepository, never()).findPointsBetween(eq(boundary.atStartOfDay()), any());
+        verify(partitionManager).dropPartitionsBefore(boundary);
+        verify(priceHistoryRepository).deleteCloseDateBefore(boundary.atStartOfDay());
+    }
+
+
+    // Helper functions
+
+    private PricePoint point(LocalDateTime closeDate, String price) {
+        return new PricePoint(stockId, closeDate, new BigDecimal(price));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<PriceHistoryDaily> savedBars() {
+        ArrayList<PriceHistoryDaily> bars = new ArrayList<>();
+        ArgumentCaptor<Iterable<PriceHistoryDaily>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(dailyRepository, atLeastOnce()).saveAll(captor.capture());
+        captor.getAllValues().forEach(saved -> saved.forEach(bars::add));
+        return bars;
+    }
+}
@@ -4,6 +4,7 @@ import com.joelcode.personalinvestmentportfoliotracker.dto.utility.SearchDTO;
 import com.joelcode.personalinvestmentportfoliotracker.dto.stock.StockDTO;
 import com.joelcode.personalinvestmentportfoliotracker.dto.account.AccountDTO;
 import com.joelcode.personalinvestmentportfoliotracker.dto.holding.HoldingDTO;
+import com.joelcode.personalinvestmentportfoliotracker.dto.utility.StockSuggestionDTO;
 import com.joelcode.personalinvestmentportfoliotracker.entities.*;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.StockRepository;
 import com.joelcode.personalinvestmentportfoliotracker.repositories.AccountRepository;
@@ -11,7 +12,7 @@ import com.joelcode.personalinvestmentportfoliotracker.repositories.HoldingRepos
 import com.joelcode.personalinvestmentportfoliotracker.services.mapping.StockMapper;
 import com.joelcode.personalinvestmentportfoliotracker.services.mapping.AccountMapper;
 import com.joelcode.personalinvestmentportfoliotracker.services.mapping.HoldingMapper;
-import com.joelcode.personalinvestmentportfoliotracker.services.pricehistory.PriceHistoryServiceImpl;
+import com.joelcode.personalinvestmentportfoliotracker.services.marketdata.PriceResolver;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,9 +20,12 @@ import org.mockito.*;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 public class SearchServiceImplTest {
@@ -36,7 +40,10 @@ public class SearchServiceImplTest {
     private HoldingRepository holdingRepository;
 
     @Mock
-    private PriceHistoryServiceImpl priceHistoryService;
+    private StockSearchIndex stockSearchIndex;
+
+    @Mock
+    private PriceResolver priceResolver;
 
     @InjectMocks
     private SearchServiceImpl searchService;
@@ -71,7 +78,10 @@ public class SearchServiceImplTest {
         String query = "app";
 
         // Mock stock search
-        when(stockRepository.findByCompanyNameContainingIgnoreCase(query))
+        when(stockSearchIndex.suggest(query, SearchServiceImpl.MAX_STOCK_MATCHES))
+                .thenReturn(List.of(new StockSearchIndex.Match(stock.getStockId(), "AAPL", "Apple",
+                        StockSearchIndex.MatchType.NAME_PREFIX)));
+        when(stockRepository.findAllById(List.of(stock.getStockId())))
                 .thenReturn(List.of(stock));
 
         // Mock account search
@@ -79,12 +89,12 @@ public class SearchServiceImplTest {
                 .thenReturn(List.of(account));
 
         // Mock holdings search
-        when(holdingRepository.findByAccount_User_UserIdAndStock_CompanyNameContainingIgnoreCase(userId, query))
+        when(holdingRepository.findByAccount_User_UserIdAndStock_StockIdIn(userId, List.of(stock.getStockId())))
                 .thenReturn(List.of(holding));
 
-        // Mock price
-        when(priceHistoryService.getCurrentPrice(stock.getStockId()))
-                .thenReturn(BigDecimal.TEN);
+        // Mock price, resolved for every holding in one batch
+        when(priceResolver.resolvePrices(Set.of(stock.getStockId())))
+                .thenReturn(Map.of(stock.getStockId(), BigDecimal.TEN));
 
         // Mock static mappers
         StockDTO stockDTO = new StockDTO();
@@ -108,6 +118,21 @@ public class SearchServiceImplTest {
             assertEquals(1, result.getStocks().size());
             assertEquals(1, result.getAccounts().size());
             assertEquals(1, result.getHoldings().size());
+            verify(priceResolver, times(1)).resolvePrices(any());
         }
     }
+
+    @Test
+    void testSuggest_MapsRankedMatchesAndCapsLimit() {
+        when(stockSearchIndex.suggest("ap", SearchServiceImpl.MAX_SUGGESTIONS))
+                .thenReturn(List.of(new StockSearchIndex.Match(stock.getStockId(), "AAPL", "Apple",
+                        StockSearchIndex.MatchType.CODE_PREFIX)));
+
+        List<StockSuggestionDTO> result = searchService.suggest("ap", 1_000);
+
+        assertEquals(1, result.size());
+        assertEquals("AAPL", result.get(0).getStockCode());
+        assertEquals("CODE_PREFIX", result.get(0).getMatchType());
+        verifyNoInteractions(stockRepository, holdingRepository);
+    }
 }
@@ -0,0 +1,101 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.utility;
+
+import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.StockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Testing the in-memory stock typeahead index
+public class StockSearchIndexTest {
+
+    @Mock
+    private StockRepository stockRepository;
+
+    private StockSearchIndex index;
+    private Stock apple;
+    private Stock appian;
+    private Stock snap;
+    private Stock amd;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        apple = stock("AAPL", "Apple Inc.");
+        appian = stock("APPN", "Appian Corporation");
+        snap = stock("SNAP", "Snap Inc.");
+        amd = stock("AMD", "Advanced Micro Devices");
+        when(stockRepository.findAll()).thenReturn(List.of(apple, appian, snap, amd));
+
+        index = new StockSearchIndex(stockRepository);
+        assertEquals(4, index.rebuild());
+    }
+
+    // Test ranking: exact code, then code prefix, then name prefix, then infix
+    @Test
+    void testSuggest_RanksByMatchType() {
+        Stock app = stock("APP", "AppLovin");
+        Stock infix = stock("XYZ", "Snapple Group");
+        index.put(app);
+        index.put(infix);
+
+        List<StockSearchIndex.Match> matches = index.suggest("app", 10);
+
+        assertEquals(List.of(app.getStockId(), appian.getStockId(), apple.getStockId(), infix.getStockId()),
+                matches.stream().map(StockSearchIndex.Match::stockId).toList());
+        assertEquals(StockSearchIndex.MatchType.EXACT_CODE, matches.get(0).matchType());
+        assertEquals(StockSearchIndex.MatchType.CODE_PREFIX, matches.get(1).matchType());
+        assertEquals(StockSearchIndex.MatchType.NAME_PREFIX, matches.get(2).matchType());
+        assertEquals(StockSearchIndex.MatchType.INFIX, matches.get(3).matchType());
+    }
+
+    // Test matching is case-insensitive and covers later words of the name
+    @Test
+    void testSuggest_MatchesNameWordsIgnoringCase() {
+        List<StockSearchIndex.Match> matches = index.suggest("  MICRO ", 10);
+
+        assertEquals(1, matches.size());
+        assertEquals("AMD", matches.get(0).stockCode());
+        assertEquals(StockSearchIndex.MatchType.NAME_PREFIX, matches.get(0).matchType());
+    }
+
+    // Test infix matches need at least three characters, and the limit is respected
+    @Test
+    void testSuggest_ShortQueriesOnlyMatchPrefixes() {
+        assertTrue(index.suggest("na", 10).isEmpty());
+        assertEquals(1, index.suggest("nap", 10).size());
+        assertEquals(1, index.suggest("a", 1).size());
+        assertTrue(index.suggest(" ", 10).isEmpty());
+    }
+
+    // Test updates re-index under the new code and name, and deletes drop the stock
+    @Test
+    void testPutAndRemove_UpdateIncrementally() {
+        snap.setStockCode("SNPX");
+        snap.setCompanyName("Snapshot Holdings");
+        index.put(snap);
+
+        assertTrue(index.suggest("snap inc", 10).isEmpty());
+        assertEquals("SNPX", index.suggest("snpx", 10).get(0).stockCode());
+        assertEquals(4, index.size());
+
+        index.remove(amd.getStockId());
+        assertTrue(index.suggest("amd", 10).isEmpty());
+        assertTrue(index.suggest("micro", 10).isEmpty());
+        assertEquals(3, index.size());
+    }
+
+    private Stock stock(String code, String name) {
+        Stock stock = new Stock(code, name, BigDecimal.TEN, BigDecimal.ZERO);
+        stock.setStockId(UUID.randomUUID());
+        return stock;
+    }
+}
@@ -0,0 +1,227 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.valuation;
+
+import com.joelcode.personalinvestmentportfoliotracker.dto.valuation.ValuationDriftDTO;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Account;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Holding;
+import com.joelcode.personalinvestmentportfoliotracker.entities.Stock;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.AccountRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.DividendPaymentRepository;
+import com.joelcode.personalinvestmentportfoliotracker.repositories.HoldingRepository;
+import com.joelcode.personalinvestmentportfoliotracker.services.marketdata.LivePriceTable;
+import com.joelcode.personalinvestmentportfoliotracker.services.marketdata.PriceResolver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Testing the cached account valuation
+public class AccountValuationServiceImplTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private HoldingRepository holdingRepository;
+
+    @Mock
+    private DividendPaymentRepository dividendPaymentRepository;
+
+    @Mock
+    private PriceResolver priceResolver;
+
+    private LivePriceTable livePriceTable;
+    private SimpleMeterRegistry meterRegistry;
+    private AccountValuationServiceImpl valuationService;
+    private Account account;
+    private Stock stock;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        livePriceTable = new LivePriceTable();
+        meterRegistry = new SimpleMeterRegistry();
+        valuationService = new AccountValuationServiceImpl(accountRepository, holdingRepository,
+                dividendPaymentRepository, livePriceTable, priceResolver, meterRegistry, 60_000, 10_000);
+
+        account = new Account();
+        account.setAccountId(UUID.randomUUID());
+        account.setAccountBalance(BigDecimal.valueOf(1000));
+        stock = new Stock("AAPL", "Apple Inc.", BigDecimal.valueOf(100), BigDecimal.ZERO);
+        stock.setStockId(UUID.randomUUID());
+
+        when(accountRepository.findByAccountId(account.getAccountId())).thenReturn(Optional.of(account));
+        when(holdingRepository.findByAccountIdsWithStock(List.of(account.getAccountId())))
+                .thenReturn(List.of(holding(10, 50)));
+        when(dividendPaymentRepository.calculateTotalDividendsByAccount(account.getAccountId()))
+                .thenReturn(BigDecimal.valueOf(25));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    // Test the ledger is read once and later reads come from the cache
+    @Test
+    void testGetValuation_BuildsFromLedgerOnce() {
+        AccountValuation first = valuationService.getValuation(account.getAccountId());
+        AccountValuation second = valuationService.getValuation(account.getAccountId());
+
+        assertSame(first, second);
+        assertEquals(money(500), first.getTotalCostBasis());
+        assertEquals(money(25), first.getDividendTotal());
+        assertEquals(money(1000), first.getCashBalance());
+        verify(holdingRepository, times(1)).findByAccountIdsWithStock(any());
+    }
+
+    // Test a trade replaces the position and adjusts totals without reading the ledger again
+    @Test
+    void testRecordPosition_UpdatesTotalsIncrementally() {
+        valuationService.getValuation(account.getAccountId());
+        Holding afterSale = holding(4, 50);
+        afterSale.setRealizedGain(BigDecimal.valueOf(60));
+
+        valuationService.recordPosition(afterSale, BigDecimal.valueOf(1360));
+
+        AccountValuation valuation = valuationService.getValuation(account.getAccountId());
+        assertEquals(money(200), valuation.getTotalCostBasis());
+        assertEquals(money(60), valuation.getRealizedGain());
+        assertEquals(money(1360), valuation.getCashBalance());
+        assertEquals(Quantity.of(BigDecimal.valueOf(4)), valuation.getPositions().get(stock.getStockId()).quantity());
+        verify(holdingRepository, times(1)).findByAccountIdsWithStock(any());
+    }
+
+    // Test a dividend recorded inside a transaction only shows after commit
+    @Test
+    void testRecordDividend_AppliedAfterCommit() {
+        valuationService.getValuation(account.getAccountId());
+        TransactionSynchronizationManager.initSynchronization();
+
+        valuationService.recordDividend(account.getAccountId(), BigDecimal.valueOf(10), BigDecimal.valueOf(1010));
+        assertEquals(money(25), valuationService.getValuation(account.getAccountId()).getDividendTotal());
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        AccountValuation valuation = valuationService.getValuation(account.getAccountId());
+        assertEquals(money(35), valuation.getDividendTotal());
+        assertEquals(money(1010), valuation.getCashBalance());
+    }
+
+    // Test the cache drops the least recently read account beyond its cap and rebuilds it on demand
+    @Test
+    void testGetValuation_BoundedByMaxAccounts() {
+        AccountValuationServiceImpl bounded = new AccountValuationServiceImpl(accountRepository, holdingRepository,
+                dividendPaymentRepository, livePriceTable, priceResolver, new SimpleMeterRegistry(), 60_000, 1);
+        Account other = new Account();
+        other.setAccountId(UUID.randomUUID());
+        other.setAccountBalance(BigDecimal.ZERO);
+        when(accountRepository.findByAccountId(other.getAccountId())).thenReturn(Optional.of(other));
+
+        bounded.getValuation(account.getAccountId());
+        bounded.getValuation(other.getAccountId());
+        bounded.getValuation(account.getAccountId());
+
+        verify(holdingRepository, times(2)).findByAccountIdsWithStock(List.of(account.getAccountId()));
+        assertEquals(1, bounded.verifyAll().size());
+    }
+
+    // Test a rolled back dividend never reaches the cache
+    @Test
+    void testRecordDividend_DiscardedOnRollback() {
+        valuationService.getValuation(account.getAccountId());
+        TransactionSynchronizationManager.initSynchronization();
+
+        valuationService.recordDividend(account.getAccountId(), BigDecimal.valueOf(10), BigDecimal.valueOf(1010));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(money(25), valuationService.getValuation(account.getAccountId()).getDividendTotal());
+    }
+
+    // Test a ledger read while a change is in flight is not cached
+    @Test
+    void testGetValuation_NotCachedWhileChangePending() {
+        TransactionSynchronizationManager.initSynchronization();
+        valuationService.recordDividend(account.getAccountId(), BigDecimal.valueOf(10), BigDecimal.valueOf(1010));
+
+        valuationService.getValuation(account.getAccountId());
+        valuationService.getValuation(account.getAccountId());
+
+        verify(holdingRepository, times(2)).findByAccountIdsWithStock(any());
+    }
+
+    // Test verify reports drift when the ledger changed behind the cache
+    @Test
+    void testVerifyAll_ReportsDrift() {
+        valuationService.getValuation(account.getAccountId());
+        when(holdingRepository.findByAccountIdsWithStock(any())).thenReturn(List.of(holding(12, 50)));
+
+        List<ValuationDriftDTO> results = valuationService.verifyAll();
+
+        assertEquals(1, results.size());
+        assertTrue(results.get(0).isDrifted());
+        assertEquals(1.0, meterRegistry.get("portfolio.valuation.drift").counter().count());
+
+        valuationService.rebuild(account.getAccountId());
+        assertFalse(valuationService.verifyAll().get(0).isDrifted());
+    }
+
+    // Test prices come from the live table and only missing ones go to the resolver
+    @Test
+    void testCurrentPrices_PrefersLiveTable() {
+        Stock other = new Stock("MSFT", "Microsoft", BigDecimal.valueOf(300), BigDecimal.ZERO);
+        other.setStockId(UUID.randomUUID());
+        Holding otherHolding = holding(1, 300);
+        otherHolding.setStock(other);
+        when(holdingRepository.findByAccountIdsWithStock(any())).thenReturn(List.of(holding(10, 50), otherHolding));
+        livePriceTable.put(stock.getStockId(), BigDecimal.valueOf(70), System.currentTimeMillis());
+        when(priceResolver.resolvePrices(List.of(other.getStockId())))
+                .thenReturn(Map.of(other.getStockId(), BigDecimal.valueOf(310)));
+
+        AccountValuation valuation = valuationService.getValuation(account.getAccountId());
+        Map<UUID, BigDecimal> prices = valuationService.currentPrices(valuation);
+
+        assertEquals(BigDecimal.valueOf(70), prices.get(stock.getStockId()));
+        assertEquals(BigDecimal.valueOf(310), prices.get(other.getStockId()));
+        assertEquals(money(1010), valuation.marketValue(prices));
+    }
+
+    private void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        for (TransactionSynchronization synchronization : synchronizations) {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(status);
+        }
+    }
+
+    private Money money(long amount) {
+        return Money.of(BigDecimal.valueOf(amount));
+    }
+
+    private Holding holding(int quantity, int averageCost) {
+        Holding holding = new Holding();
+        holding.setAccount(account);
+        holding.setStock(stock);
+        holding.setQuantity(BigDecimal.valueOf(quantity));
+        holding.setAverageCostBasis(BigDecimal.valueOf(averageCost));
+        holding.setTotalCostBasis(BigDecimal.valueOf((long) quantity * averageCost));
+        return holding;
+    }
+}
@@ -0,0 +1,109 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.valuation;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Property checks that fixed-point valuation gives exactly the BigDecimal results it replaced
+public class MoneyPropertyTest {
+
+    private static final int CASES = 20_000;
+
+    // Fixed seed so a failure can be replayed
+    private final Random random = new Random(20241018L);
+
+    // Test price times quantity matches multiply().setScale(2, HALF_UP) including the scale
+    @Test
+    void testTimes_MatchesBigDecimalForAnyColumnScaledInputs() {
+        for (int i = 0; i < CASES; i++) {
+            BigDecimal price = randomDecimal(Money.SCALE, 1_000_000);
+            BigDecimal quantity = randomDecimal(Quantity.SCALE, 1_000_000);
+
+            BigDecimal expected = price.multiply(quantity).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal actual = Money.of(price).times(Quantity.of(quantity)).toCents();
+
+            assertEquals(expected, actual, () -> price + " x " + quantity);
+        }
+    }
+
+    // Test a portfolio total matches the old add-then-setScale loop
+    @Test
+    void testTotals_MatchBigDecimalLoop() {
+        for (int i = 0; i < CASES / 20; i++) {
+            int holdings = random.nextInt(50);
+            BigDecimal expected = BigDecimal.ZERO;
+            Money actual = Money.ZERO;
+            for (int h = 0; h < holdings; h++) {
+                BigDecimal price = randomDecimal(2, 10_000).abs();
+                BigDecimal quantity = randomDecimal(Quantity.SCALE, 100_000).abs();
+                expected = expected.add(price.multiply(quantity).setScale(2, RoundingMode.HALF_UP));
+                actual = actual.plus(Money.of(price).times(Quantity.of(quantity)));
+            }
+            assertEquals(expected.setScale(2, RoundingMode.HALF_UP), actual.toCents());
+        }
+    }
+
+    // Test prices too large for the long path fall back to BigDecimal with the same result
+    @Test
+    void testTimes_OverflowFallsBackToExactResult() {
+        for (int i = 0; i < 1_000; i++) {
+            BigDecimal price = randomDecimal(Money.SCALE, 100_000_000_000L);
+            BigDecimal quantity = randomDecimal(Quantity.SCALE, 1_000);
+
+            BigDecimal expected = price.multiply(quantity).setScale(2, RoundingMode.HALF_UP);
+            assertEquals(expected, Money.of(price).times(Quantity.of(quantity)).toCents(),
+                    () -> price + " x " + quantity);
+        }
+    }
+
+    // Test ties round away from zero like HALF_UP
+    @Test
+    void testTimes_TiesRoundAwayFromZero() {
+        assertEquals(new BigDecimal("0.01"),
+                Money.of(new BigDecimal("0.0050")).times(Quantity.of(BigDecimal.ONE)).toCents());
+        assertEquals(new BigDecimal("-0.01"),
+                Money.of(new BigDecimal("-0.0050")).times(Quantity.of(BigDecimal.ONE)).toCents());
+        assertEquals(new BigDecimal("0.00"),
+                Money.of(new BigDecimal("0.0049")).times(Quantity.of(BigDecimal.ONE)).toCents());
+    }
+
+    // Test the allocation percentage matches divide(total, 4, HALF_UP).setScale(2, HALF_UP)
+    @Test
+    void testPercentOf_MatchesAllocationFormula() {
+        for (int i = 0; i < CASES; i++) {
+            BigDecimal value = randomDecimal(2, 1_000_000).abs();
+            BigDecimal total = value.add(randomDecimal(2, 1_000_000).abs()).add(new BigDecimal("0.01"));
+
+            BigDecimal expected = value.multiply(BigDecimal.valueOf(100))
+                    .divide(total, 4, RoundingMode.HALF_UP)
+                    .setScale(2, RoundingMode.HALF_UP);
+
+            assertEquals(expected, Money.of(value).percentOf(Money.of(total)), () -> value + " / " + total);
+        }
+    }
+
+    // Test conversion rounds extra places HALF_UP like the database columns
+    @Test
+    void testOf_RoundsLikeColumnScale() {
+        for (int i = 0; i < CASES; i++) {
+            BigDecimal value = randomDecimal(10, 1_000_000);
+            assertEquals(value.setScale(Money.SCALE, RoundingMode.HALF_UP), Money.of(value).toBigDecimal());
+            assertEquals(value.setScale(Quantity.SCALE, RoundingMode.HALF_UP), Quantity.of(value).toBigDecimal());
+        }
+        assertTrue(Money.fits(new BigDecimal("12.3400")));
+        assertFalse(Money.fits(new BigDecimal("12.34001")));
+    }
+
+    // Random decimal with up to maxScale places and an integer part below maxWhole, either sign
+    private BigDecimal randomDecimal(int maxScale, long maxWhole) {
+        int scale = random.nextInt(maxScale + 1);
+        long whole = (long) (random.nextDouble() * maxWhole);
+        long fraction = scale == 0 ? 0 : Math.floorMod(random.nextLong(), (long) Math.pow(10, scale));
+        BigDecimal value = BigDecimal.valueOf(whole).add(BigDecimal.valueOf(fraction, scale));
+        return random.nextBoolean() ? value : value.negate();
+    }
+}
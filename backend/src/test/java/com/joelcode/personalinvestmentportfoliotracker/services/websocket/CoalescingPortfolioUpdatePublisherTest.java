@@ -0,0 +1,135 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.websocket;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Testing the after-commit, coalescing WebSocket publisher
+public class CoalescingPortfolioUpdatePublisherTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CoalescingPortfolioUpdatePublisher publisher;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        // Window of 0 disables the background flush so each test flushes by hand
+        publisher = new CoalescingPortfolioUpdatePublisher(messagingTemplate, meterRegistry, 0, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        publisher.shutdown();
+    }
+
+    // Test updates of one type to one destination collapse to the latest
+    @Test
+    void testPublish_SameKeyKeepsLatest() {
+        publisher.publish("/topic/portfolio/a", "first");
+        publisher.publish("/topic/portfolio/a", "second");
+        publisher.publish("/topic/portfolio/a", "third");
+
+        assertEquals(1, publisher.queueDepth());
+        publisher.flush();
+
+        verify(messagingTemplate, times(1)).convertAndSend("/topic/portfolio/a", (Object) "third");
+        assertEquals(2.0, count("coalesced"));
+        assertEquals(1.0, count("sent"));
+        assertEquals(0, publisher.queueDepth());
+    }
+
+    // Test different conflation keys on one destination are all sent, in first-seen order
+    @Test
+    void testPublish_DifferentKeysAreKept() {
+        publisher.publish("/topic/portfolio/a", "holding:1", "h1");
+        publisher.publish("/topic/portfolio/a", "holding:2", "h2");
+        publisher.publish("/topic/portfolio/a", "holding:1", "h1-latest");
+        publisher.flush();
+
+        InOrder inOrder = inOrder(messagingTemplate);
+        inOrder.verify(messagingTemplate).convertAndSend("/topic/portfolio/a", (Object) "h1-latest");
+        inOrder.verify(messagingTemplate).convertAndSend("/topic/portfolio/a", (Object) "h2");
+    }
+
+    // Test nothing is queued until the transaction commits
+    @Test
+    void testPublish_WaitsForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        publisher.publish("/topic/portfolio/a", "update");
+
+        assertEquals(0, publisher.queueDepth());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(1, publisher.queueDepth());
+
+        publisher.flush();
+        verify(messagingTemplate, times(1)).convertAndSend("/topic/portfolio/a", (Object) "update");
+    }
+
+    // Test a rolled-back transaction is never broadcast
+    @Test
+    void testPublish_RollbackDiscards() {
+        TransactionSynchronizationManager.initSynchronization();
+        publisher.publish("/topic/portfolio/a", "update");
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        publisher.flush();
+
+        verifyNoInteractions(messagingTemplate);
+        assertEquals(1.0, count("rolled_back"));
+    }
+
+    // Test a full queue still merges known keys but drops new ones
+    @Test
+    void testPublish_FullQueueDropsNewKeys() {
+        publisher.publish("/topic/portfolio/a", "a1");
+        publisher.publish("/topic/portfolio/b", "b1");
+        publisher.publish("/topic/portfolio/c", "c1");
+        publisher.publish("/topic/portfolio/a", "a2");
+
+        assertEquals(2, publisher.queueDepth());
+        assertEquals(1.0, count("dropped"));
+        publisher.flush();
+
+        verify(messagingTemplate).convertAndSend("/topic/portfolio/a", (Object) "a2");
+        verify(messagingTemplate).convertAndSend("/topic/portfolio/b", (Object) "b1");
+        verify(messagingTemplate, never()).convertAndSend(eq("/topic/portfolio/c"), (Object) any());
+    }
+
+    // Test a send that throws is counted and the rest of the batch is still sent
+    @Test
+    void testFlush_FailedSendDoesNotDropBatch() {
+        doThrow(new IllegalStateException("broker unavailable"))
+                .when(messagingTemplate).convertAndSend("/topic/portfolio/a", (Object) "a1");
+        publisher.publish("/topic/portfolio/a", "a1");
+        publisher.publish("/topic/portfolio/b", "b1");
+
+        publisher.flush();
+
+        verify(messagingTemplate).convertAndSend("/topic/portfolio/b", (Object) "b1");
+        assertEquals(1.0, count("failed"));
+        assertEquals(1.0, count("sent"));
+        assertEquals(0, publisher.queueDepth());
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("websocket.publish.messages").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,94 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.websocket;
+
+import com.joelcode.personalinvestmentportfoliotracker.controllers.WebSocketController;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Testing per-symbol price ticks: listener registry and change detection
+public class PriceTickPublisherTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    private PriceSubscriptionRegistry registry;
+    private PriceTickPublisher publisher;
+    private UUID stockId;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        registry = new PriceSubscriptionRegistry();
+        publisher = new PriceTickPublisher(messagingTemplate, registry, new SimpleMeterRegistry());
+        stockId = UUID.randomUUID();
+    }
+
+    // Test a tick goes to the symbol's own topic
+    @Test
+    void testPublish_SendsToSymbolTopic() {
+        registry.subscribe("session-1", "sub-1", "AAPL");
+
+        assertTrue(publisher.publish(stockId, "aapl", BigDecimal.valueOf(150)));
+
+        ArgumentCaptor<WebSocketController.StockPriceUpdateMessage> message =
+                ArgumentCaptor.forClass(WebSocketController.StockPriceUpdateMessage.class);
+        verify(messagingTemplate).convertAndSend(eq("/topic/stocks/AAPL"), message.capture());
+        assertEquals(stockId, message.getValue().getStockId());
+        assertEquals(BigDecimal.valueOf(150), message.getValue().getPrice());
+    }
+
+    // Test an unchanged price is not sent again, a changed one is
+    @Test
+    void testPublish_SuppressesDuplicateTicks() {
+        registry.subscribe("session-1", "sub-1", "AAPL");
+
+        assertTrue(publisher.publish(stockId, "AAPL", new BigDecimal("150.00")));
+        assertFalse(publisher.publish(stockId, "AAPL", new BigDecimal("150.0000")));
+        assertTrue(publisher.publish(stockId, "AAPL", new BigDecimal("150.01")));
+
+        verify(messagingTemplate, times(2)).convertAndSend(eq("/topic/stocks/AAPL"), (Object) any());
+    }
+
+    // Test nothing is built for a symbol nobody listens to, and a new listener gets the next tick
+    @Test
+    void testPublish_SkipsUnwatchedSymbols() {
+        registry.subscribe("session-1", "sub-1", "AAPL");
+        publisher.publish(stockId, "AAPL", BigDecimal.valueOf(150));
+        registry.disconnect("session-1");
+
+        assertFalse(publisher.publish(stockId, "AAPL", BigDecimal.valueOf(150)));
+        registry.subscribe("session-2", "sub-1", "AAPL");
+        assertTrue(publisher.publish(stockId, "AAPL", BigDecimal.valueOf(150)));
+
+        verify(messagingTemplate, times(2)).convertAndSend(eq("/topic/stocks/AAPL"), (Object) any());
+    }
+
+    // Test the registry counts listeners across sessions and subscriptions
+    @Test
+    void testRegistry_TracksListeners() {
+        registry.subscribe("session-1", "sub-1", "AAPL");
+        registry.subscribe("session-1", "sub-2", "MSFT");
+        registry.subscribe("session-2", "sub-1", "AAPL");
+        assertEquals(Set.of("AAPL", "MSFT"), registry.watchedSymbols());
+
+        registry.unsubscribe("session-1", "sub-2");
+        registry.disconnect("session-1");
+        assertEquals(Set.of("AAPL"), registry.watchedSymbols());
+
+        registry.unsubscribe("session-2", "sub-1");
+        assertTrue(registry.watchedSymbols().isEmpty());
+        assertNull(PriceSubscriptionRegistry.symbolOf("/topic/portfolio/123"));
+        assertEquals("TSLA", PriceSubscriptionRegistry.symbolOf("/topic/stocks/tsla"));
+    }
+}
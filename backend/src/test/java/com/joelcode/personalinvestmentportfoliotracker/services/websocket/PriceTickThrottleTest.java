@@ -0,0 +1,118 @@
+package com.joelcode.personalinvestmentportfoliotracker.services.websocket;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+// Testing the per-session price tick cap on the outbound channel
+public class PriceTickThrottleTest {
+
+    private final AtomicLong clock = new AtomicLong(10_000);
+    private PriceTickThrottle throttle;
+
+    @Mock
+    private MessageChannel channel;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        throttle = new PriceTickThrottle(new SimpleMeterRegistry(), 2, clock::get, 0);
+    }
+
+    // Test ticks beyond the cap are held back until the next second
+    @Test
+    void testPreSend_CapsTicksPerSessionPerSecond() {
+        assertNotNull(throttle.preSend(tick("session-1", "/topic/stocks/AAPL"), channel));
+        assertNotNull(throttle.preSend(tick("session-1", "/topic/stocks/MSFT"), channel));
+        assertNull(throttle.preSend(tick("session-1", "/topic/stocks/AAPL"), channel));
+
+        // Other sessions have their own allowance
+        assertNotNull(throttle.preSend(tick("session-2", "/topic/stocks/AAPL"), channel));
+
+        clock.addAndGet(1_000);
+        assertNotNull(throttle.preSend(tick("session-1", "/topic/stocks/AAPL"), channel));
+
+        // The newer AAPL tick got through, so the held one is stale and never sent
+        assertEquals(0, throttle.release());
+        verify(channel, never()).send(any());
+    }
+
+    // Test a burst over the cap followed by an unchanged refresh still delivers every symbol's price
+    @Test
+    void testRelease_DeliversThrottledTicksAfterUnchangedRefresh() {
+        SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+        PriceSubscriptionRegistry registry = new PriceSubscriptionRegistry();
+        PriceTickPublisher publisher = new PriceTickPublisher(messagingTemplate, registry, new SimpleMeterRegistry());
+        List<String> symbols = List.of("AAPL", "MSFT", "TSLA", "NVDA", "AMZN");
+        symbols.forEach(symbol -> registry.subscribe("session-1", "sub-" + symbol, symbol));
+
+        // The broker fans each published tick out to the session through the throttle
+        Set<String> delivered = new HashSet<>();
+        doAnswer(invocation -> {
+            Message<?> sent = throttle.preSend(tick("session-1", invocation.getArgument(0)), channel);
+            if (sent != null) {
+                delivered.add(SimpMessageHeaderAccessor.wrap(sent).getDestination());
+            }
+            return null;
+        }).when(messagingTemplate).convertAndSend(anyString(), (Object) any());
+        // Released ticks pass the channel's interceptors again, as the outbound channel does
+        doAnswer(invocation -> {
+            Message<?> sent = throttle.preSend(invocation.getArgument(0), channel);
+            if (sent != null) {
+                delivered.add(SimpMessageHeaderAccessor.wrap(sent).getDestination());
+            }
+            return true;
+        }).when(channel).send(any());
+
+        symbols.forEach(symbol -> publisher.publish(UUID.randomUUID(), symbol, BigDecimal.TEN));
+        assertEquals(2, delivered.size());
+
+        // Next refresh: prices unchanged, so the publisher sends nothing new
+        clock.addAndGet(1_000);
+        symbols.forEach(symbol -> assertFalse(publisher.publish(UUID.randomUUID(), symbol, BigDecimal.TEN)));
+
+        // Held ticks go out as windows open, within the cap each second
+        assertEquals(2, throttle.release());
+        assertEquals(0, throttle.release());
+        clock.addAndGet(1_000);
+        assertEquals(1, throttle.release());
+
+        assertEquals(symbols.stream().map(PriceSubscriptionRegistry::topicFor).collect(Collectors.toSet()), delivered);
+    }
+
+    // Test messages that are not price ticks are never throttled
+    @Test
+    void testPreSend_IgnoresOtherDestinations() {
+        for (int i = 0; i < 5; i++) {
+            assertNotNull(throttle.preSend(tick("session-1", "/topic/portfolio/abc"), channel));
+        }
+    }
+
+    private Message<byte[]> tick(String sessionId, String destination) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(sessionId);
+        headers.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders());
+    }
+}
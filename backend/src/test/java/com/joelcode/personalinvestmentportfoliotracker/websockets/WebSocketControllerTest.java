@@ -154,7 +154,7 @@ class WebSocketControllerTest {
         String destination = destinationCaptor.getValue();
         WebSocketController.StockPriceUpdateMessage message = messageCaptor.getValue();
 
-        assertEquals("/topic/stocks/prices", destination);
+        assertEquals("/topic/stocks/AAPL", destination);
         assertEquals(stockId, message.getStockId());
         assertEquals(stockCode, message.getStockCode());
         assertEquals(newPrice, message.getPrice());
@@ -174,7 +174,7 @@ class WebSocketControllerTest {
         ArgumentCaptor<String> destinationCaptor = ArgumentCaptor.forClass(String.class);
         verify(messagingTemplate).convertAndSend(destinationCaptor.capture(), (Object) any());
 
-        assertEquals("/topic/stocks/prices", destinationCaptor.getValue());
+        assertEquals("/topic/stocks/MSFT", destinationCaptor.getValue());
     }
 
     @Test
@@ -188,8 +188,12 @@ class WebSocketControllerTest {
         webSocketController.broadcastStockPriceUpdate(stock2, "GOOGL", BigDecimal.valueOf(2850.0));
 
         // Assert
-        verify(messagingTemplate, times(2)).convertAndSend(
-                eq("/topic/stocks/prices"),
+        verify(messagingTemplate, times(1)).convertAndSend(
+                eq("/topic/stocks/AAPL"),
+                any(WebSocketController.StockPriceUpdateMessage.class)
+        );
+        verify(messagingTemplate, times(1)).convertAndSend(
+                eq("/topic/stocks/GOOGL"),
                 any(WebSocketController.StockPriceUpdateMessage.class)
         );
     }